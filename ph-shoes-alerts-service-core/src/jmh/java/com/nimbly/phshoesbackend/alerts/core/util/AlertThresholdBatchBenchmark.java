@@ -0,0 +1,92 @@
+package com.nimbly.phshoesbackend.alerts.core.util;
+
+import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProductSnapshot;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator.FixedPrices;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One product's prices against a million alerts: one by one with {@code BigDecimal}s, one by one in
+ * fixed point, and as a columnar batch. Thresholds have at most two decimals, like real alerts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlertThresholdBatchBenchmark {
+
+    @Param({"1000000"})
+    private int alerts;
+
+    private List<Alert> batchAlerts;
+    private AlertThresholdBatch batch;
+    private AlertProductSnapshot snapshot;
+    private FixedPrices prices;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42L);
+        batchAlerts = new ArrayList<>(alerts);
+        for (int i = 0; i < alerts; i++) {
+            Alert alert = new Alert();
+            alert.setProductId("product-1");
+            alert.setUserId("user-" + i);
+            if (random.nextInt(3) != 0) alert.setDesiredPrice(BigDecimal.valueOf(random.nextInt(1_000_000), 2));
+            if (random.nextInt(3) != 0) alert.setDesiredPercent(BigDecimal.valueOf(random.nextInt(5_000), 2));
+            alert.setAlertIfSale(random.nextInt(10) == 0);
+            batchAlerts.add(alert);
+        }
+        batch = AlertThresholdBatch.of(batchAlerts);
+        snapshot = AlertProductSnapshot.builder()
+                .productId("product-1")
+                .priceSale(new BigDecimal("4499.00"))
+                .priceOriginal(new BigDecimal("5999.00"))
+                .build();
+        prices = AlertTriggerEvaluator.fixedPrices(snapshot);
+        // Compile every alert's thresholds up front so the per-alert fixed-point run measures evaluation only.
+        batchAlerts.forEach(AlertTriggerEvaluator::thresholds);
+    }
+
+    @Benchmark
+    public void perAlertBigDecimal(Blackhole blackhole) {
+        for (Alert alert : batchAlerts) {
+            blackhole.consume(AlertTriggerEvaluator.evaluate(alert, snapshot));
+        }
+    }
+
+    @Benchmark
+    public void perAlertFixedPoint(Blackhole blackhole) {
+        for (Alert alert : batchAlerts) {
+            blackhole.consume(AlertTriggerEvaluator.evaluate(alert, snapshot, prices));
+        }
+    }
+
+    @Benchmark
+    public long[] batchBitmap() {
+        return batch.fired(prices);
+    }
+
+    @Benchmark
+    public void batchTriggered(Blackhole blackhole) {
+        blackhole.consume(batch.triggered(snapshot, prices));
+    }
+}
@@ -1,6 +1,10 @@
 package com.nimbly.phshoesbackend.alerts.core.config;
 
 import com.nimbly.phshoesbackend.alerts.core.config.props.AppAwsProps;
+import com.nimbly.phshoesbackend.alerts.core.config.props.DynamoPacingProps;
+import com.nimbly.phshoesbackend.alerts.core.repository.dynamo.DynamoCapacityPacer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.util.StringUtils;
@@ -13,6 +17,7 @@ import software.amazon.awssdk.http.SdkHttpClient;
 import software.amazon.awssdk.http.apache.ApacheHttpClient;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.streams.DynamoDbStreamsClient;
 
 import java.io.File;
 import java.net.URI;
@@ -36,7 +41,13 @@ public class DynamoConfig {
     }
 
     @Bean
-    public DynamoDbClient dynamoDbClient(AwsCredentialsProvider credentialsProvider) {
+    @ConditionalOnProperty(prefix = "alerts.dynamo.pacing", name = "enabled", havingValue = "true")
+    public DynamoCapacityPacer dynamoCapacityPacer(DynamoPacingProps pacingProps) {
+        return new DynamoCapacityPacer(pacingProps);
+    }
+
+    @Bean
+    public DynamoDbClient dynamoDbClient(AwsCredentialsProvider credentialsProvider, ObjectProvider<DynamoCapacityPacer> pacer) {
         SdkHttpClient http = ApacheHttpClient.builder()
                 .maxConnections(50)
                 .connectionTimeout(Duration.ofSeconds(2))
@@ -52,6 +63,11 @@ public class DynamoConfig {
             builder = builder.endpointOverride(normalizeEndpoint(aws.getEndpoint()));
         }
 
+        DynamoCapacityPacer capacityPacer = pacer.getIfAvailable();
+        if (capacityPacer != null) {
+            builder = builder.overrideConfiguration(o -> o.addExecutionInterceptor(capacityPacer));
+        }
+
         var client = builder.build();
         System.out.println("[DDB] region=" + aws.getRegion() + " endpoint=" +
                 (StringUtils.hasText(aws.getEndpoint()) ? normalizeEndpoint(aws.getEndpoint()) : "(aws)"));
@@ -63,6 +79,24 @@ public class DynamoConfig {
         return DynamoDbEnhancedClient.builder().dynamoDbClient(low).build();
     }
 
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "alerts.scheduler.active-index", name = "enabled", havingValue = "true")
+    public DynamoDbStreamsClient dynamoDbStreamsClient(AwsCredentialsProvider credentialsProvider) {
+        // DynamoDB Local and LocalStack serve streams on the same endpoint as the tables.
+        var builder = DynamoDbStreamsClient.builder()
+                .httpClient(ApacheHttpClient.builder()
+                        .connectionTimeout(Duration.ofSeconds(2))
+                        .socketTimeout(Duration.ofSeconds(5))
+                        .build())
+                .credentialsProvider(credentialsProvider)
+                .region(Region.of(aws.getRegion()));
+
+        if (StringUtils.hasText(aws.getEndpoint())) {
+            builder = builder.endpointOverride(normalizeEndpoint(aws.getEndpoint()));
+        }
+        return builder.build();
+    }
+
     private static URI normalizeEndpoint(String raw) {
         if (!StringUtils.hasText(raw)) return null;
 
@@ -0,0 +1,61 @@
+package com.nimbly.phshoesbackend.alerts.core.config.props;
+
+import com.nimbly.phshoesbackend.alerts.core.model.dynamo.AlertArchiveAttrs;
+import com.nimbly.phshoesbackend.alerts.core.model.dynamo.AlertAttrs;
+import com.nimbly.phshoesbackend.alerts.core.model.dynamo.AlertProductAttrs;
+import com.nimbly.phshoesbackend.alerts.core.model.dynamo.AlertSearchAttrs;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "alerts.dynamo.pacing")
+public class DynamoPacingProps {
+    /**
+     * When true, reads and writes on the sync client against {@link #tables} are paced to the budget below.
+     * Meant for the scheduler, whose nightly run is the only bursty traffic on the tables.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Tables that are paced. The client is shared with tables this service does not provision, such as
+     * accounts and email suppressions, whose capacity is not ours to budget; their calls pass through.
+     */
+    private Set<String> tables = new HashSet<>(List.of(
+            AlertAttrs.TABLE, AlertProductAttrs.TABLE, AlertArchiveAttrs.TABLE, AlertSearchAttrs.TABLE));
+
+    /**
+     * Read capacity units per second allowed against each table, matching what the migrations provision.
+     */
+    private double readUnitsPerSecond = 1.0;
+
+    /**
+     * Write capacity units per second allowed against each table, matching what the migrations provision.
+     */
+    private double writeUnitsPerSecond = 1.0;
+
+    /**
+     * Seconds of unused budget that may be spent in one go.
+     */
+    private double burstSeconds = 5.0;
+
+    /**
+     * Multiplier applied to the allowed rate each time an attempt has to be retried.
+     */
+    private double backoffFactor = 0.5;
+
+    /**
+     * Share of the budget the allowed rate recovers by after each successful request.
+     */
+    private double recoveryFraction = 0.05;
+
+    /**
+     * Lowest allowed rate, as a share of the budget, that backing off can reach.
+     */
+    private double minRateFraction = 0.1;
+}
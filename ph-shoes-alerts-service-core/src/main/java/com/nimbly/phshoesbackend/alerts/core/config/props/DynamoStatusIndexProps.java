@@ -0,0 +1,27 @@
+package com.nimbly.phshoesbackend.alerts.core.config.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "alerts.dynamo.status-index")
+public class DynamoStatusIndexProps {
+    /**
+     * When true, per-product active-alert reads use the productShard/statusUser GSI with a
+     * {@code begins_with(ACTIVE#)} key condition instead of filtering the whole product partition.
+     * Turn on once migration 0.0.7 has backfilled productShard and the index is ACTIVE.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Active watchers at which the scheduler spreads a product over {@link #shards} index partitions.
+     */
+    private int shardThreshold = 1000;
+
+    /**
+     * Index partitions per hot product.
+     */
+    private int shards = 10;
+}
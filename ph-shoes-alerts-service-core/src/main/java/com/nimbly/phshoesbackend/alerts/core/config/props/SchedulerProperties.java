@@ -4,6 +4,8 @@ import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+
 @Getter
 @Setter
 @ConfigurationProperties(prefix = "alerts.scheduler")
@@ -23,6 +25,35 @@ public class SchedulerProperties {
      */
     private boolean dryRun = false;
 
+    /**
+     * When true, scrape rows whose product has no active alert are dropped before evaluation. The
+     * active index answers exactly when it is ready; otherwise a Bloom filter is built per run from
+     * one keys-only scan of the alerts.
+     */
+    private boolean watchFilter = false;
+
+    /**
+     * Distinct watched products the Bloom filter is sized for. Past it the filter still never drops a
+     * watched product, but lets more unwatched ones through.
+     */
+    private int watchFilterExpectedProducts = 100_000;
+
+    /**
+     * Share of unwatched products the Bloom filter lets through when sized right.
+     */
+    private double watchFilterFalsePositiveRate = 0.01;
+
+    /**
+     * When true, the day's deduped product snapshots are written to a memory-mapped file and read
+     * back per product, so the heap a run needs does not grow with the catalog.
+     */
+    private boolean offHeapSnapshots = false;
+
+    /**
+     * Where the snapshot file is written when {@code offHeapSnapshots} is on. It is deleted after the run.
+     */
+    private String snapshotDirectory = System.getProperty("java.io.tmpdir");
+
     /**
      * Optional shared-secret required for API access (header X-Scheduler-Key or query ?key=).
      * Blank disables the guard.
@@ -34,4 +65,60 @@ public class SchedulerProperties {
      * Optional: limit run to alerts owned by this email (exact match, normalized).
      */
     private String testEmail;
+
+    /**
+     * In-memory index of active alerts, kept current from the alerts table stream.
+     */
+    private ActiveIndex activeIndex = new ActiveIndex();
+
+    /**
+     * Moving long-triggered alerts out of the alerts table.
+     */
+    private Archive archive = new Archive();
+
+    @Getter
+    @Setter
+    public static class ActiveIndex {
+        /**
+         * When true, runs evaluate against the index instead of querying the table per product.
+         * Needs the stream enabled by migration 0.0.4.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Delay between stream polls.
+         */
+        private Duration pollInterval = Duration.ofSeconds(1);
+
+        /**
+         * How each product's alerts are held in memory.
+         */
+        private Layout layout = Layout.SORTED;
+    }
+
+    public enum Layout {
+        /**
+         * Alerts kept sorted by threshold; a run reads only the alerts that fire.
+         */
+        SORTED,
+
+        /**
+         * Primitive columns, an order of magnitude smaller; a run scans each product's columns.
+         */
+        COLUMNAR
+    }
+
+    @Getter
+    @Setter
+    public static class Archive {
+        /**
+         * Alerts still TRIGGERED this long after their last trigger are moved to the archive table.
+         */
+        private Duration triggeredAge = Duration.ofDays(30);
+
+        /**
+         * How long archived alerts are kept before the archive table's TTL removes them.
+         */
+        private Duration retention = Duration.ofDays(365);
+    }
 }
@@ -0,0 +1,20 @@
+package com.nimbly.phshoesbackend.alerts.core.exception;
+
+import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+
+/**
+ * A conditional write lost against a concurrent change. {@link #getCurrent()} carries the stored
+ * alert as DynamoDB returned it on the failed check, when available.
+ */
+public class AlertConflictException extends RuntimeException {
+    private final transient Alert current;
+
+    public AlertConflictException(String message, Alert current, Throwable cause) {
+        super(message, cause);
+        this.current = current;
+    }
+
+    public Alert getCurrent() {
+        return current;
+    }
+}
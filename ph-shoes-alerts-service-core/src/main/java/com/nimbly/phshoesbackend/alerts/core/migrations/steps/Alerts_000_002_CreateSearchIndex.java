@@ -0,0 +1,90 @@
+package com.nimbly.phshoesbackend.alerts.core.migrations.steps;
+
+import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+import com.nimbly.phshoesbackend.alerts.core.model.dynamo.AlertAttrs;
+import com.nimbly.phshoesbackend.alerts.core.model.dynamo.AlertSearchAttrs;
+import com.nimbly.phshoesbackend.alerts.core.repository.AlertSearchIndexRepository;
+import com.nimbly.phshoesbackend.commons.core.migrations.UpgradeContext;
+import com.nimbly.phshoesbackend.commons.core.migrations.UpgradeStep;
+import com.nimbly.phshoesbackend.commons.core.migrations.utility.TableCreator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BillingMode;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class Alerts_000_002_CreateSearchIndex implements UpgradeStep {
+
+    private static final BillingMode BILLING_MODE = BillingMode.PROVISIONED;
+    private static final long DEFAULT_RCU = 1L;
+    private static final long DEFAULT_WCU = 1L;
+
+    private final TableCreator tables;
+    private final DynamoDbClient dynamo;
+    private final AlertSearchIndexRepository searchIndex;
+
+    @Override public String service()     { return "alerts_service"; }
+    @Override public String fromVersion() { return "0.0.1"; }
+    @Override public String toVersion()   { return "0.0.2"; }
+    @Override public String description() { return "Create alert search index table and backfill it"; }
+
+    @Override
+    public void apply(UpgradeContext ctx) {
+        final ScalarAttributeType S = ScalarAttributeType.S;
+        final String alertsTable = ctx.tbl(AlertAttrs.TABLE);
+
+        tables.createTableIfNotExists(
+                ctx.tbl(AlertSearchAttrs.TABLE),
+                List.of(
+                        AttributeDefinition.builder().attributeName(AlertSearchAttrs.PK_USER_ID).attributeType(S).build(),
+                        AttributeDefinition.builder().attributeName(AlertSearchAttrs.SK_TERM).attributeType(S).build()
+                ),
+                List.of(
+                        KeySchemaElement.builder().attributeName(AlertSearchAttrs.PK_USER_ID).keyType(KeyType.HASH).build(),
+                        KeySchemaElement.builder().attributeName(AlertSearchAttrs.SK_TERM).keyType(KeyType.RANGE).build()
+                ),
+                BILLING_MODE, DEFAULT_RCU, DEFAULT_WCU
+        );
+
+        // Index writes only touch changed terms, so re-running the backfill is cheap and idempotent.
+        // Read raw attributes: the name and brand are not mapped on the Alert bean any more and are
+        // moved to the product table by the next step.
+        var scan = ScanRequest.builder()
+                .tableName(alertsTable)
+                .projectionExpression("#pk, #sk, #name, #brand")
+                .expressionAttributeNames(Map.of(
+                        "#pk", AlertAttrs.PK_PRODUCT_ID,
+                        "#sk", AlertAttrs.SK_USER_ID,
+                        "#name", AlertAttrs.PRODUCT_NAME,
+                        "#brand", AlertAttrs.PRODUCT_BRAND))
+                .build();
+        int indexed = 0;
+        for (Map<String, AttributeValue> item : dynamo.scanPaginator(scan).items()) {
+            Alert alert = new Alert();
+            alert.setProductId(stringAttr(item, AlertAttrs.PK_PRODUCT_ID));
+            alert.setUserId(stringAttr(item, AlertAttrs.SK_USER_ID));
+            alert.setProductName(stringAttr(item, AlertAttrs.PRODUCT_NAME));
+            alert.setProductBrand(stringAttr(item, AlertAttrs.PRODUCT_BRAND));
+            searchIndex.index(alert);
+            indexed++;
+        }
+        log.info("alert.migration search index backfilled alerts={}", indexed);
+    }
+
+    private static String stringAttr(Map<String, AttributeValue> item, String name) {
+        AttributeValue value = item.get(name);
+        return value == null ? null : value.s();
+    }
+}
@@ -0,0 +1,117 @@
+package com.nimbly.phshoesbackend.alerts.core.migrations.steps;
+
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProduct;
+import com.nimbly.phshoesbackend.alerts.core.model.dynamo.AlertAttrs;
+import com.nimbly.phshoesbackend.alerts.core.model.dynamo.AlertProductAttrs;
+import com.nimbly.phshoesbackend.alerts.core.repository.AlertProductRepository;
+import com.nimbly.phshoesbackend.commons.core.migrations.UpgradeContext;
+import com.nimbly.phshoesbackend.commons.core.migrations.UpgradeStep;
+import com.nimbly.phshoesbackend.commons.core.migrations.utility.TableCreator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BillingMode;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class Alerts_000_003_SplitProductTable implements UpgradeStep {
+
+    private static final BillingMode BILLING_MODE = BillingMode.PROVISIONED;
+    private static final long DEFAULT_RCU = 1L;
+    private static final long DEFAULT_WCU = 1L;
+
+    private static final TableSchema<AlertProduct> PRODUCT_SCHEMA = TableSchema.fromBean(AlertProduct.class);
+    private static final List<String> PRODUCT_ATTRS = List.of(
+            AlertAttrs.PRODUCT_NAME,
+            AlertAttrs.PRODUCT_BRAND,
+            AlertAttrs.PRODUCT_IMAGE,
+            AlertAttrs.PRODUCT_IMAGE_URL,
+            AlertAttrs.PRODUCT_URL,
+            AlertAttrs.PRODUCT_ORIGINAL_PRICE,
+            AlertAttrs.PRODUCT_CURRENT_PRICE);
+
+    private final TableCreator tables;
+    private final DynamoDbClient dynamo;
+    private final AlertProductRepository products;
+
+    @Override public String service()     { return "alerts_service"; }
+    @Override public String fromVersion() { return "0.0.2"; }
+    @Override public String toVersion()   { return "0.0.3"; }
+    @Override public String description() { return "Move product metadata from alert items to the alert_products table"; }
+
+    @Override
+    public void apply(UpgradeContext ctx) {
+        final String alertsTable = ctx.tbl(AlertAttrs.TABLE);
+
+        tables.createTableIfNotExists(
+                ctx.tbl(AlertProductAttrs.TABLE),
+                List.of(
+                        AttributeDefinition.builder().attributeName(AlertProductAttrs.PK_PRODUCT_ID).attributeType(ScalarAttributeType.S).build()
+                ),
+                List.of(
+                        KeySchemaElement.builder().attributeName(AlertProductAttrs.PK_PRODUCT_ID).keyType(KeyType.HASH).build()
+                ),
+                BILLING_MODE, DEFAULT_RCU, DEFAULT_WCU
+        );
+
+        // Copy first, strip second: a re-run after a partial failure still finds the remaining
+        // product attributes on the alert items. Upserts only set non-null fields, so watchers of
+        // the same product fill each other's gaps rather than overwrite them.
+        var names = new HashMap<String, String>();
+        names.put("#pk", AlertAttrs.PK_PRODUCT_ID);
+        names.put("#sk", AlertAttrs.SK_USER_ID);
+        var projection = new StringBuilder("#pk, #sk");
+        var removes = new StringBuilder();
+        for (int i = 0; i < PRODUCT_ATTRS.size(); i++) {
+            names.put("#p" + i, PRODUCT_ATTRS.get(i));
+            projection.append(", #p").append(i);
+            removes.append(i == 0 ? "REMOVE #p" : ", #p").append(i);
+        }
+
+        // DynamoDB rejects unused placeholders, and the update never references the sort key.
+        var updateNames = new HashMap<>(names);
+        updateNames.remove("#sk");
+
+        var scan = ScanRequest.builder()
+                .tableName(alertsTable)
+                .projectionExpression(projection.toString())
+                .expressionAttributeNames(names)
+                .build();
+        int moved = 0;
+        for (Map<String, AttributeValue> item : dynamo.scanPaginator(scan).items()) {
+            if (PRODUCT_ATTRS.stream().noneMatch(item::containsKey)) continue;
+
+            products.upsert(PRODUCT_SCHEMA.mapToItem(item));
+            try {
+                dynamo.updateItem(UpdateItemRequest.builder()
+                        .tableName(alertsTable)
+                        .key(Map.of(
+                                AlertAttrs.PK_PRODUCT_ID, item.get(AlertAttrs.PK_PRODUCT_ID),
+                                AlertAttrs.SK_USER_ID, item.get(AlertAttrs.SK_USER_ID)))
+                        .updateExpression(removes.toString())
+                        .conditionExpression("attribute_exists(#pk)")
+                        .expressionAttributeNames(updateNames)
+                        .build());
+            } catch (ConditionalCheckFailedException deleted) {
+                // Alert was deleted while the migration ran; nothing left to strip.
+            }
+            moved++;
+        }
+        log.info("alert.migration product metadata moved alerts={}", moved);
+    }
+}
@@ -0,0 +1,47 @@
+package com.nimbly.phshoesbackend.alerts.core.migrations.steps;
+
+import com.nimbly.phshoesbackend.alerts.core.model.dynamo.AlertAttrs;
+import com.nimbly.phshoesbackend.commons.core.migrations.UpgradeContext;
+import com.nimbly.phshoesbackend.commons.core.migrations.UpgradeStep;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.StreamSpecification;
+import software.amazon.awssdk.services.dynamodb.model.StreamViewType;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class Alerts_000_004_EnableAlertsStream implements UpgradeStep {
+
+    private final DynamoDbClient dynamo;
+
+    @Override public String service()     { return "alerts_service"; }
+    @Override public String fromVersion() { return "0.0.3"; }
+    @Override public String toVersion()   { return "0.0.4"; }
+    @Override public String description() { return "Enable a NEW_IMAGE stream on the alerts table"; }
+
+    @Override
+    public void apply(UpgradeContext ctx) {
+        final String table = ctx.tbl(AlertAttrs.TABLE);
+
+        StreamSpecification current = dynamo.describeTable(r -> r.tableName(table)).table().streamSpecification();
+        if (current != null && Boolean.TRUE.equals(current.streamEnabled())) {
+            // The active-alert index needs the item after each change; a keys-only stream cannot be upgraded in place.
+            StreamViewType view = current.streamViewType();
+            if (view != StreamViewType.NEW_IMAGE && view != StreamViewType.NEW_AND_OLD_IMAGES) {
+                throw new IllegalStateException("Alerts table stream has view type " + view + "; NEW_IMAGE is required");
+            }
+            log.info("alert.migration stream already enabled table={} view={}", table, view);
+            return;
+        }
+
+        dynamo.updateTable(r -> r.tableName(table)
+                .streamSpecification(StreamSpecification.builder()
+                        .streamEnabled(true)
+                        .streamViewType(StreamViewType.NEW_IMAGE)
+                        .build()));
+        log.info("alert.migration stream enabled table={}", table);
+    }
+}
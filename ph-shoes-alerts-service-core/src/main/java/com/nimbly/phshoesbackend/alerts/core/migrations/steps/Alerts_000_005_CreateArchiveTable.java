@@ -0,0 +1,69 @@
+package com.nimbly.phshoesbackend.alerts.core.migrations.steps;
+
+import com.nimbly.phshoesbackend.alerts.core.model.dynamo.AlertArchiveAttrs;
+import com.nimbly.phshoesbackend.commons.core.migrations.UpgradeContext;
+import com.nimbly.phshoesbackend.commons.core.migrations.UpgradeStep;
+import com.nimbly.phshoesbackend.commons.core.migrations.utility.TableCreator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
+import software.amazon.awssdk.services.dynamodb.model.BillingMode;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
+import software.amazon.awssdk.services.dynamodb.model.TimeToLiveDescription;
+import software.amazon.awssdk.services.dynamodb.model.TimeToLiveSpecification;
+import software.amazon.awssdk.services.dynamodb.model.TimeToLiveStatus;
+
+import java.util.List;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class Alerts_000_005_CreateArchiveTable implements UpgradeStep {
+
+    private static final BillingMode BILLING_MODE = BillingMode.PROVISIONED;
+    private static final long DEFAULT_RCU = 1L;
+    private static final long DEFAULT_WCU = 1L;
+
+    private final TableCreator tables;
+    private final DynamoDbClient dynamo;
+
+    @Override public String service()     { return "alerts_service"; }
+    @Override public String fromVersion() { return "0.0.4"; }
+    @Override public String toVersion()   { return "0.0.5"; }
+    @Override public String description() { return "Create the alerts_archive table with TTL on expiresAt"; }
+
+    @Override
+    public void apply(UpgradeContext ctx) {
+        final String table = ctx.tbl(AlertArchiveAttrs.TABLE);
+        tables.createTableIfNotExists(
+                table,
+                List.of(
+                        AttributeDefinition.builder().attributeName(AlertArchiveAttrs.PK_USER_ID).attributeType(ScalarAttributeType.S).build(),
+                        AttributeDefinition.builder().attributeName(AlertArchiveAttrs.SK_PRODUCT_ID).attributeType(ScalarAttributeType.S).build()
+                ),
+                List.of(
+                        KeySchemaElement.builder().attributeName(AlertArchiveAttrs.PK_USER_ID).keyType(KeyType.HASH).build(),
+                        KeySchemaElement.builder().attributeName(AlertArchiveAttrs.SK_PRODUCT_ID).keyType(KeyType.RANGE).build()
+                ),
+                BILLING_MODE, DEFAULT_RCU, DEFAULT_WCU
+        );
+
+        // Enabling TTL twice is a validation error, so only ask when it is off.
+        TimeToLiveDescription ttl = dynamo.describeTimeToLive(r -> r.tableName(table)).timeToLiveDescription();
+        TimeToLiveStatus status = ttl == null ? null : ttl.timeToLiveStatus();
+        if (status == TimeToLiveStatus.ENABLED || status == TimeToLiveStatus.ENABLING) {
+            log.info("alert.migration archive ttl already {} table={} attribute={}", status, table, ttl.attributeName());
+            return;
+        }
+        dynamo.updateTimeToLive(r -> r.tableName(table)
+                .timeToLiveSpecification(TimeToLiveSpecification.builder()
+                        .attributeName(AlertArchiveAttrs.EXPIRES_AT)
+                        .enabled(true)
+                        .build()));
+        log.info("alert.migration archive ttl enabled table={} attribute={}", table, AlertArchiveAttrs.EXPIRES_AT);
+    }
+}
@@ -0,0 +1,131 @@
+package com.nimbly.phshoesbackend.alerts.core.migrations.steps;
+
+import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProjection;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertStatus;
+import com.nimbly.phshoesbackend.alerts.core.model.dynamo.AlertAttrs;
+import com.nimbly.phshoesbackend.commons.core.migrations.UpgradeContext;
+import com.nimbly.phshoesbackend.commons.core.migrations.UpgradeStep;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.CreateGlobalSecondaryIndexAction;
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndexDescription;
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndexUpdate;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.Projection;
+import software.amazon.awssdk.services.dynamodb.model.ProjectionType;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughput;
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class Alerts_000_006_AddProductStatusIndex implements UpgradeStep {
+
+    private static final long DEFAULT_RCU = 1L;
+    private static final long DEFAULT_WCU = 1L;
+
+    private final DynamoDbClient dynamo;
+
+    @Override public String service()     { return "alerts_service"; }
+    @Override public String fromVersion() { return "0.0.5"; }
+    @Override public String toVersion()   { return "0.0.6"; }
+    @Override public String description() { return "Add the productId/statusUser index and backfill statusUser"; }
+
+    @Override
+    public void apply(UpgradeContext ctx) {
+        final String table = ctx.tbl(AlertAttrs.TABLE);
+        createIndexIfMissing(table);
+
+        // Items written by the new code already carry statusUser. The condition stops a stale
+        // key from overwriting one that a concurrent status change has just set.
+        var scan = ScanRequest.builder()
+                .tableName(table)
+                .projectionExpression("#pk, #sk, #s, #su")
+                .expressionAttributeNames(Map.of(
+                        "#pk", AlertAttrs.PK_PRODUCT_ID,
+                        "#sk", AlertAttrs.SK_USER_ID,
+                        "#s", AlertAttrs.STATUS,
+                        "#su", AlertAttrs.STATUS_USER))
+                .build();
+        int backfilled = 0;
+        for (Map<String, AttributeValue> item : dynamo.scanPaginator(scan).items()) {
+            AttributeValue status = item.get(AlertAttrs.STATUS);
+            if (status == null || status.s() == null) continue;
+            String expected = Alert.statusUserKey(AlertStatus.valueOf(status.s()), item.get(AlertAttrs.SK_USER_ID).s());
+            AttributeValue current = item.get(AlertAttrs.STATUS_USER);
+            if (current != null && expected.equals(current.s())) continue;
+
+            try {
+                dynamo.updateItem(UpdateItemRequest.builder()
+                        .tableName(table)
+                        .key(Map.of(
+                                AlertAttrs.PK_PRODUCT_ID, item.get(AlertAttrs.PK_PRODUCT_ID),
+                                AlertAttrs.SK_USER_ID, item.get(AlertAttrs.SK_USER_ID)))
+                        .updateExpression("SET #su = :key")
+                        .conditionExpression("#s = :status")
+                        .expressionAttributeNames(Map.of(
+                                "#s", AlertAttrs.STATUS,
+                                "#su", AlertAttrs.STATUS_USER))
+                        .expressionAttributeValues(Map.of(
+                                ":key", AttributeValue.fromS(expected),
+                                ":status", status))
+                        .build());
+                backfilled++;
+            } catch (ConditionalCheckFailedException changed) {
+                // Status changed or the alert was deleted while the migration ran; that write set the key.
+            }
+        }
+        log.info("alert.migration statusUser backfilled alerts={}", backfilled);
+    }
+
+    private void createIndexIfMissing(String table) {
+        List<GlobalSecondaryIndexDescription> existing = dynamo.describeTable(r -> r.tableName(table))
+                .table()
+                .globalSecondaryIndexes();
+        if (existing.stream().anyMatch(gsi -> AlertAttrs.GSI_PRODUCT_STATUS.equals(gsi.indexName()))) {
+            log.info("alert.migration index already exists table={} index={}", table, AlertAttrs.GSI_PRODUCT_STATUS);
+            GlobalIndexes.awaitActive(dynamo, table, AlertAttrs.GSI_PRODUCT_STATUS);
+            return;
+        }
+
+        // Project only what the scheduler evaluates; the table and index keys come along anyway.
+        var nonKey = new ArrayList<>(AlertProjection.EVALUATION.attributes());
+        nonKey.removeAll(List.of(AlertAttrs.PK_PRODUCT_ID, AlertAttrs.SK_USER_ID));
+
+        dynamo.updateTable(r -> r.tableName(table)
+                .attributeDefinitions(
+                        AttributeDefinition.builder().attributeName(AlertAttrs.PK_PRODUCT_ID).attributeType(ScalarAttributeType.S).build(),
+                        AttributeDefinition.builder().attributeName(AlertAttrs.STATUS_USER).attributeType(ScalarAttributeType.S).build())
+                .globalSecondaryIndexUpdates(GlobalSecondaryIndexUpdate.builder()
+                        .create(CreateGlobalSecondaryIndexAction.builder()
+                                .indexName(AlertAttrs.GSI_PRODUCT_STATUS)
+                                .keySchema(
+                                        KeySchemaElement.builder().attributeName(AlertAttrs.PK_PRODUCT_ID).keyType(KeyType.HASH).build(),
+                                        KeySchemaElement.builder().attributeName(AlertAttrs.STATUS_USER).keyType(KeyType.RANGE).build())
+                                .projection(Projection.builder()
+                                        .projectionType(ProjectionType.INCLUDE)
+                                        .nonKeyAttributes(nonKey)
+                                        .build())
+                                .provisionedThroughput(ProvisionedThroughput.builder()
+                                        .readCapacityUnits(DEFAULT_RCU)
+                                        .writeCapacityUnits(DEFAULT_WCU)
+                                        .build())
+                                .build())
+                        .build()));
+        GlobalIndexes.awaitActive(dynamo, table, AlertAttrs.GSI_PRODUCT_STATUS);
+        log.info("alert.migration index created table={} index={}", table, AlertAttrs.GSI_PRODUCT_STATUS);
+    }
+}
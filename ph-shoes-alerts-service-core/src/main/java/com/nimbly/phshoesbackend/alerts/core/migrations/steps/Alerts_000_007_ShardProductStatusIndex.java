@@ -0,0 +1,142 @@
+package com.nimbly.phshoesbackend.alerts.core.migrations.steps;
+
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProjection;
+import com.nimbly.phshoesbackend.alerts.core.model.dynamo.AlertAttrs;
+import com.nimbly.phshoesbackend.commons.core.migrations.UpgradeContext;
+import com.nimbly.phshoesbackend.commons.core.migrations.UpgradeStep;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.CreateGlobalSecondaryIndexAction;
+import software.amazon.awssdk.services.dynamodb.model.DeleteGlobalSecondaryIndexAction;
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndexDescription;
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndexUpdate;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.Projection;
+import software.amazon.awssdk.services.dynamodb.model.ProjectionType;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughput;
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class Alerts_000_007_ShardProductStatusIndex implements UpgradeStep {
+
+    private static final long DEFAULT_RCU = 1L;
+    private static final long DEFAULT_WCU = 1L;
+
+    private final DynamoDbClient dynamo;
+
+    @Override public String service()     { return "alerts_service"; }
+    @Override public String fromVersion() { return "0.0.6"; }
+    @Override public String toVersion()   { return "0.0.7"; }
+    @Override public String description() { return "Replace the productId/statusUser index with productShard/statusUser"; }
+
+    @Override
+    public void apply(UpgradeContext ctx) {
+        final String table = ctx.tbl(AlertAttrs.TABLE);
+        createIndexIfMissing(table);
+
+        // Every existing alert starts in shard 0, whose key is the bare product id. The scheduler
+        // spreads hot products out later. Items the new code has written already carry the key.
+        var scan = ScanRequest.builder()
+                .tableName(table)
+                .projectionExpression("#pk, #sk")
+                .filterExpression("attribute_not_exists(#ps)")
+                .expressionAttributeNames(Map.of(
+                        "#pk", AlertAttrs.PK_PRODUCT_ID,
+                        "#sk", AlertAttrs.SK_USER_ID,
+                        "#ps", AlertAttrs.PRODUCT_SHARD))
+                .build();
+        int backfilled = 0;
+        for (Map<String, AttributeValue> item : dynamo.scanPaginator(scan).items()) {
+            try {
+                dynamo.updateItem(UpdateItemRequest.builder()
+                        .tableName(table)
+                        .key(Map.of(
+                                AlertAttrs.PK_PRODUCT_ID, item.get(AlertAttrs.PK_PRODUCT_ID),
+                                AlertAttrs.SK_USER_ID, item.get(AlertAttrs.SK_USER_ID)))
+                        .updateExpression("SET #ps = :ps")
+                        .conditionExpression("attribute_exists(#pk) AND attribute_not_exists(#ps)")
+                        .expressionAttributeNames(Map.of(
+                                "#pk", AlertAttrs.PK_PRODUCT_ID,
+                                "#ps", AlertAttrs.PRODUCT_SHARD))
+                        .expressionAttributeValues(Map.of(":ps", item.get(AlertAttrs.PK_PRODUCT_ID)))
+                        .build());
+                backfilled++;
+            } catch (ConditionalCheckFailedException changed) {
+                // Deleted, or written by the new code, while the migration ran.
+            }
+        }
+        log.info("alert.migration productShard backfilled alerts={}", backfilled);
+
+        // Nothing reads the 0.0.6 index any more, and it costs a write on every status change.
+        dropIndexIfPresent(table, AlertAttrs.GSI_PRODUCT_STATUS);
+    }
+
+    private void dropIndexIfPresent(String table, String index) {
+        List<GlobalSecondaryIndexDescription> existing = dynamo.describeTable(r -> r.tableName(table))
+                .table()
+                .globalSecondaryIndexes();
+        if (existing.stream().noneMatch(gsi -> index.equals(gsi.indexName()))) {
+            log.info("alert.migration index already dropped table={} index={}", table, index);
+            return;
+        }
+
+        dynamo.updateTable(r -> r.tableName(table)
+                .globalSecondaryIndexUpdates(GlobalSecondaryIndexUpdate.builder()
+                        .delete(DeleteGlobalSecondaryIndexAction.builder().indexName(index).build())
+                        .build()));
+        GlobalIndexes.awaitDeleted(dynamo, table, index);
+        log.info("alert.migration index dropped table={} index={}", table, index);
+    }
+
+    private void createIndexIfMissing(String table) {
+        List<GlobalSecondaryIndexDescription> existing = dynamo.describeTable(r -> r.tableName(table))
+                .table()
+                .globalSecondaryIndexes();
+        if (existing.stream().anyMatch(gsi -> AlertAttrs.GSI_PRODUCT_SHARD_STATUS.equals(gsi.indexName()))) {
+            log.info("alert.migration index already exists table={} index={}", table, AlertAttrs.GSI_PRODUCT_SHARD_STATUS);
+            GlobalIndexes.awaitActive(dynamo, table, AlertAttrs.GSI_PRODUCT_SHARD_STATUS);
+            return;
+        }
+
+        // Same projection as the 0.0.6 index, which this one replaces.
+        var nonKey = new ArrayList<>(AlertProjection.EVALUATION.attributes());
+        nonKey.removeAll(List.of(AlertAttrs.PK_PRODUCT_ID, AlertAttrs.SK_USER_ID));
+
+        dynamo.updateTable(r -> r.tableName(table)
+                .attributeDefinitions(
+                        AttributeDefinition.builder().attributeName(AlertAttrs.PRODUCT_SHARD).attributeType(ScalarAttributeType.S).build(),
+                        AttributeDefinition.builder().attributeName(AlertAttrs.STATUS_USER).attributeType(ScalarAttributeType.S).build())
+                .globalSecondaryIndexUpdates(GlobalSecondaryIndexUpdate.builder()
+                        .create(CreateGlobalSecondaryIndexAction.builder()
+                                .indexName(AlertAttrs.GSI_PRODUCT_SHARD_STATUS)
+                                .keySchema(
+                                        KeySchemaElement.builder().attributeName(AlertAttrs.PRODUCT_SHARD).keyType(KeyType.HASH).build(),
+                                        KeySchemaElement.builder().attributeName(AlertAttrs.STATUS_USER).keyType(KeyType.RANGE).build())
+                                .projection(Projection.builder()
+                                        .projectionType(ProjectionType.INCLUDE)
+                                        .nonKeyAttributes(nonKey)
+                                        .build())
+                                .provisionedThroughput(ProvisionedThroughput.builder()
+                                        .readCapacityUnits(DEFAULT_RCU)
+                                        .writeCapacityUnits(DEFAULT_WCU)
+                                        .build())
+                                .build())
+                        .build()));
+        GlobalIndexes.awaitActive(dynamo, table, AlertAttrs.GSI_PRODUCT_SHARD_STATUS);
+        log.info("alert.migration index created table={} index={}", table, AlertAttrs.GSI_PRODUCT_SHARD_STATUS);
+    }
+}
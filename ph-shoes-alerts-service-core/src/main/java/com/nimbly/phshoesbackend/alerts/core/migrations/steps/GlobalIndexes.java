@@ -0,0 +1,59 @@
+package com.nimbly.phshoesbackend.alerts.core.migrations.steps;
+
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndexDescription;
+import software.amazon.awssdk.services.dynamodb.model.IndexStatus;
+import software.amazon.awssdk.services.dynamodb.model.TableDescription;
+import software.amazon.awssdk.services.dynamodb.model.TableStatus;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Waits for global index changes to finish. A table takes one index change at a time, and an index
+ * serves reads only once it is ACTIVE, so each step waits before it returns.
+ */
+@Slf4j
+final class GlobalIndexes {
+
+    private static final Duration POLL_INTERVAL = Duration.ofSeconds(5);
+    private static final Duration TIMEOUT = Duration.ofHours(2);
+
+    private GlobalIndexes() {}
+
+    static void awaitActive(DynamoDbClient dynamo, String table, String index) {
+        await(dynamo, table, index, description -> find(description, index)
+                .map(gsi -> gsi.indexStatus() == IndexStatus.ACTIVE && !Boolean.TRUE.equals(gsi.backfilling()))
+                .orElseThrow(() -> new IllegalStateException("Index " + index + " not found on " + table)));
+    }
+
+    static void awaitDeleted(DynamoDbClient dynamo, String table, String index) {
+        await(dynamo, table, index, description -> find(description, index).isEmpty());
+    }
+
+    private static void await(DynamoDbClient dynamo, String table, String index, Predicate<TableDescription> done) {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (true) {
+            TableDescription description = dynamo.describeTable(r -> r.tableName(table)).table();
+            if (description.tableStatus() == TableStatus.ACTIVE && done.test(description)) return;
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Index " + index + " on " + table + " still updating after " + TIMEOUT);
+            }
+            log.info("alert.migration waiting for index table={} index={}", table, index);
+            try {
+                Thread.sleep(POLL_INTERVAL);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for index " + index, ex);
+            }
+        }
+    }
+
+    private static Optional<GlobalSecondaryIndexDescription> find(TableDescription description, String index) {
+        return description.globalSecondaryIndexes().stream()
+                .filter(gsi -> index.equals(gsi.indexName()))
+                .findFirst();
+    }
+}
@@ -7,8 +7,10 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbIgnore;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondaryPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondarySortKey;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
 
 import java.math.BigDecimal;
@@ -59,44 +61,46 @@ public class Alert {
     @Setter
     private List<String> channels;
 
+    // Product metadata lives in the product table (AlertProduct) and is joined on read.
+
     @Getter(onMethod_ = {
-            @DynamoDbAttribute(AlertAttrs.PRODUCT_NAME)
+            @DynamoDbIgnore
     })
     @Setter
     private String productName;
 
     @Getter(onMethod_ = {
-            @DynamoDbAttribute(AlertAttrs.PRODUCT_BRAND)
+            @DynamoDbIgnore
     })
     @Setter
     private String productBrand;
 
     @Getter(onMethod_ = {
-            @DynamoDbAttribute(AlertAttrs.PRODUCT_IMAGE)
+            @DynamoDbIgnore
     })
     @Setter
     private String productImage;
 
     @Getter(onMethod_ = {
-            @DynamoDbAttribute(AlertAttrs.PRODUCT_IMAGE_URL)
+            @DynamoDbIgnore
     })
     @Setter
     private String productImageUrl;
 
     @Getter(onMethod_ = {
-            @DynamoDbAttribute(AlertAttrs.PRODUCT_URL)
+            @DynamoDbIgnore
     })
     @Setter
     private String productUrl;
 
     @Getter(onMethod_ = {
-            @DynamoDbAttribute(AlertAttrs.PRODUCT_ORIGINAL_PRICE)
+            @DynamoDbIgnore
     })
     @Setter
     private BigDecimal productOriginalPrice;
 
     @Getter(onMethod_ = {
-            @DynamoDbAttribute(AlertAttrs.PRODUCT_CURRENT_PRICE)
+            @DynamoDbIgnore
     })
     @Setter
     private BigDecimal productCurrentPrice;
@@ -124,4 +128,49 @@ public class Alert {
     })
     @Setter
     private Instant updatedAt;
+
+    /** Incremented by every write; items written before versioning read as {@code null}. */
+    @Getter(onMethod_ = {
+            @DynamoDbAttribute(AlertAttrs.VERSION)
+    })
+    @Setter
+    private Long version;
+
+    @Setter
+    private String productShard;
+
+    /** Fixed-point form of the thresholds, compiled on first evaluation; never stored. */
+    @Getter(onMethod_ = {
+            @DynamoDbIgnore
+    })
+    @Setter
+    private transient AlertThresholds thresholds;
+
+    /**
+     * Partition key of {@link AlertAttrs#GSI_PRODUCT_SHARD_STATUS}. Falls back to the product id, which is
+     * shard 0, so a write never drops the alert out of the index.
+     */
+    @DynamoDbSecondaryPartitionKey(indexNames = AlertAttrs.GSI_PRODUCT_SHARD_STATUS)
+    @DynamoDbAttribute(AlertAttrs.PRODUCT_SHARD)
+    public String getProductShard() {
+        return productShard != null ? productShard : productId;
+    }
+
+    /**
+     * Sort key of the status indexes, derived from status and user so every full
+     * write keeps it in step. Partial updates set it explicitly.
+     */
+    @DynamoDbSecondarySortKey(indexNames = AlertAttrs.GSI_PRODUCT_SHARD_STATUS)
+    @DynamoDbAttribute(AlertAttrs.STATUS_USER)
+    public String getStatusUser() {
+        return statusUserKey(status, userId);
+    }
+
+    /** Derived from status and user; the stored value is ignored on read. */
+    public void setStatusUser(String statusUser) {
+    }
+
+    public static String statusUserKey(AlertStatus status, String userId) {
+        return status == null || userId == null ? null : status.name() + "#" + userId;
+    }
 }
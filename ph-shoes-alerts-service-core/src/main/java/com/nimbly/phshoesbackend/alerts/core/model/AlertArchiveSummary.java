@@ -0,0 +1,10 @@
+package com.nimbly.phshoesbackend.alerts.core.model;
+
+import java.time.Instant;
+
+/**
+ * Outcome of one archive pass: alerts moved, and alerts skipped because they were re-armed or
+ * re-triggered after they were read.
+ */
+public record AlertArchiveSummary(Instant cutoff, int archived, int skipped) {
+}
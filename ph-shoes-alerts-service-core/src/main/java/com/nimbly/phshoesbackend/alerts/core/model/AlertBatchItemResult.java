@@ -0,0 +1,25 @@
+package com.nimbly.phshoesbackend.alerts.core.model;
+
+/**
+ * Outcome for one entry of a bulk request, reported in request order. {@code alert} is set for
+ * {@link Outcome#CREATED} and {@link Outcome#FOUND}; {@code message} explains rejected entries.
+ */
+public record AlertBatchItemResult(String productId, Outcome outcome, Alert alert, String message) {
+
+    public enum Outcome {
+        CREATED,
+        DELETED,
+        FOUND,
+        NOT_FOUND,
+        DUPLICATE,
+        INVALID
+    }
+
+    public static AlertBatchItemResult of(String productId, Outcome outcome, Alert alert) {
+        return new AlertBatchItemResult(productId, outcome, alert, null);
+    }
+
+    public static AlertBatchItemResult rejected(String productId, Outcome outcome, String message) {
+        return new AlertBatchItemResult(productId, outcome, null, message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.nimbly.phshoesbackend.alerts.core.model;
+
+import java.util.List;
+
+/**
+ * One page of alerts plus the opaque cursor for the next page ({@code null} on the last page).
+ */
+public record AlertPage(List<Alert> items, String nextCursor) {
+}
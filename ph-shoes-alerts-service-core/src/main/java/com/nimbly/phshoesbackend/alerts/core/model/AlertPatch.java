@@ -0,0 +1,65 @@
+package com.nimbly.phshoesbackend.alerts.core.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Field-level change to one alert. {@code null} fields are left untouched; {@code expectedVersion}
+ * makes the write conditional on the stored version.
+ */
+@Value
+@Builder
+public class AlertPatch {
+    String productId;
+    String userId;
+    Long expectedVersion;
+
+    BigDecimal desiredPrice;
+    BigDecimal desiredPercent;
+    Boolean alertIfSale;
+    List<String> channels;
+    String productName;
+    String productBrand;
+    String productImage;
+    String productImageUrl;
+    String productUrl;
+    BigDecimal productOriginalPrice;
+    BigDecimal productCurrentPrice;
+
+    /** Moves the alert back to {@link AlertStatus#ACTIVE} and clears {@code lastTriggeredAt}. */
+    boolean resetStatus;
+    Instant updatedAt;
+
+    /** Whether the patch carries product metadata, which is written to the shared product row. */
+    public boolean touchesProduct() {
+        return productName != null || productBrand != null || productImage != null || productImageUrl != null
+                || productUrl != null || productOriginalPrice != null || productCurrentPrice != null;
+    }
+
+    /**
+     * Copies the patched fields onto {@code target} and returns it.
+     */
+    public Alert applyTo(Alert target) {
+        if (desiredPrice != null) target.setDesiredPrice(desiredPrice);
+        if (desiredPercent != null) target.setDesiredPercent(desiredPercent);
+        if (alertIfSale != null) target.setAlertIfSale(alertIfSale);
+        if (channels != null) target.setChannels(channels);
+        if (productName != null) target.setProductName(productName);
+        if (productBrand != null) target.setProductBrand(productBrand);
+        if (productImage != null) target.setProductImage(productImage);
+        if (productImageUrl != null) target.setProductImageUrl(productImageUrl);
+        if (productUrl != null) target.setProductUrl(productUrl);
+        if (productOriginalPrice != null) target.setProductOriginalPrice(productOriginalPrice);
+        if (productCurrentPrice != null) target.setProductCurrentPrice(productCurrentPrice);
+        if (resetStatus) {
+            target.setStatus(AlertStatus.ACTIVE);
+            target.setLastTriggeredAt(null);
+        }
+        if (updatedAt != null) target.setUpdatedAt(updatedAt);
+        return target;
+    }
+}
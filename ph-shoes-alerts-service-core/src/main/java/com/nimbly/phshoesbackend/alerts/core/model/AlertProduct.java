@@ -0,0 +1,165 @@
+package com.nimbly.phshoesbackend.alerts.core.model;
+
+import com.nimbly.phshoesbackend.alerts.core.model.dynamo.AlertProductAttrs;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Product metadata shared by every alert on the same product. Alert items only hold thresholds
+ * and status; reads join this back onto {@link Alert}.
+ */
+@Data
+@NoArgsConstructor
+@DynamoDbBean
+public class AlertProduct {
+
+    @Getter(onMethod_ = {
+            @DynamoDbPartitionKey,
+            @DynamoDbAttribute(AlertProductAttrs.PK_PRODUCT_ID)
+    })
+    @Setter
+    private String productId;
+
+    @Getter(onMethod_ = {
+            @DynamoDbAttribute(AlertProductAttrs.PRODUCT_NAME)
+    })
+    @Setter
+    private String productName;
+
+    @Getter(onMethod_ = {
+            @DynamoDbAttribute(AlertProductAttrs.PRODUCT_BRAND)
+    })
+    @Setter
+    private String productBrand;
+
+    @Getter(onMethod_ = {
+            @DynamoDbAttribute(AlertProductAttrs.PRODUCT_IMAGE)
+    })
+    @Setter
+    private String productImage;
+
+    @Getter(onMethod_ = {
+            @DynamoDbAttribute(AlertProductAttrs.PRODUCT_IMAGE_URL)
+    })
+    @Setter
+    private String productImageUrl;
+
+    @Getter(onMethod_ = {
+            @DynamoDbAttribute(AlertProductAttrs.PRODUCT_URL)
+    })
+    @Setter
+    private String productUrl;
+
+    @Getter(onMethod_ = {
+            @DynamoDbAttribute(AlertProductAttrs.PRODUCT_ORIGINAL_PRICE)
+    })
+    @Setter
+    private BigDecimal productOriginalPrice;
+
+    @Getter(onMethod_ = {
+            @DynamoDbAttribute(AlertProductAttrs.PRODUCT_CURRENT_PRICE)
+    })
+    @Setter
+    private BigDecimal productCurrentPrice;
+
+    @Getter(onMethod_ = {
+            @DynamoDbAttribute(AlertProductAttrs.UPDATED_AT)
+    })
+    @Setter
+    private Instant updatedAt;
+
+    @Getter(onMethod_ = {
+            @DynamoDbAttribute(AlertProductAttrs.WATCHER_SHARDS)
+    })
+    @Setter
+    private Integer watcherShards;
+
+    public static AlertProduct from(Alert alert) {
+        AlertProduct product = new AlertProduct();
+        product.setProductId(alert.getProductId());
+        product.setProductName(alert.getProductName());
+        product.setProductBrand(alert.getProductBrand());
+        product.setProductImage(alert.getProductImage());
+        product.setProductImageUrl(alert.getProductImageUrl());
+        product.setProductUrl(alert.getProductUrl());
+        product.setProductOriginalPrice(alert.getProductOriginalPrice());
+        product.setProductCurrentPrice(alert.getProductCurrentPrice());
+        return product;
+    }
+
+    public static AlertProduct from(AlertPatch patch) {
+        AlertProduct product = new AlertProduct();
+        product.setProductId(patch.getProductId());
+        product.setProductName(patch.getProductName());
+        product.setProductBrand(patch.getProductBrand());
+        product.setProductImage(patch.getProductImage());
+        product.setProductImageUrl(patch.getProductImageUrl());
+        product.setProductUrl(patch.getProductUrl());
+        product.setProductOriginalPrice(patch.getProductOriginalPrice());
+        product.setProductCurrentPrice(patch.getProductCurrentPrice());
+        return product;
+    }
+
+    public static AlertProduct from(AlertProductSnapshot snapshot) {
+        AlertProduct product = new AlertProduct();
+        product.setProductId(snapshot.getProductId());
+        product.setProductName(snapshot.getProductName());
+        product.setProductBrand(snapshot.getProductBrand());
+        product.setProductImage(snapshot.getProductImage());
+        product.setProductImageUrl(snapshot.getProductImageUrl());
+        product.setProductUrl(snapshot.getProductUrl());
+        product.setProductOriginalPrice(snapshot.getPriceOriginal());
+        product.setProductCurrentPrice(snapshot.getPriceSale());
+        return product;
+    }
+
+    /**
+     * Returns a copy of this product with {@code changes}' non-null fields laid over it.
+     */
+    public AlertProduct merge(AlertProduct changes) {
+        AlertProduct merged = new AlertProduct();
+        merged.setProductId(productId);
+        merged.setProductName(firstNonNull(changes.getProductName(), productName));
+        merged.setProductBrand(firstNonNull(changes.getProductBrand(), productBrand));
+        merged.setProductImage(firstNonNull(changes.getProductImage(), productImage));
+        merged.setProductImageUrl(firstNonNull(changes.getProductImageUrl(), productImageUrl));
+        merged.setProductUrl(firstNonNull(changes.getProductUrl(), productUrl));
+        merged.setProductOriginalPrice(firstNonNull(changes.getProductOriginalPrice(), productOriginalPrice));
+        merged.setProductCurrentPrice(firstNonNull(changes.getProductCurrentPrice(), productCurrentPrice));
+        merged.setUpdatedAt(firstNonNull(changes.getUpdatedAt(), updatedAt));
+        merged.setWatcherShards(firstNonNull(changes.getWatcherShards(), watcherShards));
+        return merged;
+    }
+
+    /** Whether the fields the search index is built from differ between the two products. */
+    public boolean searchTermsDiffer(AlertProduct other) {
+        return other == null
+                || !Objects.equals(productName, other.getProductName())
+                || !Objects.equals(productBrand, other.getProductBrand());
+    }
+
+    /** Copies this product's metadata onto {@code alert} and returns it. */
+    public Alert applyTo(Alert alert) {
+        alert.setProductName(productName);
+        alert.setProductBrand(productBrand);
+        alert.setProductImage(productImage);
+        alert.setProductImageUrl(productImageUrl);
+        alert.setProductUrl(productUrl);
+        alert.setProductOriginalPrice(productOriginalPrice);
+        alert.setProductCurrentPrice(productCurrentPrice);
+        return alert;
+    }
+
+    private static <T> T firstNonNull(T first, T second) {
+        return first != null ? first : second;
+    }
+}
@@ -0,0 +1,78 @@
+package com.nimbly.phshoesbackend.alerts.core.model;
+
+import com.nimbly.phshoesbackend.alerts.core.exception.InvalidAlertException;
+import com.nimbly.phshoesbackend.alerts.core.model.dynamo.AlertAttrs;
+
+import java.util.List;
+
+/**
+ * Which parts of an alert a read needs. Narrower projections read fewer attributes from the alert
+ * item and skip the product-table join.
+ */
+public enum AlertProjection {
+    /** Every alert attribute plus the joined product metadata. */
+    FULL(null, true),
+
+    /** Thresholds, status and version, for callers that already render the product. */
+    STATE(List.of(
+            AlertAttrs.PK_PRODUCT_ID,
+            AlertAttrs.SK_USER_ID,
+            AlertAttrs.DESIRED_PRICE,
+            AlertAttrs.DESIRED_PERCENT,
+            AlertAttrs.ALERT_IF_SALE,
+            AlertAttrs.CHANNELS,
+            AlertAttrs.STATUS,
+            AlertAttrs.LAST_TRIGGERED_AT,
+            AlertAttrs.VERSION), false),
+
+    /**
+     * What the scheduler needs to evaluate triggers, route notifications and mark an alert triggered
+     * only if it is unchanged since the read.
+     */
+    EVALUATION(List.of(
+            AlertAttrs.PK_PRODUCT_ID,
+            AlertAttrs.SK_USER_ID,
+            AlertAttrs.DESIRED_PRICE,
+            AlertAttrs.DESIRED_PERCENT,
+            AlertAttrs.ALERT_IF_SALE,
+            AlertAttrs.CHANNELS,
+            AlertAttrs.STATUS,
+            AlertAttrs.VERSION), false),
+
+    /** Key attributes only, for existence checks. */
+    KEYS(List.of(
+            AlertAttrs.PK_PRODUCT_ID,
+            AlertAttrs.SK_USER_ID), false);
+
+    private final List<String> attributes;
+    private final boolean joinsProduct;
+
+    AlertProjection(List<String> attributes, boolean joinsProduct) {
+        this.attributes = attributes;
+        this.joinsProduct = joinsProduct;
+    }
+
+    /** Alert attributes to read, or {@code null} for all of them. */
+    public List<String> attributes() {
+        return attributes;
+    }
+
+    public boolean joinsProduct() {
+        return joinsProduct;
+    }
+
+    /**
+     * Parses a {@code fields} request parameter; blank means {@link #FULL}.
+     */
+    public static AlertProjection fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return FULL;
+        }
+        for (AlertProjection projection : values()) {
+            if (projection.name().equalsIgnoreCase(value.trim())) {
+                return projection;
+            }
+        }
+        throw new InvalidAlertException("Unknown fields value: " + value);
+    }
+}
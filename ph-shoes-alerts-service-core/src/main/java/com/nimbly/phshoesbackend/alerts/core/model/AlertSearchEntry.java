@@ -0,0 +1,57 @@
+package com.nimbly.phshoesbackend.alerts.core.model;
+
+import com.nimbly.phshoesbackend.alerts.core.model.dynamo.AlertSearchAttrs;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
+
+import java.util.List;
+
+/**
+ * Row of the per-user inverted search index. Term rows point at one alert; the manifest row
+ * ({@code p#<productId>}) lists every term written for that alert so stale terms can be removed.
+ */
+@Data
+@NoArgsConstructor
+@DynamoDbBean
+public class AlertSearchEntry {
+
+    @Getter(onMethod_ = {
+            @DynamoDbPartitionKey,
+            @DynamoDbAttribute(AlertSearchAttrs.PK_USER_ID)
+    })
+    @Setter
+    private String userId;
+
+    @Getter(onMethod_ = {
+            @DynamoDbSortKey,
+            @DynamoDbAttribute(AlertSearchAttrs.SK_TERM)
+    })
+    @Setter
+    private String term;
+
+    @Getter(onMethod_ = {
+            @DynamoDbAttribute(AlertSearchAttrs.PRODUCT_ID)
+    })
+    @Setter
+    private String productId;
+
+    @Getter(onMethod_ = {
+            @DynamoDbAttribute(AlertSearchAttrs.TERMS)
+    })
+    @Setter
+    private List<String> terms;
+
+    public static AlertSearchEntry of(String userId, String term, String productId) {
+        AlertSearchEntry entry = new AlertSearchEntry();
+        entry.setUserId(userId);
+        entry.setTerm(term);
+        entry.setProductId(productId);
+        return entry;
+    }
+}
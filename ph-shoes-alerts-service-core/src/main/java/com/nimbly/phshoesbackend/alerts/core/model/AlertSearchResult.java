@@ -0,0 +1,9 @@
+package com.nimbly.phshoesbackend.alerts.core.model;
+
+import java.util.List;
+
+/**
+ * One page of search results together with the total number of matches across all pages.
+ */
+public record AlertSearchResult(List<Alert> content, long totalElements) {
+}
@@ -0,0 +1,27 @@
+package com.nimbly.phshoesbackend.alerts.core.model;
+
+import java.math.BigDecimal;
+
+/**
+ * An alert's trigger thresholds in fixed point: the desired price in centavos and the desired drop
+ * in basis points, {@link #NONE} when unset. Compiled once and kept on the alert, so evaluating it
+ * again needs no {@link BigDecimal} arithmetic.
+ *
+ * <p>{@code exact} is false when a threshold has more than two decimals or is out of range; such
+ * alerts are evaluated with {@code BigDecimal}s instead.
+ */
+public record AlertThresholds(
+        BigDecimal desiredPriceSource,
+        BigDecimal desiredPercentSource,
+        long desiredPrice,
+        long desiredPercent,
+        boolean exact
+) {
+
+    public static final long NONE = Long.MIN_VALUE;
+
+    /** Whether these were compiled from the alert's current values; setters replace the instances. */
+    public boolean compiledFrom(Alert alert) {
+        return desiredPriceSource == alert.getDesiredPrice() && desiredPercentSource == alert.getDesiredPercent();
+    }
+}
@@ -10,19 +10,25 @@ public class MutableSchedulerRunSummary {
     private final LocalDate date;
     private final int scrapedCount;
     private final int dedupedCount;
+    private final int skippedUnwatched;
+    private final double watchFilterFalsePositiveRate;
     private int alertsChecked;
     private int triggered;
     private int emailsSent;
     private int suppressed;
     private int errors;
 
-    public MutableSchedulerRunSummary(LocalDate date, int scrapedCount, int dedupedCount) {
+    public MutableSchedulerRunSummary(LocalDate date, int scrapedCount, int dedupedCount,
+                                      int skippedUnwatched, double watchFilterFalsePositiveRate) {
         this.date = date;
         this.scrapedCount = scrapedCount;
         this.dedupedCount = dedupedCount;
+        this.skippedUnwatched = skippedUnwatched;
+        this.watchFilterFalsePositiveRate = watchFilterFalsePositiveRate;
     }
 
     public void incAlertsChecked() { alertsChecked++; }
+    public void addAlertsChecked(int count) { alertsChecked += count; }
     public void incTriggered() { triggered++; }
     public void applyEmailReport(EmailDeliveryReport report) {
         if (report == null) {
@@ -35,7 +41,8 @@ public class MutableSchedulerRunSummary {
 
     public SchedulerRunSummary asImmutable() {
         return new SchedulerRunSummary(date, scrapedCount, dedupedCount,
-                alertsChecked, triggered, emailsSent, suppressed, errors);
+                alertsChecked, triggered, emailsSent, suppressed, errors,
+                skippedUnwatched, watchFilterFalsePositiveRate);
     }
 
 }
@@ -14,4 +14,8 @@ public class SchedulerRunSummary {
     int emailsSent;
     int suppressed;
     int errors;
+    /** Scraped rows dropped before evaluation because no active alert watches their product. */
+    int skippedUnwatched;
+    /** Chance that an unwatched product got past the watch filter; 0 when the filter is exact or off. */
+    double watchFilterFalsePositiveRate;
 }
@@ -0,0 +1,308 @@
+package com.nimbly.phshoesbackend.alerts.core.model;
+
+import java.math.BigDecimal;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * One day's scrape held column by column. Brands and subtitles are stored as codes into a
+ * dictionary shared by every row, URLs and image URLs as a code for their origin and first two
+ * path segments plus the rest of the string, and prices as centavos in {@code long} columns.
+ * A few thousand rows then cost a handful of arrays instead of a bean and its strings and
+ * decimals each.
+ *
+ * <p>Rows are read through the accessors by index. As a {@code List}, each {@link #get} builds
+ * a {@link ScrapedProduct} for that row only. Prices come back equal by {@code compareTo} to the
+ * ones added, with trailing zeros stripped; ones finer than a centavo are kept as they were.
+ */
+public final class ScrapeBatch extends AbstractList<ScrapedProduct> implements RandomAccess {
+
+    /** Stored for a missing price. */
+    private static final long NO_PRICE = Long.MIN_VALUE;
+    /** Stored for a price that is not a whole number of centavos; the exact value is kept aside. */
+    private static final long EXACT_PRICE = Long.MIN_VALUE + 1;
+    /** Path segments after the host that are shared through the prefix dictionary. */
+    private static final int PREFIX_SEGMENTS = 2;
+
+    private static final ScrapeBatch EMPTY = builder().build();
+
+    private final int size;
+    private final String[] productIds;
+    private final String[] dwids;
+    private final String[] titles;
+    private final int[] brands;
+    private final int[] subtitles;
+    private final String[] words;
+    private final int[] urlPrefixes;
+    private final String[] urlSuffixes;
+    private final int[] imagePrefixes;
+    private final String[] imageSuffixes;
+    private final int[] productImagePrefixes;
+    private final String[] productImageSuffixes;
+    private final String[] prefixes;
+    private final long[] priceSale;
+    private final long[] priceOriginal;
+    private final Map<Integer, BigDecimal> exactSale;
+    private final Map<Integer, BigDecimal> exactOriginal;
+
+    private ScrapeBatch(Builder builder) {
+        this.size = builder.size;
+        this.productIds = Arrays.copyOf(builder.productIds, size);
+        this.dwids = Arrays.copyOf(builder.dwids, size);
+        this.titles = Arrays.copyOf(builder.titles, size);
+        this.brands = Arrays.copyOf(builder.brands, size);
+        this.subtitles = Arrays.copyOf(builder.subtitles, size);
+        this.words = builder.words.values.toArray(String[]::new);
+        this.urlPrefixes = Arrays.copyOf(builder.urlPrefixes, size);
+        this.urlSuffixes = Arrays.copyOf(builder.urlSuffixes, size);
+        this.imagePrefixes = Arrays.copyOf(builder.imagePrefixes, size);
+        this.imageSuffixes = Arrays.copyOf(builder.imageSuffixes, size);
+        this.productImagePrefixes = Arrays.copyOf(builder.productImagePrefixes, size);
+        this.productImageSuffixes = Arrays.copyOf(builder.productImageSuffixes, size);
+        this.prefixes = builder.prefixes.values.toArray(String[]::new);
+        this.priceSale = Arrays.copyOf(builder.priceSale, size);
+        this.priceOriginal = Arrays.copyOf(builder.priceOriginal, size);
+        this.exactSale = Map.copyOf(builder.exactSale);
+        this.exactOriginal = Map.copyOf(builder.exactOriginal);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static ScrapeBatch empty() {
+        return EMPTY;
+    }
+
+    public static ScrapeBatch of(List<ScrapedProduct> products) {
+        Builder builder = builder();
+        products.forEach(builder::add);
+        return builder.build();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public ScrapedProduct get(int row) {
+        return ScrapedProduct.builder()
+                .productId(productId(row))
+                .dwid(dwid(row))
+                .brand(brand(row))
+                .title(title(row))
+                .subtitle(subtitle(row))
+                .url(url(row))
+                .image(image(row))
+                .productImageUrl(productImageUrl(row))
+                .priceSale(priceSale(row))
+                .priceOriginal(priceOriginal(row))
+                .build();
+    }
+
+    public String productId(int row) {
+        return productIds[check(row)];
+    }
+
+    public String dwid(int row) {
+        return dwids[check(row)];
+    }
+
+    public String title(int row) {
+        return titles[check(row)];
+    }
+
+    /** Rows of the same brand return the same instance. */
+    public String brand(int row) {
+        return word(brands[check(row)]);
+    }
+
+    public String subtitle(int row) {
+        return word(subtitles[check(row)]);
+    }
+
+    public String url(int row) {
+        return join(urlPrefixes[check(row)], urlSuffixes[row]);
+    }
+
+    public String image(int row) {
+        return join(imagePrefixes[check(row)], imageSuffixes[row]);
+    }
+
+    public String productImageUrl(int row) {
+        return join(productImagePrefixes[check(row)], productImageSuffixes[row]);
+    }
+
+    public BigDecimal priceSale(int row) {
+        return decode(priceSale[check(row)], exactSale, row);
+    }
+
+    public BigDecimal priceOriginal(int row) {
+        return decode(priceOriginal[check(row)], exactOriginal, row);
+    }
+
+    private int check(int row) {
+        if (row < 0 || row >= size) throw new IndexOutOfBoundsException("row " + row + " of " + size);
+        return row;
+    }
+
+    private String word(int code) {
+        return code < 0 ? null : words[code];
+    }
+
+    private String join(int prefix, String suffix) {
+        if (prefix < 0) return null;
+        return prefix == 0 ? suffix : prefixes[prefix].concat(suffix);
+    }
+
+    private static BigDecimal decode(long cents, Map<Integer, BigDecimal> exact, int row) {
+        if (cents == NO_PRICE) return null;
+        if (cents == EXACT_PRICE) return exact.get(row);
+        return BigDecimal.valueOf(cents, 2).stripTrailingZeros();
+    }
+
+    /**
+     * Collects rows into a batch. Not thread-safe; a builder fills one batch.
+     */
+    public static final class Builder {
+
+        private int size;
+        private String[] productIds = new String[16];
+        private String[] dwids = new String[16];
+        private String[] titles = new String[16];
+        private int[] brands = new int[16];
+        private int[] subtitles = new int[16];
+        private int[] urlPrefixes = new int[16];
+        private String[] urlSuffixes = new String[16];
+        private int[] imagePrefixes = new int[16];
+        private String[] imageSuffixes = new String[16];
+        private int[] productImagePrefixes = new int[16];
+        private String[] productImageSuffixes = new String[16];
+        private long[] priceSale = new long[16];
+        private long[] priceOriginal = new long[16];
+        private final Map<Integer, BigDecimal> exactSale = new HashMap<>();
+        private final Map<Integer, BigDecimal> exactOriginal = new HashMap<>();
+        private final Dictionary words = new Dictionary();
+        // Code 0 is the empty prefix, for strings that are not URLs.
+        private final Dictionary prefixes = new Dictionary("");
+
+        private Builder() {
+        }
+
+        public Builder add(ScrapedProduct product) {
+            return add(product.getProductId(), product.getDwid(), product.getBrand(), product.getTitle(),
+                    product.getSubtitle(), product.getUrl(), product.getImage(), product.getProductImageUrl(),
+                    product.getPriceSale(), product.getPriceOriginal());
+        }
+
+        public Builder add(String productId, String dwid, String brand, String title, String subtitle,
+                           String url, String image, String productImageUrl,
+                           BigDecimal priceSale, BigDecimal priceOriginal) {
+            if (size == productIds.length) grow();
+            int row = size++;
+            productIds[row] = productId;
+            dwids[row] = dwid;
+            titles[row] = title;
+            brands[row] = words.encode(brand);
+            subtitles[row] = words.encode(subtitle);
+
+            int split = prefixEnd(url);
+            urlPrefixes[row] = url == null ? -1 : prefixes.encode(url.substring(0, split));
+            urlSuffixes[row] = url == null ? null : url.substring(split);
+            split = prefixEnd(image);
+            imagePrefixes[row] = image == null ? -1 : prefixes.encode(image.substring(0, split));
+            imageSuffixes[row] = image == null ? null : image.substring(split);
+            if (productImageUrl != null && productImageUrl.equals(image)) {
+                // The warehouse returns the same column for both; share the suffix too.
+                productImagePrefixes[row] = imagePrefixes[row];
+                productImageSuffixes[row] = imageSuffixes[row];
+            } else {
+                split = prefixEnd(productImageUrl);
+                productImagePrefixes[row] = productImageUrl == null ? -1 : prefixes.encode(productImageUrl.substring(0, split));
+                productImageSuffixes[row] = productImageUrl == null ? null : productImageUrl.substring(split);
+            }
+
+            this.priceSale[row] = encode(priceSale, exactSale, row);
+            this.priceOriginal[row] = encode(priceOriginal, exactOriginal, row);
+            return this;
+        }
+
+        public ScrapeBatch build() {
+            return new ScrapeBatch(this);
+        }
+
+        private void grow() {
+            int capacity = productIds.length * 2;
+            productIds = Arrays.copyOf(productIds, capacity);
+            dwids = Arrays.copyOf(dwids, capacity);
+            titles = Arrays.copyOf(titles, capacity);
+            brands = Arrays.copyOf(brands, capacity);
+            subtitles = Arrays.copyOf(subtitles, capacity);
+            urlPrefixes = Arrays.copyOf(urlPrefixes, capacity);
+            urlSuffixes = Arrays.copyOf(urlSuffixes, capacity);
+            imagePrefixes = Arrays.copyOf(imagePrefixes, capacity);
+            imageSuffixes = Arrays.copyOf(imageSuffixes, capacity);
+            productImagePrefixes = Arrays.copyOf(productImagePrefixes, capacity);
+            productImageSuffixes = Arrays.copyOf(productImageSuffixes, capacity);
+            priceSale = Arrays.copyOf(priceSale, capacity);
+            priceOriginal = Arrays.copyOf(priceOriginal, capacity);
+        }
+
+        private static long encode(BigDecimal price, Map<Integer, BigDecimal> exact, int row) {
+            if (price == null) return NO_PRICE;
+            try {
+                long cents = price.movePointRight(2).longValueExact();
+                if (cents != NO_PRICE && cents != EXACT_PRICE) return cents;
+            } catch (ArithmeticException e) {
+                // Finer than a centavo or out of range.
+            }
+            exact.put(row, price);
+            return EXACT_PRICE;
+        }
+    }
+
+    /**
+     * Where the shared prefix of a URL ends: after the origin and up to {@link #PREFIX_SEGMENTS}
+     * path segments, e.g. {@code https://www.nike.com/ph/t/}. {@code 0} when the value is not a URL.
+     */
+    static int prefixEnd(String value) {
+        if (value == null) return 0;
+        int scheme = value.indexOf("://");
+        if (scheme < 0) return 0;
+        int end = value.indexOf('/', scheme + 3);
+        if (end < 0) return 0;
+        for (int segment = 0; segment < PREFIX_SEGMENTS; segment++) {
+            int next = value.indexOf('/', end + 1);
+            if (next < 0) break;
+            end = next;
+        }
+        return end + 1;
+    }
+
+    private static final class Dictionary {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        Dictionary(String... initial) {
+            for (String value : initial) encode(value);
+        }
+
+        /** {@code -1} for {@code null}. */
+        int encode(String value) {
+            if (value == null) return -1;
+            Integer code = codes.get(value);
+            if (code != null) return code;
+            int next = values.size();
+            values.add(value);
+            codes.put(value, next);
+            return next;
+        }
+    }
+}
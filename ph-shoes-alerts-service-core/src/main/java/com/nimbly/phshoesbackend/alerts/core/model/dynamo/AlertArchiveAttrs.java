@@ -0,0 +1,18 @@
+package com.nimbly.phshoesbackend.alerts.core.model.dynamo;
+
+/**
+ * Archive table attributes. Archived items keep the alert's attribute names, but the table is keyed
+ * by user first so a user's archive is a single-partition query.
+ */
+public final class AlertArchiveAttrs {
+    private AlertArchiveAttrs() {}
+
+    public static final String TABLE = "alerts_archive";
+
+    public static final String PK_USER_ID = AlertAttrs.SK_USER_ID;
+    public static final String SK_PRODUCT_ID = AlertAttrs.PK_PRODUCT_ID;
+
+    public static final String ARCHIVED_AT = "archivedAt";
+    /** Epoch seconds; the table's TTL attribute. */
+    public static final String EXPIRES_AT = "expiresAt";
+}
@@ -5,14 +5,24 @@ public final class AlertAttrs {
 
     public static final String TABLE = "alerts";
     public static final String GSI_USER_ID = "gsi_userId";
+    /**
+     * productId / statusUser. Added in 0.0.6 and dropped in 0.0.7 for {@link #GSI_PRODUCT_SHARD_STATUS};
+     * kept for those migrations.
+     */
+    public static final String GSI_PRODUCT_STATUS = "gsi_productId_statusUser";
+    /** productShard / statusUser: the status index with hot products spread over several partitions. Added in 0.0.7. */
+    public static final String GSI_PRODUCT_SHARD_STATUS = "gsi_productShard_statusUser";
 
     public static final String PK_PRODUCT_ID = "productId";
     public static final String SK_USER_ID = "userId";
+    /** The product id for shard 0, {@code <productId>#<n>} for the others. */
+    public static final String PRODUCT_SHARD = "productShard";
 
     public static final String DESIRED_PRICE = "desiredPrice";
     public static final String DESIRED_PERCENT = "desiredPercent";
     public static final String ALERT_IF_SALE = "alertIfSale";
     public static final String CHANNELS = "channels";
+    // Product attributes moved to the product table in 0.0.3; kept for the migration and the search index.
     public static final String PRODUCT_NAME = "productName";
     public static final String PRODUCT_BRAND = "productBrand";
     public static final String PRODUCT_IMAGE = "productImage";
@@ -21,7 +31,10 @@ public final class AlertAttrs {
     public static final String PRODUCT_ORIGINAL_PRICE = "productOriginalPrice";
     public static final String PRODUCT_CURRENT_PRICE = "productCurrentPrice";
     public static final String STATUS = "status";
+    /** {@code <STATUS>#<userId>}, written alongside every status change. */
+    public static final String STATUS_USER = "statusUser";
     public static final String LAST_TRIGGERED_AT = "lastTriggeredAt";
     public static final String CREATED_AT = "createdAt";
     public static final String UPDATED_AT = "updatedAt";
+    public static final String VERSION = "version";
 }
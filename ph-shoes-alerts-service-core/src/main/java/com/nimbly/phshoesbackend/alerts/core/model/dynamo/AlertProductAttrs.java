@@ -0,0 +1,24 @@
+package com.nimbly.phshoesbackend.alerts.core.model.dynamo;
+
+/**
+ * Product table attributes. Names match the product attributes alert items used to carry, so
+ * pre-split alert items map straight onto {@code AlertProduct}.
+ */
+public final class AlertProductAttrs {
+    private AlertProductAttrs() {}
+
+    public static final String TABLE = "alert_products";
+
+    public static final String PK_PRODUCT_ID = "productId";
+
+    public static final String PRODUCT_NAME = AlertAttrs.PRODUCT_NAME;
+    public static final String PRODUCT_BRAND = AlertAttrs.PRODUCT_BRAND;
+    public static final String PRODUCT_IMAGE = AlertAttrs.PRODUCT_IMAGE;
+    public static final String PRODUCT_IMAGE_URL = AlertAttrs.PRODUCT_IMAGE_URL;
+    public static final String PRODUCT_URL = AlertAttrs.PRODUCT_URL;
+    public static final String PRODUCT_ORIGINAL_PRICE = AlertAttrs.PRODUCT_ORIGINAL_PRICE;
+    public static final String PRODUCT_CURRENT_PRICE = AlertAttrs.PRODUCT_CURRENT_PRICE;
+    public static final String UPDATED_AT = AlertAttrs.UPDATED_AT;
+    /** Number of status-index shards the product's alerts are spread over; absent means one. */
+    public static final String WATCHER_SHARDS = "watcherShards";
+}
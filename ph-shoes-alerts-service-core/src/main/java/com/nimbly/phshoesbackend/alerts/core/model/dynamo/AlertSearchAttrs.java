@@ -0,0 +1,20 @@
+package com.nimbly.phshoesbackend.alerts.core.model.dynamo;
+
+public final class AlertSearchAttrs {
+    private AlertSearchAttrs() {}
+
+    public static final String TABLE = "alert_search_index";
+
+    public static final String PK_USER_ID = "userId";
+    public static final String SK_TERM = "term";
+
+    public static final String PRODUCT_ID = "productId";
+    public static final String TERMS = "terms";
+
+    /** Sort-key prefix for name/brand word tokens: {@code t#<token>#<productId>}. */
+    public static final String TOKEN_PREFIX = "t#";
+    /** Sort-key prefix for the normalized brand: {@code b#<brand>#<productId>}. */
+    public static final String BRAND_PREFIX = "b#";
+    /** Sort-key prefix for the per-alert manifest listing the terms written for it. */
+    public static final String MANIFEST_PREFIX = "p#";
+}
@@ -0,0 +1,37 @@
+package com.nimbly.phshoesbackend.alerts.core.repository;
+
+import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProductSnapshot;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator.FixedPrices;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator.TriggeredAlert;
+
+import java.util.List;
+
+/**
+ * Resident view of active alerts by product, for callers that evaluate every product in one pass.
+ * Alerts carry the {@link com.nimbly.phshoesbackend.alerts.core.model.AlertProjection#EVALUATION} attributes only.
+ */
+public interface ActiveAlertIndex {
+
+    /**
+     * True once the initial load has finished; until then callers should read the table.
+     */
+    boolean isReady();
+
+    /**
+     * Copies of the active alerts on the product, safe for the caller to modify.
+     */
+    List<Alert> findActiveByProduct(String productId);
+
+    /**
+     * Number of active alerts on the product.
+     */
+    int countActiveByProduct(String productId);
+
+    /**
+     * Copies of the active alerts on the product that the snapshot triggers, each with the decision
+     * {@link com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator} would make.
+     * {@code prices} may be {@code null} when the snapshot has no fixed-point form.
+     */
+    List<TriggeredAlert> findTriggeredByProduct(String productId, AlertProductSnapshot snapshot, FixedPrices prices);
+}
@@ -0,0 +1,28 @@
+package com.nimbly.phshoesbackend.alerts.core.repository;
+
+import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertPage;
+
+import java.time.Instant;
+import java.util.function.Consumer;
+
+public interface AlertArchiveRepository {
+
+    /**
+     * Hands each TRIGGERED alert last triggered before {@code cutoff} to {@code action} as the scan
+     * pages come in. Reads the whole alerts table, so this is for background passes only.
+     *
+     * @return how many alerts were handed over
+     */
+    int forEachTriggeredBefore(Instant cutoff, Consumer<Alert> action);
+
+    /**
+     * Copies the alert into the archive and deletes it from the alerts table in one transaction.
+     *
+     * @return {@code false} if the alert was re-armed, re-triggered or deleted since it was read
+     */
+    boolean archive(Alert alert, Instant archivedAt, Instant expiresAt);
+
+    /** A user's archived alerts with product metadata joined, one page at a time. */
+    AlertPage findPageByUser(String userId, int limit, String cursor);
+}
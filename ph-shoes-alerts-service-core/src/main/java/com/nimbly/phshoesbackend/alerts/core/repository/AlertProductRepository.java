@@ -0,0 +1,21 @@
+package com.nimbly.phshoesbackend.alerts.core.repository;
+
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProduct;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+public interface AlertProductRepository {
+    Optional<AlertProduct> findById(String productId);
+
+    /** Batched lookup; ids without a product row are absent from the result. */
+    Map<String, AlertProduct> findByIds(Collection<String> productIds);
+
+    /**
+     * Writes the non-null fields of {@code product}, leaving the others as stored.
+     *
+     * @return the product as it was before the write, or {@code null} if there was none
+     */
+    AlertProduct upsert(AlertProduct product);
+}
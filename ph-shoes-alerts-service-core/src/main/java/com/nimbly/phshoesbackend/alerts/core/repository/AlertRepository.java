@@ -1,27 +1,113 @@
 package com.nimbly.phshoesbackend.alerts.core.repository;
 
 import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertPage;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertPatch;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProduct;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProjection;
 import com.nimbly.phshoesbackend.alerts.core.model.AlertStatus;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Repository
 public interface AlertRepository {
     Optional<Alert> findByProductAndUser(String productId, String userId);
 
-    List<Alert> findByUser(String userId, int limit);
-    List<Alert> findByUserFiltered(String userId, String query, String brand, int limit);
+    List<Alert> findByUser(String userId, int limit, AlertProjection projection);
 
-    List<Alert> findActiveByProduct(String productId);
+    /**
+     * Reads a single GSI page of at most {@code limit} alerts starting after {@code cursor}.
+     */
+    AlertPage findPageByUser(String userId, int limit, String cursor, AlertProjection projection);
+
+    /**
+     * Number of alerts the user has, counted on the GSI without returning the items.
+     */
+    long countByUser(String userId);
+
+    /**
+     * Alerts whose product matches the search. The product row is always joined for matching; the
+     * projection only narrows the alert attributes read.
+     */
+    List<Alert> findByUserFiltered(String userId, String query, String brand, int limit, AlertProjection projection);
+
+    List<Alert> findActiveByProduct(String productId, AlertProjection projection);
+
+    /**
+     * Active alerts on the product one query page at a time, read lazily, so a product with thousands
+     * of watchers can be evaluated without holding them all. Sharded products are read shard by shard.
+     */
+    Iterable<List<Alert>> findActivePagesByProduct(String productId, AlertProjection projection);
+
+    /**
+     * Spreads the product's alerts over {@code shards} status-index partitions, or over its current
+     * count if that is higher. Safe to repeat: only alerts still in shard 0 are moved.
+     *
+     * @return number of alerts moved
+     */
+    int shardProduct(String productId, int shards);
+
+    /**
+     * Calls {@code action} with the product id of every active alert, once per alert and in no
+     * particular order. A single scan that reads only keys, for building a per-run set of watched
+     * products.
+     */
+    void forEachActiveProductId(Consumer<String> action);
+
+    /**
+     * The user's alerts on the given products, in the given order; missing ones are left out.
+     */
+    List<Alert> findByProductsAndUser(List<String> productIds, String userId, AlertProjection projection);
 
     void create(Alert alert);
 
+    /**
+     * Bulk counterpart of {@link #create}: each alert is put only if none exists for its product/user,
+     * so an alert created concurrently is never overwritten.
+     *
+     * @return the alerts that were not written because one already existed
+     */
+    List<Alert> createAll(List<Alert> alerts);
+
+    /**
+     * Full write of an alert read earlier, conditional on its {@code version} being unchanged.
+     * Only alert fields are written; product metadata goes through {@link #refreshProduct}.
+     *
+     * @throws com.nimbly.phshoesbackend.alerts.core.exception.AlertConflictException if it changed since the read
+     * @throws com.nimbly.phshoesbackend.alerts.core.exception.AlertNotFoundException if it was deleted
+     */
     void save(Alert alert);
 
+    /**
+     * Applies only the patched fields in one conditional write and returns the updated alert.
+     *
+     * @throws com.nimbly.phshoesbackend.alerts.core.exception.AlertConflictException if the version or
+     *         validation conditions fail; the exception carries the stored alert
+     * @throws com.nimbly.phshoesbackend.alerts.core.exception.AlertNotFoundException if there is no such alert
+     */
+    Alert update(AlertPatch patch);
+
     void delete(String productId, String userId);
 
+    void deleteAll(List<String> productIds, String userId);
+
+    /**
+     * Writes fresh metadata to the shared product row and re-indexes the product's alerts if its
+     * searchable fields changed.
+     */
+    void refreshProduct(AlertProduct product);
+
     void updateStatus(String productId, String userId, AlertStatus status, Instant lastTriggeredAt);
+
+    /**
+     * Marks an alert triggered, conditional on it still being active at the {@code version} it was read
+     * with ({@code null} for items written before versioning).
+     *
+     * @return {@code false}, having written nothing, if it was edited, paused, re-armed or deleted since
+     */
+    boolean markTriggered(String productId, String userId, Long version, Instant triggeredAt);
 }
@@ -0,0 +1,26 @@
+package com.nimbly.phshoesbackend.alerts.core.repository;
+
+import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Per-user inverted index over alert product names and brands, kept in step with alert writes.
+ */
+public interface AlertSearchIndexRepository {
+
+    /** Writes the terms for {@code alert} and removes any terms it no longer has. */
+    void index(Alert alert);
+
+    /** {@link #index} for many alerts, with the stored term lists read and written in batches. */
+    void indexAll(Collection<Alert> alerts);
+
+    void remove(String productId, String userId);
+
+    /** {@link #remove} for many of one user's alerts, read and written in batches. */
+    void removeAll(Collection<String> productIds, String userId);
+
+    /** Product ids of the user's alerts with at least one term starting with {@code termPrefix}. */
+    List<String> findProductIds(String userId, String termPrefix);
+}
@@ -1,15 +1,18 @@
 package com.nimbly.phshoesbackend.alerts.core.repository;
 
+import com.nimbly.phshoesbackend.alerts.core.model.ScrapeBatch;
 import com.nimbly.phshoesbackend.alerts.core.model.ScrapedProduct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDate;
-import java.util.List;
+import java.util.function.Consumer;
 
 @Slf4j
 @Repository
@@ -20,8 +23,20 @@ public class WarehouseScrapeRepository {
 
     /**
      * Fetches the rows scraped on the given date. Table + columns match catalog service mappings.
+     * Rows are encoded into the batch as they are read, so no per-row bean is kept.
      */
-    public List<ScrapedProduct> findByDate(LocalDate date) {
+    public ScrapeBatch findByDate(LocalDate date) {
+        ScrapeBatch.Builder batch = ScrapeBatch.builder();
+        forEachByDate(date, batch::add);
+        return batch.build();
+    }
+
+    /**
+     * Hands each row scraped on the given date to {@code action} as it is read, keeping none of them.
+     *
+     * @return the number of rows read
+     */
+    public int forEachByDate(LocalDate date, Consumer<ScrapedProduct> action) {
         String sql = """
             SELECT ID, DWID, BRAND, TITLE, SUBTITLE, URL, IMAGE, PRICE_SALE, PRICE_ORIGINAL, IMAGE as PRODUCT_IMAGE_URL
               FROM PRODUCTION_MARTS.FACT_PRODUCT_SHOES
@@ -29,28 +44,73 @@ public class WarehouseScrapeRepository {
         """;
 
         long started = System.currentTimeMillis();
-        List<ScrapedProduct> rows = jdbcTemplate.query(sql,
-                ps -> {
-                    ps.setInt(1, date.getYear());
-                    ps.setInt(2, date.getMonthValue());
-                    ps.setInt(3, date.getDayOfMonth());
-                },
-                (ResultSet rs, int rowNum) -> ScrapedProduct.builder()
-                        .productId(rs.getString("ID"))
-                        .dwid(rs.getString("DWID"))
-                        .brand(rs.getString("BRAND"))
-                        .title(rs.getString("TITLE"))
-                        .subtitle(rs.getString("SUBTITLE"))
-                        .url(rs.getString("URL"))
-                        .image(rs.getString("IMAGE"))
-                        .productImageUrl(rs.getString("PRODUCT_IMAGE_URL"))
-                        .priceSale(readDecimal(rs, "PRICE_SALE"))
-                        .priceOriginal(readDecimal(rs, "PRICE_ORIGINAL"))
-                        .build());
+        int[] count = {0};
+        jdbcTemplate.query(sql, byDate(date), (ResultSet rs) -> {
+            action.accept(readRow(rs));
+            count[0]++;
+        });
 
         log.info("warehouse.fetch date={} count={} tookMs={}",
-                date, rows.size(), System.currentTimeMillis() - started);
-        return rows;
+                date, count[0], System.currentTimeMillis() - started);
+        return count[0];
+    }
+
+    /**
+     * Like {@link #forEachByDate}, but the warehouse keeps one row per product: the lowest price
+     * (sale, else original), then the latest dwid. Nothing is kept here to dedupe.
+     *
+     * @return the number of rows scraped on the date, before the dedupe
+     */
+    public int forEachBestByDate(LocalDate date, Consumer<ScrapedProduct> action) {
+        String sql = """
+            SELECT ID, DWID, BRAND, TITLE, SUBTITLE, URL, IMAGE, PRICE_SALE, PRICE_ORIGINAL, PRODUCT_IMAGE_URL, SCRAPED_ROWS
+              FROM (
+                SELECT ID, DWID, BRAND, TITLE, SUBTITLE, URL, IMAGE, PRICE_SALE, PRICE_ORIGINAL, IMAGE as PRODUCT_IMAGE_URL,
+                       COUNT(*) OVER () AS SCRAPED_ROWS,
+                       ROW_NUMBER() OVER (
+                           PARTITION BY ID
+                           ORDER BY COALESCE(PRICE_SALE, PRICE_ORIGINAL) ASC NULLS LAST, DWID DESC NULLS LAST
+                       ) AS RANK_IN_PRODUCT
+                  FROM PRODUCTION_MARTS.FACT_PRODUCT_SHOES
+                 WHERE YEAR = ? AND MONTH = ? AND DAY = ?
+              ) ranked
+             WHERE RANK_IN_PRODUCT = 1
+        """;
+
+        long started = System.currentTimeMillis();
+        int[] counts = {0, 0};
+        jdbcTemplate.query(sql, byDate(date), (ResultSet rs) -> {
+            action.accept(readRow(rs));
+            counts[0] = rs.getInt("SCRAPED_ROWS");
+            counts[1]++;
+        });
+
+        log.info("warehouse.fetch date={} count={} products={} tookMs={}",
+                date, counts[0], counts[1], System.currentTimeMillis() - started);
+        return counts[0];
+    }
+
+    private static PreparedStatementSetter byDate(LocalDate date) {
+        return ps -> {
+            ps.setInt(1, date.getYear());
+            ps.setInt(2, date.getMonthValue());
+            ps.setInt(3, date.getDayOfMonth());
+        };
+    }
+
+    private static ScrapedProduct readRow(ResultSet rs) throws SQLException {
+        return ScrapedProduct.builder()
+                .productId(rs.getString("ID"))
+                .dwid(rs.getString("DWID"))
+                .brand(rs.getString("BRAND"))
+                .title(rs.getString("TITLE"))
+                .subtitle(rs.getString("SUBTITLE"))
+                .url(rs.getString("URL"))
+                .image(rs.getString("IMAGE"))
+                .productImageUrl(rs.getString("PRODUCT_IMAGE_URL"))
+                .priceSale(readDecimal(rs, "PRICE_SALE"))
+                .priceOriginal(readDecimal(rs, "PRICE_ORIGINAL"))
+                .build();
     }
 
     private static BigDecimal readDecimal(ResultSet rs, String col) {
@@ -0,0 +1,278 @@
+package com.nimbly.phshoesbackend.alerts.core.repository.dynamo;
+
+import com.nimbly.phshoesbackend.alerts.core.config.props.DynamoPacingProps;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.SdkResponse;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.Capacity;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Client-side pacing for the provisioned tables, installed as an interceptor on the sync client.
+ *
+ * <p>Every paced request asks DynamoDB for its consumed capacity. Before each attempt the pacer
+ * reserves the capacity that operation usually costs from a per-table token bucket, and waits if
+ * the bucket is in debt. Once the response arrives, the difference between the reservation and
+ * what was actually consumed is charged or refunded. An attempt being retried (throttling, in
+ * practice) refunds its reservation and halves the bucket's rate. Each success raises the rate
+ * back towards the budget by a fixed step.
+ *
+ * <p>Consumption is charged as the busiest of the table and its global indexes, because each of
+ * them has its own provisioned capacity. Calls other than item reads and writes, and calls on
+ * tables outside {@link DynamoPacingProps#getTables()}, pass through untouched.
+ */
+@Slf4j
+public class DynamoCapacityPacer implements ExecutionInterceptor {
+
+    enum Kind { READ, WRITE }
+
+    private static final ExecutionAttribute<Double> RESERVED = new ExecutionAttribute<>("DynamoCapacityPacer.reserved");
+    private static final ExecutionAttribute<Integer> ATTEMPT = new ExecutionAttribute<>("DynamoCapacityPacer.attempt");
+    private static final double DEFAULT_ESTIMATE = 1.0;
+    private static final double ESTIMATE_WEIGHT = 0.2;
+
+    @FunctionalInterface
+    interface Sleeper {
+        void sleep(long nanos) throws InterruptedException;
+    }
+
+    private final DynamoPacingProps props;
+    private final LongSupplier clock;
+    private final Sleeper sleeper;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, Double> estimates = new ConcurrentHashMap<>();
+
+    public DynamoCapacityPacer(DynamoPacingProps props) {
+        this(props, System::nanoTime, TimeUnit.NANOSECONDS::sleep);
+    }
+
+    DynamoCapacityPacer(DynamoPacingProps props, LongSupplier clock, Sleeper sleeper) {
+        this.props = props;
+        this.clock = clock;
+        this.sleeper = sleeper;
+    }
+
+    @Override
+    public SdkRequest modifyRequest(Context.ModifyRequest context, ExecutionAttributes attributes) {
+        if (!paced(context.request())) return context.request();
+        return switch (context.request()) {
+            case GetItemRequest r when r.returnConsumedCapacity() == null ->
+                    r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.INDEXES).build();
+            case BatchGetItemRequest r when r.returnConsumedCapacity() == null ->
+                    r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.INDEXES).build();
+            case QueryRequest r when r.returnConsumedCapacity() == null ->
+                    r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.INDEXES).build();
+            case ScanRequest r when r.returnConsumedCapacity() == null ->
+                    r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.INDEXES).build();
+            case PutItemRequest r when r.returnConsumedCapacity() == null ->
+                    r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.INDEXES).build();
+            case UpdateItemRequest r when r.returnConsumedCapacity() == null ->
+                    r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.INDEXES).build();
+            case DeleteItemRequest r when r.returnConsumedCapacity() == null ->
+                    r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.INDEXES).build();
+            case BatchWriteItemRequest r when r.returnConsumedCapacity() == null ->
+                    r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.INDEXES).build();
+            case TransactWriteItemsRequest r when r.returnConsumedCapacity() == null ->
+                    r.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.INDEXES).build();
+            default -> context.request();
+        };
+    }
+
+    @Override
+    public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes attributes) {
+        SdkRequest request = context.request();
+        if (!paced(request)) return;
+        Kind kind = kindOf(request);
+
+        Bucket bucket = bucket(tableOf(request), kind);
+        Integer previous = attributes.getAttribute(ATTEMPT);
+        attributes.putAttribute(ATTEMPT, previous == null ? 1 : previous + 1);
+        if (previous != null) {
+            // The rejected attempt consumed nothing, so its reservation goes back before slowing down.
+            bucket.settle(-attributes.getAttribute(RESERVED));
+            bucket.backOff(props.getBackoffFactor());
+            log.debug("dynamo.pacing backoff table={} kind={} rate={}", tableOf(request), kind, bucket.rate());
+        }
+
+        double estimate = estimates.getOrDefault(operation(request), DEFAULT_ESTIMATE);
+        attributes.putAttribute(RESERVED, estimate);
+        pause(bucket.reserve(estimate, clock.getAsLong()));
+    }
+
+    @Override
+    public void afterUnmarshalling(Context.AfterUnmarshalling context, ExecutionAttributes attributes) {
+        SdkRequest request = context.request();
+        if (!paced(request)) return;
+        Kind kind = kindOf(request);
+
+        Bucket bucket = bucket(tableOf(request), kind);
+        bucket.recover(budget(kind) * props.getRecoveryFraction());
+        Double consumed = consumedUnits(context.response());
+        if (consumed == null) return;
+
+        bucket.settle(consumed - attributes.getAttribute(RESERVED));
+        estimates.merge(operation(request), consumed,
+                (average, latest) -> average + ESTIMATE_WEIGHT * (latest - average));
+    }
+
+    private boolean paced(SdkRequest request) {
+        return kindOf(request) != null && props.getTables().contains(tableOf(request));
+    }
+
+    private Bucket bucket(String table, Kind kind) {
+        return buckets.computeIfAbsent(table + "#" + kind, key -> {
+            double budget = budget(kind);
+            return new Bucket(budget, budget * props.getBurstSeconds(),
+                    budget * props.getMinRateFraction(), clock.getAsLong());
+        });
+    }
+
+    private double budget(Kind kind) {
+        return kind == Kind.READ ? props.getReadUnitsPerSecond() : props.getWriteUnitsPerSecond();
+    }
+
+    private void pause(long nanos) {
+        if (nanos <= 0) return;
+        try {
+            sleeper.sleep(nanos);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while pacing DynamoDB request", ex);
+        }
+    }
+
+    private static Kind kindOf(SdkRequest request) {
+        return switch (request) {
+            case GetItemRequest r -> Kind.READ;
+            case BatchGetItemRequest r -> Kind.READ;
+            case QueryRequest r -> Kind.READ;
+            case ScanRequest r -> Kind.READ;
+            case PutItemRequest r -> Kind.WRITE;
+            case UpdateItemRequest r -> Kind.WRITE;
+            case DeleteItemRequest r -> Kind.WRITE;
+            case BatchWriteItemRequest r -> Kind.WRITE;
+            case TransactWriteItemsRequest r -> Kind.WRITE;
+            default -> null;
+        };
+    }
+
+    private static String tableOf(SdkRequest request) {
+        return switch (request) {
+            case BatchGetItemRequest r -> r.requestItems().keySet().stream().findFirst().orElse("");
+            case BatchWriteItemRequest r -> r.requestItems().keySet().stream().findFirst().orElse("");
+            case TransactWriteItemsRequest r -> r.transactItems().stream().findFirst().map(DynamoCapacityPacer::tableOf).orElse("");
+            default -> request.getValueForField("TableName", String.class).orElse("");
+        };
+    }
+
+    private static String tableOf(TransactWriteItem item) {
+        if (item.put() != null) return item.put().tableName();
+        if (item.update() != null) return item.update().tableName();
+        if (item.delete() != null) return item.delete().tableName();
+        return item.conditionCheck() == null ? "" : item.conditionCheck().tableName();
+    }
+
+    private static String operation(SdkRequest request) {
+        return tableOf(request) + "#" + request.getClass().getSimpleName();
+    }
+
+    /**
+     * Busiest of the table and its global indexes, or {@code null} if the response carries no consumption.
+     */
+    static Double consumedUnits(SdkResponse response) {
+        Object value = response.getValueForField("ConsumedCapacity", Object.class).orElse(null);
+        if (value instanceof ConsumedCapacity single) {
+            return units(single);
+        }
+        if (value instanceof List<?> list && !list.isEmpty()) {
+            double total = 0;
+            for (Object entry : list) {
+                if (entry instanceof ConsumedCapacity capacity) total += units(capacity);
+            }
+            return total;
+        }
+        return null;
+    }
+
+    private static double units(ConsumedCapacity consumed) {
+        if (consumed.table() == null) {
+            return consumed.capacityUnits() == null ? 0 : consumed.capacityUnits();
+        }
+        // Local indexes share the table's capacity; global indexes have their own.
+        double busiest = capacity(consumed.table());
+        for (Capacity local : consumed.localSecondaryIndexes().values()) busiest += capacity(local);
+        for (Capacity global : consumed.globalSecondaryIndexes().values()) busiest = Math.max(busiest, capacity(global));
+        return busiest;
+    }
+
+    private static double capacity(Capacity capacity) {
+        return capacity.capacityUnits() == null ? 0 : capacity.capacityUnits();
+    }
+
+    /**
+     * Token bucket that may go into debt: a reservation always succeeds, and the caller waits until
+     * the debt it left behind has been refilled.
+     */
+    static final class Bucket {
+        private final double budget;
+        private final double burst;
+        private final double minRate;
+        private double rate;
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(double budget, double burst, double minRate, long now) {
+            this.budget = budget;
+            this.burst = burst;
+            this.minRate = minRate;
+            this.rate = budget;
+            this.tokens = burst;
+            this.refilledAt = now;
+        }
+
+        /** Takes {@code units} and returns how long to wait, in nanoseconds, before sending. */
+        synchronized long reserve(double units, long now) {
+            tokens = Math.min(burst, tokens + (now - refilledAt) / 1e9 * rate);
+            refilledAt = now;
+            tokens -= units;
+            return tokens >= 0 ? 0L : (long) Math.ceil(-tokens / rate * 1e9);
+        }
+
+        synchronized void settle(double units) {
+            tokens -= units;
+        }
+
+        synchronized void backOff(double factor) {
+            rate = Math.max(minRate, rate * factor);
+        }
+
+        synchronized void recover(double step) {
+            rate = Math.min(budget, rate + step);
+        }
+
+        synchronized double rate() {
+            return rate;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.nimbly.phshoesbackend.alerts.core.repository.dynamo;
+
+import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertPage;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProduct;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertStatus;
+import com.nimbly.phshoesbackend.alerts.core.model.dynamo.AlertArchiveAttrs;
+import com.nimbly.phshoesbackend.alerts.core.model.dynamo.AlertAttrs;
+import com.nimbly.phshoesbackend.alerts.core.repository.AlertArchiveRepository;
+import com.nimbly.phshoesbackend.alerts.core.repository.AlertProductRepository;
+import com.nimbly.phshoesbackend.alerts.core.repository.AlertSearchIndexRepository;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertCursorCodec;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.Delete;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+@Repository
+@RequiredArgsConstructor
+public class DynamoDbAlertArchiveRepository implements AlertArchiveRepository {
+
+    private static final TableSchema<Alert> SCHEMA = TableSchema.fromBean(Alert.class);
+    private static final String CONDITIONAL_CHECK_FAILED = "ConditionalCheckFailed";
+    private static final Set<String> PAGE_KEY = Set.of(AlertArchiveAttrs.PK_USER_ID, AlertArchiveAttrs.SK_PRODUCT_ID);
+
+    private final DynamoDbClient dynamo;
+    private final AlertProductRepository products;
+    private final AlertSearchIndexRepository searchIndex;
+
+    @Override
+    public int forEachTriggeredBefore(Instant cutoff, Consumer<Alert> action) {
+        // The cutoff is checked here, not in the filter: Instant.toString() drops zero fractions,
+        // so "...:00Z" sorts after "...:00.5Z" and a string comparison is wrong inside a second.
+        var req = ScanRequest.builder()
+                .tableName(AlertAttrs.TABLE)
+                .filterExpression("#s = :triggered")
+                .expressionAttributeNames(Map.of("#s", AlertAttrs.STATUS))
+                .expressionAttributeValues(Map.of(":triggered", AttributeValue.fromS(AlertStatus.TRIGGERED.name())))
+                .build();
+
+        int count = 0;
+        for (Map<String, AttributeValue> item : dynamo.scanPaginator(req).items()) {
+            Alert alert = SCHEMA.mapToItem(item);
+            Instant triggeredAt = alert.getLastTriggeredAt();
+            if (triggeredAt == null || !triggeredAt.isBefore(cutoff)) continue;
+            action.accept(alert);
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public boolean archive(Alert alert, Instant archivedAt, Instant expiresAt) {
+        Map<String, AttributeValue> item = new HashMap<>(SCHEMA.itemToMap(alert, true));
+        // The archive has no status index to feed.
+        item.remove(AlertAttrs.STATUS_USER);
+        item.remove(AlertAttrs.PRODUCT_SHARD);
+        item.put(AlertArchiveAttrs.ARCHIVED_AT, AttributeValue.fromS(archivedAt.toString()));
+        item.put(AlertArchiveAttrs.EXPIRES_AT, AttributeValue.fromN(Long.toString(expiresAt.getEpochSecond())));
+
+        // The delete only goes through if the alert is still the one that was read; re-arming it
+        // or a newer trigger moves lastTriggeredAt, and the whole move is then cancelled.
+        var req = TransactWriteItemsRequest.builder()
+                .transactItems(
+                        TransactWriteItem.builder()
+                                .put(Put.builder()
+                                        .tableName(AlertArchiveAttrs.TABLE)
+                                        .item(item)
+                                        .build())
+                                .build(),
+                        TransactWriteItem.builder()
+                                .delete(Delete.builder()
+                                        .tableName(AlertAttrs.TABLE)
+                                        .key(Map.of(
+                                                AlertAttrs.PK_PRODUCT_ID, AttributeValue.fromS(alert.getProductId()),
+                                                AlertAttrs.SK_USER_ID, AttributeValue.fromS(alert.getUserId())))
+                                        .conditionExpression("#s = :triggered AND #t = :triggeredAt")
+                                        .expressionAttributeNames(Map.of(
+                                                "#s", AlertAttrs.STATUS,
+                                                "#t", AlertAttrs.LAST_TRIGGERED_AT))
+                                        .expressionAttributeValues(Map.of(
+                                                ":triggered", AttributeValue.fromS(AlertStatus.TRIGGERED.name()),
+                                                ":triggeredAt", AttributeValue.fromS(alert.getLastTriggeredAt().toString())))
+                                        .build())
+                                .build())
+                .build();
+
+        try {
+            dynamo.transactWriteItems(req);
+        } catch (TransactionCanceledException ex) {
+            if (conditionFailed(ex)) return false;
+            throw ex;
+        }
+        searchIndex.remove(alert.getProductId(), alert.getUserId());
+        return true;
+    }
+
+    @Override
+    public AlertPage findPageByUser(String userId, int limit, String cursor) {
+        var builder = QueryRequest.builder()
+                .tableName(AlertArchiveAttrs.TABLE)
+                .keyConditionExpression("#u = :u")
+                .expressionAttributeNames(Map.of("#u", AlertArchiveAttrs.PK_USER_ID))
+                .expressionAttributeValues(Map.of(":u", AttributeValue.fromS(userId)))
+                .limit(limit);
+
+        var startKey = AlertCursorCodec.decode(cursor, PAGE_KEY, AlertArchiveAttrs.PK_USER_ID, userId);
+        if (startKey != null) {
+            builder.exclusiveStartKey(startKey);
+        }
+
+        QueryResponse page = dynamo.query(builder.build());
+        var alerts = new ArrayList<Alert>(page.items().size());
+        for (Map<String, AttributeValue> item : page.items()) alerts.add(SCHEMA.mapToItem(item));
+        return new AlertPage(hydrate(alerts), AlertCursorCodec.encode(page.lastEvaluatedKey()));
+    }
+
+    private List<Alert> hydrate(List<Alert> alerts) {
+        if (alerts.isEmpty()) return alerts;
+        var productIds = new ArrayList<String>(alerts.size());
+        for (Alert a : alerts) productIds.add(a.getProductId());
+        var byId = products.findByIds(productIds);
+        for (Alert a : alerts) {
+            AlertProduct product = byId.get(a.getProductId());
+            if (product != null) product.applyTo(a);
+        }
+        return alerts;
+    }
+
+    private static boolean conditionFailed(TransactionCanceledException ex) {
+        if (!ex.hasCancellationReasons()) return false;
+        for (CancellationReason reason : ex.cancellationReasons()) {
+            if (CONDITIONAL_CHECK_FAILED.equals(reason.code())) return true;
+        }
+        return false;
+    }
+}
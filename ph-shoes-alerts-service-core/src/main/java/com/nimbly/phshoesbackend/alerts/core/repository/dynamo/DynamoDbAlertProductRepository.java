@@ -0,0 +1,112 @@
+package com.nimbly.phshoesbackend.alerts.core.repository.dynamo;
+
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProduct;
+import com.nimbly.phshoesbackend.alerts.core.model.dynamo.AlertProductAttrs;
+import com.nimbly.phshoesbackend.alerts.core.repository.AlertProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchGetItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.ReadBatch;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Repository
+@RequiredArgsConstructor
+public class DynamoDbAlertProductRepository implements AlertProductRepository {
+
+    private static final TableSchema<AlertProduct> SCHEMA = TableSchema.fromBean(AlertProduct.class);
+    private static final int MAX_BATCH_GET = 100;
+
+    private final DynamoDbEnhancedClient enhanced;
+    private final DynamoDbClient dynamo;
+
+    private DynamoDbTable<AlertProduct> table() {
+        return enhanced.table(AlertProductAttrs.TABLE, SCHEMA);
+    }
+
+    @Override
+    public Optional<AlertProduct> findById(String productId) {
+        return Optional.ofNullable(table().getItem(Key.builder().partitionValue(productId).build()));
+    }
+
+    @Override
+    public Map<String, AlertProduct> findByIds(Collection<String> productIds) {
+        if (productIds.isEmpty()) return Collections.emptyMap();
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(productIds));
+        var table = table();
+        var out = new HashMap<String, AlertProduct>(ids.size());
+        for (int from = 0; from < ids.size(); from += MAX_BATCH_GET) {
+            var batch = ReadBatch.builder(AlertProduct.class).mappedTableResource(table);
+            for (String productId : ids.subList(from, Math.min(from + MAX_BATCH_GET, ids.size()))) {
+                batch.addGetItem(Key.builder().partitionValue(productId).build());
+            }
+            var results = enhanced.batchGetItem(BatchGetItemEnhancedRequest.builder()
+                    .readBatches(batch.build())
+                    .build());
+            for (AlertProduct product : results.resultsForTable(table)) {
+                out.put(product.getProductId(), product);
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public AlertProduct upsert(AlertProduct product) {
+        Update update = upsertAction(product);
+        var response = dynamo.updateItem(UpdateItemRequest.builder()
+                .tableName(update.tableName())
+                .key(update.key())
+                .updateExpression(update.updateExpression())
+                .expressionAttributeNames(update.expressionAttributeNames())
+                .expressionAttributeValues(update.expressionAttributeValues())
+                .returnValues(ReturnValue.ALL_OLD)
+                .build());
+        return response.hasAttributes() && !response.attributes().isEmpty()
+                ? SCHEMA.mapToItem(response.attributes())
+                : null;
+    }
+
+    /**
+     * The write {@link #upsert} makes, as a transaction action, for callers that write the product
+     * in the same transaction as its alerts. A transaction returns no old image.
+     */
+    static Update upsertAction(AlertProduct product) {
+        if (product.getUpdatedAt() == null) product.setUpdatedAt(Instant.now());
+
+        var names = new HashMap<String, String>();
+        var values = new HashMap<String, AttributeValue>();
+        var sets = new ArrayList<String>();
+        for (var entry : SCHEMA.itemToMap(product, true).entrySet()) {
+            String attribute = entry.getKey();
+            if (AlertProductAttrs.PK_PRODUCT_ID.equals(attribute)) continue;
+            names.put("#" + attribute, attribute);
+            values.put(":" + attribute, entry.getValue());
+            sets.add("#" + attribute + " = :" + attribute);
+        }
+
+        return Update.builder()
+                .tableName(AlertProductAttrs.TABLE)
+                .key(Map.of(AlertProductAttrs.PK_PRODUCT_ID, AttributeValue.fromS(product.getProductId())))
+                .updateExpression("SET " + String.join(", ", sets))
+                .expressionAttributeNames(names)
+                .expressionAttributeValues(values)
+                .build();
+    }
+}
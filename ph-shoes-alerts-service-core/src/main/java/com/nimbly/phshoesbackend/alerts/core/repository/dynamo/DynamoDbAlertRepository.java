@@ -1,33 +1,92 @@
 package com.nimbly.phshoesbackend.alerts.core.repository.dynamo;
 
+import com.nimbly.phshoesbackend.alerts.core.config.props.DynamoStatusIndexProps;
+import com.nimbly.phshoesbackend.alerts.core.exception.AlertConflictException;
+import com.nimbly.phshoesbackend.alerts.core.exception.AlertNotFoundException;
 import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertPage;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertPatch;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProduct;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProjection;
 import com.nimbly.phshoesbackend.alerts.core.model.AlertStatus;
 import com.nimbly.phshoesbackend.alerts.core.model.dynamo.AlertAttrs;
+import com.nimbly.phshoesbackend.alerts.core.repository.AlertProductRepository;
 import com.nimbly.phshoesbackend.alerts.core.repository.AlertRepository;
+import com.nimbly.phshoesbackend.alerts.core.repository.AlertSearchIndexRepository;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertCursorCodec;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertSearchTokens;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertShardKeys;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.core.pagination.sync.SdkIterable;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbIndex;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.Expression;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
 import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
-import software.amazon.awssdk.enhanced.dynamodb.model.UpdateItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValuesOnConditionCheckFailure;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.Select;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Repository
 @RequiredArgsConstructor
 public class DynamoDbAlertRepository implements AlertRepository {
 
+    private static final int MAX_BATCH_GET = 100;
+    private static final int MAX_BATCH_WRITE = 25;
+    private static final int MAX_TRANSACT_WRITE = 100;
+    private static final int MAX_UNPROCESSED_RETRIES = 5;
+    private static final long RETRY_BASE_DELAY_MS = 50L;
+
+    private static final TableSchema<Alert> SCHEMA = TableSchema.fromBean(Alert.class);
+    /** The {@code LastEvaluatedKey} attributes of a {@code gsi_userId} page: the index key plus the table key. */
+    private static final Set<String> USER_PAGE_KEY = Set.of(AlertAttrs.PK_PRODUCT_ID, AlertAttrs.SK_USER_ID);
+    private static final String NOT_EXISTS = "attribute_not_exists(#pk) AND attribute_not_exists(#sk)";
+    private static final Map<String, String> KEY_NAMES = Map.of(
+            "#pk", AlertAttrs.PK_PRODUCT_ID,
+            "#sk", AlertAttrs.SK_USER_ID);
+    private static final String CONDITIONAL_CHECK_FAILED = "ConditionalCheckFailed";
+
     private final DynamoDbEnhancedClient enhanced;
+    private final DynamoDbClient dynamo;
+    private final AlertSearchIndexRepository searchIndex;
+    private final AlertProductRepository products;
+    private final DynamoStatusIndexProps statusIndexProps;
 
     private DynamoDbTable<Alert> table() {
         return enhanced.table(AlertAttrs.TABLE, TableSchema.fromBean(Alert.class));
@@ -37,23 +96,27 @@ public class DynamoDbAlertRepository implements AlertRepository {
         return table().index(AlertAttrs.GSI_USER_ID);
     }
 
+    private DynamoDbIndex<Alert> byProductShard() {
+        return table().index(AlertAttrs.GSI_PRODUCT_SHARD_STATUS);
+    }
+
     @Override
     public Optional<Alert> findByProductAndUser(String productId, String userId) {
         var item = table().getItem(Key.builder()
                 .partitionValue(productId)
                 .sortValue(userId)
                 .build());
-        return Optional.ofNullable(item);
+        return Optional.ofNullable(item).map(this::hydrate);
     }
 
     @Override
-    public List<Alert> findByUser(String userId, int limit) {
+    public List<Alert> findByUser(String userId, int limit, AlertProjection projection) {
         var idx = byUserId();
         if (idx == null) return Collections.emptyList();
 
         var out = new ArrayList<Alert>();
         int effectiveLimit = limit > 0 ? limit : Integer.MAX_VALUE;
-        var req = QueryEnhancedRequest.builder()
+        var req = project(QueryEnhancedRequest.builder(), projection)
                 .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(userId).build()))
                 .limit(effectiveLimit)
                 .build();
@@ -64,83 +127,486 @@ public class DynamoDbAlertRepository implements AlertRepository {
             for (Alert a : page.items()) {
                 out.add(a);
                 if (out.size() >= effectiveLimit) {
-                    return out;
+                    return hydrate(out, projection);
                 }
             }
         }
-        return out;
+        return hydrate(out, projection);
+    }
+
+    @Override
+    public AlertPage findPageByUser(String userId, int limit, String cursor, AlertProjection projection) {
+        var idx = byUserId();
+        if (idx == null) return new AlertPage(Collections.emptyList(), null);
+
+        var builder = project(QueryEnhancedRequest.builder(), projection)
+                .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(userId).build()))
+                .limit(limit);
+
+        var startKey = AlertCursorCodec.decode(cursor, USER_PAGE_KEY, AlertAttrs.SK_USER_ID, userId);
+        if (startKey != null) {
+            builder.exclusiveStartKey(startKey);
+        }
+
+        var pages = idx.query(builder.build()).iterator();
+        if (!pages.hasNext()) return new AlertPage(Collections.emptyList(), null);
+
+        var page = pages.next();
+        return new AlertPage(hydrate(page.items(), projection), AlertCursorCodec.encode(page.lastEvaluatedKey()));
+    }
+
+    @Override
+    public long countByUser(String userId) {
+        var idx = byUserId();
+        if (idx == null) return 0L;
+
+        var req = QueryEnhancedRequest.builder()
+                .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(userId).build()))
+                .select(Select.COUNT)
+                .build();
+
+        long total = 0L;
+        for (var page : idx.query(req)) {
+            Integer count = page.count();
+            total += count != null ? count : page.items().size();
+        }
+        return total;
     }
 
     @Override
-    public List<Alert> findByUserFiltered(String userId, String query, String brand, int limit) {
-        var base = findByUser(userId, limit > 0 ? limit : 0);
-        if ((query == null || query.isBlank()) && (brand == null || brand.isBlank())) return base;
-        String q = query == null ? "" : query.trim().toLowerCase();
-        String b = brand == null ? "" : brand.trim().toLowerCase();
+    public List<Alert> findByUserFiltered(String userId, String query, String brand, int limit, AlertProjection projection) {
+        String prefix = AlertSearchTokens.seekPrefix(query, brand);
+        if (prefix == null) return findByUser(userId, limit > 0 ? limit : 0, projection);
+
+        // The index narrows to alerts sharing the most selective term; the rest of the query is checked here.
+        // Matching needs the product name and brand, so the product join happens whatever the projection.
+        var productIds = searchIndex.findProductIds(userId, prefix);
         var filtered = new ArrayList<Alert>();
-        for (Alert a : base) {
-            boolean matches = true;
-            if (!q.isBlank()) {
-                String name = a.getProductName() != null ? a.getProductName().toLowerCase() : "";
-                String br = a.getProductBrand() != null ? a.getProductBrand().toLowerCase() : "";
-                matches = name.contains(q) || br.contains(q);
-            }
-            if (matches && !b.isBlank()) {
-                String br = a.getProductBrand() != null ? a.getProductBrand().toLowerCase() : "";
-                matches = br.contains(b);
-            }
-            if (matches) filtered.add(a);
+        for (Alert a : hydrate(batchGetAlerts(userId, productIds, projection))) {
+            if (!AlertSearchTokens.matches(a.getProductName(), a.getProductBrand(), query, brand)) continue;
+            filtered.add(a);
             if (limit > 0 && filtered.size() >= limit) break;
         }
         return filtered;
     }
 
     @Override
-    public List<Alert> findActiveByProduct(String productId) {
+    public List<Alert> findByProductsAndUser(List<String> productIds, String userId, AlertProjection projection) {
+        return hydrate(batchGetAlerts(userId, productIds, projection), projection);
+    }
+
+    private List<Alert> batchGetAlerts(String userId, List<String> productIds, AlertProjection projection) {
+        if (productIds.isEmpty()) return Collections.emptyList();
+        var byProductId = new HashMap<String, Alert>();
+        for (int from = 0; from < productIds.size(); from += MAX_BATCH_GET) {
+            var keys = new ArrayList<Map<String, AttributeValue>>();
+            for (String productId : productIds.subList(from, Math.min(from + MAX_BATCH_GET, productIds.size()))) {
+                keys.add(Map.of(
+                        AlertAttrs.PK_PRODUCT_ID, AttributeValue.fromS(productId),
+                        AlertAttrs.SK_USER_ID, AttributeValue.fromS(userId)));
+            }
+            // Low-level client: the enhanced batch get has no projection support.
+            var request = KeysAndAttributes.builder().keys(keys);
+            List<String> attributes = projection.attributes();
+            if (attributes != null) {
+                var names = new HashMap<String, String>();
+                var placeholders = new ArrayList<String>(attributes.size());
+                for (String attribute : attributes) {
+                    names.put("#" + attribute, attribute);
+                    placeholders.add("#" + attribute);
+                }
+                request.projectionExpression(String.join(", ", placeholders)).expressionAttributeNames(names);
+            }
+            for (Map<String, AttributeValue> item : batchGet(request.build())) {
+                Alert a = SCHEMA.mapToItem(item);
+                byProductId.put(a.getProductId(), a);
+            }
+        }
+        // Batch gets come back unordered; keep the index order so results are stable between calls.
+        var out = new ArrayList<Alert>(byProductId.size());
+        for (String productId : productIds) {
+            Alert a = byProductId.get(productId);
+            if (a != null) out.add(a);
+        }
+        return out;
+    }
+
+    private List<Map<String, AttributeValue>> batchGet(KeysAndAttributes keys) {
+        var items = new ArrayList<Map<String, AttributeValue>>();
+        Map<String, KeysAndAttributes> remaining = Map.of(AlertAttrs.TABLE, keys);
+        for (int attempt = 0; !remaining.isEmpty(); attempt++) {
+            if (attempt > MAX_UNPROCESSED_RETRIES) {
+                throw new IllegalStateException("Alert batch get left " + remaining.get(AlertAttrs.TABLE).keys().size() + " unprocessed keys");
+            }
+            if (attempt > 0) backoff(attempt);
+
+            var response = dynamo.batchGetItem(BatchGetItemRequest.builder().requestItems(remaining).build());
+            items.addAll(response.responses().getOrDefault(AlertAttrs.TABLE, List.of()));
+            remaining = response.hasUnprocessedKeys() ? response.unprocessedKeys() : Map.of();
+        }
+        return items;
+    }
+
+    private static void backoff(int attempt) {
+        try {
+            Thread.sleep(RETRY_BASE_DELAY_MS << (attempt - 1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying alert batch operation", ex);
+        }
+    }
+
+    @Override
+    public List<Alert> findActiveByProduct(String productId, AlertProjection projection) {
         var out = new ArrayList<Alert>();
-        var filter = Expression.builder()
-                .expression("#s = :active")
-                .expressionNames(Collections.singletonMap("#s", AlertAttrs.STATUS))
-                .expressionValues(Collections.singletonMap(":active",
-                        software.amazon.awssdk.services.dynamodb.model.AttributeValue.fromS(AlertStatus.ACTIVE.name())))
-                .build();
+        for (List<Alert> page : findActivePagesByProduct(productId, projection)) {
+            out.addAll(page);
+        }
+        return out;
+    }
 
-        var req = QueryEnhancedRequest.builder()
-                .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(productId).build()))
-                .filterExpression(filter)
-                .build();
+    @Override
+    public Iterable<List<Alert>> findActivePagesByProduct(String productId, AlertProjection projection) {
+        if (!statusIndexProps.isEnabled() || !coveredByStatusIndex(projection)) {
+            var filter = Expression.builder()
+                    .expression("#s = :active")
+                    .expressionNames(Collections.singletonMap("#s", AlertAttrs.STATUS))
+                    .expressionValues(Collections.singletonMap(":active",
+                            software.amazon.awssdk.services.dynamodb.model.AttributeValue.fromS(AlertStatus.ACTIVE.name())))
+                    .build();
+            var req = project(QueryEnhancedRequest.builder(), projection)
+                    .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(productId).build()))
+                    .filterExpression(filter)
+                    .build();
+            return hydratedPages(List.of(table().query(req)), projection);
+        }
 
-        var results = table().query(req);
+        // Reads only the active rows of each shard; the index projects just what evaluation needs.
+        // Shard 0 goes first: a rebalance only moves alerts out of it, so reading it before the
+        // others can't miss one that moves mid-read.
+        var index = byProductShard();
+        int shards = watcherShards(productId);
+        var perShard = new ArrayList<SdkIterable<Page<Alert>>>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            var req = project(QueryEnhancedRequest.builder(), projection)
+                    .queryConditional(QueryConditional.sortBeginsWith(Key.builder()
+                            .partitionValue(AlertShardKeys.key(productId, shard))
+                            .sortValue(Alert.statusUserKey(AlertStatus.ACTIVE, ""))
+                            .build()))
+                    .build();
+            perShard.add(index.query(req));
+        }
+        return hydratedPages(perShard, projection);
+    }
 
-        for (var page : results) {
+    @Override
+    public void forEachActiveProductId(Consumer<String> action) {
+        var scan = ScanRequest.builder()
+                .tableName(AlertAttrs.TABLE)
+                .projectionExpression("#pk");
+        if (statusIndexProps.isEnabled()) {
+            // The index carries fewer attributes per alert than the table, so its scan reads fewer units.
+            scan.indexName(AlertAttrs.GSI_PRODUCT_SHARD_STATUS)
+                    .filterExpression("begins_with(#su, :active)")
+                    .expressionAttributeNames(Map.of("#pk", AlertAttrs.PK_PRODUCT_ID, "#su", AlertAttrs.STATUS_USER))
+                    .expressionAttributeValues(Map.of(":active",
+                            AttributeValue.fromS(Alert.statusUserKey(AlertStatus.ACTIVE, ""))));
+        } else {
+            scan.filterExpression("#s = :active")
+                    .expressionAttributeNames(Map.of("#pk", AlertAttrs.PK_PRODUCT_ID, "#s", AlertAttrs.STATUS))
+                    .expressionAttributeValues(Map.of(":active", AttributeValue.fromS(AlertStatus.ACTIVE.name())));
+        }
+        for (Map<String, AttributeValue> item : dynamo.scanPaginator(scan.build()).items()) {
+            AttributeValue productId = item.get(AlertAttrs.PK_PRODUCT_ID);
+            if (productId != null) action.accept(productId.s());
+        }
+    }
+
+    @Override
+    public int shardProduct(String productId, int shards) {
+        int current = watcherShards(productId);
+        if (shards > current) {
+            // Readers see the new count before any alert moves, so no read skips a shard holding one.
+            AlertProduct change = new AlertProduct();
+            change.setProductId(productId);
+            change.setWatcherShards(shards);
+            products.upsert(change);
+            current = shards;
+        }
+        if (current <= 1) return 0;
+
+        // Alerts created since the last pass land in shard 0; only those move.
+        var req = QueryEnhancedRequest.builder()
+                .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(AlertShardKeys.key(productId, 0)).build()))
+                .build();
+        int moved = 0;
+        for (var page : byProductShard().query(req)) {
             for (Alert a : page.items()) {
-                out.add(a);
+                int shard = AlertShardKeys.shardOf(a.getUserId(), current);
+                if (shard == 0) continue;
+                try {
+                    dynamo.updateItem(UpdateItemRequest.builder()
+                            .tableName(AlertAttrs.TABLE)
+                            .key(Map.of(
+                                    AlertAttrs.PK_PRODUCT_ID, AttributeValue.fromS(productId),
+                                    AlertAttrs.SK_USER_ID, AttributeValue.fromS(a.getUserId())))
+                            .updateExpression("SET #ps = :ps")
+                            .conditionExpression("attribute_exists(#pk)")
+                            .expressionAttributeNames(Map.of(
+                                    "#ps", AlertAttrs.PRODUCT_SHARD,
+                                    "#pk", AlertAttrs.PK_PRODUCT_ID))
+                            .expressionAttributeValues(Map.of(
+                                    ":ps", AttributeValue.fromS(AlertShardKeys.key(productId, shard))))
+                            .build());
+                    moved++;
+                } catch (ConditionalCheckFailedException deleted) {
+                    // Alert was deleted since the index read; nothing to move.
+                }
             }
         }
-        return out;
+        return moved;
+    }
+
+    private int watcherShards(String productId) {
+        return products.findById(productId)
+                .map(AlertProduct::getWatcherShards)
+                .filter(shards -> shards > 1)
+                .orElse(1);
+    }
+
+    /** Hydrates each page as it is read, so a hot product's watchers are never all in memory at once. */
+    private Iterable<List<Alert>> hydratedPages(List<SdkIterable<Page<Alert>>> sources, AlertProjection projection) {
+        return () -> new Iterator<>() {
+            private final Iterator<SdkIterable<Page<Alert>>> remaining = sources.iterator();
+            private Iterator<Page<Alert>> pages = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!pages.hasNext() && remaining.hasNext()) {
+                    pages = remaining.next().iterator();
+                }
+                return pages.hasNext();
+            }
+
+            @Override
+            public List<Alert> next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return hydrate(new ArrayList<>(pages.next().items()), projection);
+            }
+        };
+    }
+
+    /** The status index only projects the evaluation attributes. */
+    private static boolean coveredByStatusIndex(AlertProjection projection) {
+        return projection.attributes() != null
+                && AlertProjection.EVALUATION.attributes().containsAll(projection.attributes());
     }
 
     @Override
     public void create(Alert alert) {
+        putIfAbsent(table(), alert);
+        AlertProduct previous = products.upsert(AlertProduct.from(alert));
+        searchIndex.index(alert);
+        reindexIfRenamed(previous, AlertProduct.from(alert), alert.getUserId());
+    }
+
+    @Override
+    public List<Alert> createAll(List<Alert> alerts) {
+        if (alerts.isEmpty()) return List.of();
+        // A transaction returns no old image, so the products are read first to spot renames.
+        var productIds = new ArrayList<String>(alerts.size());
+        for (Alert alert : alerts) productIds.add(alert.getProductId());
+        Map<String, AlertProduct> previous = products.findByIds(productIds);
+
+        var created = new ArrayList<Alert>(alerts.size());
+        var existing = new ArrayList<Alert>();
+        var chunk = new ArrayList<Alert>();
+        var chunkProducts = new HashSet<String>();
+        for (Alert alert : alerts) {
+            int actions = chunk.size() + chunkProducts.size() + (chunkProducts.contains(alert.getProductId()) ? 1 : 2);
+            if (actions > MAX_TRANSACT_WRITE) {
+                createChunk(chunk, created, existing);
+                chunk = new ArrayList<>();
+                chunkProducts.clear();
+            }
+            chunk.add(alert);
+            chunkProducts.add(alert.getProductId());
+        }
+        createChunk(chunk, created, existing);
+
+        searchIndex.indexAll(created);
+        var byProduct = new LinkedHashMap<String, Alert>();
+        for (Alert alert : created) byProduct.putIfAbsent(alert.getProductId(), alert);
+        for (Alert alert : byProduct.values()) {
+            reindexIfRenamed(previous.get(alert.getProductId()), AlertProduct.from(alert), alert.getUserId());
+        }
+        return existing;
+    }
+
+    /**
+     * Writes {@code chunk} in one transaction: a conditional put per alert, then one upsert per product.
+     * Alerts that already exist cancel it; they go to {@code existing} and the rest are resubmitted.
+     */
+    private void createChunk(List<Alert> chunk, List<Alert> created, List<Alert> existing) {
+        List<Alert> remaining = chunk;
+        for (int attempt = 0; !remaining.isEmpty(); attempt++) {
+            var items = new ArrayList<TransactWriteItem>(remaining.size() * 2);
+            var byProduct = new LinkedHashMap<String, Alert>();
+            for (Alert alert : remaining) {
+                items.add(TransactWriteItem.builder()
+                        .put(Put.builder()
+                                .tableName(AlertAttrs.TABLE)
+                                .item(SCHEMA.itemToMap(alert, true))
+                                .conditionExpression(NOT_EXISTS)
+                                .expressionAttributeNames(KEY_NAMES)
+                                .build())
+                        .build());
+                byProduct.putIfAbsent(alert.getProductId(), alert);
+            }
+            for (Alert alert : byProduct.values()) {
+                items.add(TransactWriteItem.builder()
+                        .update(DynamoDbAlertProductRepository.upsertAction(AlertProduct.from(alert)))
+                        .build());
+            }
+
+            try {
+                dynamo.transactWriteItems(TransactWriteItemsRequest.builder().transactItems(items).build());
+                created.addAll(remaining);
+                return;
+            } catch (TransactionCanceledException ex) {
+                if (!ex.hasCancellationReasons()) throw ex;
+                // Reasons line up with the actions, and the puts come first.
+                List<CancellationReason> reasons = ex.cancellationReasons();
+                var retry = new ArrayList<Alert>(remaining.size());
+                for (int i = 0; i < remaining.size(); i++) {
+                    if (CONDITIONAL_CHECK_FAILED.equals(reasons.get(i).code())) existing.add(remaining.get(i));
+                    else retry.add(remaining.get(i));
+                }
+                if (retry.size() == remaining.size()) {
+                    // Nothing already existed: a conflicting write or throttling cancelled it.
+                    if (attempt >= MAX_UNPROCESSED_RETRIES) throw ex;
+                    backoff(attempt + 1);
+                }
+                remaining = retry;
+            }
+        }
+    }
+
+    private static void putIfAbsent(DynamoDbTable<Alert> table, Alert alert) {
         var condition = Expression.builder()
-                .expression("attribute_not_exists(#pk) AND attribute_not_exists(#sk)")
-                .expressionNames(
-                        java.util.Map.of(
-                                "#pk", AlertAttrs.PK_PRODUCT_ID,
-                                "#sk", AlertAttrs.SK_USER_ID))
+                .expression(NOT_EXISTS)
+                .expressionNames(KEY_NAMES)
                 .build();
 
-        var req = PutItemEnhancedRequest.builder(Alert.class)
+        table.putItem(PutItemEnhancedRequest.builder(Alert.class)
                 .item(alert)
                 .conditionExpression(condition)
+                .build());
+    }
+
+    @Override
+    public void save(Alert alert) {
+        Long readVersion = alert.getVersion();
+        var condition = Expression.builder()
+                .expression("attribute_exists(#pk) AND " + (readVersion == null
+                        ? "attribute_not_exists(#v)"
+                        : "#v = :expected"))
+                .expressionNames(Map.of(
+                        "#pk", AlertAttrs.PK_PRODUCT_ID,
+                        "#v", AlertAttrs.VERSION));
+        if (readVersion != null) {
+            condition.expressionValues(Map.of(":expected", AttributeValue.fromN(readVersion.toString())));
+        }
+
+        alert.setVersion(readVersion == null ? 1L : readVersion + 1);
+        var req = PutItemEnhancedRequest.builder(Alert.class)
+                .item(alert)
+                .conditionExpression(condition.build())
+                .returnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD)
                 .build();
+        try {
+            table().putItem(req);
+        } catch (ConditionalCheckFailedException ex) {
+            alert.setVersion(readVersion);
+            throw conflict(ex);
+        }
+    }
+
+    @Override
+    public Alert update(AlertPatch patch) {
+        var spec = new ConditionalUpdate();
+        Alert changes = patch.applyTo(new Alert());
+        spec.setAll(changes);
+        if (patch.isResetStatus()) spec.remove(AlertAttrs.LAST_TRIGGERED_AT);
+        spec.expectVersion(patch.getExpectedVersion());
+        guardTriggers(spec, patch);
+        guardPricing(spec, patch);
 
-        table().putItem(req);
+        try {
+            var response = dynamo.updateItem(spec.toRequest(patch.getProductId(), patch.getUserId())
+                    .returnValues(ReturnValue.ALL_NEW)
+                    .build());
+            Alert updated = SCHEMA.mapToItem(response.attributes());
+            if (!patch.touchesProduct()) {
+                return hydrate(updated);
+            }
+            AlertProduct product = AlertProduct.from(patch);
+            AlertProduct previous = products.upsert(product);
+            AlertProduct current = previous == null ? product : previous.merge(product);
+            reindexIfRenamed(previous, current, null);
+            return current.applyTo(updated);
+        } catch (ConditionalCheckFailedException ex) {
+            throw conflict(ex);
+        }
     }
 
     @Override
-    public void save(Alert alert) {
-        table().putItem(alert);
+    public void refreshProduct(AlertProduct product) {
+        AlertProduct previous = products.upsert(product);
+        reindexIfRenamed(previous, previous == null ? product : previous.merge(product), null);
+    }
+
+    /**
+     * Search terms come from the shared product, so a rename has to be re-indexed for every alert on it,
+     * not only the one being written. {@code skipUserId} has already been indexed by the caller.
+     */
+    private void reindexIfRenamed(AlertProduct previous, AlertProduct current, String skipUserId) {
+        if (previous == null || !current.searchTermsDiffer(previous)) return;
+
+        var req = QueryEnhancedRequest.builder()
+                .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(current.getProductId()).build()))
+                .attributesToProject(AlertAttrs.PK_PRODUCT_ID, AlertAttrs.SK_USER_ID)
+                .build();
+        for (Alert a : table().query(req).items()) {
+            if (a.getUserId().equals(skipUserId)) continue;
+            searchIndex.index(current.applyTo(a));
+        }
+    }
+
+    private Alert hydrate(Alert alert) {
+        products.findById(alert.getProductId()).ifPresent(product -> product.applyTo(alert));
+        return alert;
+    }
+
+    private static QueryEnhancedRequest.Builder project(QueryEnhancedRequest.Builder builder, AlertProjection projection) {
+        List<String> attributes = projection.attributes();
+        return attributes == null ? builder : builder.attributesToProject(attributes);
+    }
+
+    private List<Alert> hydrate(List<Alert> alerts, AlertProjection projection) {
+        return projection.joinsProduct() ? hydrate(alerts) : alerts;
+    }
+
+    private List<Alert> hydrate(List<Alert> alerts) {
+        if (alerts.isEmpty()) return alerts;
+        var productIds = new ArrayList<String>(alerts.size());
+        for (Alert a : alerts) productIds.add(a.getProductId());
+        var byId = products.findByIds(productIds);
+        for (Alert a : alerts) {
+            AlertProduct product = byId.get(a.getProductId());
+            if (product != null) product.applyTo(a);
+        }
+        return alerts;
     }
 
     @Override
@@ -149,15 +615,214 @@ public class DynamoDbAlertRepository implements AlertRepository {
                 .partitionValue(productId)
                 .sortValue(userId)
                 .build());
+        searchIndex.remove(productId, userId);
+    }
+
+    @Override
+    public void deleteAll(List<String> productIds, String userId) {
+        if (productIds.isEmpty()) return;
+        var table = table();
+        var pending = new ArrayList<Object>(productIds.size());
+        for (String productId : productIds) {
+            pending.add(Key.builder().partitionValue(productId).sortValue(userId).build());
+        }
+        for (int from = 0; from < pending.size(); from += MAX_BATCH_WRITE) {
+            writeChunk(table, pending.subList(from, Math.min(from + MAX_BATCH_WRITE, pending.size())));
+        }
+        searchIndex.removeAll(productIds, userId);
+    }
+
+    private void writeChunk(DynamoDbTable<Alert> table, List<Object> chunk) {
+        List<Object> remaining = chunk;
+        for (int attempt = 0; !remaining.isEmpty(); attempt++) {
+            if (attempt > MAX_UNPROCESSED_RETRIES) {
+                throw new IllegalStateException("Alert batch write left " + remaining.size() + " unprocessed items");
+            }
+            if (attempt > 0) backoff(attempt);
+
+            var batch = WriteBatch.builder(Alert.class).mappedTableResource(table);
+            for (Object item : remaining) {
+                if (item instanceof Alert alert) batch.addPutItem(alert);
+                else batch.addDeleteItem((Key) item);
+            }
+            BatchWriteResult result = enhanced.batchWriteItem(BatchWriteItemEnhancedRequest.builder()
+                    .writeBatches(batch.build())
+                    .build());
+
+            List<Object> unprocessed = new ArrayList<>(result.unprocessedPutItemsForTable(table));
+            unprocessed.addAll(result.unprocessedDeleteItemsForTable(table));
+            remaining = unprocessed;
+        }
     }
 
     @Override
     public void updateStatus(String productId, String userId, AlertStatus status, Instant lastTriggeredAt) {
-        var current = findByProductAndUser(productId, userId).orElse(null);
-        if (current == null) return;
-        current.setStatus(status);
-        current.setLastTriggeredAt(lastTriggeredAt);
-        current.setUpdatedAt(Instant.now());
-        table().updateItem(UpdateItemEnhancedRequest.builder(Alert.class).item(current).build());
+        Alert changes = new Alert();
+        changes.setStatus(status);
+        changes.setLastTriggeredAt(lastTriggeredAt);
+        changes.setUpdatedAt(Instant.now());
+
+        var spec = new ConditionalUpdate();
+        spec.setAll(changes);
+        if (lastTriggeredAt == null) spec.remove(AlertAttrs.LAST_TRIGGERED_AT);
+        try {
+            dynamo.updateItem(spec.toRequest(productId, userId).build());
+        } catch (ConditionalCheckFailedException missing) {
+            // Alert was deleted in the meantime; nothing to update.
+        }
+    }
+
+    @Override
+    public boolean markTriggered(String productId, String userId, Long version, Instant triggeredAt) {
+        Alert changes = new Alert();
+        changes.setStatus(AlertStatus.TRIGGERED);
+        changes.setLastTriggeredAt(triggeredAt);
+        changes.setUpdatedAt(Instant.now());
+
+        var spec = new ConditionalUpdate();
+        spec.setAll(changes);
+        spec.expectVersion(version == null ? 0L : version);
+        spec.condition(spec.name(AlertAttrs.STATUS) + " = "
+                + spec.value("active", AttributeValue.fromS(AlertStatus.ACTIVE.name())));
+        try {
+            dynamo.updateItem(spec.toRequest(productId, userId).build());
+            return true;
+        } catch (ConditionalCheckFailedException changed) {
+            return false;
+        }
+    }
+
+    /**
+     * Mirrors {@link com.nimbly.phshoesbackend.alerts.core.util.AlertValidationUtils#validateTriggers} for the
+     * stored fields the patch leaves alone: at least one trigger must remain enabled after the write.
+     */
+    private static void guardTriggers(ConditionalUpdate spec, AlertPatch patch) {
+        if (isPositive(patch.getDesiredPrice()) || isPositive(patch.getDesiredPercent())
+                || Boolean.TRUE.equals(patch.getAlertIfSale())) {
+            return;
+        }
+        var alternatives = new ArrayList<String>();
+        if (patch.getDesiredPrice() == null) {
+            alternatives.add(spec.name(AlertAttrs.DESIRED_PRICE) + " > " + spec.zero());
+        }
+        if (patch.getDesiredPercent() == null) {
+            alternatives.add(spec.name(AlertAttrs.DESIRED_PERCENT) + " > " + spec.zero());
+        }
+        if (patch.getAlertIfSale() == null) {
+            alternatives.add(spec.name(AlertAttrs.ALERT_IF_SALE) + " = " + spec.value("enabled", AttributeValue.fromBool(true)));
+        }
+        if (!alternatives.isEmpty()) {
+            spec.condition("(" + String.join(" OR ", alternatives) + ")");
+        }
+    }
+
+    /**
+     * The percent rule from {@link com.nimbly.phshoesbackend.alerts.core.util.AlertValidationUtils#validatePricingSnapshot}
+     * for a patch that drops the original price while leaving the stored percent alone. Prices live on the
+     * product row, so the service checks the opposite case before writing.
+     */
+    private static void guardPricing(ConditionalUpdate spec, AlertPatch patch) {
+        if (patch.getDesiredPercent() != null || patch.getProductOriginalPrice() == null
+                || isPositive(patch.getProductOriginalPrice())) {
+            return;
+        }
+        String percent = spec.name(AlertAttrs.DESIRED_PERCENT);
+        spec.condition("(attribute_not_exists(" + percent + ") OR " + percent + " <= " + spec.zero() + ")");
+    }
+
+    private static boolean isPositive(BigDecimal value) {
+        return value != null && value.compareTo(BigDecimal.ZERO) > 0;
+    }
+
+    private RuntimeException conflict(ConditionalCheckFailedException ex) {
+        if (!ex.hasItem() || ex.item().isEmpty()) {
+            return new AlertNotFoundException("Alert not found");
+        }
+        return new AlertConflictException("Alert was modified concurrently", hydrate(SCHEMA.mapToItem(ex.item())), ex);
+    }
+
+    /**
+     * Builds a single UpdateItem that sets only the given fields, bumps {@code version} and requires the
+     * item to exist, plus any extra conditions added by the caller.
+     */
+    private static final class ConditionalUpdate {
+        private final Map<String, String> names = new HashMap<>();
+        private final Map<String, AttributeValue> values = new HashMap<>();
+        private final List<String> sets = new ArrayList<>();
+        private final List<String> removes = new ArrayList<>();
+        private final List<String> conditions = new ArrayList<>();
+        private AlertStatus status;
+
+        String name(String attribute) {
+            String placeholder = "#" + attribute;
+            names.put(placeholder, attribute);
+            return placeholder;
+        }
+
+        String value(String key, AttributeValue value) {
+            String placeholder = ":" + key;
+            values.put(placeholder, value);
+            return placeholder;
+        }
+
+        String zero() {
+            return value("zero", AttributeValue.fromN("0"));
+        }
+
+        void setAll(Alert changes) {
+            for (var entry : SCHEMA.itemToMap(changes, true).entrySet()) {
+                String attribute = entry.getKey();
+                if (AlertAttrs.PK_PRODUCT_ID.equals(attribute) || AlertAttrs.SK_USER_ID.equals(attribute)
+                        || AlertAttrs.STATUS_USER.equals(attribute) || AlertAttrs.PRODUCT_SHARD.equals(attribute)) continue;
+                sets.add(name(attribute) + " = " + value(attribute, entry.getValue()));
+            }
+            status = changes.getStatus();
+        }
+
+        void remove(String attribute) {
+            removes.add(name(attribute));
+        }
+
+        void condition(String clause) {
+            conditions.add(clause);
+        }
+
+        void expectVersion(Long expected) {
+            if (expected == null) return;
+            String version = name(AlertAttrs.VERSION);
+            String value = value("expected", AttributeValue.fromN(expected.toString()));
+            // Items written before versioning have no attribute; they count as version 0.
+            condition(expected == 0L
+                    ? "(attribute_not_exists(" + version + ") OR " + version + " = " + value + ")"
+                    : version + " = " + value);
+        }
+
+        UpdateItemRequest.Builder toRequest(String productId, String userId) {
+            if (status != null) {
+                // The changes rarely carry the user id, so the status index key is built from the item key.
+                sets.add(name(AlertAttrs.STATUS_USER) + " = "
+                        + value(AlertAttrs.STATUS_USER, AttributeValue.fromS(Alert.statusUserKey(status, userId))));
+            }
+            var update = new StringBuilder();
+            if (!sets.isEmpty()) update.append("SET ").append(String.join(", ", sets)).append(' ');
+            if (!removes.isEmpty()) update.append("REMOVE ").append(String.join(", ", removes)).append(' ');
+            update.append("ADD ").append(name(AlertAttrs.VERSION)).append(' ')
+                    .append(value("one", AttributeValue.fromN("1")));
+
+            var condition = new ArrayList<String>();
+            condition.add("attribute_exists(" + name(AlertAttrs.PK_PRODUCT_ID) + ")");
+            condition.addAll(conditions);
+
+            return UpdateItemRequest.builder()
+                    .tableName(AlertAttrs.TABLE)
+                    .key(Map.of(
+                            AlertAttrs.PK_PRODUCT_ID, AttributeValue.fromS(productId),
+                            AlertAttrs.SK_USER_ID, AttributeValue.fromS(userId)))
+                    .updateExpression(update.toString())
+                    .conditionExpression(String.join(" AND ", condition))
+                    .expressionAttributeNames(names)
+                    .expressionAttributeValues(values)
+                    .returnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD);
+        }
     }
 }
@@ -0,0 +1,212 @@
+package com.nimbly.phshoesbackend.alerts.core.repository.dynamo;
+
+import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertSearchEntry;
+import com.nimbly.phshoesbackend.alerts.core.model.dynamo.AlertSearchAttrs;
+import com.nimbly.phshoesbackend.alerts.core.repository.AlertSearchIndexRepository;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertSearchTokens;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchGetItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.ReadBatch;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Repository
+@RequiredArgsConstructor
+public class DynamoDbAlertSearchIndexRepository implements AlertSearchIndexRepository {
+
+    private static final int MAX_BATCH_GET = 100;
+    private static final int MAX_BATCH_WRITE = 25;
+    private static final int MAX_UNPROCESSED_RETRIES = 5;
+    private static final long RETRY_BASE_DELAY_MS = 50L;
+
+    private final DynamoDbEnhancedClient enhanced;
+
+    private DynamoDbTable<AlertSearchEntry> table() {
+        return enhanced.table(AlertSearchAttrs.TABLE, TableSchema.fromBean(AlertSearchEntry.class));
+    }
+
+    @Override
+    public void index(Alert alert) {
+        var table = table();
+        AlertSearchEntry manifest = table.getItem(key(alert.getUserId(), manifestKey(alert.getProductId())));
+        List<AlertSearchEntry> puts = new ArrayList<>();
+        List<Key> deletes = new ArrayList<>();
+        diff(alert, manifest, puts, deletes);
+        write(table, puts, deletes);
+    }
+
+    @Override
+    public void indexAll(Collection<Alert> alerts) {
+        if (alerts.isEmpty()) return;
+        var table = table();
+        List<Key> manifestKeys = new ArrayList<>(alerts.size());
+        for (Alert alert : alerts) manifestKeys.add(key(alert.getUserId(), manifestKey(alert.getProductId())));
+        Map<Key, AlertSearchEntry> manifests = getAll(table, manifestKeys);
+
+        List<AlertSearchEntry> puts = new ArrayList<>();
+        List<Key> deletes = new ArrayList<>();
+        for (Alert alert : alerts) {
+            diff(alert, manifests.get(key(alert.getUserId(), manifestKey(alert.getProductId()))), puts, deletes);
+        }
+        write(table, puts, deletes);
+    }
+
+    @Override
+    public void remove(String productId, String userId) {
+        var table = table();
+        AlertSearchEntry manifest = table.getItem(key(userId, manifestKey(productId)));
+        if (manifest == null) return;
+
+        List<Key> deletes = new ArrayList<>();
+        if (manifest.getTerms() != null) {
+            for (String sortKey : manifest.getTerms()) deletes.add(key(userId, sortKey));
+        }
+        deletes.add(key(userId, manifestKey(productId)));
+        write(table, List.of(), deletes);
+    }
+
+    @Override
+    public void removeAll(Collection<String> productIds, String userId) {
+        if (productIds.isEmpty()) return;
+        var table = table();
+        List<Key> manifestKeys = new ArrayList<>(productIds.size());
+        for (String productId : productIds) manifestKeys.add(key(userId, manifestKey(productId)));
+
+        List<Key> deletes = new ArrayList<>();
+        for (var manifest : getAll(table, manifestKeys).entrySet()) {
+            List<String> terms = manifest.getValue().getTerms();
+            if (terms != null) {
+                for (String sortKey : terms) deletes.add(key(userId, sortKey));
+            }
+            deletes.add(manifest.getKey());
+        }
+        write(table, List.of(), deletes);
+    }
+
+    @Override
+    public List<String> findProductIds(String userId, String termPrefix) {
+        var req = QueryEnhancedRequest.builder()
+                .queryConditional(QueryConditional.sortBeginsWith(Key.builder()
+                        .partitionValue(userId)
+                        .sortValue(termPrefix)
+                        .build()))
+                .attributesToProject(AlertSearchAttrs.PRODUCT_ID)
+                .build();
+
+        Set<String> productIds = new LinkedHashSet<>();
+        for (var page : table().query(req)) {
+            for (AlertSearchEntry entry : page.items()) {
+                if (entry.getProductId() != null) productIds.add(entry.getProductId());
+            }
+        }
+        return List.copyOf(productIds);
+    }
+
+    /** Adds the writes that bring the stored terms of {@code alert} from {@code manifest} to its current ones. */
+    private static void diff(Alert alert, AlertSearchEntry manifest, List<AlertSearchEntry> puts, List<Key> deletes) {
+        String userId = alert.getUserId();
+        String productId = alert.getProductId();
+        Set<String> previous = manifest == null || manifest.getTerms() == null
+                ? Set.of()
+                : new LinkedHashSet<>(manifest.getTerms());
+
+        Set<String> current = new LinkedHashSet<>();
+        for (String term : AlertSearchTokens.terms(alert.getProductName(), alert.getProductBrand())) {
+            current.add(term + "#" + productId);
+        }
+        if (manifest != null && previous.equals(current)) return;
+
+        for (String sortKey : current) {
+            if (!previous.contains(sortKey)) puts.add(AlertSearchEntry.of(userId, sortKey, productId));
+        }
+        for (String sortKey : previous) {
+            if (!current.contains(sortKey)) deletes.add(key(userId, sortKey));
+        }
+        AlertSearchEntry newManifest = AlertSearchEntry.of(userId, manifestKey(productId), productId);
+        newManifest.setTerms(List.copyOf(current));
+        puts.add(newManifest);
+    }
+
+    /** The stored entries for {@code keys}, by key; keys with no entry are absent. */
+    private Map<Key, AlertSearchEntry> getAll(DynamoDbTable<AlertSearchEntry> table, Collection<Key> requested) {
+        List<Key> keys = new ArrayList<>(new LinkedHashSet<>(requested));
+        var out = new HashMap<Key, AlertSearchEntry>(keys.size());
+        for (int from = 0; from < keys.size(); from += MAX_BATCH_GET) {
+            var batch = ReadBatch.builder(AlertSearchEntry.class).mappedTableResource(table);
+            for (Key key : keys.subList(from, Math.min(from + MAX_BATCH_GET, keys.size()))) batch.addGetItem(key);
+            var results = enhanced.batchGetItem(BatchGetItemEnhancedRequest.builder()
+                    .readBatches(batch.build())
+                    .build());
+            for (AlertSearchEntry entry : results.resultsForTable(table)) {
+                out.put(key(entry.getUserId(), entry.getTerm()), entry);
+            }
+        }
+        return out;
+    }
+
+    private void write(DynamoDbTable<AlertSearchEntry> table, List<AlertSearchEntry> puts, List<Key> deletes) {
+        List<Object> pending = new ArrayList<>(puts.size() + deletes.size());
+        pending.addAll(puts);
+        pending.addAll(deletes);
+        for (int from = 0; from < pending.size(); from += MAX_BATCH_WRITE) {
+            writeChunk(table, pending.subList(from, Math.min(from + MAX_BATCH_WRITE, pending.size())));
+        }
+    }
+
+    private void writeChunk(DynamoDbTable<AlertSearchEntry> table, List<Object> chunk) {
+        List<Object> remaining = chunk;
+        for (int attempt = 0; !remaining.isEmpty(); attempt++) {
+            if (attempt > MAX_UNPROCESSED_RETRIES) {
+                throw new IllegalStateException("Search index write left " + remaining.size() + " unprocessed items");
+            }
+            if (attempt > 0) backoff(attempt);
+
+            var batch = WriteBatch.builder(AlertSearchEntry.class).mappedTableResource(table);
+            for (Object item : remaining) {
+                if (item instanceof AlertSearchEntry entry) batch.addPutItem(entry);
+                else batch.addDeleteItem((Key) item);
+            }
+            BatchWriteResult result = enhanced.batchWriteItem(BatchWriteItemEnhancedRequest.builder()
+                    .writeBatches(batch.build())
+                    .build());
+
+            List<Object> unprocessed = new ArrayList<>(result.unprocessedPutItemsForTable(table));
+            unprocessed.addAll(result.unprocessedDeleteItemsForTable(table));
+            remaining = unprocessed;
+        }
+    }
+
+    private static void backoff(int attempt) {
+        try {
+            Thread.sleep(RETRY_BASE_DELAY_MS << (attempt - 1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying search index write", ex);
+        }
+    }
+
+    private static String manifestKey(String productId) {
+        return AlertSearchAttrs.MANIFEST_PREFIX + productId;
+    }
+
+    private static Key key(String userId, String sortKey) {
+        return Key.builder().partitionValue(userId).sortValue(sortKey).build();
+    }
+}
@@ -0,0 +1,284 @@
+package com.nimbly.phshoesbackend.alerts.core.repository.dynamo;
+
+import com.nimbly.phshoesbackend.alerts.core.config.props.SchedulerProperties;
+import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProductSnapshot;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProjection;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertStatus;
+import com.nimbly.phshoesbackend.alerts.core.model.dynamo.AlertAttrs;
+import com.nimbly.phshoesbackend.alerts.core.repository.ActiveAlertIndex;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertThresholdIndex;
+import com.nimbly.phshoesbackend.alerts.core.util.ColumnarAlertIndex;
+import com.nimbly.phshoesbackend.alerts.core.util.ProductAlertIndex;
+import com.nimbly.phshoesbackend.alerts.core.util.StringDictionary;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator.FixedPrices;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator.TriggeredAlert;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DescribeStreamRequest;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.ExpiredIteratorException;
+import software.amazon.awssdk.services.dynamodb.model.GetRecordsRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetRecordsResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetShardIteratorRequest;
+import software.amazon.awssdk.services.dynamodb.model.OperationType;
+import software.amazon.awssdk.services.dynamodb.model.Record;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.Shard;
+import software.amazon.awssdk.services.dynamodb.model.ShardIteratorType;
+import software.amazon.awssdk.services.dynamodb.model.TrimmedDataAccessException;
+import software.amazon.awssdk.services.dynamodb.streams.DynamoDbStreamsClient;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link ActiveAlertIndex} loaded once from a table scan and then kept current from the alerts
+ * table's stream, so creates, edits, deletes and triggers all show up without re-reading the table.
+ *
+ * <p>Iterators on the open shards are taken at {@code LATEST} before the scan starts, and drained
+ * into the load after every scan page so they do not expire however long a paced scan takes.
+ * Replaying a change the scan already saw, or will see, is harmless, because each record carries
+ * the item's full new image and records are applied in order. Shards that open later are read from
+ * {@code TRIM_HORIZON}, and only once their parent shard has been drained, which keeps each item's
+ * changes in order. If an iterator expires or the stream is trimmed past it, the index reloads from
+ * scratch.
+ *
+ * <p>A load is built off to the side and swapped in whole, so a reader never sees it half done and a
+ * reload never empties the index a run is already reading.
+ *
+ * <p>Each product's alerts are held in the {@link SchedulerProperties.Layout} configured.
+ *
+ * <p>Polling runs on the scheduling thread. The first poll does the load, so startup is not held up.
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "alerts.scheduler.active-index", name = "enabled", havingValue = "true")
+public class StreamingActiveAlertIndex implements ActiveAlertIndex {
+
+    private static final TableSchema<Alert> SCHEMA = TableSchema.fromBean(Alert.class);
+
+    private final DynamoDbClient dynamo;
+    private final DynamoDbStreamsClient streams;
+    private final SchedulerProperties props;
+
+    /** What readers see; replaced whole at the end of each load. */
+    private volatile Loaded loaded = new Loaded(new ConcurrentHashMap<>(), new StringDictionary());
+    /** Iterator per shard still being read; touched only by the polling thread. */
+    private final Map<String, String> iterators = new LinkedHashMap<>();
+    private final Set<String> knownShards = new HashSet<>();
+    private volatile boolean ready;
+    private String streamArn;
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public List<Alert> findActiveByProduct(String productId) {
+        ProductAlertIndex watchers = loaded.byProduct().get(productId);
+        if (watchers == null) return List.of();
+        var copies = new ArrayList<Alert>(watchers.size());
+        for (Alert alert : watchers.alerts()) copies.add(evaluationCopy(alert));
+        return copies;
+    }
+
+    @Override
+    public int countActiveByProduct(String productId) {
+        ProductAlertIndex watchers = loaded.byProduct().get(productId);
+        return watchers == null ? 0 : watchers.size();
+    }
+
+    @Override
+    public List<TriggeredAlert> findTriggeredByProduct(String productId, AlertProductSnapshot snapshot, FixedPrices prices) {
+        ProductAlertIndex watchers = loaded.byProduct().get(productId);
+        if (watchers == null) return List.of();
+        var copies = new ArrayList<TriggeredAlert>();
+        for (TriggeredAlert triggered : watchers.triggered(snapshot, prices)) {
+            copies.add(new TriggeredAlert(evaluationCopy(triggered.alert()), triggered.decision()));
+        }
+        return copies;
+    }
+
+    @Scheduled(fixedDelayString = "${alerts.scheduler.active-index.poll-interval:PT1S}")
+    public void poll() {
+        try {
+            if (!ready) {
+                bootstrap();
+            } else {
+                drain(loaded);
+            }
+        } catch (ExpiredIteratorException | TrimmedDataAccessException ex) {
+            log.warn("alert.index stream position lost, reloading: {}", ex.getMessage());
+            ready = false;
+        } catch (RuntimeException ex) {
+            // Keep what we have; the next poll retries from the same iterators (or the load, if not ready yet).
+            log.warn("alert.index poll failed: {}", ex.getMessage());
+        }
+    }
+
+    void bootstrap() {
+        streamArn = dynamo.describeTable(DescribeTableRequest.builder().tableName(AlertAttrs.TABLE).build())
+                .table()
+                .latestStreamArn();
+        if (streamArn == null) {
+            throw new IllegalStateException("Alerts table has no stream; migration 0.0.4 enables it");
+        }
+
+        iterators.clear();
+        knownShards.clear();
+        for (Shard shard : shards()) {
+            knownShards.add(shard.shardId());
+            // Closed shards only hold changes the scan below already reflects.
+            if (shard.sequenceNumberRange().endingSequenceNumber() == null) {
+                iterators.put(shard.shardId(), iterator(shard.shardId(), ShardIteratorType.LATEST));
+            }
+        }
+
+        var loading = new Loaded(new ConcurrentHashMap<>(), new StringDictionary());
+        int scanned = 0;
+        for (ScanResponse page : dynamo.scanPaginator(activeScan())) {
+            for (Map<String, AttributeValue> item : page.items()) {
+                put(loading, SCHEMA.mapToItem(item));
+                scanned++;
+            }
+            // Iterators expire 15 minutes after they are issued; reading them renews them.
+            drain(loading);
+        }
+        loaded = loading;
+        ready = true;
+        log.info("alert.index loaded activeAlerts={} products={} shards={}", scanned, loading.byProduct().size(), iterators.size());
+    }
+
+    private void drain(Loaded into) {
+        boolean shardClosed = false;
+        for (String shardId : List.copyOf(iterators.keySet())) {
+            GetRecordsResponse response = streams.getRecords(GetRecordsRequest.builder()
+                    .shardIterator(iterators.get(shardId))
+                    .build());
+            for (Record record : response.records()) apply(into, record);
+            if (response.nextShardIterator() == null) {
+                iterators.remove(shardId);
+                shardClosed = true;
+            } else {
+                iterators.put(shardId, response.nextShardIterator());
+            }
+        }
+        // Shards only split or roll over when another one closes, so that is the time to look for children.
+        if (shardClosed) {
+            for (Shard shard : shards()) {
+                if (knownShards.contains(shard.shardId()) || iterators.containsKey(shard.parentShardId())) continue;
+                knownShards.add(shard.shardId());
+                iterators.put(shard.shardId(), iterator(shard.shardId(), ShardIteratorType.TRIM_HORIZON));
+            }
+        }
+    }
+
+    private void apply(Loaded into, Record record) {
+        Map<String, AttributeValue> keys = record.dynamodb().keys();
+        String productId = keys.get(AlertAttrs.PK_PRODUCT_ID).s();
+        String userId = keys.get(AlertAttrs.SK_USER_ID).s();
+        if (record.eventName() == OperationType.REMOVE) {
+            remove(into, productId, userId);
+            return;
+        }
+        Alert alert = SCHEMA.mapToItem(record.dynamodb().newImage());
+        if (alert.getStatus() == AlertStatus.ACTIVE) {
+            put(into, alert);
+        } else {
+            remove(into, productId, userId);
+        }
+    }
+
+    private void put(Loaded into, Alert alert) {
+        // The index compiles the thresholds once; every copy handed to the scheduler shares them.
+        into.byProduct().computeIfAbsent(alert.getProductId(), productId -> newProductIndex(productId, into.users()))
+                .put(evaluationCopy(alert));
+    }
+
+    private ProductAlertIndex newProductIndex(String productId, StringDictionary users) {
+        return props.getActiveIndex().getLayout() == SchedulerProperties.Layout.COLUMNAR
+                ? new ColumnarAlertIndex(productId, users)
+                : new AlertThresholdIndex();
+    }
+
+    private void remove(Loaded into, String productId, String userId) {
+        into.byProduct().computeIfPresent(productId, (id, watchers) -> {
+            watchers.remove(userId);
+            return watchers.isEmpty() ? null : watchers;
+        });
+    }
+
+    private List<Shard> shards() {
+        var shards = new ArrayList<Shard>();
+        String lastShardId = null;
+        do {
+            var description = streams.describeStream(DescribeStreamRequest.builder()
+                            .streamArn(streamArn)
+                            .exclusiveStartShardId(lastShardId)
+                            .build())
+                    .streamDescription();
+            shards.addAll(description.shards());
+            lastShardId = description.lastEvaluatedShardId();
+        } while (lastShardId != null);
+        return shards;
+    }
+
+    private String iterator(String shardId, ShardIteratorType type) {
+        return streams.getShardIterator(GetShardIteratorRequest.builder()
+                        .streamArn(streamArn)
+                        .shardId(shardId)
+                        .shardIteratorType(type)
+                        .build())
+                .shardIterator();
+    }
+
+    private static ScanRequest activeScan() {
+        var names = new HashMap<String, String>();
+        var placeholders = new ArrayList<String>();
+        for (String attribute : AlertProjection.EVALUATION.attributes()) {
+            names.put("#" + attribute, attribute);
+            placeholders.add("#" + attribute);
+        }
+        return ScanRequest.builder()
+                .tableName(AlertAttrs.TABLE)
+                .projectionExpression(String.join(", ", placeholders))
+                .filterExpression("#" + AlertAttrs.STATUS + " = :active")
+                .expressionAttributeNames(names)
+                .expressionAttributeValues(Map.of(":active", AttributeValue.fromS(AlertStatus.ACTIVE.name())))
+                .build();
+    }
+
+    private static Alert evaluationCopy(Alert alert) {
+        Alert copy = new Alert();
+        copy.setProductId(alert.getProductId());
+        copy.setUserId(alert.getUserId());
+        copy.setDesiredPrice(alert.getDesiredPrice());
+        copy.setDesiredPercent(alert.getDesiredPercent());
+        copy.setAlertIfSale(alert.getAlertIfSale());
+        copy.setChannels(alert.getChannels() == null ? null : List.copyOf(alert.getChannels()));
+        copy.setStatus(alert.getStatus());
+        copy.setVersion(alert.getVersion());
+        copy.setThresholds(alert.getThresholds());
+        return copy;
+    }
+
+    /** Alerts by product, with the user codes their columnar indexes share. */
+    private record Loaded(Map<String, ProductAlertIndex> byProduct, StringDictionary users) {
+    }
+}
@@ -1,6 +1,10 @@
 package com.nimbly.phshoesbackend.alerts.core.service;
 
 import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertBatchItemResult;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertPage;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProjection;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertSearchResult;
 import com.nimbly.phshoesbackend.alerts.core.model.dto.AlertCreateRequest;
 import com.nimbly.phshoesbackend.alerts.core.model.dto.AlertUpdateRequest;
 
@@ -10,13 +14,25 @@ import java.util.Optional;
 public interface AlertService {
     Alert createAlert(String userId, AlertCreateRequest request);
 
+    /**
+     * Creates up to 100 alerts in batched writes and reports an outcome per request entry, in order.
+     */
+    List<AlertBatchItemResult> createAlerts(String userId, List<AlertCreateRequest> requests);
+
     Alert updateAlert(String productId, String userId, AlertUpdateRequest request);
 
     void deleteAlert(String productId, String userId);
 
+    List<AlertBatchItemResult> deleteAlerts(String userId, List<String> productIds);
+
     Optional<Alert> getAlert(String productId, String userId);
 
+    List<AlertBatchItemResult> getAlerts(String userId, List<String> productIds, AlertProjection projection);
+
     List<Alert> listAlerts(String userId, int limit);
-    List<Alert> searchAlerts(String userId, String query, String brand, int page, int size);
-    List<Alert> searchAllAlerts(String userId, String query, String brand);
+    AlertPage listAlerts(String userId, Integer limit, String cursor, AlertProjection projection);
+    /** The user's archived alerts, paged in product id order. */
+    AlertPage listArchivedAlerts(String userId, Integer limit, String cursor);
+
+    AlertSearchResult searchAlerts(String userId, String query, String brand, int page, int size, AlertProjection projection);
 }
@@ -1,5 +1,6 @@
 package com.nimbly.phshoesbackend.alerts.core.service;
 
+import com.nimbly.phshoesbackend.alerts.core.model.AlertArchiveSummary;
 import com.nimbly.phshoesbackend.alerts.core.model.SchedulerRunSummary;
 
 import java.time.LocalDate;
@@ -7,4 +8,10 @@ import java.time.LocalDate;
 public interface AlertsSchedulerService {
     SchedulerRunSummary run(LocalDate date);
     SchedulerRunSummary run(LocalDate date, String testEmailNormalized);
+
+    /**
+     * Moves alerts that have stayed TRIGGERED past {@code alerts.scheduler.archive.triggered-age}
+     * into the archive table. A dry run only counts them.
+     */
+    AlertArchiveSummary archiveTriggered();
 }
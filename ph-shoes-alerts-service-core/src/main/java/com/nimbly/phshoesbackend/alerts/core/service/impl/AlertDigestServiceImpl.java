@@ -22,16 +22,20 @@ import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AlertDigestServiceImpl implements AlertDigestService {
     private static final String TEMPLATE_PATH = "email/alert-digest.html";
+    private static final int PREFETCH_CHUNK = 100;
 
     private final AccountRepository accountRepository;
     private final SuppressionService suppressionService;
@@ -55,34 +59,40 @@ public class AlertDigestServiceImpl implements AlertDigestService {
         int suppressed = 0;
         int errors = 0;
 
-        for (Map.Entry<String, List<TriggeredEmailItem>> entry : digests.entrySet()) {
-            String userId = entry.getKey();
-            List<TriggeredEmailItem> items = entry.getValue();
-            if (items == null || items.isEmpty()) {
-                continue;
-            }
+        List<String> userIds = digests.entrySet().stream()
+                .filter(entry -> entry.getValue() != null && !entry.getValue().isEmpty())
+                .map(Map.Entry::getKey)
+                .toList();
+        Map<String, Recipient> recipients = prefetchRecipients(userIds);
+        Map<FragmentKey, Fragment> fragments = new HashMap<>();
+
+        for (String userId : userIds) {
+            List<TriggeredEmailItem> items = digests.get(userId);
+            Recipient recipient = recipients.get(userId);
 
             try {
-                Optional<Account> optionalAccount = accountRepository.findByUserId(userId);
-                if (optionalAccount.isEmpty()) {
+                if (recipient.failure() != null) {
+                    throw recipient.failure();
+                }
+                if (recipient.account() == null) {
                     log.warn("alert.email missing account userId={} alerts={}", userId, items.size());
                     continue;
                 }
 
-                Account account = optionalAccount.get();
-                String emailPlain = safeDecrypt(account.getEmailEnc());
+                Account account = recipient.account();
+                String emailPlain = recipient.email();
                 if (!StringUtils.hasText(emailPlain)) {
                     log.warn("alert.email decrypt failed userId={} alerts={}", userId, items.size());
                     continue;
                 }
 
-                if (suppressionService.shouldBlock(emailPlain)) {
+                if (recipient.suppressed()) {
                     log.info("alert.email suppressed userId={} email={}", userId, mask(emailPlain));
                     suppressed++;
                     continue;
                 }
 
-                EmailRequest request = buildDigestEmail(emailPlain, account.getEmailHash(), userId, items);
+                EmailRequest request = buildDigestEmail(emailPlain, account.getEmailHash(), userId, items, fragments);
                 notificationService.sendEmailVerification(request);
                 sent++;
 
@@ -96,6 +106,49 @@ public class AlertDigestServiceImpl implements AlertDigestService {
         return new EmailDeliveryReport(sent, suppressed, errors);
     }
 
+    /**
+     * Looks up every recipient's account, decrypts its address and checks it against the suppression
+     * list before the first send. Lookups run {@link #PREFETCH_CHUNK} at a time on virtual threads, so
+     * a night with thousands of digests waits on a few dozen rounds of reads instead of two reads per
+     * user, and the send loop only reads the results.
+     */
+    private Map<String, Recipient> prefetchRecipients(List<String> userIds) {
+        Map<String, Recipient> recipients = new HashMap<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int from = 0; from < userIds.size(); from += PREFETCH_CHUNK) {
+                List<String> chunk = userIds.subList(from, Math.min(from + PREFETCH_CHUNK, userIds.size()));
+                List<CompletableFuture<Recipient>> lookups = chunk.stream()
+                        .map(userId -> CompletableFuture.supplyAsync(() -> lookupRecipient(userId), executor))
+                        .toList();
+                for (int i = 0; i < chunk.size(); i++) {
+                    recipients.put(chunk.get(i), lookups.get(i).join());
+                }
+            }
+        }
+        return recipients;
+    }
+
+    private Recipient lookupRecipient(String userId) {
+        try {
+            Optional<Account> account = accountRepository.findByUserId(userId);
+            if (account.isEmpty()) {
+                return new Recipient(null, null, false, null);
+            }
+            String email = safeDecrypt(account.get().getEmailEnc());
+            boolean suppressed = StringUtils.hasText(email) && suppressionService.shouldBlock(email);
+            return new Recipient(account.get(), email, suppressed, null);
+        } catch (RuntimeException ex) {
+            return new Recipient(null, null, false, ex);
+        }
+    }
+
+    /**
+     * A digest recipient as prefetched: no account when it is missing, no email when decryption
+     * failed, and the failure when the account lookup or suppression check threw.
+     */
+    private record Recipient(Account account, String email, boolean suppressed, RuntimeException failure) {
+    }
+
     @Override
     public Optional<String> resolveUserIdByNormalizedEmail(String normalizedEmail) {
         if (!StringUtils.hasText(normalizedEmail)) {
@@ -114,10 +167,12 @@ public class AlertDigestServiceImpl implements AlertDigestService {
         return Optional.empty();
     }
 
-    private EmailRequest buildDigestEmail(String email, String emailHash, String userId, List<TriggeredEmailItem> items) {
+    private EmailRequest buildDigestEmail(String email, String emailHash, String userId, List<TriggeredEmailItem> items,
+                                          Map<FragmentKey, Fragment> fragments) {
         String subject = "You have " + items.size() + " price alert" + (items.size() > 1 ? "s" : "");
-        String textBody = buildDigestText(items);
-        String htmlBody = buildDigestHtml(items);
+        List<Fragment> rendered = items.stream().map(item -> fragment(item, fragments)).toList();
+        String textBody = buildDigestText(rendered);
+        String htmlBody = buildDigestHtml(rendered);
         String listUnsub = unsubscribeService.buildListUnsubscribeHeader(emailHash)
                 .orElse(null);
 
@@ -141,66 +196,86 @@ public class AlertDigestServiceImpl implements AlertDigestService {
         return requestBuilder.build();
     }
 
-    private String buildDigestText(List<TriggeredEmailItem> items) {
+    private String buildDigestText(List<Fragment> fragments) {
         StringBuilder builder = new StringBuilder();
         builder.append("Your PH Shoes alerts hit:\n\n");
-        for (TriggeredEmailItem item : items) {
-            AlertProductSnapshot snapshot = item.snapshot();
-            builder.append("- ").append(safeTitle(snapshot)).append("\n");
-            if (snapshot.getProductBrand() != null) {
-                builder.append("  Brand: ").append(snapshot.getProductBrand()).append("\n");
-            }
-            builder.append("  Price: ").append(formatMoney(firstNonNull(snapshot.getPriceSale(), snapshot.getPriceOriginal())));
-            BigDecimal original = snapshot.getPriceOriginal();
-            if (original != null) {
-                builder.append(" (orig ").append(formatMoney(original)).append(")");
-            }
-            builder.append("\n");
-            builder.append("  Reason: ").append(item.reason() == null ? "Triggered" : item.reason()).append("\n");
-            if (snapshot.getProductUrl() != null) {
-                builder.append("  Link: ").append(snapshot.getProductUrl()).append("\n");
-            }
-            builder.append("\n");
+        for (Fragment fragment : fragments) {
+            builder.append(fragment.text());
         }
         builder.append("You are receiving this because you set alerts on PH Shoes.");
         return builder.toString();
     }
 
-    private String buildDigestHtml(List<TriggeredEmailItem> items) {
-        String renderedItems = items.stream()
-                .map(item -> {
-                    AlertProductSnapshot snapshot = item.snapshot();
-                    BigDecimal sale = firstNonNull(snapshot.getPriceSale(), snapshot.getPriceOriginal());
-                    BigDecimal original = snapshot.getPriceOriginal();
-                    String originalMarkup = original != null
-                            ? "<small>" + formatMoney(original) + "</small>"
-                            : "";
-
-                    return """
-                      <div class="item">
-                        <img src="%s" alt="%s" />
-                        <div>
-                          <div class="title">%s</div>
-                          <div class="meta">Brand: %s</div>
-                          <div class="price">%s %s</div>
-                          <div class="reason">Reason: %s</div>
-                          <div class="cta"><a href="%s" target="_blank">Open product</a></div>
-                        </div>
-                      </div>
-                    """.formatted(
-                            orBlank(snapshot.getProductImageUrl() != null ? snapshot.getProductImageUrl() : snapshot.getProductImage()),
-                            safeTitle(snapshot),
-                            safeTitle(snapshot),
-                            orBlank(snapshot.getProductBrand()),
-                            formatMoney(sale),
-                            originalMarkup,
-                            item.reason() == null ? "Triggered" : item.reason(),
-                            orBlank(snapshot.getProductUrl())
-                    );
-                })
-                .collect(Collectors.joining());
-
-        return templateRenderer.render(TEMPLATE_PATH, Map.of("items", renderedItems));
+    private String buildDigestHtml(List<Fragment> fragments) {
+        StringBuilder renderedItems = new StringBuilder();
+        for (Fragment fragment : fragments) {
+            renderedItems.append(fragment.html());
+        }
+        return templateRenderer.render(TEMPLATE_PATH, Map.of("items", renderedItems.toString()));
+    }
+
+    /**
+     * The item's rendered card, shared by every digest in the run with the same product and reason,
+     * so a product triggered for thousands of users is formatted once.
+     */
+    private Fragment fragment(TriggeredEmailItem item, Map<FragmentKey, Fragment> fragments) {
+        return fragments.computeIfAbsent(new FragmentKey(item.snapshot(), item.reason()), this::renderFragment);
+    }
+
+    private Fragment renderFragment(FragmentKey key) {
+        AlertProductSnapshot snapshot = key.snapshot();
+        String reason = key.reason() == null ? "Triggered" : key.reason();
+        BigDecimal sale = firstNonNull(snapshot.getPriceSale(), snapshot.getPriceOriginal());
+        BigDecimal original = snapshot.getPriceOriginal();
+
+        StringBuilder text = new StringBuilder();
+        text.append("- ").append(safeTitle(snapshot)).append("\n");
+        if (snapshot.getProductBrand() != null) {
+            text.append("  Brand: ").append(snapshot.getProductBrand()).append("\n");
+        }
+        text.append("  Price: ").append(formatMoney(sale));
+        if (original != null) {
+            text.append(" (orig ").append(formatMoney(original)).append(")");
+        }
+        text.append("\n");
+        text.append("  Reason: ").append(reason).append("\n");
+        if (snapshot.getProductUrl() != null) {
+            text.append("  Link: ").append(snapshot.getProductUrl()).append("\n");
+        }
+        text.append("\n");
+
+        String originalMarkup = original != null
+                ? "<small>" + formatMoney(original) + "</small>"
+                : "";
+        String html = """
+                  <div class="item">
+                    <img src="%s" alt="%s" />
+                    <div>
+                      <div class="title">%s</div>
+                      <div class="meta">Brand: %s</div>
+                      <div class="price">%s %s</div>
+                      <div class="reason">Reason: %s</div>
+                      <div class="cta"><a href="%s" target="_blank">Open product</a></div>
+                    </div>
+                  </div>
+                """.formatted(
+                orBlank(snapshot.getProductImageUrl() != null ? snapshot.getProductImageUrl() : snapshot.getProductImage()),
+                safeTitle(snapshot),
+                safeTitle(snapshot),
+                orBlank(snapshot.getProductBrand()),
+                formatMoney(sale),
+                originalMarkup,
+                reason,
+                orBlank(snapshot.getProductUrl())
+        );
+        return new Fragment(html, text.toString());
+    }
+
+    private record FragmentKey(AlertProductSnapshot snapshot, String reason) {
+    }
+
+    /** One digest item rendered for the HTML and the plain-text body. */
+    private record Fragment(String html, String text) {
     }
 
     private static BigDecimal firstNonNull(BigDecimal a, BigDecimal b) {
@@ -1,9 +1,19 @@
 package com.nimbly.phshoesbackend.alerts.core.service.impl;
 
-import com.nimbly.phshoesbackend.alerts.core.exception.AlertNotFoundException;
+import com.nimbly.phshoesbackend.alerts.core.exception.AlertConflictException;
 import com.nimbly.phshoesbackend.alerts.core.exception.DuplicateAlertException;
+import com.nimbly.phshoesbackend.alerts.core.exception.InvalidAlertException;
 import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertBatchItemResult;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertBatchItemResult.Outcome;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertPage;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertPatch;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProduct;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProjection;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertSearchResult;
 import com.nimbly.phshoesbackend.alerts.core.model.AlertStatus;
+import com.nimbly.phshoesbackend.alerts.core.repository.AlertArchiveRepository;
+import com.nimbly.phshoesbackend.alerts.core.repository.AlertProductRepository;
 import com.nimbly.phshoesbackend.alerts.core.repository.AlertRepository;
 import com.nimbly.phshoesbackend.alerts.core.service.AlertService;
 import com.nimbly.phshoesbackend.alerts.core.util.AlertValidationUtils;
@@ -16,6 +26,11 @@ import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedExce
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,10 +38,61 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class AlertServiceImpl implements AlertService {
 
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 100;
+    static final int MAX_BATCH_SIZE = 100;
+
     private final AlertRepository repository;
+    private final AlertProductRepository productRepository;
+    private final AlertArchiveRepository archiveRepository;
 
     @Override
     public Alert createAlert(String userId, AlertCreateRequest request) {
+        Alert alert = newAlert(userId, request, Instant.now());
+        try {
+            repository.create(alert);
+        } catch (ConditionalCheckFailedException dup) {
+            throw new DuplicateAlertException("Alert already exists for product/user", dup);
+        }
+        return alert;
+    }
+
+    @Override
+    public List<AlertBatchItemResult> createAlerts(String userId, List<AlertCreateRequest> requests) {
+        checkBatchSize(requests.size());
+        Instant now = Instant.now();
+        var results = new ArrayList<AlertBatchItemResult>(requests.size());
+        var candidates = new LinkedHashMap<String, Alert>();
+        for (AlertCreateRequest request : requests) {
+            String productId = request.getProductId();
+            if (candidates.containsKey(productId)) {
+                results.add(AlertBatchItemResult.rejected(productId, Outcome.DUPLICATE, "Duplicate productId in request"));
+                continue;
+            }
+            try {
+                candidates.put(productId, newAlert(userId, request, now));
+                results.add(null);
+            } catch (InvalidAlertException invalid) {
+                results.add(AlertBatchItemResult.rejected(productId, Outcome.INVALID, invalid.getMessage()));
+            }
+        }
+
+        var existing = new HashSet<String>();
+        for (Alert alert : repository.createAll(List.copyOf(candidates.values()))) {
+            existing.add(alert.getProductId());
+        }
+
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) != null) continue;
+            String productId = requests.get(i).getProductId();
+            results.set(i, existing.contains(productId)
+                    ? AlertBatchItemResult.rejected(productId, Outcome.DUPLICATE, "Alert already exists for product/user")
+                    : AlertBatchItemResult.of(productId, Outcome.CREATED, candidates.get(productId)));
+        }
+        return results;
+    }
+
+    private static Alert newAlert(String userId, AlertCreateRequest request, Instant now) {
         BigDecimal desiredPrice = toBigDecimal(request.getDesiredPrice());
         BigDecimal desiredPercent = toBigDecimal(request.getDesiredPercent());
         BigDecimal originalPrice = toBigDecimal(request.getProductOriginalPrice());
@@ -35,7 +101,6 @@ public class AlertServiceImpl implements AlertService {
         AlertValidationUtils.validateTriggers(desiredPrice, desiredPercent, request.getAlertIfSale());
         AlertValidationUtils.validatePricingSnapshot(desiredPercent, originalPrice, currentPrice);
 
-        Instant now = Instant.now();
         Alert alert = new Alert();
         alert.setProductId(request.getProductId());
         alert.setUserId(userId);
@@ -53,65 +118,65 @@ public class AlertServiceImpl implements AlertService {
         alert.setStatus(AlertStatus.ACTIVE);
         alert.setCreatedAt(now);
         alert.setUpdatedAt(now);
-
-        try {
-            repository.create(alert);
-        } catch (ConditionalCheckFailedException dup) {
-            throw new DuplicateAlertException("Alert already exists for product/user", dup);
-        }
+        alert.setVersion(1L);
         return alert;
     }
 
     @Override
     public Alert updateAlert(String productId, String userId, AlertUpdateRequest request) {
-        Alert existing = repository.findByProductAndUser(productId, userId)
-                .orElseThrow(() -> new AlertNotFoundException("Alert not found"));
+        AlertPatch patch = AlertPatch.builder()
+                .productId(productId)
+                .userId(userId)
+                .expectedVersion(request.getVersion())
+                .desiredPrice(toBigDecimal(request.getDesiredPrice()))
+                .desiredPercent(toBigDecimal(request.getDesiredPercent()))
+                .alertIfSale(request.getAlertIfSale())
+                .channels(request.getChannels() == null
+                        ? null
+                        : AlertValidationUtils.normalizeChannels(toUpdateChannelStrings(request.getChannels())))
+                .productName(request.getProductName())
+                .productBrand(request.getProductBrand())
+                .productImage(request.getProductImage())
+                .productImageUrl(uriToString(request.getProductImageUrl()))
+                .productUrl(uriToString(request.getProductUrl()))
+                .productOriginalPrice(toBigDecimal(request.getProductOriginalPrice()))
+                .productCurrentPrice(toBigDecimal(request.getProductCurrentPrice()))
+                .resetStatus(Boolean.TRUE.equals(request.getResetStatus()))
+                .updatedAt(Instant.now())
+                .build();
+        validateKnownFields(patch);
 
-        if (request.getDesiredPrice() != null) {
-            existing.setDesiredPrice(toBigDecimal(request.getDesiredPrice()));
-        }
-        if (request.getDesiredPercent() != null) {
-            existing.setDesiredPercent(toBigDecimal(request.getDesiredPercent()));
-        }
-        if (request.getAlertIfSale() != null) {
-            existing.setAlertIfSale(request.getAlertIfSale());
-        }
-        if (request.getChannels() != null) {
-            existing.setChannels(AlertValidationUtils.normalizeChannels(toUpdateChannelStrings(request.getChannels())));
-        }
-        if (request.getProductName() != null) {
-            existing.setProductName(request.getProductName());
-        }
-        if (request.getProductBrand() != null) {
-            existing.setProductBrand(request.getProductBrand());
-        }
-        if (request.getProductImage() != null) {
-            existing.setProductImage(request.getProductImage());
-        }
-        if (request.getProductImageUrl() != null) {
-            existing.setProductImageUrl(uriToString(request.getProductImageUrl()));
-        }
-        if (request.getProductUrl() != null) {
-            existing.setProductUrl(uriToString(request.getProductUrl()));
-        }
-        if (request.getProductOriginalPrice() != null) {
-            existing.setProductOriginalPrice(toBigDecimal(request.getProductOriginalPrice()));
-        }
-        if (request.getProductCurrentPrice() != null) {
-            existing.setProductCurrentPrice(toBigDecimal(request.getProductCurrentPrice()));
+        try {
+            return repository.update(patch);
+        } catch (AlertConflictException conflict) {
+            Alert current = conflict.getCurrent();
+            if (current == null) throw conflict;
+            // The write is conditioned on the same rules; re-check them against the stored alert to
+            // tell a validation failure apart from a lost race.
+            Alert merged = patch.applyTo(current);
+            AlertValidationUtils.validateTriggers(merged.getDesiredPrice(), merged.getDesiredPercent(), merged.getAlertIfSale());
+            AlertValidationUtils.validatePricingSnapshot(merged.getDesiredPercent(), merged.getProductOriginalPrice(), merged.getProductCurrentPrice());
+            throw conflict;
         }
+    }
 
-        AlertValidationUtils.validateTriggers(existing.getDesiredPrice(), existing.getDesiredPercent(), existing.getAlertIfSale());
-        AlertValidationUtils.validatePricingSnapshot(existing.getDesiredPercent(), existing.getProductOriginalPrice(), existing.getProductCurrentPrice());
-
-        if (Boolean.TRUE.equals(request.getResetStatus())) {
-            existing.setStatus(AlertStatus.ACTIVE);
-            existing.setLastTriggeredAt(null);
+    /**
+     * Rejects patches that are invalid regardless of what is stored, before spending a write on them.
+     */
+    private void validateKnownFields(AlertPatch patch) {
+        if (patch.getDesiredPrice() != null && patch.getDesiredPercent() != null && patch.getAlertIfSale() != null) {
+            AlertValidationUtils.validateTriggers(patch.getDesiredPrice(), patch.getDesiredPercent(), patch.getAlertIfSale());
         }
-        existing.setUpdatedAt(Instant.now());
-
-        repository.save(existing);
-        return existing;
+        if (patch.getDesiredPercent() != null && patch.getProductOriginalPrice() != null) {
+            AlertValidationUtils.validatePricingSnapshot(patch.getDesiredPercent(), patch.getProductOriginalPrice(), null);
+        } else if (isPositive(patch.getDesiredPercent())) {
+            // The original price lives on the shared product row, outside the alert's conditional write.
+            BigDecimal originalPrice = productRepository.findById(patch.getProductId())
+                    .map(AlertProduct::getProductOriginalPrice)
+                    .orElse(null);
+            AlertValidationUtils.validatePricingSnapshot(patch.getDesiredPercent(), originalPrice, null);
+        }
+        AlertValidationUtils.validatePricingSnapshot(null, null, patch.getProductCurrentPrice());
     }
 
     @Override
@@ -119,32 +184,97 @@ public class AlertServiceImpl implements AlertService {
         repository.delete(productId, userId);
     }
 
+    @Override
+    public List<AlertBatchItemResult> deleteAlerts(String userId, List<String> productIds) {
+        checkBatchSize(productIds.size());
+        var distinct = List.copyOf(new LinkedHashSet<>(productIds));
+        repository.deleteAll(distinct, userId);
+        // Like the single delete, removing an alert that does not exist is not an error.
+        var results = new ArrayList<AlertBatchItemResult>(distinct.size());
+        for (String productId : distinct) {
+            results.add(AlertBatchItemResult.of(productId, Outcome.DELETED, null));
+        }
+        return results;
+    }
+
     @Override
     public Optional<Alert> getAlert(String productId, String userId) {
         return repository.findByProductAndUser(productId, userId);
     }
 
+    @Override
+    public List<AlertBatchItemResult> getAlerts(String userId, List<String> productIds, AlertProjection projection) {
+        checkBatchSize(productIds.size());
+        var distinct = List.copyOf(new LinkedHashSet<>(productIds));
+        var found = new HashMap<String, Alert>();
+        for (Alert alert : repository.findByProductsAndUser(distinct, userId, projection)) {
+            found.put(alert.getProductId(), alert);
+        }
+        var results = new ArrayList<AlertBatchItemResult>(distinct.size());
+        for (String productId : distinct) {
+            Alert alert = found.get(productId);
+            results.add(alert != null
+                    ? AlertBatchItemResult.of(productId, Outcome.FOUND, alert)
+                    : AlertBatchItemResult.rejected(productId, Outcome.NOT_FOUND, null));
+        }
+        return results;
+    }
+
+    private static void checkBatchSize(int size) {
+        if (size == 0 || size > MAX_BATCH_SIZE) {
+            throw new InvalidAlertException("Bulk requests take between 1 and " + MAX_BATCH_SIZE + " items");
+        }
+    }
+
     @Override
     public List<Alert> listAlerts(String userId, int limit) {
-        return repository.findByUser(userId, limit);
+        return repository.findByUser(userId, limit, AlertProjection.FULL);
+    }
+
+    @Override
+    public AlertPage listAlerts(String userId, Integer limit, String cursor, AlertProjection projection) {
+        int pageSize = limit == null || limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        return repository.findPageByUser(userId, pageSize, cursor, projection);
+    }
+
+    @Override
+    public AlertPage listArchivedAlerts(String userId, Integer limit, String cursor) {
+        int pageSize = limit == null || limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        return archiveRepository.findPageByUser(userId, pageSize, cursor);
     }
 
     @Override
-    public List<Alert> searchAlerts(String userId, String query, String brand, int page, int size) {
+    public AlertSearchResult searchAlerts(String userId, String query, String brand, int page, int size, AlertProjection projection) {
         int pageSize = size > 0 ? size : 10;
-        int fetchLimit = (page >= 0 ? page + 1 : 1) * pageSize;
-        var results = repository.findByUserFiltered(userId, query, brand, fetchLimit);
         int from = Math.max(0, page) * pageSize;
-        int to = Math.min(results.size(), from + pageSize);
+
+        if (isBlank(query) && isBlank(brand)) {
+            // Unfiltered: count on the GSI and only read up to the end of the requested page.
+            long total = repository.countByUser(userId);
+            if (from >= total) {
+                return new AlertSearchResult(List.of(), total);
+            }
+            var results = repository.findByUser(userId, from + pageSize, projection);
+            return new AlertSearchResult(slice(results, from, pageSize), total);
+        }
+
+        var results = repository.findByUserFiltered(userId, query, brand, 0, projection);
+        return new AlertSearchResult(slice(results, from, pageSize), results.size());
+    }
+
+    private static List<Alert> slice(List<Alert> results, int from, int pageSize) {
         if (from >= results.size()) {
             return List.of();
         }
-        return results.subList(from, to);
+        return results.subList(from, Math.min(results.size(), from + pageSize));
     }
 
-    @Override
-    public List<Alert> searchAllAlerts(String userId, String query, String brand) {
-        return repository.findByUserFiltered(userId, query, brand, 0);
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static boolean isPositive(BigDecimal value) {
+        return value != null && value.compareTo(BigDecimal.ZERO) > 0;
     }
 
     private static BigDecimal toBigDecimal(Double value) {
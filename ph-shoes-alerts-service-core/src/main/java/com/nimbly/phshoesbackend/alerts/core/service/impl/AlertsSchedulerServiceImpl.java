@@ -1,26 +1,39 @@
 package com.nimbly.phshoesbackend.alerts.core.service.impl;
 
+import com.nimbly.phshoesbackend.alerts.core.config.props.DynamoStatusIndexProps;
 import com.nimbly.phshoesbackend.alerts.core.config.props.SchedulerProperties;
 import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertArchiveSummary;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProduct;
 import com.nimbly.phshoesbackend.alerts.core.model.AlertProductSnapshot;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProjection;
 import com.nimbly.phshoesbackend.alerts.core.model.EmailDeliveryReport;
 import com.nimbly.phshoesbackend.alerts.core.model.MutableSchedulerRunSummary;
 import com.nimbly.phshoesbackend.alerts.core.model.SchedulerRunSummary;
+import com.nimbly.phshoesbackend.alerts.core.model.ScrapeBatch;
 import com.nimbly.phshoesbackend.alerts.core.model.ScrapedProduct;
 import com.nimbly.phshoesbackend.alerts.core.model.TriggeredEmailItem;
+import com.nimbly.phshoesbackend.alerts.core.repository.ActiveAlertIndex;
+import com.nimbly.phshoesbackend.alerts.core.repository.AlertArchiveRepository;
 import com.nimbly.phshoesbackend.alerts.core.repository.AlertRepository;
 import com.nimbly.phshoesbackend.alerts.core.repository.WarehouseScrapeRepository;
 import com.nimbly.phshoesbackend.alerts.core.service.AlertDigestService;
+import com.nimbly.phshoesbackend.alerts.core.util.BloomFilter;
 import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator.FixedPrices;
 import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator.TriggerDecision;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator.TriggeredAlert;
+import com.nimbly.phshoesbackend.alerts.core.util.MappedSnapshotStore;
 import com.nimbly.phshoesbackend.alerts.core.service.AlertsSchedulerService;
 import com.nimbly.phshoesbackend.commons.core.security.EmailCrypto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -28,7 +41,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.StreamSupport;
 
 @Slf4j
 @Service
@@ -40,6 +56,9 @@ public class AlertsSchedulerServiceImpl implements AlertsSchedulerService {
     private final SchedulerProperties props;
     private final AlertDigestService alertDigestService;
     private final EmailCrypto emailCrypto;
+    private final ObjectProvider<ActiveAlertIndex> activeAlertIndex;
+    private final AlertArchiveRepository archiveRepository;
+    private final DynamoStatusIndexProps statusIndexProps;
 
     @Override
     public SchedulerRunSummary run(LocalDate date) {
@@ -57,56 +76,78 @@ public class AlertsSchedulerServiceImpl implements AlertsSchedulerService {
 
     @Override
     public SchedulerRunSummary run(LocalDate date, String emailNormalized) {
-        List<ScrapedProduct> scraped = warehouseRepo.findByDate(date);
-        boolean shouldDryRun = props.isDryRun();
+        try (DailyProducts products = loadProducts(date)) {
+            return run(date, emailNormalized, products);
+        }
+    }
 
-        Map<String, ScrapedProduct> byProduct = dedupeByProduct(scraped);
+    private SchedulerRunSummary run(LocalDate date, String emailNormalized, DailyProducts products) {
+        boolean shouldDryRun = props.isDryRun();
 
         String userId = alertDigestService.resolveUserIdByNormalizedEmail(emailNormalized).orElse(null);
         if (emailNormalized != null && userId == null) {
             log.warn("scheduler.email provided but no account found; proceeding without email filter");
         }
 
-        MutableSchedulerRunSummary summary = new MutableSchedulerRunSummary(date, scraped.size(), byProduct.size());
+        MutableSchedulerRunSummary summary = new MutableSchedulerRunSummary(date, products.scraped(), products.deduped(),
+                products.skippedUnwatched(), products.watchFilterFalsePositiveRate());
         Instant now = Instant.now();
 
         Map<String, List<TriggeredEmailItem>> emailDigests = new HashMap<>();
+        ActiveAlertIndex index = activeAlertIndex.getIfAvailable();
+        boolean useIndex = index != null && index.isReady();
 
-        for (ScrapedProduct product : byProduct.values()) {
-            List<Alert> alerts = alertRepository.findActiveByProduct(product.getProductId());
-            if (alerts.isEmpty()) continue;
+        for (String productId : products.productIds()) {
+            boolean productRefreshed = false;
+            int watchers = 0;
 
-            if (userId != null) {
-                alerts = alerts.stream()
-                        .filter(a -> userId.equals(a.getUserId()))
-                        .toList();
-                if (alerts.isEmpty()) continue;
-            }
+            if (useIndex && userId == null) {
+                // Range lookups on the index's sorted thresholds return only the alerts that fire.
+                watchers = index.countActiveByProduct(productId);
+                if (watchers > 0) {
+                    summary.addAlertsChecked(watchers);
+                    AlertProductSnapshot snapshot = products.snapshots().apply(productId);
+                    FixedPrices prices = AlertTriggerEvaluator.fixedPrices(snapshot);
+                    for (TriggeredAlert triggered : index.findTriggeredByProduct(productId, snapshot, prices)) {
+                        onTriggered(triggered.alert(), snapshot, triggered.decision(), !productRefreshed,
+                                shouldDryRun, now, summary, emailDigests);
+                        productRefreshed = true;
+                    }
+                }
+            } else {
+                Iterable<List<Alert>> pages = useIndex
+                        ? List.of(index.findActiveByProduct(productId))
+                        : alertRepository.findActivePagesByProduct(productId, AlertProjection.EVALUATION);
 
-            AlertProductSnapshot snapshot = toSnapshot(product);
+                AlertProductSnapshot snapshot = null;
+                FixedPrices prices = null;
 
-            for (Alert alert : alerts) {
-                summary.incAlertsChecked();
-                TriggerDecision decision = AlertTriggerEvaluator.evaluate(alert, snapshot);
-                if (!decision.triggered()) {
-                    continue;
-                }
+                // Evaluated page by page so a hot product's watchers never have to be held at once.
+                for (List<Alert> page : pages) {
+                    watchers += page.size();
+                    for (Alert alert : page) {
+                        if (userId != null && !userId.equals(alert.getUserId())) continue;
+                        if (snapshot == null) {
+                            snapshot = products.snapshots().apply(productId);
+                            prices = AlertTriggerEvaluator.fixedPrices(snapshot);
+                        }
 
-                summary.incTriggered();
-                if (!shouldDryRun) {
-                    AlertTriggerEvaluator.applyTriggeredAlert(alert, snapshot, now);
-                    alertRepository.save(alert);
+                        summary.incAlertsChecked();
+                        TriggerDecision decision = AlertTriggerEvaluator.evaluate(alert, snapshot, prices);
+                        if (!decision.triggered()) {
+                            continue;
+                        }
+                        onTriggered(alert, snapshot, decision, !productRefreshed, shouldDryRun, now, summary, emailDigests);
+                        productRefreshed = true;
+                    }
                 }
+            }
 
-                Optional<TriggeredEmailItem> emailItem = alertDigestService.prepareEmailItem(alert, snapshot, decision.reason());
-                boolean wantsEmail = emailItem.isPresent();
-                if (!shouldDryRun) {
-                    emailItem.ifPresent(item -> emailDigests.computeIfAbsent(alert.getUserId(), k -> new ArrayList<>()).add(item));
+            if (!shouldDryRun && statusIndexProps.isEnabled() && watchers >= statusIndexProps.getShardThreshold()) {
+                int moved = alertRepository.shardProduct(productId, statusIndexProps.getShards());
+                if (moved > 0) {
+                    log.info("scheduler.shard productId={} watchers={} moved={}", productId, watchers, moved);
                 }
-
-                List<String> channels = alert.getChannels() == null ? List.of("APP_WIDGET") : alert.getChannels();
-                log.info("alert.widget flagged userId={} productId={} reason={} emailedPending={} channels={}",
-                        alert.getUserId(), alert.getProductId(), decision.reason(), wantsEmail, channels);
             }
         }
 
@@ -122,43 +163,181 @@ public class AlertsSchedulerServiceImpl implements AlertsSchedulerService {
         return summary.asImmutable();
     }
 
-    private Map<String, ScrapedProduct> dedupeByProduct(List<ScrapedProduct> scraped) {
-        return scraped.stream()
-                .filter(s -> StringUtils.hasText(s.getProductId()))
-                .collect(Collectors.toMap(
-                        ScrapedProduct::getProductId,
-                        s -> s,
-                        this::preferBetterPrice));
+    private void onTriggered(Alert alert, AlertProductSnapshot snapshot, TriggerDecision decision,
+                             boolean refreshProduct, boolean dryRun, Instant now,
+                             MutableSchedulerRunSummary summary, Map<String, List<TriggeredEmailItem>> emailDigests) {
+        summary.incTriggered();
+        if (!dryRun) {
+            AlertTriggerEvaluator.applyTriggeredAlert(alert, snapshot, now);
+            if (refreshProduct) {
+                // One write for the shared product row instead of one full alert write per watcher.
+                alertRepository.refreshProduct(AlertProduct.from(alert));
+            }
+            if (!alertRepository.markTriggered(alert.getProductId(), alert.getUserId(), alert.getVersion(), now)) {
+                // Edited, paused, re-armed or deleted since it was read; the next run evaluates the current state.
+                log.info("alert.trigger skipped userId={} productId={} reason=changed-concurrently",
+                        alert.getUserId(), alert.getProductId());
+                return;
+            }
+        }
+
+        Optional<TriggeredEmailItem> emailItem = alertDigestService.prepareEmailItem(alert, snapshot, decision.reason());
+        boolean wantsEmail = emailItem.isPresent();
+        if (!dryRun) {
+            emailItem.ifPresent(item -> emailDigests.computeIfAbsent(alert.getUserId(), k -> new ArrayList<>()).add(item));
+        }
+
+        List<String> channels = alert.getChannels() == null ? List.of("APP_WIDGET") : alert.getChannels();
+        log.info("alert.widget flagged userId={} productId={} reason={} emailedPending={} channels={}",
+                alert.getUserId(), alert.getProductId(), decision.reason(), wantsEmail, channels);
+    }
+
+    @Override
+    public AlertArchiveSummary archiveTriggered() {
+        Instant now = Instant.now();
+        SchedulerProperties.Archive archive = props.getArchive();
+        Instant cutoff = now.minus(archive.getTriggeredAge());
+        Instant expiresAt = now.plus(archive.getRetention());
+
+        if (props.isDryRun()) {
+            int candidates = archiveRepository.forEachTriggeredBefore(cutoff, alert -> {});
+            log.info("scheduler.archive dryRun cutoff={} candidates={}", cutoff, candidates);
+            return new AlertArchiveSummary(cutoff, 0, candidates);
+        }
+
+        // Re-armed or triggered again since the scan read it; it stays live and counts as skipped.
+        var moved = new AtomicInteger();
+        int candidates = archiveRepository.forEachTriggeredBefore(cutoff, alert -> {
+            if (archiveRepository.archive(alert, now, expiresAt)) moved.incrementAndGet();
+        });
+        int archived = moved.get();
+        int skipped = candidates - archived;
+        log.info("scheduler.archive cutoff={} archived={} skipped={}", cutoff, archived, skipped);
+        return new AlertArchiveSummary(cutoff, archived, skipped);
+    }
+
+    private DailyProducts loadProducts(LocalDate date) {
+        WatchedProducts watched = watchedProducts();
+        if (!props.isOffHeapSnapshots()) {
+            ScrapeBatch scraped = warehouseRepo.findByDate(date);
+            Map<String, Integer> byProduct = dedupeByProduct(scraped, watched);
+            return new DailyProducts(scraped.size(), byProduct.size(), watched.skipped, watched.falsePositiveRate,
+                    byProduct.keySet(), productId -> toSnapshot(scraped.get(byProduct.get(productId))), null);
+        }
+
+        // The warehouse sends one row per product and each goes from the result set straight to the
+        // mapped file, so nothing per product stays on the heap.
+        MappedSnapshotStore store;
+        int scraped;
+        try (MappedSnapshotStore.Writer writer = MappedSnapshotStore.writer(
+                Path.of(props.getSnapshotDirectory()), props.getWatchFilterExpectedProducts())) {
+            scraped = warehouseRepo.forEachBestByDate(date, row -> {
+                String productId = row.getProductId();
+                if (!StringUtils.hasText(productId) || !watched.contains(productId)) return;
+                writer.add(toSnapshot(row));
+            });
+            store = writer.finish();
+        }
+        Iterable<String> productIds = () -> StreamSupport.stream(store.spliterator(), false)
+                .map(MappedSnapshotStore.View::getProductId)
+                .iterator();
+        return new DailyProducts(scraped, store.size(), watched.skipped, watched.falsePositiveRate,
+                productIds, store::snapshot, store);
+    }
+
+    /**
+     * Products with at least one active alert, for dropping scrape rows before any per-product read.
+     * The live index answers exactly; otherwise one keys-only scan fills a Bloom filter.
+     */
+    private WatchedProducts watchedProducts() {
+        if (!props.isWatchFilter()) {
+            return new WatchedProducts(productId -> true, 0.0);
+        }
+        ActiveAlertIndex index = activeAlertIndex.getIfAvailable();
+        if (index != null && index.isReady()) {
+            return new WatchedProducts(productId -> index.countActiveByProduct(productId) > 0, 0.0);
+        }
+        BloomFilter filter = BloomFilter.create(props.getWatchFilterExpectedProducts(),
+                props.getWatchFilterFalsePositiveRate());
+        alertRepository.forEachActiveProductId(filter::add);
+        log.info("scheduler.watchFilter built falsePositiveRate={}", filter.falsePositiveRate());
+        return new WatchedProducts(filter::mightContain, filter.falsePositiveRate());
+    }
+
+    /** Membership test for watched products that counts the rows it turns away. */
+    private static final class WatchedProducts {
+        private final Predicate<String> test;
+        private final double falsePositiveRate;
+        private int skipped;
+
+        WatchedProducts(Predicate<String> test, double falsePositiveRate) {
+            this.test = test;
+            this.falsePositiveRate = falsePositiveRate;
+        }
+
+        boolean contains(String productId) {
+            if (test.test(productId)) return true;
+            skipped++;
+            return false;
+        }
+    }
+
+    /**
+     * The day's deduped products and how to get each one's snapshot, from the scrape batch or
+     * from an off-heap store that is deleted on close.
+     */
+    private record DailyProducts(int scraped, int deduped, int skippedUnwatched, double watchFilterFalsePositiveRate,
+                                 Iterable<String> productIds,
+                                 Function<String, AlertProductSnapshot> snapshots,
+                                 MappedSnapshotStore store) implements AutoCloseable {
+        @Override
+        public void close() {
+            if (store != null) store.close();
+        }
+    }
+
+    /** The row kept for each watched product id. */
+    private Map<String, Integer> dedupeByProduct(ScrapeBatch scraped, WatchedProducts watched) {
+        Map<String, Integer> byProduct = new HashMap<>();
+        for (int row = 0; row < scraped.size(); row++) {
+            String productId = scraped.productId(row);
+            if (!StringUtils.hasText(productId) || !watched.contains(productId)) continue;
+            byProduct.merge(productId, row, (a, b) -> preferBetterPrice(scraped, a, b));
+        }
+        return byProduct;
     }
 
-    private AlertProductSnapshot toSnapshot(ScrapedProduct product) {
-        String productTitle = (product.getTitle() != null && !product.getTitle().isBlank())
-                ? product.getTitle()
-                : product.getProductId();
+    private AlertProductSnapshot toSnapshot(ScrapedProduct row) {
+        String title = row.getTitle();
+        String productTitle = (title != null && !title.isBlank())
+                ? title
+                : row.getProductId();
         return AlertProductSnapshot.builder()
-                .productId(product.getProductId())
+                .productId(row.getProductId())
                 .productName(productTitle)
-                .productBrand(product.getBrand())
-                .productImage(product.getImage())
-                .productImageUrl(product.getProductImageUrl())
-                .productUrl(product.getUrl())
-                .priceOriginal(product.getPriceOriginal())
-                .priceSale(product.getPriceSale())
+                .productBrand(row.getBrand())
+                .productImage(row.getImage())
+                .productImageUrl(row.getProductImageUrl())
+                .productUrl(row.getUrl())
+                .priceOriginal(row.getPriceOriginal())
+                .priceSale(row.getPriceSale())
                 .build();
     }
 
-    private ScrapedProduct preferBetterPrice(ScrapedProduct a, ScrapedProduct b) {
-        BigDecimal aPrice = a.getPriceSale() != null ? a.getPriceSale() : a.getPriceOriginal();
-        BigDecimal bPrice = b.getPriceSale() != null ? b.getPriceSale() : b.getPriceOriginal();
+    private int preferBetterPrice(ScrapeBatch scraped, int a, int b) {
+        BigDecimal aPrice = scraped.priceSale(a) != null ? scraped.priceSale(a) : scraped.priceOriginal(a);
+        BigDecimal bPrice = scraped.priceSale(b) != null ? scraped.priceSale(b) : scraped.priceOriginal(b);
         if (aPrice == null) return b;
         if (bPrice == null) return a;
         int cmp = aPrice.compareTo(bPrice);
         if (cmp < 0) return a;
         if (cmp > 0) return b;
         // tie-breaker: latest dwid wins
-        if (a.getDwid() == null) return b;
-        if (b.getDwid() == null) return a;
-        return a.getDwid().compareTo(b.getDwid()) >= 0 ? a : b;
+        String aDwid = scraped.dwid(a);
+        String bDwid = scraped.dwid(b);
+        if (aDwid == null) return b;
+        if (bDwid == null) return a;
+        return aDwid.compareTo(bDwid) >= 0 ? a : b;
     }
 
 }
@@ -0,0 +1,77 @@
+package com.nimbly.phshoesbackend.alerts.core.util;
+
+import com.nimbly.phshoesbackend.alerts.core.exception.InvalidAlertException;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Encodes DynamoDB {@code LastEvaluatedKey} maps as opaque, URL-safe cursors and back.
+ * Only string key attributes are supported, which covers every key on the alerts tables.
+ */
+public final class AlertCursorCodec {
+    private static final char FIELD_SEP = '\u0000';
+    private static final char ENTRY_SEP = '\u0001';
+
+    private AlertCursorCodec() {}
+
+    public static String encode(Map<String, AttributeValue> lastEvaluatedKey) {
+        if (lastEvaluatedKey == null || lastEvaluatedKey.isEmpty()) {
+            return null;
+        }
+        StringBuilder raw = new StringBuilder();
+        for (var entry : new TreeMap<>(lastEvaluatedKey).entrySet()) {
+            String value = entry.getValue() == null ? null : entry.getValue().s();
+            if (value == null) {
+                throw new IllegalArgumentException("Only string key attributes can be encoded: " + entry.getKey());
+            }
+            if (!raw.isEmpty()) raw.append(ENTRY_SEP);
+            raw.append(entry.getKey()).append(FIELD_SEP).append(value);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor handed to {@code owner} for a table or index whose {@code LastEvaluatedKey} has
+     * exactly {@code keyAttributes}. A cursor with any other attributes, or one issued to a different
+     * owner, is rejected as invalid instead of being passed to DynamoDB as a start key.
+     */
+    public static Map<String, AttributeValue> decode(String cursor, Set<String> keyAttributes,
+                                                     String ownerAttribute, String owner) {
+        Map<String, AttributeValue> key = decode(cursor);
+        if (key == null) {
+            return null;
+        }
+        if (!key.keySet().equals(keyAttributes) || !owner.equals(key.get(ownerAttribute).s())) {
+            throw new InvalidAlertException("Invalid cursor");
+        }
+        return key;
+    }
+
+    public static Map<String, AttributeValue> decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidAlertException("Invalid cursor");
+        }
+        Map<String, AttributeValue> key = new LinkedHashMap<>();
+        for (String entry : raw.split(String.valueOf(ENTRY_SEP))) {
+            int sep = entry.indexOf(FIELD_SEP);
+            if (sep <= 0 || sep == entry.length() - 1) {
+                throw new InvalidAlertException("Invalid cursor");
+            }
+            key.put(entry.substring(0, sep), AttributeValue.fromS(entry.substring(sep + 1)));
+        }
+        return key;
+    }
+}
@@ -0,0 +1,80 @@
+package com.nimbly.phshoesbackend.alerts.core.util;
+
+import com.nimbly.phshoesbackend.alerts.core.model.dynamo.AlertSearchAttrs;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalization shared by the search index writer and the search query path, so both sides agree
+ * on what a token is: lower-cased, accent-stripped runs of letters and digits.
+ */
+public final class AlertSearchTokens {
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALNUM = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final int MAX_TOKEN_LENGTH = 64;
+
+    private AlertSearchTokens() {}
+
+    public static List<String> tokens(String text) {
+        if (text == null || text.isBlank()) return List.of();
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        Set<String> out = new LinkedHashSet<>();
+        for (String part : NON_ALNUM.split(folded.toLowerCase(Locale.ROOT))) {
+            if (part.isEmpty()) continue;
+            out.add(part.length() > MAX_TOKEN_LENGTH ? part.substring(0, MAX_TOKEN_LENGTH) : part);
+        }
+        return List.copyOf(out);
+    }
+
+    /** Brand normalized to its tokens joined by single spaces, e.g. {@code "New-Balance "} to {@code "new balance"}. */
+    public static String brandKey(String brand) {
+        return String.join(" ", tokens(brand));
+    }
+
+    /** Every index sort-key prefix an alert with this name and brand should be reachable under. */
+    public static Set<String> terms(String productName, String productBrand) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String token : tokens(productName)) terms.add(AlertSearchAttrs.TOKEN_PREFIX + token);
+        for (String token : tokens(productBrand)) terms.add(AlertSearchAttrs.TOKEN_PREFIX + token);
+        String brand = brandKey(productBrand);
+        if (!brand.isEmpty()) terms.add(AlertSearchAttrs.BRAND_PREFIX + brand);
+        return terms;
+    }
+
+    /**
+     * Picks the single most selective index prefix for a search: the longest query token, or the
+     * brand key when only a brand filter is given. Returns {@code null} when there is nothing to search.
+     */
+    public static String seekPrefix(String query, String brand) {
+        String best = null;
+        for (String token : tokens(query)) {
+            if (best == null || token.length() > best.length()) best = token;
+        }
+        if (best != null) return AlertSearchAttrs.TOKEN_PREFIX + best;
+        String brandKey = brandKey(brand);
+        return brandKey.isEmpty() ? null : AlertSearchAttrs.BRAND_PREFIX + brandKey;
+    }
+
+    /**
+     * Full match check applied to index candidates: every query token must prefix a name or brand
+     * token, and the brand key must start with the requested brand.
+     */
+    public static boolean matches(String productName, String productBrand, String query, String brand) {
+        List<String> queryTokens = tokens(query);
+        if (!queryTokens.isEmpty()) {
+            List<String> candidates = new ArrayList<>(tokens(productName));
+            candidates.addAll(tokens(productBrand));
+            for (String token : queryTokens) {
+                if (candidates.stream().noneMatch(c -> c.startsWith(token))) return false;
+            }
+        }
+        String brandFilter = brandKey(brand);
+        return brandFilter.isEmpty() || brandKey(productBrand).startsWith(brandFilter);
+    }
+}
@@ -0,0 +1,20 @@
+package com.nimbly.phshoesbackend.alerts.core.util;
+
+/**
+ * Partition keys for the sharded status index. Shard 0 is the bare product id, so alerts written
+ * before a product was sharded, or since, are still found by a read of shard 0.
+ */
+public final class AlertShardKeys {
+
+    private AlertShardKeys() {}
+
+    public static String key(String productId, int shard) {
+        return shard == 0 ? productId : productId + "#" + shard;
+    }
+
+    /** The shard a user's alert belongs in once its product is spread over {@code shards}. */
+    public static int shardOf(String userId, int shards) {
+        // String.hashCode is specified, so every instance agrees on the assignment.
+        return shards <= 1 ? 0 : Math.floorMod(userId.hashCode(), shards);
+    }
+}
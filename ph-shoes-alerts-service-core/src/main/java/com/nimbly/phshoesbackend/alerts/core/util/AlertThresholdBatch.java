@@ -0,0 +1,171 @@
+package com.nimbly.phshoesbackend.alerts.core.util;
+
+import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProductSnapshot;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertThresholds;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator.FixedPrices;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator.TriggerDecision;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator.TriggeredAlert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static com.nimbly.phshoesbackend.alerts.core.model.AlertThresholds.NONE;
+
+/**
+ * The thresholds of a batch of alerts laid out column by column: desired price in centavos,
+ * desired drop in basis points and the sale flag, each in its own primitive array.
+ *
+ * <p>{@link #fired} compares every alert against one product's prices and sets a bit per alert
+ * that fires. The loop has no branches and no object reads, and unset thresholds are stored as
+ * values no price can meet, so the comparisons never need a null check. Decisions match
+ * {@link AlertTriggerEvaluator}: the kernel keeps one bitmap per trigger kind, and a fired alert's
+ * reason is read off the first of them that has its bit set, without evaluating the alert again.
+ * Alerts whose thresholds are not exact in fixed point are never set in the bitmap and are
+ * evaluated one by one.
+ */
+public final class AlertThresholdBatch {
+
+    /** Stored for an unset desired price; {@code sale <= Long.MIN_VALUE} never holds. */
+    static final long NO_PRICE = Long.MIN_VALUE;
+    /** Stored for an unset desired drop; {@code drop >= Long.MAX_VALUE} never holds. */
+    static final long NO_PERCENT = Long.MAX_VALUE;
+
+    private final List<Alert> alerts;
+    private final long[] desiredPrice;
+    private final long[] desiredPercent;
+    private final byte[] alertIfSale;
+    private final int[] inexact;
+
+    private AlertThresholdBatch(List<Alert> alerts, long[] desiredPrice, long[] desiredPercent,
+                                byte[] alertIfSale, int[] inexact) {
+        this.alerts = alerts;
+        this.desiredPrice = desiredPrice;
+        this.desiredPercent = desiredPercent;
+        this.alertIfSale = alertIfSale;
+        this.inexact = inexact;
+    }
+
+    public static AlertThresholdBatch of(List<Alert> alerts) {
+        int size = alerts.size();
+        long[] price = new long[size];
+        long[] percent = new long[size];
+        byte[] sale = new byte[size];
+        var inexact = new ArrayList<Integer>();
+        for (int i = 0; i < size; i++) {
+            Alert alert = alerts.get(i);
+            AlertThresholds thresholds = AlertTriggerEvaluator.thresholds(alert);
+            if (!thresholds.exact()) {
+                price[i] = NO_PRICE;
+                percent[i] = NO_PERCENT;
+                inexact.add(i);
+                continue;
+            }
+            price[i] = thresholds.desiredPrice() == NONE ? NO_PRICE : thresholds.desiredPrice();
+            percent[i] = thresholds.desiredPercent() == NONE ? NO_PERCENT : thresholds.desiredPercent();
+            sale[i] = Boolean.TRUE.equals(alert.getAlertIfSale()) ? (byte) 1 : (byte) 0;
+        }
+        return new AlertThresholdBatch(alerts, price, percent, sale,
+                inexact.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    public int size() {
+        return alerts.size();
+    }
+
+    /**
+     * One bit per alert, set when the prices trigger it through any of its exact thresholds.
+     */
+    public long[] fired(FixedPrices prices) {
+        return fired(prices, desiredPrice, desiredPercent, alertIfSale, alerts.size()).any();
+    }
+
+    /**
+     * The kernel behind {@link #fired(FixedPrices)}, over the first {@code size} rows of columns that
+     * use {@link #NO_PRICE} and {@link #NO_PERCENT} for unset thresholds and 0 or 1 for the sale flag.
+     */
+    static Fired fired(FixedPrices prices, long[] desiredPrice, long[] desiredPercent, byte[] alertIfSale, int size) {
+        int words = (size + 63) >>> 6;
+        var fired = new Fired(new long[words], new long[words], new long[words]);
+        if (prices.sale() == NONE) return fired;
+
+        long sale = prices.sale();
+        long original = prices.original();
+        long drop = original > 0 ? AlertTriggerEvaluator.dropBasisPoints(sale, original) : Long.MIN_VALUE;
+        long onSale = sale < original ? 1L : 0L;
+
+        for (int word = 0; word < words; word++) {
+            int base = word << 6;
+            int lanes = Math.min(64, size - base);
+            long priceBits = 0L;
+            long dropBits = 0L;
+            long saleBits = 0L;
+            for (int lane = 0; lane < lanes; lane++) {
+                int i = base + lane;
+                priceBits |= (sale <= desiredPrice[i] ? 1L : 0L) << lane;
+                dropBits |= (drop >= desiredPercent[i] ? 1L : 0L) << lane;
+                saleBits |= (onSale & alertIfSale[i]) << lane;
+            }
+            fired.price[word] = priceBits;
+            fired.drop[word] = dropBits;
+            fired.sale[word] = saleBits;
+        }
+        return fired;
+    }
+
+    /**
+     * The alerts the snapshot triggers with their decisions: the exact ones in batch order, then
+     * the inexact ones. {@code prices} may be {@code null}, in which case every alert is evaluated
+     * one by one.
+     */
+    public List<TriggeredAlert> triggered(AlertProductSnapshot snapshot, FixedPrices prices) {
+        var triggered = new ArrayList<TriggeredAlert>();
+        if (prices == null) {
+            for (Alert alert : alerts) addIfTriggered(alert, AlertTriggerEvaluator.evaluate(alert, snapshot), triggered);
+            return triggered;
+        }
+
+        fired(prices, desiredPrice, desiredPercent, alertIfSale, alerts.size()).addTo(triggered, alerts::get);
+        for (int i : inexact) {
+            Alert alert = alerts.get(i);
+            addIfTriggered(alert, AlertTriggerEvaluator.evaluate(alert, snapshot), triggered);
+        }
+        return triggered;
+    }
+
+    private static void addIfTriggered(Alert alert, TriggerDecision decision, List<TriggeredAlert> triggered) {
+        if (decision.triggered()) triggered.add(new TriggeredAlert(alert, decision));
+    }
+
+    /**
+     * One bitmap per trigger kind, one bit per alert. An alert fires when any of its bits is set, and
+     * its reason is the first kind set in the evaluator's order: price, then drop, then sale.
+     */
+    record Fired(long[] price, long[] drop, long[] sale) {
+
+        long[] any() {
+            long[] any = new long[price.length];
+            for (int word = 0; word < any.length; word++) any[word] = price[word] | drop[word] | sale[word];
+            return any;
+        }
+
+        /** Adds every alert that fires with its reason; {@code alertAt} is called for those alerts only. */
+        void addTo(List<TriggeredAlert> triggered, IntFunction<Alert> alertAt) {
+            for (int word = 0; word < price.length; word++) {
+                long priceBits = price[word];
+                long dropBits = drop[word] & ~priceBits;
+                long bits = priceBits | dropBits | sale[word];
+                while (bits != 0) {
+                    long bit = bits & -bits;
+                    bits ^= bit;
+                    Alert alert = alertAt.apply((word << 6) + Long.numberOfTrailingZeros(bit));
+                    TriggerDecision decision = (priceBits & bit) != 0 ? AlertTriggerEvaluator.PRICE_MET
+                            : (dropBits & bit) != 0 ? AlertTriggerEvaluator.dropMet(alert)
+                            : AlertTriggerEvaluator.ON_SALE;
+                    triggered.add(new TriggeredAlert(alert, decision));
+                }
+            }
+        }
+    }
+}
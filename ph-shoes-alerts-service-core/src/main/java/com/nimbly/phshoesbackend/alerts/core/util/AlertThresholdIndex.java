@@ -0,0 +1,142 @@
+package com.nimbly.phshoesbackend.alerts.core.util;
+
+import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProductSnapshot;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertThresholds;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator.FixedPrices;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator.TriggerDecision;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator.TriggeredAlert;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import static com.nimbly.phshoesbackend.alerts.core.model.AlertThresholds.NONE;
+
+/**
+ * One product's active alerts, kept sorted by desired price and by desired percent, with the
+ * sale-only alerts in a bucket of their own. Every alert comparing against the same sale price
+ * means each trigger type is a single range lookup, so {@link #triggered} costs as much as the
+ * alerts that fire rather than every watcher.
+ *
+ * <p>Decisions, reasons and their precedence are those of {@link AlertTriggerEvaluator}. Alerts
+ * whose thresholds are not exact in fixed point are evaluated one by one.
+ *
+ * <p>Updates are incremental. One thread may write while others query; a query sees each alert
+ * either before or after a concurrent change.
+ */
+public final class AlertThresholdIndex implements ProductAlertIndex {
+
+    private record Key(long threshold, String userId) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key other) {
+            int byThreshold = Long.compare(threshold, other.threshold);
+            return byThreshold != 0 ? byThreshold : userId.compareTo(other.userId);
+        }
+    }
+
+    private final Map<String, Alert> byUser = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Key, Alert> byPrice = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Key, Alert> byPercent = new ConcurrentSkipListMap<>();
+    private final Map<String, Alert> onSale = new ConcurrentHashMap<>();
+    private final Map<String, Alert> inexact = new ConcurrentHashMap<>();
+
+    /** The index keeps the instance. */
+    @Override
+    public void put(Alert alert) {
+        remove(alert.getUserId());
+        AlertThresholds thresholds = AlertTriggerEvaluator.thresholds(alert);
+        String userId = alert.getUserId();
+        if (!thresholds.exact()) {
+            inexact.put(userId, alert);
+        } else {
+            if (thresholds.desiredPrice() != NONE) byPrice.put(new Key(thresholds.desiredPrice(), userId), alert);
+            if (thresholds.desiredPercent() != NONE) byPercent.put(new Key(thresholds.desiredPercent(), userId), alert);
+            if (Boolean.TRUE.equals(alert.getAlertIfSale())) onSale.put(userId, alert);
+        }
+        byUser.put(userId, alert);
+    }
+
+    @Override
+    public void remove(String userId) {
+        Alert previous = byUser.remove(userId);
+        if (previous == null) return;
+        AlertThresholds thresholds = previous.getThresholds();
+        byPrice.remove(new Key(thresholds.desiredPrice(), userId));
+        byPercent.remove(new Key(thresholds.desiredPercent(), userId));
+        onSale.remove(userId);
+        inexact.remove(userId);
+    }
+
+    @Override
+    public int size() {
+        return byUser.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return byUser.isEmpty();
+    }
+
+    @Override
+    public Collection<Alert> alerts() {
+        return byUser.values();
+    }
+
+    /** Returns the indexed instances. */
+    @Override
+    public List<TriggeredAlert> triggered(AlertProductSnapshot snapshot, FixedPrices prices) {
+        var triggered = new ArrayList<TriggeredAlert>();
+        if (prices == null) {
+            evaluateEach(byUser.values(), snapshot, triggered);
+            return triggered;
+        }
+        evaluateEach(inexact.values(), snapshot, triggered);
+        long sale = prices.sale();
+        long original = prices.original();
+        if (sale == NONE) return triggered;
+
+        // Desired price at or above the sale price: the tail of the price order.
+        for (Alert alert : byPrice.tailMap(new Key(sale, ""), true).values()) {
+            triggered.add(new TriggeredAlert(alert, AlertTriggerEvaluator.PRICE_MET));
+        }
+
+        long drop = original > 0 ? AlertTriggerEvaluator.dropBasisPoints(sale, original) : NONE;
+        if (drop != NONE) {
+            // Desired drop at or below the actual drop: the head of the percent order.
+            for (Alert alert : byPercent.headMap(new Key(drop + 1, ""), false).values()) {
+                if (priceMet(alert, sale)) continue;
+                triggered.add(new TriggeredAlert(alert, AlertTriggerEvaluator.dropMet(alert)));
+            }
+        }
+
+        if (sale < original) {
+            // Every sale-only alert fires here; the checks only skip those already taken above.
+            for (Alert alert : onSale.values()) {
+                if (priceMet(alert, sale) || dropMet(alert, drop)) continue;
+                triggered.add(new TriggeredAlert(alert, AlertTriggerEvaluator.ON_SALE));
+            }
+        }
+        return triggered;
+    }
+
+    private static boolean priceMet(Alert alert, long sale) {
+        long desired = alert.getThresholds().desiredPrice();
+        return desired != NONE && sale <= desired;
+    }
+
+    private static boolean dropMet(Alert alert, long drop) {
+        long desired = alert.getThresholds().desiredPercent();
+        return desired != NONE && drop != NONE && drop >= desired;
+    }
+
+    private static void evaluateEach(Collection<Alert> alerts, AlertProductSnapshot snapshot, List<TriggeredAlert> triggered) {
+        for (Alert alert : alerts) {
+            TriggerDecision decision = AlertTriggerEvaluator.evaluate(alert, snapshot);
+            if (decision.triggered()) triggered.add(new TriggeredAlert(alert, decision));
+        }
+    }
+}
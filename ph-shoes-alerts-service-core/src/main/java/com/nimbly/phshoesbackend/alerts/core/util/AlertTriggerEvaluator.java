@@ -3,13 +3,117 @@ package com.nimbly.phshoesbackend.alerts.core.util;
 import com.nimbly.phshoesbackend.alerts.core.model.Alert;
 import com.nimbly.phshoesbackend.alerts.core.model.AlertProductSnapshot;
 import com.nimbly.phshoesbackend.alerts.core.model.AlertStatus;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertThresholds;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.nimbly.phshoesbackend.alerts.core.model.AlertThresholds.NONE;
 
 public final class AlertTriggerEvaluator {
 
+    /** Largest fixed-point magnitude; a drop numerator ({@code delta * 10_000}) still fits in a long. */
+    private static final long MAX_FIXED = 100_000_000_000_000L;
+    private static final long BASIS_POINTS = 10_000L;
+
+    static final TriggerDecision PRICE_MET = new TriggerDecision(true, "price<=desired");
+    static final TriggerDecision ON_SALE = new TriggerDecision(true, "on-sale");
+    /** Keyed by the percent itself: its scale shows in the reason, and BigDecimal equality is scale-sensitive. */
+    private static final Map<BigDecimal, TriggerDecision> DROP_MET = new ConcurrentHashMap<>();
+
+    /**
+     * Same decision as {@link #evaluate(Alert, AlertProductSnapshot)}, but in {@code long} arithmetic on
+     * prices precomputed with {@link #fixedPrices} and the alert's compiled {@link #thresholds}. Once
+     * those exist nothing is allocated, and the reasons are shared instances. Falls back to the
+     * {@code BigDecimal} path when either side is not exactly representable.
+     */
+    public static TriggerDecision evaluate(Alert alert, AlertProductSnapshot snapshot, FixedPrices prices) {
+        AlertThresholds thresholds = thresholds(alert);
+        if (prices == null || !thresholds.exact()) {
+            return evaluate(alert, snapshot);
+        }
+
+        // Sale and original fall back to each other, so they are either both known or both missing.
+        boolean priced = prices.sale() != NONE;
+        long sale = prices.sale();
+        long original = prices.original();
+
+        if (thresholds.desiredPrice() != NONE && priced && sale <= thresholds.desiredPrice()) {
+            return PRICE_MET;
+        }
+
+        if (thresholds.desiredPercent() != NONE && priced && original > 0
+                && dropBasisPoints(sale, original) >= thresholds.desiredPercent()) {
+            return dropMet(alert);
+        }
+
+        if (Boolean.TRUE.equals(alert.getAlertIfSale()) && priced && sale < original) {
+            return ON_SALE;
+        }
+
+        return TriggerDecision.NOT_TRIGGERED;
+    }
+
+    /** The snapshot's prices in centavos, once per product; {@code null} if they need {@code BigDecimal}s. */
+    public static FixedPrices fixedPrices(AlertProductSnapshot snapshot) {
+        BigDecimal sale = firstNonNull(snapshot.getPriceSale(), snapshot.getPriceOriginal());
+        BigDecimal original = firstNonNull(snapshot.getPriceOriginal(), sale);
+        long fixedSale = toFixed(sale);
+        long fixedOriginal = toFixed(original);
+        if (sale != null && fixedSale == NONE || original != null && fixedOriginal == NONE) {
+            return null;
+        }
+        return new FixedPrices(fixedSale, fixedOriginal);
+    }
+
+    /** The alert's compiled thresholds, compiling them on first use or after a threshold was replaced. */
+    public static AlertThresholds thresholds(Alert alert) {
+        AlertThresholds compiled = alert.getThresholds();
+        if (compiled != null && compiled.compiledFrom(alert)) {
+            return compiled;
+        }
+        BigDecimal price = alert.getDesiredPrice();
+        BigDecimal percent = alert.getDesiredPercent();
+        long fixedPrice = toFixed(price);
+        long fixedPercent = toFixed(percent);
+        boolean exact = (price == null || fixedPrice != NONE) && (percent == null || fixedPercent != NONE);
+        compiled = new AlertThresholds(price, percent, fixedPrice, fixedPercent, exact);
+        alert.setThresholds(compiled);
+        return compiled;
+    }
+
+    /**
+     * {@code (original - sale) / original} in basis points, rounded half-up like the four-decimal
+     * {@code BigDecimal} division.
+     */
+    static long dropBasisPoints(long sale, long original) {
+        long numerator = (original - sale) * BASIS_POINTS;
+        long quotient = numerator / original;
+        long remainder = numerator % original;
+        if (2 * Math.abs(remainder) >= original) {
+            quotient += Long.signum(numerator);
+        }
+        return quotient;
+    }
+
+    /** Hundredths of {@code value}: centavos for a price, basis points for a percent. */
+    private static long toFixed(BigDecimal value) {
+        if (value == null) return NONE;
+        BigDecimal scaled = value.scale() > 2 ? value.stripTrailingZeros() : value;
+        if (scaled.scale() > 2) return NONE;
+        BigDecimal hundredths = scaled.movePointRight(2);
+        if (hundredths.abs().compareTo(BigDecimal.valueOf(MAX_FIXED)) > 0) return NONE;
+        return hundredths.longValueExact();
+    }
+
+    static TriggerDecision dropMet(Alert alert) {
+        return DROP_MET.computeIfAbsent(alert.getDesiredPercent(),
+                percent -> new TriggerDecision(true, "drop>=" + percent + "%"));
+    }
+
     public static TriggerDecision evaluate(Alert alert, AlertProductSnapshot snapshot) {
         BigDecimal sale = firstNonNull(snapshot.getPriceSale(), snapshot.getPriceOriginal());
         BigDecimal original = firstNonNull(snapshot.getPriceOriginal(), sale);
@@ -69,6 +173,14 @@ public final class AlertTriggerEvaluator {
         return a != null ? a : b;
     }
 
+    /** Sale and original price in centavos, {@link AlertThresholds#NONE} when the snapshot has no price. */
+    public record FixedPrices(long sale, long original) {
+    }
+
+    /** An alert together with the decision that fired it. */
+    public record TriggeredAlert(Alert alert, TriggerDecision decision) {
+    }
+
     public record TriggerDecision(boolean triggered, String reason) {
         public static final TriggerDecision NOT_TRIGGERED = new TriggerDecision(false, null);
     }
@@ -0,0 +1,88 @@
+package com.nimbly.phshoesbackend.alerts.core.util;
+
+/**
+ * Set membership for strings in a fixed bit array: {@link #mightContain} never misses a value
+ * that was added and answers {@code true} for others at about the rate the filter was sized for.
+ * A million product ids at 1% take a little over a megabyte.
+ *
+ * <p>Not thread-safe; built by one thread and then only read.
+ */
+public final class BloomFilter {
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashes;
+    private long bitsSet;
+
+    private BloomFilter(long bitCount, int hashes) {
+        this.bits = new long[(int) ((bitCount + 63) >>> 6)];
+        this.bitCount = (long) bits.length << 6;
+        this.hashes = hashes;
+    }
+
+    /**
+     * Sized so that after {@code expected} values a value never added passes with probability
+     * {@code falsePositiveRate}.
+     */
+    public static BloomFilter create(int expected, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be in (0, 1): " + falsePositiveRate);
+        }
+        int n = Math.max(expected, 1);
+        double ln2 = Math.log(2);
+        long m = Math.max(64, (long) Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2)));
+        if (m > (long) Integer.MAX_VALUE << 6) {
+            throw new IllegalArgumentException("filter for " + expected + " values would be too large");
+        }
+        int k = Math.max(1, (int) Math.round((double) m / n * ln2));
+        return new BloomFilter(m, k);
+    }
+
+    public void add(String value) {
+        long hash = hash(value);
+        long h1 = hash;
+        long h2 = (hash >>> 32) | 1L;
+        for (int i = 0; i < hashes; i++) {
+            long index = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            if ((bits[word] & mask) == 0) {
+                bits[word] |= mask;
+                bitsSet++;
+            }
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        long h1 = hash;
+        long h2 = (hash >>> 32) | 1L;
+        for (int i = 0; i < hashes; i++) {
+            long index = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Probability that a value never added passes, from how full the filter actually is.
+     */
+    public double falsePositiveRate() {
+        return Math.pow((double) bitsSet / bitCount, hashes);
+    }
+
+    /** 64-bit FNV-1a over the chars, finished with a mix so nearby ids spread over the array. */
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
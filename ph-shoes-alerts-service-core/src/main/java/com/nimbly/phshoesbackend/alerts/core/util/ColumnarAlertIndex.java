@@ -0,0 +1,301 @@
+package com.nimbly.phshoesbackend.alerts.core.util;
+
+import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertChannel;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProductSnapshot;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertStatus;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertThresholds;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator.FixedPrices;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator.TriggerDecision;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator.TriggeredAlert;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.nimbly.phshoesbackend.alerts.core.model.AlertThresholds.NONE;
+import static com.nimbly.phshoesbackend.alerts.core.util.AlertThresholdBatch.NO_PERCENT;
+import static com.nimbly.phshoesbackend.alerts.core.util.AlertThresholdBatch.NO_PRICE;
+
+/**
+ * One product's active alerts stored as parallel primitive columns instead of {@link Alert} beans:
+ * the user as a {@link StringDictionary} code, thresholds in centavos and basis points, the sale
+ * flag, a channel bitmask, a status byte and the version. A row costs a few dozen bytes, against several
+ * hundred for a bean with its {@code BigDecimal}s, strings and list.
+ *
+ * <p>{@link #triggered} runs the {@link AlertThresholdBatch} kernel straight over the columns and
+ * builds {@code Alert}s for the rows that fire only. Alerts the columns cannot hold exactly (a
+ * threshold with more than two decimals, or a channel outside {@link AlertChannel}) are kept as
+ * beans and evaluated one by one. Channels come back in {@link AlertChannel} order.
+ *
+ * <p>Rows are removed by moving the last row into the gap. Every method locks the index, so one
+ * thread may write while others read.
+ */
+public final class ColumnarAlertIndex implements ProductAlertIndex {
+
+    private static final int INITIAL_ROWS = 8;
+    private static final int NULL_CHANNELS = -1;
+    private static final long NO_VERSION = -1L;
+    private static final AlertChannel[] CHANNELS = AlertChannel.values();
+    private static final AlertStatus[] STATUSES = AlertStatus.values();
+
+    // flags: bits 0-1 alertIfSale (0 null, 1 false, 2 true), bits 2-3 price scale, bits 4-5 percent scale.
+    private static final int SALE_FALSE = 1;
+    private static final int SALE_TRUE = 2;
+
+    private final String productId;
+    private final StringDictionary users;
+
+    private int rows;
+    private int[] user = new int[INITIAL_ROWS];
+    private long[] desiredPrice = new long[INITIAL_ROWS];
+    private long[] desiredPercent = new long[INITIAL_ROWS];
+    private byte[] alertIfSale = new byte[INITIAL_ROWS];
+    private byte[] flags = new byte[INITIAL_ROWS];
+    private int[] channels = new int[INITIAL_ROWS];
+    private byte[] status = new byte[INITIAL_ROWS];
+    private long[] version = new long[INITIAL_ROWS];
+    private final RowMap rowOfUser = new RowMap();
+    private final Map<Integer, Alert> beans = new HashMap<>();
+
+    public ColumnarAlertIndex(String productId, StringDictionary users) {
+        this.productId = productId;
+        this.users = users;
+    }
+
+    /** Keeps the instance only when the columns cannot hold it. */
+    @Override
+    public synchronized void put(Alert alert) {
+        int code = users.encode(alert.getUserId());
+        removeCode(code);
+        AlertThresholds thresholds = AlertTriggerEvaluator.thresholds(alert);
+        int channelMask = channelMask(alert.getChannels());
+        if (!thresholds.exact() || !columnScale(alert.getDesiredPrice()) || !columnScale(alert.getDesiredPercent())
+                || channelMask == Integer.MIN_VALUE) {
+            beans.put(code, alert);
+            return;
+        }
+
+        if (rows == user.length) grow();
+        int row = rows++;
+        user[row] = code;
+        desiredPrice[row] = thresholds.desiredPrice() == NONE ? NO_PRICE : thresholds.desiredPrice();
+        desiredPercent[row] = thresholds.desiredPercent() == NONE ? NO_PERCENT : thresholds.desiredPercent();
+        alertIfSale[row] = Boolean.TRUE.equals(alert.getAlertIfSale()) ? (byte) 1 : (byte) 0;
+        int sale = alert.getAlertIfSale() == null ? 0 : alert.getAlertIfSale() ? SALE_TRUE : SALE_FALSE;
+        flags[row] = (byte) (sale | scaleOf(alert.getDesiredPrice()) << 2 | scaleOf(alert.getDesiredPercent()) << 4);
+        channels[row] = channelMask;
+        status[row] = alert.getStatus() == null ? -1 : (byte) alert.getStatus().ordinal();
+        version[row] = alert.getVersion() == null ? NO_VERSION : alert.getVersion();
+        rowOfUser.put(code, row);
+    }
+
+    @Override
+    public synchronized void remove(String userId) {
+        int code = users.find(userId);
+        if (code >= 0) removeCode(code);
+    }
+
+    @Override
+    public synchronized int size() {
+        return rows + beans.size();
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /** Built on each call; the caller may keep or change them. */
+    @Override
+    public synchronized Collection<Alert> alerts() {
+        var alerts = new ArrayList<Alert>(size());
+        for (int row = 0; row < rows; row++) alerts.add(materialize(row));
+        alerts.addAll(beans.values());
+        return alerts;
+    }
+
+    /** Built for the rows that fire; the kept beans are returned as they are. */
+    @Override
+    public synchronized List<TriggeredAlert> triggered(AlertProductSnapshot snapshot, FixedPrices prices) {
+        var triggered = new ArrayList<TriggeredAlert>();
+        if (prices == null) {
+            for (int row = 0; row < rows; row++) addIfTriggered(materialize(row), snapshot, triggered);
+        } else {
+            AlertThresholdBatch.fired(prices, desiredPrice, desiredPercent, alertIfSale, rows)
+                    .addTo(triggered, this::materialize);
+        }
+        for (Alert alert : beans.values()) addIfTriggered(alert, snapshot, triggered);
+        return triggered;
+    }
+
+    private void removeCode(int code) {
+        beans.remove(code);
+        int row = rowOfUser.remove(code);
+        if (row < 0) return;
+        int last = --rows;
+        if (row != last) {
+            user[row] = user[last];
+            desiredPrice[row] = desiredPrice[last];
+            desiredPercent[row] = desiredPercent[last];
+            alertIfSale[row] = alertIfSale[last];
+            flags[row] = flags[last];
+            channels[row] = channels[last];
+            status[row] = status[last];
+            version[row] = version[last];
+            rowOfUser.put(user[row], row);
+        }
+    }
+
+    private Alert materialize(int row) {
+        int rowFlags = flags[row];
+        BigDecimal price = desiredPrice[row] == NO_PRICE ? null
+                : BigDecimal.valueOf(desiredPrice[row], 2).setScale(rowFlags >>> 2 & 3);
+        BigDecimal percent = desiredPercent[row] == NO_PERCENT ? null
+                : BigDecimal.valueOf(desiredPercent[row], 2).setScale(rowFlags >>> 4 & 3);
+
+        Alert alert = new Alert();
+        alert.setProductId(productId);
+        alert.setUserId(users.decode(user[row]));
+        alert.setDesiredPrice(price);
+        alert.setDesiredPercent(percent);
+        alert.setAlertIfSale(switch (rowFlags & 3) {
+            case SALE_TRUE -> Boolean.TRUE;
+            case SALE_FALSE -> Boolean.FALSE;
+            default -> null;
+        });
+        alert.setChannels(channelList(channels[row]));
+        alert.setStatus(status[row] < 0 ? null : STATUSES[status[row]]);
+        alert.setVersion(version[row] == NO_VERSION ? null : version[row]);
+        // Already known exact, so the evaluator can use the columns' values without compiling again.
+        alert.setThresholds(new AlertThresholds(price, percent,
+                price == null ? NONE : desiredPrice[row],
+                percent == null ? NONE : desiredPercent[row],
+                true));
+        return alert;
+    }
+
+    private void grow() {
+        int capacity = user.length * 2;
+        user = Arrays.copyOf(user, capacity);
+        desiredPrice = Arrays.copyOf(desiredPrice, capacity);
+        desiredPercent = Arrays.copyOf(desiredPercent, capacity);
+        alertIfSale = Arrays.copyOf(alertIfSale, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        channels = Arrays.copyOf(channels, capacity);
+        status = Arrays.copyOf(status, capacity);
+        version = Arrays.copyOf(version, capacity);
+    }
+
+    private static void addIfTriggered(Alert alert, AlertProductSnapshot snapshot, List<TriggeredAlert> triggered) {
+        TriggerDecision decision = AlertTriggerEvaluator.evaluate(alert, snapshot);
+        if (decision.triggered()) triggered.add(new TriggeredAlert(alert, decision));
+    }
+
+    /** Whether the column can give back the exact value, scale included. */
+    private static boolean columnScale(BigDecimal value) {
+        return value == null || value.scale() >= 0 && value.scale() <= 2;
+    }
+
+    private static int scaleOf(BigDecimal value) {
+        return value == null ? 0 : value.scale();
+    }
+
+    /** Bit per {@link AlertChannel}, {@link #NULL_CHANNELS} for none, {@code Integer.MIN_VALUE} if unknown or repeated. */
+    private static int channelMask(List<String> names) {
+        if (names == null) return NULL_CHANNELS;
+        int mask = 0;
+        for (String name : names) {
+            int bit = -1;
+            for (AlertChannel channel : CHANNELS) {
+                if (channel.getValue().equals(name)) bit = 1 << channel.ordinal();
+            }
+            if (bit < 0 || (mask & bit) != 0) return Integer.MIN_VALUE;
+            mask |= bit;
+        }
+        return mask;
+    }
+
+    private static List<String> channelList(int mask) {
+        if (mask == NULL_CHANNELS) return null;
+        var names = new ArrayList<String>(Integer.bitCount(mask));
+        for (AlertChannel channel : CHANNELS) {
+            if ((mask & 1 << channel.ordinal()) != 0) names.add(channel.getValue());
+        }
+        return names;
+    }
+
+    /** Open-addressing {@code int -> int} map from user code to row, with no boxing per entry. */
+    private static final class RowMap {
+        private static final int EMPTY = -1;
+
+        private int[] keys = emptyKeys(16);
+        private int[] values = new int[16];
+        private int count;
+
+        void put(int key, int value) {
+            if ((count + 1) * 2 > keys.length) rehash(keys.length * 2);
+            int slot = find(key);
+            if (keys[slot] == EMPTY) {
+                keys[slot] = key;
+                count++;
+            }
+            values[slot] = value;
+        }
+
+        /** Removes the key and returns its value, or {@code -1} if absent. */
+        int remove(int key) {
+            int slot = find(key);
+            if (keys[slot] != key) return -1;
+            int value = values[slot];
+            int mask = keys.length - 1;
+            // Backward-shift deletion: pull later entries of the probe run into the gap.
+            int gap = slot;
+            for (int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+                int home = hash(keys[next]) & mask;
+                boolean movable = gap <= next ? (home <= gap || home > next) : (home <= gap && home > next);
+                if (movable) {
+                    keys[gap] = keys[next];
+                    values[gap] = values[next];
+                    gap = next;
+                }
+            }
+            keys[gap] = EMPTY;
+            count--;
+            return value;
+        }
+
+        private int find(int key) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (keys[slot] != EMPTY && keys[slot] != key) slot = (slot + 1) & mask;
+            return slot;
+        }
+
+        private void rehash(int capacity) {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = emptyKeys(capacity);
+            values = new int[capacity];
+            count = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) put(oldKeys[i], oldValues[i]);
+            }
+        }
+
+        private static int hash(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+
+        private static int[] emptyKeys(int capacity) {
+            int[] keys = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.nimbly.phshoesbackend.alerts.core.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A template parsed once into text, {@code {{name}}} placeholders and {@code {% if name %}...{% endif %}}
+ * blocks, so rendering is a walk over the segments into one buffer sized up front.
+ *
+ * <p>Placeholders without a value render as nothing. A block is kept when its placeholder has a
+ * non-blank value. Values are written as given; template syntax inside a value is not expanded.
+ * Anything else between braces is plain text. Immutable and safe to share between threads.
+ */
+public final class CompiledTemplate {
+
+    private static final String IF_OPEN = "{% if ";
+    private static final String TAG_CLOSE = " %}";
+    private static final String ENDIF = "{% endif %}";
+
+    private sealed interface Segment permits Text, Placeholder, Conditional {
+    }
+
+    private record Text(String text) implements Segment {
+    }
+
+    private record Placeholder(String name) implements Segment {
+    }
+
+    private record Conditional(String name, List<Segment> body) implements Segment {
+    }
+
+    private final List<Segment> segments;
+    private final int textLength;
+
+    private CompiledTemplate(List<Segment> segments) {
+        this.segments = segments;
+        this.textLength = textLength(segments);
+    }
+
+    public static CompiledTemplate compile(String source) {
+        Deque<List<Segment>> open = new ArrayDeque<>();
+        Deque<String> conditions = new ArrayDeque<>();
+        List<Segment> current = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+
+        int i = 0;
+        while (i < source.length()) {
+            if (source.startsWith("{{", i)) {
+                int end = placeholderEnd(source, i);
+                if (end > 0) {
+                    flush(text, current);
+                    current.add(new Placeholder(source.substring(i + 2, end)));
+                    i = end + 2;
+                    continue;
+                }
+            } else if (source.startsWith(IF_OPEN, i)) {
+                int end = source.indexOf(TAG_CLOSE, i + IF_OPEN.length());
+                if (end > 0 && source.indexOf('%', i + 2) == end + 1) {
+                    flush(text, current);
+                    open.push(current);
+                    conditions.push(source.substring(i + IF_OPEN.length(), end));
+                    current = new ArrayList<>();
+                    i = end + TAG_CLOSE.length();
+                    continue;
+                }
+            } else if (source.startsWith(ENDIF, i) && !open.isEmpty()) {
+                flush(text, current);
+                Conditional block = new Conditional(conditions.pop(), List.copyOf(current));
+                current = open.pop();
+                current.add(block);
+                i += ENDIF.length();
+                continue;
+            }
+            text.append(source.charAt(i++));
+        }
+        if (!open.isEmpty()) {
+            throw new IllegalArgumentException("Unclosed {% if " + conditions.peek() + " %}");
+        }
+        flush(text, current);
+        return new CompiledTemplate(List.copyOf(current));
+    }
+
+    public String render(Map<String, String> values) {
+        StringBuilder out = new StringBuilder(textLength + valueLength(segments, values));
+        write(segments, values, out);
+        return out.toString();
+    }
+
+    /** Index of the {@code }}} closing a placeholder opened at {@code start}, or -1 if it is not one. */
+    private static int placeholderEnd(String source, int start) {
+        int close = source.indexOf('}', start + 2);
+        if (close <= start + 2 || !source.startsWith("}}", close)) return -1;
+        return close;
+    }
+
+    private static void flush(StringBuilder text, List<Segment> into) {
+        if (text.isEmpty()) return;
+        into.add(new Text(text.toString()));
+        text.setLength(0);
+    }
+
+    private static int textLength(List<Segment> segments) {
+        int length = 0;
+        for (Segment segment : segments) {
+            if (segment instanceof Text t) length += t.text().length();
+            else if (segment instanceof Conditional c) length += textLength(c.body());
+        }
+        return length;
+    }
+
+    private static int valueLength(List<Segment> segments, Map<String, String> values) {
+        int length = 0;
+        for (Segment segment : segments) {
+            if (segment instanceof Placeholder p) {
+                String value = values.get(p.name());
+                if (value != null) length += value.length();
+            } else if (segment instanceof Conditional c) {
+                length += valueLength(c.body(), values);
+            }
+        }
+        return length;
+    }
+
+    private static void write(List<Segment> segments, Map<String, String> values, StringBuilder out) {
+        for (Segment segment : segments) {
+            switch (segment) {
+                case Text t -> out.append(t.text());
+                case Placeholder p -> {
+                    String value = values.get(p.name());
+                    if (value != null) out.append(value);
+                }
+                case Conditional c -> {
+                    String value = values.get(c.name());
+                    if (value != null && !value.isBlank()) write(c.body(), values, out);
+                }
+            }
+        }
+    }
+}
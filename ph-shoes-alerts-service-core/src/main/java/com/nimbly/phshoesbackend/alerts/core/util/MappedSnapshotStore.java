@@ -0,0 +1,371 @@
+package com.nimbly.phshoesbackend.alerts.core.util;
+
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProductSnapshot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Product snapshots kept in a memory-mapped file instead of on the heap, keyed by product id.
+ * The file holds the records followed by an open-addressing table of their offsets, so a
+ * lookup is a hash probe and a read of one record. The page cache holds the data; the heap
+ * holds only the views handed out, and only while they are used.
+ *
+ * <p>Written once through {@link Writer}, then read-only. Reads are safe from any thread.
+ * {@link #close()} deletes the file; the mapping itself is released when the store is collected.
+ *
+ * <p>One file is mapped as a single buffer, so a store holds at most 2 GiB.
+ */
+public final class MappedSnapshotStore implements AutoCloseable, Iterable<MappedSnapshotStore.View> {
+
+    /** Slot count, product count, then where the table starts. */
+    private static final int HEADER_BYTES = 16;
+    /** Record offset ({@code long}) then the product id's hash ({@code int}). */
+    private static final int SLOT_BYTES = 12;
+    private static final int NULL_LENGTH = -1;
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final int slots;
+    private final int size;
+    private final int table;
+
+    private MappedSnapshotStore(Path file, MappedByteBuffer buffer) {
+        this.file = file;
+        this.buffer = buffer;
+        this.slots = buffer.getInt(0);
+        this.size = buffer.getInt(4);
+        this.table = (int) buffer.getLong(8);
+    }
+
+    /**
+     * Starts a store in a new file under {@code directory}, with room for {@code expected} products
+     * before its table first grows.
+     */
+    public static Writer writer(Path directory, int expected) {
+        return new Writer(directory, expected);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** The product's snapshot, or {@code null} if the store has none. */
+    public View find(String productId) {
+        int hash = productId.hashCode();
+        int slot = Writer.home(hash, slots);
+        while (true) {
+            int at = table + slot * SLOT_BYTES;
+            long offset = buffer.getLong(at);
+            if (offset == 0) return null;
+            if (buffer.getInt(at + 8) == hash) {
+                View view = new View((int) offset);
+                if (productId.equals(view.getProductId())) return view;
+            }
+            slot = (slot + 1) % slots;
+        }
+    }
+
+    /** Convenience for {@code find(productId).toSnapshot()}; {@code null} if the store has none. */
+    public AlertProductSnapshot snapshot(String productId) {
+        View view = find(productId);
+        return view == null ? null : view.toSnapshot();
+    }
+
+    /** Every stored product, in table order. */
+    @Override
+    public Iterator<View> iterator() {
+        return new Iterator<>() {
+            private int slot = advance(0);
+
+            private int advance(int from) {
+                int next = from;
+                while (next < slots && buffer.getLong(table + next * SLOT_BYTES) == 0) next++;
+                return next;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return slot < slots;
+            }
+
+            @Override
+            public View next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                View view = new View((int) buffer.getLong(table + slot * SLOT_BYTES));
+                slot = advance(slot + 1);
+                return view;
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * One stored snapshot, read from the file field by field as its getters are called.
+     */
+    public final class View {
+
+        private final int offset;
+
+        private View(int offset) {
+            this.offset = offset;
+        }
+
+        public String getProductId() {
+            return stringAt(offset);
+        }
+
+        public String getProductName() {
+            return stringAt(skip(offset, 1));
+        }
+
+        public String getProductBrand() {
+            return stringAt(skip(offset, 2));
+        }
+
+        public String getProductImage() {
+            return stringAt(skip(offset, 3));
+        }
+
+        public String getProductImageUrl() {
+            return stringAt(skip(offset, 4));
+        }
+
+        public String getProductUrl() {
+            return stringAt(skip(offset, 5));
+        }
+
+        public BigDecimal getPriceOriginal() {
+            return decimalAt(skip(offset, 6));
+        }
+
+        public BigDecimal getPriceSale() {
+            return decimalAt(skip(offset, 7));
+        }
+
+        public AlertProductSnapshot toSnapshot() {
+            return AlertProductSnapshot.builder()
+                    .productId(getProductId())
+                    .productName(getProductName())
+                    .productBrand(getProductBrand())
+                    .productImage(getProductImage())
+                    .productImageUrl(getProductImageUrl())
+                    .productUrl(getProductUrl())
+                    .priceOriginal(getPriceOriginal())
+                    .priceSale(getPriceSale())
+                    .build();
+        }
+    }
+
+    /** Position of the field {@code fields} after the one at {@code at}; every field starts with its length. */
+    private int skip(int at, int fields) {
+        int position = at;
+        for (int i = 0; i < fields; i++) {
+            int length = buffer.getInt(position);
+            position += 4 + Math.max(length, 0);
+        }
+        return position;
+    }
+
+    private String stringAt(int at) {
+        byte[] bytes = bytesAt(at);
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Stored as the scale followed by the unscaled value's two's-complement bytes. */
+    private BigDecimal decimalAt(int at) {
+        byte[] bytes = bytesAt(at);
+        if (bytes == null) return null;
+        ByteBuffer value = ByteBuffer.wrap(bytes);
+        int scale = value.getInt();
+        byte[] unscaled = new byte[bytes.length - 4];
+        value.get(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private byte[] bytesAt(int at) {
+        int length = buffer.getInt(at);
+        if (length == NULL_LENGTH) return null;
+        byte[] bytes = new byte[length];
+        buffer.get(at + 4, bytes);
+        return bytes;
+    }
+
+    /**
+     * Appends snapshots to the file. The table stays on the heap, twelve bytes a slot, doubling as
+     * products are added, and is written after the records by {@link #finish()}; the number of
+     * products need not be known up front. Adding a product id twice keeps the later snapshot, and
+     * the earlier record stays in the file unreferenced. Not thread-safe; a writer fills one store.
+     */
+    public static final class Writer implements AutoCloseable {
+
+        private final Path file;
+        private final FileChannel channel;
+        private long[] offsets;
+        private int[] hashes;
+        private long end = HEADER_BYTES;
+        private int size;
+        private boolean finished;
+
+        private Writer(Path directory, int expected) {
+            // Kept at most half full so probe runs stay short.
+            int slots = Math.max(16, Math.multiplyExact(Math.max(expected, 1), 2));
+            this.offsets = new long[slots];
+            this.hashes = new int[slots];
+            try {
+                Files.createDirectories(directory);
+                this.file = Files.createTempFile(directory, "snapshots-", ".bin");
+                this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        public Writer add(AlertProductSnapshot snapshot) {
+            String productId = snapshot.getProductId();
+            if (productId == null) throw new IllegalArgumentException("snapshot has no productId");
+            if ((size + 1) * 2 > offsets.length) grow();
+            int hash = productId.hashCode();
+            int slot = home(hash, offsets.length);
+            while (offsets[slot] != 0) {
+                if (hashes[slot] == hash && productId.equals(readId(offsets[slot]))) break;
+                slot = (slot + 1) % offsets.length;
+            }
+
+            byte[] record = encode(snapshot);
+            if (end + record.length > Integer.MAX_VALUE) throw new IllegalStateException("store exceeds 2 GiB");
+            write(ByteBuffer.wrap(record), end);
+            if (offsets[slot] == 0) size++;
+            offsets[slot] = end;
+            hashes[slot] = hash;
+            end += record.length;
+            return this;
+        }
+
+        /** Writes the table and maps the finished file read-only; the writer is closed. */
+        public MappedSnapshotStore finish() {
+            int slots = offsets.length;
+            long length = end + (long) slots * SLOT_BYTES;
+            if (length > Integer.MAX_VALUE) throw new IllegalStateException("store exceeds 2 GiB");
+            ByteBuffer table = ByteBuffer.allocate(slots * SLOT_BYTES);
+            for (int slot = 0; slot < slots; slot++) table.putLong(offsets[slot]).putInt(hashes[slot]);
+            write(table.flip(), end);
+            write(ByteBuffer.allocate(HEADER_BYTES).putInt(slots).putInt(size).putLong(end).flip(), 0);
+            try {
+                channel.force(false);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+                finished = true;
+                channel.close();
+                return new MappedSnapshotStore(file, buffer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /** Deletes the file unless {@link #finish()} handed it to a store. */
+        @Override
+        public void close() {
+            if (finished) return;
+            try {
+                channel.close();
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void grow() {
+            long[] oldOffsets = offsets;
+            int[] oldHashes = hashes;
+            offsets = new long[Math.multiplyExact(oldOffsets.length, 2)];
+            hashes = new int[offsets.length];
+            for (int old = 0; old < oldOffsets.length; old++) {
+                if (oldOffsets[old] == 0) continue;
+                int slot = home(oldHashes[old], offsets.length);
+                while (offsets[slot] != 0) slot = (slot + 1) % offsets.length;
+                offsets[slot] = oldOffsets[old];
+                hashes[slot] = oldHashes[old];
+            }
+        }
+
+        private void write(ByteBuffer source, long position) {
+            try {
+                long at = position;
+                while (source.hasRemaining()) at += channel.write(source, at);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private String readId(long offset) {
+            try {
+                ByteBuffer length = ByteBuffer.allocate(4);
+                channel.read(length, offset);
+                ByteBuffer bytes = ByteBuffer.allocate(length.flip().getInt());
+                while (bytes.hasRemaining()) {
+                    if (channel.read(bytes, offset + 4 + bytes.position()) < 0) break;
+                }
+                return new String(bytes.array(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static byte[] encode(AlertProductSnapshot snapshot) {
+            byte[][] fields = {
+                    utf8(snapshot.getProductId()),
+                    utf8(snapshot.getProductName()),
+                    utf8(snapshot.getProductBrand()),
+                    utf8(snapshot.getProductImage()),
+                    utf8(snapshot.getProductImageUrl()),
+                    utf8(snapshot.getProductUrl()),
+                    decimal(snapshot.getPriceOriginal()),
+                    decimal(snapshot.getPriceSale())
+            };
+            int length = 0;
+            for (byte[] field : fields) length += 4 + (field == null ? 0 : field.length);
+            ByteBuffer record = ByteBuffer.allocate(length);
+            for (byte[] field : fields) {
+                if (field == null) {
+                    record.putInt(NULL_LENGTH);
+                } else {
+                    record.putInt(field.length).put(field);
+                }
+            }
+            return record.array();
+        }
+
+        private static byte[] utf8(String value) {
+            return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        private static byte[] decimal(BigDecimal value) {
+            if (value == null) return null;
+            byte[] unscaled = value.unscaledValue().toByteArray();
+            return ByteBuffer.allocate(4 + unscaled.length).putInt(value.scale()).put(unscaled).array();
+        }
+
+        static int home(int hash, int slots) {
+            return Math.floorMod(hash ^ (hash >>> 16), slots);
+        }
+    }
+}
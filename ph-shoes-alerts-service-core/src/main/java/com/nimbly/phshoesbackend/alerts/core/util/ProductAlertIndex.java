@@ -0,0 +1,35 @@
+package com.nimbly.phshoesbackend.alerts.core.util;
+
+import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProductSnapshot;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator.FixedPrices;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator.TriggeredAlert;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * One product's active alerts, keyed by user, able to say which of them a price snapshot triggers.
+ * Alerts carry the {@link com.nimbly.phshoesbackend.alerts.core.model.AlertProjection#EVALUATION}
+ * attributes only.
+ */
+public interface ProductAlertIndex {
+
+    /** Adds the alert, replacing the user's previous one. */
+    void put(Alert alert);
+
+    void remove(String userId);
+
+    int size();
+
+    boolean isEmpty();
+
+    /** Every alert; callers that hand them out should copy them. */
+    Collection<Alert> alerts();
+
+    /**
+     * The alerts the snapshot triggers, each once, with the decision {@link AlertTriggerEvaluator}
+     * would make. {@code prices} may be {@code null} when the snapshot has no fixed-point form.
+     */
+    List<TriggeredAlert> triggered(AlertProductSnapshot snapshot, FixedPrices prices);
+}
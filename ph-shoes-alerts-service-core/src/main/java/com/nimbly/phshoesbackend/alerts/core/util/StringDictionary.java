@@ -0,0 +1,40 @@
+package com.nimbly.phshoesbackend.alerts.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dense {@code int} codes for strings, so a column can hold a code per row instead of a reference
+ * to its own copy of the string. Codes are never reused; a dictionary is dropped as a whole.
+ */
+public final class StringDictionary {
+
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    /** The value's code, assigning the next one if it has none yet. */
+    public synchronized int encode(String value) {
+        Integer code = codes.get(value);
+        if (code != null) return code;
+        int next = values.size();
+        values.add(value);
+        codes.put(value, next);
+        return next;
+    }
+
+    /** The value's code, or {@code -1} if it has none. */
+    public int find(String value) {
+        Integer code = codes.get(value);
+        return code == null ? -1 : code;
+    }
+
+    public synchronized String decode(int code) {
+        return values.get(code);
+    }
+
+    public int size() {
+        return codes.size();
+    }
+}
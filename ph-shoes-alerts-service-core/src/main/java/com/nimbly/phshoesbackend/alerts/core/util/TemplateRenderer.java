@@ -4,31 +4,41 @@ import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.FileCopyUtils;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Renders classpath templates, each read and compiled once into a {@link CompiledTemplate} and cached
+ * by path. Templates ship inside the jar and never change there, so nothing is re-checked per render;
+ * {@link #evict} drops one so the next render reads it again.
+ */
 @Component
 public class TemplateRenderer {
 
+    private final Map<String, CompiledTemplate> cache = new ConcurrentHashMap<>();
+
     public String render(String classpathTemplate, Map<String, String> placeholders) {
         try {
-            ClassPathResource resource = new ClassPathResource(classpathTemplate);
-            byte[] bytes = FileCopyUtils.copyToByteArray(resource.getInputStream());
-            String template = new String(bytes, StandardCharsets.UTF_8);
-            String output = template;
-            for (var entry : placeholders.entrySet()) {
-                String key = "{{" + entry.getKey() + "}}";
-                output = output.replace(key, entry.getValue() == null ? "" : entry.getValue());
-            }
-            output = output.replaceAll("\\{\\{[^}]+}}", "");
-            if (!placeholders.containsKey("original") || placeholders.get("original") == null || placeholders.get("original").isBlank()) {
-                output = output.replaceAll("\\{% if original %}.*?\\{% endif %}", "");
-            } else {
-                output = output.replace("{% if original %}", "").replace("{% endif %}", "");
-            }
-            return output;
+            return cache.computeIfAbsent(classpathTemplate, TemplateRenderer::compile).render(placeholders);
         } catch (Exception ex) {
             throw new IllegalStateException("Failed to render template " + classpathTemplate, ex);
         }
     }
+
+    /** Forgets the compiled template, so the next render reads and compiles it again. */
+    public void evict(String classpathTemplate) {
+        cache.remove(classpathTemplate);
+    }
+
+    private static CompiledTemplate compile(String classpathTemplate) {
+        try {
+            byte[] bytes = FileCopyUtils.copyToByteArray(new ClassPathResource(classpathTemplate).getInputStream());
+            return CompiledTemplate.compile(new String(bytes, StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
 }
@@ -0,0 +1,132 @@
+package com.nimbly.phshoesbackend.alerts.core.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ScrapeBatchTest {
+
+    @Test
+    void get_returnsTheValuesThatWereAdded() {
+        // Arrange
+        Random random = new Random(20250211L);
+        var products = new ArrayList<ScrapedProduct>();
+        for (int i = 0; i < 500; i++) {
+            String image = random.nextInt(5) == 0 ? null : pick(random, "https://static.nike.com/a/images/", "image-", "https://cdn.example.com/") + i + ".png";
+            products.add(ScrapedProduct.builder()
+                    .productId(random.nextInt(20) == 0 ? null : "product-" + i)
+                    .dwid("dwid-" + i)
+                    .brand(pick(random, "Nike", "Adidas", "Asics", null))
+                    .title("Title " + i)
+                    .subtitle(pick(random, "Men's Shoes", "Women's Shoes", null))
+                    .url(random.nextInt(10) == 0 ? null : pick(random, "https://www.nike.com/ph/t/", "https://example.com/", "https://example.com", "not a url ") + i)
+                    .image(image)
+                    .productImageUrl(random.nextBoolean() ? image : "https://cdn.example.com/p/" + i + ".jpg")
+                    .priceSale(random.nextInt(8) == 0 ? null : randomAmount(random))
+                    .priceOriginal(random.nextInt(8) == 0 ? null : randomAmount(random))
+                    .build());
+        }
+
+        // Act
+        ScrapeBatch batch = ScrapeBatch.of(products);
+
+        // Assert
+        assertEquals(products.size(), batch.size());
+        for (int row = 0; row < products.size(); row++) {
+            ScrapedProduct expected = products.get(row);
+            ScrapedProduct actual = batch.get(row);
+            assertEquals(expected.getProductId(), actual.getProductId());
+            assertEquals(expected.getDwid(), actual.getDwid());
+            assertEquals(expected.getBrand(), actual.getBrand());
+            assertEquals(expected.getTitle(), actual.getTitle());
+            assertEquals(expected.getSubtitle(), actual.getSubtitle());
+            assertEquals(expected.getUrl(), actual.getUrl());
+            assertEquals(expected.getImage(), actual.getImage());
+            assertEquals(expected.getProductImageUrl(), actual.getProductImageUrl());
+            assertSameAmount(expected.getPriceSale(), actual.getPriceSale());
+            assertSameAmount(expected.getPriceOriginal(), actual.getPriceOriginal());
+        }
+    }
+
+    @Test
+    void brand_whenRowsShareABrand_returnsOneInstance() {
+        // Arrange
+        ScrapeBatch batch = ScrapeBatch.builder()
+                .add("product-1", "dwid-1", new String("Nike"), "A", null, null, null, null, null, null)
+                .add("product-2", "dwid-2", new String("Nike"), "B", null, null, null, null, null, null)
+                .build();
+
+        // Act
+        String first = batch.brand(0);
+        String second = batch.brand(1);
+
+        // Assert
+        assertSame(first, second);
+    }
+
+    @Test
+    void priceSale_whenFinerThanACentavo_keepsTheExactValue() {
+        // Arrange
+        ScrapeBatch batch = ScrapeBatch.builder()
+                .add("product-1", null, null, null, null, null, null, null,
+                        new BigDecimal("99.995"), new BigDecimal("1E+20"))
+                .build();
+
+        // Act
+        BigDecimal sale = batch.priceSale(0);
+        BigDecimal original = batch.priceOriginal(0);
+
+        // Assert
+        assertEquals(new BigDecimal("99.995"), sale);
+        assertEquals(new BigDecimal("1E+20"), original);
+        assertNull(batch.url(0));
+    }
+
+    @Test
+    void productId_whenRowOutOfRange_throws() {
+        // Arrange
+        ScrapeBatch batch = ScrapeBatch.empty();
+
+        // Act + Assert
+        assertThrows(IndexOutOfBoundsException.class, () -> batch.productId(0));
+    }
+
+    @Test
+    void prefixEnd_stopsAfterTwoPathSegments() {
+        // Arrange
+        List<String> urls = List.of("https://www.nike.com/ph/t/air-max/DM0029", "https://example.com/p", "https://example.com", "image");
+
+        // Act
+        List<Integer> ends = urls.stream().map(ScrapeBatch::prefixEnd).toList();
+
+        // Assert
+        assertEquals(List.of("https://www.nike.com/ph/t/".length(), "https://example.com/".length(), 0, 0), ends);
+    }
+
+    private static void assertSameAmount(BigDecimal expected, BigDecimal actual) {
+        if (expected == null) {
+            assertNull(actual);
+        } else {
+            assertEquals(0, expected.compareTo(actual), () -> expected + " vs " + actual);
+        }
+    }
+
+    /** Up to 5,000, with zero to three decimals so prices kept aside are exercised too. */
+    private static BigDecimal randomAmount(Random random) {
+        int scale = random.nextInt(4);
+        return BigDecimal.valueOf(random.nextLong(5_000L * (long) Math.pow(10, scale) + 1), scale);
+    }
+
+    @SafeVarargs
+    private static <T> T pick(Random random, T... values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -11,9 +11,11 @@ import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 @JdbcTest
 class WarehouseScrapeRepositoryTest {
@@ -80,6 +82,73 @@ class WarehouseScrapeRepositoryTest {
         assertEquals(0, product.getPriceOriginal().compareTo(new BigDecimal("120")));
     }
 
+    @Test
+    void forEachByDate_streamsRowsForDateAndCountsThem() {
+        // Arrange
+        LocalDate date = LocalDate.of(2025, 6, 12);
+        insertRow("product-1", "dwid-1", "Brand", "Title", "Sub", "https://example.com/p/1",
+                "image", new BigDecimal("99.90"), new BigDecimal("120.00"), date);
+        insertRow("product-2", "dwid-2", "Other", "Other", null, "https://example.com/p/2",
+                "image-2", null, new BigDecimal("110.00"), date);
+        insertRow("product-3", "dwid-3", "Other", "Other", null, "https://example.com/p/3",
+                "image-3", new BigDecimal("89.00"), new BigDecimal("110.00"), LocalDate.of(2025, 6, 11));
+        List<ScrapedProduct> streamed = new ArrayList<>();
+
+        // Act
+        int count = repository.forEachByDate(date, streamed::add);
+
+        // Assert
+        assertEquals(2, count);
+        assertEquals(List.of("product-1", "product-2"), streamed.stream().map(ScrapedProduct::getProductId).sorted().toList());
+        ScrapedProduct second = streamed.stream().filter(p -> p.getProductId().equals("product-2")).findFirst().orElseThrow();
+        assertNull(second.getPriceSale());
+        assertEquals("image-2", second.getProductImageUrl());
+    }
+
+    @Test
+    void forEachBestByDate_keepsTheLowestPriceThenLatestDwidPerProduct() {
+        // Arrange
+        LocalDate date = LocalDate.of(2025, 6, 12);
+        insertRow("product-1", "dwid-1", "Brand", "Title", null, "https://example.com/p/1",
+                "image", new BigDecimal("150.00"), new BigDecimal("160.00"), date);
+        insertRow("product-1", "dwid-2", "Brand", "Title", null, "https://example.com/p/1",
+                "image", new BigDecimal("80.00"), new BigDecimal("160.00"), date);
+        insertRow("product-1", "dwid-3", "Brand", "Title", null, "https://example.com/p/1",
+                "image", new BigDecimal("120.00"), new BigDecimal("160.00"), date);
+        insertRow("product-2", "dwid-4", "Other", "Other", null, "https://example.com/p/2",
+                "image-2", null, new BigDecimal("110.00"), date);
+        insertRow("product-2", "dwid-5", "Other", "Other", null, "https://example.com/p/2",
+                "image-2", new BigDecimal("110.00"), new BigDecimal("130.00"), date);
+        insertRow("product-3", "dwid-6", "Other", "Other", null, "https://example.com/p/3",
+                "image-3", null, null, date);
+        insertRow("product-3", "dwid-7", "Other", "Other", null, "https://example.com/p/3",
+                "image-3", null, new BigDecimal("90.00"), date);
+        insertRow("product-1", "dwid-9", "Brand", "Title", null, "https://example.com/p/1",
+                "image", new BigDecimal("10.00"), new BigDecimal("20.00"), LocalDate.of(2025, 6, 11));
+        List<ScrapedProduct> streamed = new ArrayList<>();
+
+        // Act
+        int scraped = repository.forEachBestByDate(date, streamed::add);
+
+        // Assert
+        assertEquals(7, scraped);
+        assertEquals(List.of("product-1:dwid-2", "product-2:dwid-5", "product-3:dwid-7"), streamed.stream()
+                .map(p -> p.getProductId() + ":" + p.getDwid())
+                .sorted()
+                .toList());
+    }
+
+    @Test
+    void forEachBestByDate_whenNoRows_returnsZero() {
+        // Act
+        int scraped = repository.forEachBestByDate(LocalDate.of(2025, 6, 12), product -> {
+            throw new AssertionError("no rows expected");
+        });
+
+        // Assert
+        assertEquals(0, scraped);
+    }
+
     private void insertRow(String productId,
                            String dwid,
                            String brand,
@@ -0,0 +1,198 @@
+package com.nimbly.phshoesbackend.alerts.core.repository.dynamo;
+
+import com.nimbly.phshoesbackend.alerts.core.config.props.DynamoPacingProps;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.services.dynamodb.model.Capacity;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DynamoCapacityPacerTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Mock
+    private Context.ModifyRequest modifyContext;
+
+    @Mock
+    private Context.BeforeTransmission transmitContext;
+
+    @Mock
+    private Context.AfterUnmarshalling responseContext;
+
+    private final AtomicLong now = new AtomicLong();
+    private final List<Long> sleeps = new ArrayList<>();
+    private DynamoCapacityPacer pacer;
+
+    @BeforeEach
+    void setUp() {
+        DynamoPacingProps props = new DynamoPacingProps();
+        props.setWriteUnitsPerSecond(1.0);
+        props.setBurstSeconds(1.0);
+        pacer = new DynamoCapacityPacer(props, now::get, nanos -> {
+            sleeps.add(nanos);
+            now.addAndGet(nanos);
+        });
+    }
+
+    @Test
+    void modifyRequest_asksItemWritesForIndexConsumption() {
+        // Arrange
+        when(modifyContext.request()).thenReturn(write());
+
+        // Act
+        SdkRequest modified = pacer.modifyRequest(modifyContext, new ExecutionAttributes());
+
+        // Assert
+        assertEquals(ReturnConsumedCapacity.INDEXES, ((UpdateItemRequest) modified).returnConsumedCapacity());
+    }
+
+    @Test
+    void modifyRequest_leavesTableManagementCallsAlone() {
+        // Arrange
+        DescribeTableRequest describe = DescribeTableRequest.builder().tableName("alerts").build();
+        when(modifyContext.request()).thenReturn(describe);
+
+        // Act
+        SdkRequest modified = pacer.modifyRequest(modifyContext, new ExecutionAttributes());
+
+        // Assert
+        assertSame(describe, modified);
+    }
+
+    @Test
+    void modifyRequest_leavesTablesOutsideTheAllowListAlone() {
+        // Arrange
+        UpdateItemRequest accounts = UpdateItemRequest.builder().tableName("accounts").build();
+        when(modifyContext.request()).thenReturn(accounts);
+
+        // Act
+        SdkRequest modified = pacer.modifyRequest(modifyContext, new ExecutionAttributes());
+
+        // Assert
+        assertSame(accounts, modified);
+    }
+
+    @Test
+    void beforeTransmission_whenTableNotPaced_neverWaits() {
+        // Arrange
+        when(transmitContext.request()).thenReturn(UpdateItemRequest.builder().tableName("email_suppressions").build());
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            pacer.beforeTransmission(transmitContext, new ExecutionAttributes());
+        }
+
+        // Assert
+        assertEquals(List.of(), sleeps);
+    }
+
+    @Test
+    void beforeTransmission_whenBurstSpent_waitsForBudget() {
+        // Arrange
+        when(transmitContext.request()).thenReturn(write());
+
+        // Act
+        pacer.beforeTransmission(transmitContext, new ExecutionAttributes());
+        pacer.beforeTransmission(transmitContext, new ExecutionAttributes());
+
+        // Assert
+        assertEquals(List.of(SECOND), sleeps);
+    }
+
+    @Test
+    void afterUnmarshalling_whenWriteCostsMoreThanEstimate_chargesTheDifference() {
+        // Arrange
+        UpdateItemRequest request = write();
+        when(transmitContext.request()).thenReturn(request);
+        when(responseContext.request()).thenReturn(request);
+        when(responseContext.response()).thenReturn(UpdateItemResponse.builder()
+                .consumedCapacity(ConsumedCapacity.builder()
+                        .tableName("alerts")
+                        .capacityUnits(4.0)
+                        .table(Capacity.builder().capacityUnits(1.0).build())
+                        .globalSecondaryIndexes(Map.of("gsi_userId", Capacity.builder().capacityUnits(3.0).build()))
+                        .build())
+                .build());
+        ExecutionAttributes first = new ExecutionAttributes();
+
+        // Act
+        pacer.beforeTransmission(transmitContext, first);
+        pacer.afterUnmarshalling(responseContext, first);
+        pacer.beforeTransmission(transmitContext, new ExecutionAttributes());
+
+        // Assert
+        // Charged 3 units (the busiest index) against a 1-unit reservation, then reserves 3 more as the new estimate.
+        assertEquals(List.of(5 * SECOND), sleeps);
+    }
+
+    @Test
+    void beforeTransmission_whenAttemptRetried_refundsReservationAndHalvesRate() {
+        // Arrange
+        when(transmitContext.request()).thenReturn(write());
+        ExecutionAttributes throttled = new ExecutionAttributes();
+
+        // Act
+        pacer.beforeTransmission(transmitContext, throttled);
+        pacer.beforeTransmission(transmitContext, throttled);
+        pacer.beforeTransmission(transmitContext, new ExecutionAttributes());
+
+        // Assert
+        // The retry reuses the refunded unit without waiting; the next write waits at the halved rate.
+        assertEquals(List.of(2 * SECOND), sleeps);
+    }
+
+    @Test
+    void afterUnmarshalling_whenSucceeded_recoversRateTowardsBudget() {
+        // Arrange
+        UpdateItemRequest request = write();
+        when(transmitContext.request()).thenReturn(request);
+        when(responseContext.request()).thenReturn(request);
+        when(responseContext.response()).thenReturn(UpdateItemResponse.builder().build());
+        ExecutionAttributes throttled = new ExecutionAttributes();
+        pacer.beforeTransmission(transmitContext, throttled);
+        pacer.beforeTransmission(transmitContext, throttled);
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            pacer.afterUnmarshalling(responseContext, throttled);
+        }
+        pacer.beforeTransmission(transmitContext, new ExecutionAttributes());
+
+        // Assert
+        assertEquals(List.of(SECOND), sleeps);
+    }
+
+    @Test
+    void consumedUnits_whenResponseHasNoConsumption_returnsNull() {
+        // Act
+        Double units = DynamoCapacityPacer.consumedUnits(UpdateItemResponse.builder().build());
+
+        // Assert
+        assertNull(units);
+    }
+
+    private static UpdateItemRequest write() {
+        return UpdateItemRequest.builder().tableName("alerts").build();
+    }
+}
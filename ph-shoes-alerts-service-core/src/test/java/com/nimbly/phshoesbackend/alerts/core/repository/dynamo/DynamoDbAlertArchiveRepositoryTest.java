@@ -0,0 +1,237 @@
+package com.nimbly.phshoesbackend.alerts.core.repository.dynamo;
+
+import com.nimbly.phshoesbackend.alerts.core.exception.InvalidAlertException;
+import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertPage;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProduct;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertStatus;
+import com.nimbly.phshoesbackend.alerts.core.model.dynamo.AlertArchiveAttrs;
+import com.nimbly.phshoesbackend.alerts.core.model.dynamo.AlertAttrs;
+import com.nimbly.phshoesbackend.alerts.core.repository.AlertProductRepository;
+import com.nimbly.phshoesbackend.alerts.core.repository.AlertSearchIndexRepository;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertCursorCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.paginators.ScanIterable;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DynamoDbAlertArchiveRepositoryTest {
+
+    private static final Instant TRIGGERED_AT = Instant.parse("2025-01-01T08:00:00Z");
+
+    @Mock
+    private DynamoDbClient dynamo;
+
+    @Mock
+    private AlertProductRepository products;
+
+    @Mock
+    private AlertSearchIndexRepository searchIndex;
+
+    @InjectMocks
+    private DynamoDbAlertArchiveRepository repository;
+
+    @Test
+    void forEachTriggeredBefore_filtersStatusInTheScanAndTheCutoffAsInstants() {
+        // Arrange
+        Instant cutoff = Instant.parse("2025-02-01T00:00:00Z");
+        ArgumentCaptor<ScanRequest> scanCaptor = ArgumentCaptor.forClass(ScanRequest.class);
+        when(dynamo.scanPaginator(any(ScanRequest.class)))
+                .thenAnswer(invocation -> new ScanIterable(dynamo, invocation.getArgument(0)));
+        when(dynamo.scan(scanCaptor.capture())).thenReturn(ScanResponse.builder()
+                .items(triggeredItem("product-1", "2025-01-31T23:59:59.500Z"),
+                        triggeredItem("product-2", "2025-02-01T00:00:00.500Z"),
+                        triggeredItem("product-3", "2025-02-01T00:00:00Z"))
+                .build());
+        List<Alert> alerts = new ArrayList<>();
+
+        // Act
+        int count = repository.forEachTriggeredBefore(cutoff, alerts::add);
+
+        // Assert
+        assertEquals(1, count);
+        assertEquals(List.of("product-1"), alerts.stream().map(Alert::getProductId).toList());
+        ScanRequest scan = scanCaptor.getValue();
+        assertEquals("#s = :triggered", scan.filterExpression());
+        assertEquals(AlertStatus.TRIGGERED.name(), scan.expressionAttributeValues().get(":triggered").s());
+    }
+
+    @Test
+    void forEachTriggeredBefore_handsOverEachPageAsItArrives() {
+        // Arrange
+        Instant cutoff = Instant.parse("2025-02-01T00:00:00Z");
+        Map<String, AttributeValue> lastKey = Map.of(
+                AlertAttrs.PK_PRODUCT_ID, AttributeValue.fromS("product-1"),
+                AlertAttrs.SK_USER_ID, AttributeValue.fromS("user-1"));
+        List<String> seen = new ArrayList<>();
+        when(dynamo.scanPaginator(any(ScanRequest.class)))
+                .thenAnswer(invocation -> new ScanIterable(dynamo, invocation.getArgument(0)));
+        when(dynamo.scan(any(ScanRequest.class)))
+                .thenReturn(ScanResponse.builder()
+                        .items(triggeredItem("product-1", "2025-01-01T00:00:00Z"))
+                        .lastEvaluatedKey(lastKey)
+                        .build())
+                .thenAnswer(invocation -> {
+                    // The first page was consumed before the second was requested.
+                    assertEquals(List.of("product-1"), seen);
+                    return ScanResponse.builder()
+                            .items(triggeredItem("product-2", "2025-01-02T00:00:00Z"))
+                            .build();
+                });
+
+        // Act
+        int count = repository.forEachTriggeredBefore(cutoff, alert -> seen.add(alert.getProductId()));
+
+        // Assert
+        assertEquals(2, count);
+        assertEquals(List.of("product-1", "product-2"), seen);
+    }
+
+    @Test
+    void archive_putsIntoArchiveAndDeletesOnlyIfStillTriggeredAtTheSameTime() {
+        // Arrange
+        Instant archivedAt = Instant.parse("2025-03-01T00:00:00Z");
+        Instant expiresAt = Instant.parse("2026-03-01T00:00:00Z");
+        ArgumentCaptor<TransactWriteItemsRequest> txCaptor = ArgumentCaptor.forClass(TransactWriteItemsRequest.class);
+        when(dynamo.transactWriteItems(txCaptor.capture())).thenReturn(TransactWriteItemsResponse.builder().build());
+
+        // Act
+        boolean archived = repository.archive(triggeredAlert(), archivedAt, expiresAt);
+
+        // Assert
+        assertTrue(archived);
+        var put = txCaptor.getValue().transactItems().get(0).put();
+        assertEquals(AlertArchiveAttrs.TABLE, put.tableName());
+        assertEquals("user-1", put.item().get(AlertArchiveAttrs.PK_USER_ID).s());
+        assertEquals(archivedAt.toString(), put.item().get(AlertArchiveAttrs.ARCHIVED_AT).s());
+        assertEquals(Long.toString(expiresAt.getEpochSecond()), put.item().get(AlertArchiveAttrs.EXPIRES_AT).n());
+        var delete = txCaptor.getValue().transactItems().get(1).delete();
+        assertEquals(AlertAttrs.TABLE, delete.tableName());
+        assertEquals(TRIGGERED_AT.toString(), delete.expressionAttributeValues().get(":triggeredAt").s());
+        verify(searchIndex).remove("product-1", "user-1");
+    }
+
+    @Test
+    void archive_whenAlertChangedSinceRead_returnsFalseAndKeepsIndex() {
+        // Arrange
+        when(dynamo.transactWriteItems(any(TransactWriteItemsRequest.class)))
+                .thenThrow(cancelled("None", "ConditionalCheckFailed"));
+
+        // Act
+        boolean archived = repository.archive(triggeredAlert(), Instant.now(), Instant.now());
+
+        // Assert
+        assertFalse(archived);
+        verify(searchIndex, never()).remove(any(), any());
+    }
+
+    @Test
+    void archive_whenCancelledForAnotherReason_rethrows() {
+        // Arrange
+        when(dynamo.transactWriteItems(any(TransactWriteItemsRequest.class)))
+                .thenThrow(cancelled("TransactionConflict", "None"));
+
+        // Act / Assert
+        assertThrows(TransactionCanceledException.class,
+                () -> repository.archive(triggeredAlert(), Instant.now(), Instant.now()));
+    }
+
+    @Test
+    void findPageByUser_resumesFromCursorAndJoinsProducts() {
+        // Arrange
+        String cursor = AlertCursorCodec.encode(Map.of(
+                AlertArchiveAttrs.PK_USER_ID, AttributeValue.fromS("user-1"),
+                AlertArchiveAttrs.SK_PRODUCT_ID, AttributeValue.fromS("product-0")));
+        ArgumentCaptor<QueryRequest> queryCaptor = ArgumentCaptor.forClass(QueryRequest.class);
+        when(dynamo.query(queryCaptor.capture())).thenReturn(QueryResponse.builder()
+                .items(Map.of(
+                        AlertArchiveAttrs.PK_USER_ID, AttributeValue.fromS("user-1"),
+                        AlertArchiveAttrs.SK_PRODUCT_ID, AttributeValue.fromS("product-1"),
+                        AlertAttrs.STATUS, AttributeValue.fromS(AlertStatus.TRIGGERED.name())))
+                .build());
+        AlertProduct product = new AlertProduct();
+        product.setProductId("product-1");
+        product.setProductName("Runner");
+        when(products.findByIds(List.of("product-1"))).thenReturn(Map.of("product-1", product));
+
+        // Act
+        AlertPage page = repository.findPageByUser("user-1", 20, cursor);
+
+        // Assert
+        QueryRequest query = queryCaptor.getValue();
+        assertEquals(AlertArchiveAttrs.TABLE, query.tableName());
+        assertEquals(20, query.limit());
+        assertEquals("user-1", query.exclusiveStartKey().get(AlertArchiveAttrs.PK_USER_ID).s());
+        assertEquals("Runner", page.items().get(0).getProductName());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void findPageByUser_whenCursorHasOtherAttributes_rejectsIt() {
+        // Arrange
+        String cursor = AlertCursorCodec.encode(Map.of(
+                AlertArchiveAttrs.PK_USER_ID, AttributeValue.fromS("user-1"),
+                AlertArchiveAttrs.SK_PRODUCT_ID, AttributeValue.fromS("product-0"),
+                AlertAttrs.STATUS, AttributeValue.fromS("ACTIVE")));
+
+        // Act + Assert
+        assertThrows(InvalidAlertException.class, () -> repository.findPageByUser("user-1", 20, cursor));
+        verifyNoInteractions(dynamo);
+    }
+
+    private static Alert triggeredAlert() {
+        Alert alert = new Alert();
+        alert.setProductId("product-1");
+        alert.setUserId("user-1");
+        alert.setStatus(AlertStatus.TRIGGERED);
+        alert.setLastTriggeredAt(TRIGGERED_AT);
+        return alert;
+    }
+
+    private static TransactionCanceledException cancelled(String putCode, String deleteCode) {
+        return TransactionCanceledException.builder()
+                .message("cancelled")
+                .cancellationReasons(
+                        CancellationReason.builder().code(putCode).build(),
+                        CancellationReason.builder().code(deleteCode).build())
+                .build();
+    }
+
+    private static Map<String, AttributeValue> triggeredItem(String productId, String lastTriggeredAt) {
+        return Map.of(
+                AlertAttrs.PK_PRODUCT_ID, AttributeValue.fromS(productId),
+                AlertAttrs.SK_USER_ID, AttributeValue.fromS("user-1"),
+                AlertAttrs.STATUS, AttributeValue.fromS(AlertStatus.TRIGGERED.name()),
+                AlertAttrs.LAST_TRIGGERED_AT, AttributeValue.fromS(lastTriggeredAt));
+    }
+}
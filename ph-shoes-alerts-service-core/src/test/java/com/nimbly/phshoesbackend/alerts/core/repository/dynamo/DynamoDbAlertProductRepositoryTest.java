@@ -0,0 +1,139 @@
+package com.nimbly.phshoesbackend.alerts.core.repository.dynamo;
+
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProduct;
+import com.nimbly.phshoesbackend.alerts.core.model.dynamo.AlertProductAttrs;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.pagination.sync.SdkIterable;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchGetItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchGetResultPageIterable;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DynamoDbAlertProductRepositoryTest {
+
+    @Mock
+    private DynamoDbEnhancedClient enhancedClient;
+
+    @Mock
+    private DynamoDbTable<AlertProduct> table;
+
+    @Mock
+    private DynamoDbClient dynamoDbClient;
+
+    @InjectMocks
+    private DynamoDbAlertProductRepository repository;
+
+    @Test
+    void findByIds_whenEmpty_skipsRead() {
+        // Act
+        Map<String, AlertProduct> result = repository.findByIds(List.of());
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(enhancedClient, never()).batchGetItem(any(BatchGetItemEnhancedRequest.class));
+    }
+
+    @Test
+    void findByIds_dedupesAndSplitsIntoBatchesOfOneHundred() {
+        // Arrange
+        stubTable();
+        when(table.tableSchema()).thenReturn(TableSchema.fromBean(AlertProduct.class));
+        when(table.tableName()).thenReturn(AlertProductAttrs.TABLE);
+        BatchGetResultPageIterable batchResults = Mockito.mock(BatchGetResultPageIterable.class);
+        when(enhancedClient.batchGetItem(any(BatchGetItemEnhancedRequest.class))).thenReturn(batchResults);
+        AlertProduct found = new AlertProduct();
+        found.setProductId("product-0");
+        SdkIterable<AlertProduct> items = () -> List.of(found).iterator();
+        when(batchResults.resultsForTable(table)).thenReturn(items);
+        var ids = new ArrayList<String>();
+        for (int i = 0; i < 150; i++) ids.add("product-" + i);
+        ids.add("product-0");
+
+        // Act
+        Map<String, AlertProduct> result = repository.findByIds(ids);
+
+        // Assert
+        verify(enhancedClient, times(2)).batchGetItem(any(BatchGetItemEnhancedRequest.class));
+        assertEquals(Map.of("product-0", found), result);
+    }
+
+    @Test
+    void upsert_setsOnlyProvidedFieldsAndReturnsPrevious() {
+        // Arrange
+        AlertProduct product = new AlertProduct();
+        product.setProductId("product-1");
+        product.setProductCurrentPrice(BigDecimal.valueOf(80));
+        when(dynamoDbClient.updateItem(any(UpdateItemRequest.class))).thenReturn(UpdateItemResponse.builder()
+                .attributes(Map.of(
+                        AlertProductAttrs.PK_PRODUCT_ID, AttributeValue.fromS("product-1"),
+                        AlertProductAttrs.PRODUCT_NAME, AttributeValue.fromS("Gel Kayano")))
+                .build());
+        ArgumentCaptor<UpdateItemRequest> requestCaptor = ArgumentCaptor.forClass(UpdateItemRequest.class);
+
+        // Act
+        AlertProduct previous = repository.upsert(product);
+
+        // Assert
+        verify(dynamoDbClient).updateItem(requestCaptor.capture());
+        UpdateItemRequest request = requestCaptor.getValue();
+        assertEquals(AlertProductAttrs.TABLE, request.tableName());
+        assertEquals("product-1", request.key().get(AlertProductAttrs.PK_PRODUCT_ID).s());
+        assertTrue(request.updateExpression().contains("#productCurrentPrice = :productCurrentPrice"));
+        assertTrue(request.updateExpression().contains("#updatedAt = :updatedAt"));
+        assertFalse(request.updateExpression().contains("#productName"));
+        assertFalse(request.updateExpression().contains("#productId"));
+        assertEquals(ReturnValue.ALL_OLD, request.returnValues());
+        assertNotNull(product.getUpdatedAt());
+        assertEquals("Gel Kayano", previous.getProductName());
+    }
+
+    @Test
+    void upsert_whenProductIsNew_returnsNull() {
+        // Arrange
+        AlertProduct product = new AlertProduct();
+        product.setProductId("product-2");
+        product.setProductName("Gel Nimbus");
+        when(dynamoDbClient.updateItem(any(UpdateItemRequest.class))).thenReturn(UpdateItemResponse.builder().build());
+
+        // Act
+        AlertProduct previous = repository.upsert(product);
+
+        // Assert
+        assertNull(previous);
+    }
+
+    private void stubTable() {
+        when(enhancedClient.table(eq(AlertProductAttrs.TABLE), any(TableSchema.class)))
+                .thenReturn(table);
+    }
+}
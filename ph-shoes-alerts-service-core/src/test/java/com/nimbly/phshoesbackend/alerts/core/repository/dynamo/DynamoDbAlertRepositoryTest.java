@@ -1,8 +1,21 @@
 package com.nimbly.phshoesbackend.alerts.core.repository.dynamo;
 
+import com.nimbly.phshoesbackend.alerts.core.config.props.DynamoStatusIndexProps;
+import com.nimbly.phshoesbackend.alerts.core.exception.AlertConflictException;
+import com.nimbly.phshoesbackend.alerts.core.exception.AlertNotFoundException;
+import com.nimbly.phshoesbackend.alerts.core.exception.InvalidAlertException;
 import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertPage;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertPatch;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProduct;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProjection;
 import com.nimbly.phshoesbackend.alerts.core.model.AlertStatus;
 import com.nimbly.phshoesbackend.alerts.core.model.dynamo.AlertAttrs;
+import com.nimbly.phshoesbackend.alerts.core.model.dynamo.AlertProductAttrs;
+import com.nimbly.phshoesbackend.alerts.core.repository.AlertProductRepository;
+import com.nimbly.phshoesbackend.alerts.core.repository.AlertSearchIndexRepository;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertShardKeys;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertCursorCodec;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -17,13 +30,35 @@ import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.Expression;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
 import software.amazon.awssdk.enhanced.dynamodb.model.Page;
 import software.amazon.awssdk.enhanced.dynamodb.model.PageIterable;
 import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
-import software.amazon.awssdk.enhanced.dynamodb.model.UpdateItemEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.Select;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+import software.amazon.awssdk.services.dynamodb.paginators.ScanIterable;
 
+import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -31,12 +66,15 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -52,6 +90,18 @@ class DynamoDbAlertRepositoryTest {
     @Mock
     private DynamoDbIndex<Alert> index;
 
+    @Mock
+    private AlertSearchIndexRepository searchIndex;
+
+    @Mock
+    private DynamoDbClient dynamoDbClient;
+
+    @Mock
+    private AlertProductRepository products;
+
+    @Mock
+    private DynamoStatusIndexProps statusIndexProps;
+
     @InjectMocks
     private DynamoDbAlertRepository repository;
 
@@ -77,6 +127,24 @@ class DynamoDbAlertRepositoryTest {
         assertEquals("user-1", key.sortKeyValue().orElseThrow().s());
     }
 
+    @Test
+    void findByProductAndUser_joinsProductMetadata() {
+        // Arrange
+        stubTable();
+        Alert alert = new Alert();
+        alert.setProductId("product-23");
+        alert.setUserId("user-23");
+        when(table.getItem(any(Key.class))).thenReturn(alert);
+        when(products.findById("product-23")).thenReturn(Optional.of(product("product-23", "Gel Kayano", "Asics")));
+
+        // Act
+        Alert result = repository.findByProductAndUser("product-23", "user-23").orElseThrow();
+
+        // Assert
+        assertEquals("Gel Kayano", result.getProductName());
+        assertEquals("Asics", result.getProductBrand());
+    }
+
     @Test
     void findByProductAndUser_whenMissing_returnsEmpty() {
         // Arrange
@@ -97,7 +165,7 @@ class DynamoDbAlertRepositoryTest {
         when(table.index(AlertAttrs.GSI_USER_ID)).thenReturn(null);
 
         // Act
-        List<Alert> result = repository.findByUser("user-3", 10);
+        List<Alert> result = repository.findByUser("user-3", 10, AlertProjection.FULL);
 
         // Assert
         assertTrue(result.isEmpty());
@@ -117,7 +185,7 @@ class DynamoDbAlertRepositoryTest {
         ArgumentCaptor<QueryEnhancedRequest> requestCaptor = ArgumentCaptor.forClass(QueryEnhancedRequest.class);
 
         // Act
-        List<Alert> result = repository.findByUser("user-4", 1);
+        List<Alert> result = repository.findByUser("user-4", 1, AlertProjection.FULL);
 
         // Assert
         assertEquals(1, result.size());
@@ -127,49 +195,300 @@ class DynamoDbAlertRepositoryTest {
     }
 
     @Test
-    void findByUserFiltered_whenFiltersProvided_appliesQueryAndBrand() {
+    void findPageByUser_returnsFirstPageAndEncodesNextCursor() {
+        // Arrange
+        stubTable();
+        Alert first = new Alert();
+        first.setProductId("product-16");
+        Map<String, AttributeValue> lastKey = Map.of(
+                AlertAttrs.PK_PRODUCT_ID, AttributeValue.fromS("product-16"),
+                AlertAttrs.SK_USER_ID, AttributeValue.fromS("user-16"));
+        when(table.index(AlertAttrs.GSI_USER_ID)).thenReturn(index);
+        when(index.query(any(QueryEnhancedRequest.class)))
+                .thenReturn(pageIterable(Page.create(List.of(first), lastKey)));
+        ArgumentCaptor<QueryEnhancedRequest> requestCaptor = ArgumentCaptor.forClass(QueryEnhancedRequest.class);
+
+        // Act
+        AlertPage page = repository.findPageByUser("user-16", 1, null, AlertProjection.FULL);
+
+        // Assert
+        assertEquals(List.of(first), page.items());
+        assertEquals(lastKey, AlertCursorCodec.decode(page.nextCursor()));
+        verify(index).query(requestCaptor.capture());
+        assertEquals(1, requestCaptor.getValue().limit());
+        assertNull(requestCaptor.getValue().exclusiveStartKey());
+    }
+
+    @Test
+    void findPageByUser_whenCursorProvided_resumesFromIt() {
+        // Arrange
+        stubTable();
+        String cursor = AlertCursorCodec.encode(Map.of(
+                AlertAttrs.PK_PRODUCT_ID, AttributeValue.fromS("product-17"),
+                AlertAttrs.SK_USER_ID, AttributeValue.fromS("user-17")));
+        when(table.index(AlertAttrs.GSI_USER_ID)).thenReturn(index);
+        when(index.query(any(QueryEnhancedRequest.class)))
+                .thenReturn(pageIterable(Page.create(List.of())));
+        ArgumentCaptor<QueryEnhancedRequest> requestCaptor = ArgumentCaptor.forClass(QueryEnhancedRequest.class);
+
+        // Act
+        AlertPage page = repository.findPageByUser("user-17", 10, cursor, AlertProjection.FULL);
+
+        // Assert
+        assertTrue(page.items().isEmpty());
+        assertNull(page.nextCursor());
+        verify(index).query(requestCaptor.capture());
+        Map<String, AttributeValue> startKey = requestCaptor.getValue().exclusiveStartKey();
+        assertEquals("product-17", startKey.get(AlertAttrs.PK_PRODUCT_ID).s());
+        assertEquals("user-17", startKey.get(AlertAttrs.SK_USER_ID).s());
+    }
+
+    @Test
+    void findPageByUser_whenCursorIssuedToAnotherUser_rejectsIt() {
         // Arrange
-        Alert nike = new Alert();
-        nike.setProductId("product-6");
-        nike.setProductName("Air Zoom");
-        nike.setProductBrand("Nike");
-        Alert asics = new Alert();
-        asics.setProductId("product-7");
-        asics.setProductName("Gel");
-        asics.setProductBrand("Asics");
-        List<Alert> base = List.of(nike, asics);
-        DynamoDbAlertRepository spyRepository = Mockito.spy(new DynamoDbAlertRepository(enhancedClient));
-        doReturn(base).when(spyRepository).findByUser("user-5", 0);
+        stubTable();
+        String cursor = AlertCursorCodec.encode(Map.of(
+                AlertAttrs.PK_PRODUCT_ID, AttributeValue.fromS("product-17"),
+                AlertAttrs.SK_USER_ID, AttributeValue.fromS("someone-else")));
+        when(table.index(AlertAttrs.GSI_USER_ID)).thenReturn(index);
+
+        // Act + Assert
+        assertThrows(InvalidAlertException.class,
+                () -> repository.findPageByUser("user-17", 10, cursor, AlertProjection.FULL));
+        verify(index, never()).query(any(QueryEnhancedRequest.class));
+    }
+
+    @Test
+    void countByUser_sumsPageCountsFromCountQuery() {
+        // Arrange
+        stubTable();
+        when(table.index(AlertAttrs.GSI_USER_ID)).thenReturn(index);
+        SdkIterable<Page<Alert>> pages = () -> List.of(
+                Page.builder(Alert.class).items(List.of()).count(3).build(),
+                Page.builder(Alert.class).items(List.of()).count(2).build()).iterator();
+        when(index.query(any(QueryEnhancedRequest.class))).thenReturn(pages);
+        ArgumentCaptor<QueryEnhancedRequest> requestCaptor = ArgumentCaptor.forClass(QueryEnhancedRequest.class);
 
         // Act
-        List<Alert> result = spyRepository.findByUserFiltered("user-5", "nike", null, 0);
+        long count = repository.countByUser("user-18");
+
+        // Assert
+        assertEquals(5L, count);
+        verify(index).query(requestCaptor.capture());
+        assertEquals(Select.COUNT, requestCaptor.getValue().select());
+    }
+
+    @Test
+    void findByUserFiltered_whenQueryProvided_readsIndexCandidatesAndChecksEveryToken() {
+        // Arrange
+        when(searchIndex.findProductIds("user-5", "t#zoom")).thenReturn(List.of("product-6", "product-7"));
+        when(products.findByIds(List.of("product-6", "product-7"))).thenReturn(Map.of(
+                "product-6", product("product-6", "Air Zoom Pegasus", "Nike"),
+                "product-7", product("product-7", "Air Max", "Nike")));
+        when(dynamoDbClient.batchGetItem(any(BatchGetItemRequest.class)))
+                .thenReturn(batchGetResponse(alertItem("product-7", "user-5"), alertItem("product-6", "user-5")));
+        ArgumentCaptor<BatchGetItemRequest> requestCaptor = ArgumentCaptor.forClass(BatchGetItemRequest.class);
+
+        // Act
+        List<Alert> result = repository.findByUserFiltered("user-5", "air zoom", null, 0, AlertProjection.FULL);
 
         // Assert
         assertEquals(1, result.size());
         assertEquals("product-6", result.get(0).getProductId());
+        assertEquals("Air Zoom Pegasus", result.get(0).getProductName());
+        verify(dynamoDbClient).batchGetItem(requestCaptor.capture());
+        KeysAndAttributes keys = requestCaptor.getValue().requestItems().get(AlertAttrs.TABLE);
+        assertEquals(2, keys.keys().size());
+        assertNull(keys.projectionExpression());
+        verify(enhancedClient, never()).table(any(), any(TableSchema.class));
     }
 
     @Test
-    void findByUserFiltered_whenBrandProvided_limitsResults() {
+    void findByUserFiltered_whenStateProjection_projectsAlertAttributesButStillJoinsForMatching() {
         // Arrange
-        Alert first = new Alert();
-        first.setProductId("product-8");
-        first.setProductBrand("Nike");
-        Alert second = new Alert();
-        second.setProductId("product-9");
-        second.setProductBrand("Nike");
-        List<Alert> base = List.of(first, second);
-        DynamoDbAlertRepository spyRepository = Mockito.spy(new DynamoDbAlertRepository(enhancedClient));
-        doReturn(base).when(spyRepository).findByUser("user-6", 1);
+        when(searchIndex.findProductIds("user-28", "t#kayano")).thenReturn(List.of("product-28"));
+        when(products.findByIds(List.of("product-28"))).thenReturn(Map.of(
+                "product-28", product("product-28", "Gel Kayano", "Asics")));
+        when(dynamoDbClient.batchGetItem(any(BatchGetItemRequest.class)))
+                .thenReturn(batchGetResponse(alertItem("product-28", "user-28")));
+        ArgumentCaptor<BatchGetItemRequest> requestCaptor = ArgumentCaptor.forClass(BatchGetItemRequest.class);
+
+        // Act
+        List<Alert> result = repository.findByUserFiltered("user-28", "kayano", null, 0, AlertProjection.STATE);
+
+        // Assert
+        assertEquals(1, result.size());
+        verify(dynamoDbClient).batchGetItem(requestCaptor.capture());
+        KeysAndAttributes keys = requestCaptor.getValue().requestItems().get(AlertAttrs.TABLE);
+        assertTrue(keys.projectionExpression().contains("#status"));
+        assertFalse(keys.projectionExpression().contains("#createdAt"));
+        assertEquals(AlertAttrs.STATUS, keys.expressionAttributeNames().get("#status"));
+    }
+
+    @Test
+    void findByUserFiltered_whenKeysUnprocessed_retriesThem() {
+        // Arrange
+        when(searchIndex.findProductIds("user-29", "t#nimbus")).thenReturn(List.of("product-29", "product-30"));
+        when(products.findByIds(any())).thenReturn(Map.of(
+                "product-29", product("product-29", "Gel Nimbus", "Asics"),
+                "product-30", product("product-30", "Gel Nimbus 26", "Asics")));
+        KeysAndAttributes leftover = KeysAndAttributes.builder()
+                .keys(List.of(Map.of(
+                        AlertAttrs.PK_PRODUCT_ID, AttributeValue.fromS("product-30"),
+                        AlertAttrs.SK_USER_ID, AttributeValue.fromS("user-29"))))
+                .build();
+        when(dynamoDbClient.batchGetItem(any(BatchGetItemRequest.class)))
+                .thenReturn(BatchGetItemResponse.builder()
+                        .responses(Map.of(AlertAttrs.TABLE, List.of(alertItem("product-29", "user-29"))))
+                        .unprocessedKeys(Map.of(AlertAttrs.TABLE, leftover))
+                        .build())
+                .thenReturn(batchGetResponse(alertItem("product-30", "user-29")));
+
+        // Act
+        List<Alert> result = repository.findByUserFiltered("user-29", "nimbus", null, 0, AlertProjection.FULL);
+
+        // Assert
+        assertEquals(2, result.size());
+        verify(dynamoDbClient, Mockito.times(2)).batchGetItem(any(BatchGetItemRequest.class));
+    }
+
+    @Test
+    void findByUserFiltered_whenBrandProvided_usesBrandTermAndLimitsResults() {
+        // Arrange
+        when(searchIndex.findProductIds("user-6", "b#new bal")).thenReturn(List.of("product-8", "product-9"));
+        when(products.findByIds(any())).thenReturn(Map.of(
+                "product-8", product("product-8", null, "New Balance"),
+                "product-9", product("product-9", null, "New Balance")));
+        when(dynamoDbClient.batchGetItem(any(BatchGetItemRequest.class)))
+                .thenReturn(batchGetResponse(alertItem("product-9", "user-6"), alertItem("product-8", "user-6")));
 
         // Act
-        List<Alert> result = spyRepository.findByUserFiltered("user-6", null, "nike", 1);
+        List<Alert> result = repository.findByUserFiltered("user-6", null, "New-Bal", 1, AlertProjection.FULL);
 
         // Assert
         assertEquals(1, result.size());
         assertEquals("product-8", result.get(0).getProductId());
     }
 
+    @Test
+    void findByUserFiltered_whenIndexHasNoCandidates_skipsAlertReads() {
+        // Arrange
+        when(searchIndex.findProductIds("user-6", "t#gel")).thenReturn(List.of());
+
+        // Act
+        List<Alert> result = repository.findByUserFiltered("user-6", "gel", null, 0, AlertProjection.FULL);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(dynamoDbClient, never()).batchGetItem(any(BatchGetItemRequest.class));
+    }
+
+    @Test
+    void findActiveByProduct_whenStatusIndexEnabled_queriesActivePrefixOnIndex() {
+        // Arrange
+        stubTable();
+        when(statusIndexProps.isEnabled()).thenReturn(true);
+        when(products.findById("product-11")).thenReturn(Optional.empty());
+        when(table.index(AlertAttrs.GSI_PRODUCT_SHARD_STATUS)).thenReturn(index);
+        Alert active = new Alert();
+        active.setProductId("product-11");
+        when(index.query(any(QueryEnhancedRequest.class))).thenReturn(pageIterable(List.of(active)));
+        ArgumentCaptor<QueryEnhancedRequest> requestCaptor = ArgumentCaptor.forClass(QueryEnhancedRequest.class);
+
+        // Act
+        List<Alert> result = repository.findActiveByProduct("product-11", AlertProjection.EVALUATION);
+
+        // Assert
+        assertEquals(1, result.size());
+        verify(index).query(requestCaptor.capture());
+        QueryEnhancedRequest request = requestCaptor.getValue();
+        assertNull(request.filterExpression());
+        Expression keyCondition = request.queryConditional().expression(TableSchema.fromBean(Alert.class), AlertAttrs.GSI_PRODUCT_SHARD_STATUS);
+        assertTrue(keyCondition.expression().contains("begins_with"));
+        assertTrue(keyCondition.expressionValues().values().stream().anyMatch(v -> "ACTIVE#".equals(v.s())));
+        assertTrue(keyCondition.expressionValues().values().stream().anyMatch(v -> "product-11".equals(v.s())));
+        verify(table, never()).query(any(QueryEnhancedRequest.class));
+    }
+
+    @Test
+    void findActivePagesByProduct_whenProductSharded_readsEveryShardStartingWithShardZero() {
+        // Arrange
+        stubTable();
+        when(statusIndexProps.isEnabled()).thenReturn(true);
+        AlertProduct sharded = product("product-30", "Hyped", "Brand");
+        sharded.setWatcherShards(3);
+        when(products.findById("product-30")).thenReturn(Optional.of(sharded));
+        when(table.index(AlertAttrs.GSI_PRODUCT_SHARD_STATUS)).thenReturn(index);
+        Alert inShard = new Alert();
+        inShard.setProductId("product-30");
+        when(index.query(any(QueryEnhancedRequest.class))).thenReturn(pageIterable(List.of(inShard)));
+        ArgumentCaptor<QueryEnhancedRequest> requestCaptor = ArgumentCaptor.forClass(QueryEnhancedRequest.class);
+
+        // Act
+        var pages = new ArrayList<List<Alert>>();
+        repository.findActivePagesByProduct("product-30", AlertProjection.EVALUATION).forEach(pages::add);
+
+        // Assert
+        assertEquals(3, pages.size());
+        verify(index, times(3)).query(requestCaptor.capture());
+        var partitions = requestCaptor.getAllValues().stream()
+                .map(r -> r.queryConditional().expression(TableSchema.fromBean(Alert.class), AlertAttrs.GSI_PRODUCT_SHARD_STATUS))
+                .map(e -> e.expressionValues().values().stream()
+                        .map(AttributeValue::s)
+                        .filter(v -> v.startsWith("product-30"))
+                        .findFirst().orElseThrow())
+                .toList();
+        assertEquals(List.of("product-30", "product-30#1", "product-30#2"), partitions);
+    }
+
+    @Test
+    void shardProduct_recordsShardCountThenMovesShardZeroAlerts() {
+        // Arrange
+        stubTable();
+        when(products.findById("product-31")).thenReturn(Optional.empty());
+        when(table.index(AlertAttrs.GSI_PRODUCT_SHARD_STATUS)).thenReturn(index);
+        var alerts = new ArrayList<Alert>();
+        for (String userId : List.of("user-a", "user-b", "user-c", "user-d", "user-e", "user-f")) {
+            Alert a = new Alert();
+            a.setProductId("product-31");
+            a.setUserId(userId);
+            alerts.add(a);
+        }
+        when(index.query(any(QueryEnhancedRequest.class))).thenReturn(pageIterable(alerts));
+        when(dynamoDbClient.updateItem(any(UpdateItemRequest.class))).thenReturn(UpdateItemResponse.builder().build());
+        ArgumentCaptor<AlertProduct> productCaptor = ArgumentCaptor.forClass(AlertProduct.class);
+        ArgumentCaptor<UpdateItemRequest> updateCaptor = ArgumentCaptor.forClass(UpdateItemRequest.class);
+        long staying = alerts.stream().filter(a -> AlertShardKeys.shardOf(a.getUserId(), 4) == 0).count();
+
+        // Act
+        int moved = repository.shardProduct("product-31", 4);
+
+        // Assert
+        verify(products).upsert(productCaptor.capture());
+        assertEquals(4, productCaptor.getValue().getWatcherShards());
+        assertEquals(alerts.size() - staying, moved);
+        verify(dynamoDbClient, times(moved)).updateItem(updateCaptor.capture());
+        for (UpdateItemRequest update : updateCaptor.getAllValues()) {
+            String userId = update.key().get(AlertAttrs.SK_USER_ID).s();
+            assertEquals(AlertShardKeys.key("product-31", AlertShardKeys.shardOf(userId, 4)),
+                    update.expressionAttributeValues().get(":ps").s());
+        }
+    }
+
+    @Test
+    void findActiveByProduct_whenProjectionNotCoveredByIndex_filtersOnTable() {
+        // Arrange
+        stubTable();
+        when(statusIndexProps.isEnabled()).thenReturn(true);
+        when(table.query(any(QueryEnhancedRequest.class))).thenReturn(pageIterable(List.of()));
+
+        // Act
+        repository.findActiveByProduct("product-12", AlertProjection.STATE);
+
+        // Assert
+        verify(table, never()).index(AlertAttrs.GSI_PRODUCT_SHARD_STATUS);
+    }
+
     @Test
     void findActiveByProduct_returnsItemsAndBuildsFilter() {
         // Arrange
@@ -181,7 +500,7 @@ class DynamoDbAlertRepositoryTest {
         ArgumentCaptor<QueryEnhancedRequest> requestCaptor = ArgumentCaptor.forClass(QueryEnhancedRequest.class);
 
         // Act
-        List<Alert> result = repository.findActiveByProduct("product-10");
+        List<Alert> result = repository.findActiveByProduct("product-10", AlertProjection.EVALUATION);
 
         // Assert
         assertEquals(1, result.size());
@@ -192,6 +511,28 @@ class DynamoDbAlertRepositoryTest {
         assertEquals("#s = :active", filter.expression());
         assertEquals(AlertStatus.ACTIVE.name(), filter.expressionValues().get(":active").s());
         assertEquals(AlertAttrs.STATUS, filter.expressionNames().get("#s"));
+        assertEquals(AlertProjection.EVALUATION.attributes(), requestCaptor.getValue().attributesToProject());
+        verify(products, never()).findByIds(any());
+    }
+
+    @Test
+    void findPageByUser_whenStateProjection_skipsProductJoin() {
+        // Arrange
+        stubTable();
+        Alert first = new Alert();
+        first.setProductId("product-31");
+        when(table.index(AlertAttrs.GSI_USER_ID)).thenReturn(index);
+        when(index.query(any(QueryEnhancedRequest.class))).thenReturn(pageIterable(List.of(first)));
+        ArgumentCaptor<QueryEnhancedRequest> requestCaptor = ArgumentCaptor.forClass(QueryEnhancedRequest.class);
+
+        // Act
+        AlertPage page = repository.findPageByUser("user-31", 10, null, AlertProjection.STATE);
+
+        // Assert
+        assertEquals(List.of(first), page.items());
+        verify(index).query(requestCaptor.capture());
+        assertEquals(AlertProjection.STATE.attributes(), requestCaptor.getValue().attributesToProject());
+        verify(products, never()).findByIds(any());
     }
 
     @Test
@@ -214,20 +555,373 @@ class DynamoDbAlertRepositoryTest {
         assertNotNull(condition);
         assertEquals("attribute_not_exists(#pk) AND attribute_not_exists(#sk)", condition.expression());
         assertEquals(Map.of("#pk", AlertAttrs.PK_PRODUCT_ID, "#sk", AlertAttrs.SK_USER_ID), condition.expressionNames());
+        verify(products).upsert(any(AlertProduct.class));
+        verify(searchIndex).index(alert);
+        verify(table, never()).query(any(QueryEnhancedRequest.class));
+    }
+
+    @Test
+    void create_whenProductRenamed_reindexesOtherWatchers() {
+        // Arrange
+        stubTable();
+        Alert alert = new Alert();
+        alert.setProductId("product-24");
+        alert.setUserId("user-24");
+        alert.setProductName("Gel Nimbus 26");
+        Alert other = new Alert();
+        other.setProductId("product-24");
+        other.setUserId("user-25");
+        when(products.upsert(any(AlertProduct.class))).thenReturn(product("product-24", "Gel Nimbus", null));
+        when(table.query(any(QueryEnhancedRequest.class))).thenReturn(pageIterable(List.of(alert, other)));
+        ArgumentCaptor<Alert> indexed = ArgumentCaptor.forClass(Alert.class);
+
+        // Act
+        repository.create(alert);
+
+        // Assert
+        verify(searchIndex, Mockito.times(2)).index(indexed.capture());
+        assertSame(alert, indexed.getAllValues().get(0));
+        assertEquals("user-25", indexed.getAllValues().get(1).getUserId());
+        assertEquals("Gel Nimbus 26", indexed.getAllValues().get(1).getProductName());
     }
 
     @Test
-    void save_putsItem() {
+    void save_conditionsOnReadVersionAndBumpsIt() {
         // Arrange
         stubTable();
         Alert alert = new Alert();
         alert.setProductId("product-12");
+        alert.setVersion(4L);
+        ArgumentCaptor<PutItemEnhancedRequest<Alert>> requestCaptor = ArgumentCaptor.forClass(PutItemEnhancedRequest.class);
 
         // Act
         repository.save(alert);
 
         // Assert
-        verify(table).putItem(alert);
+        verify(table).putItem(requestCaptor.capture());
+        Expression condition = requestCaptor.getValue().conditionExpression();
+        assertEquals("attribute_exists(#pk) AND #v = :expected", condition.expression());
+        assertEquals("4", condition.expressionValues().get(":expected").n());
+        assertEquals(5L, alert.getVersion());
+        verify(products, never()).upsert(any());
+        verify(searchIndex, never()).index(any());
+    }
+
+    @Test
+    void save_whenVersionChanged_throwsConflictAndRestoresVersion() {
+        // Arrange
+        stubTable();
+        Alert alert = new Alert();
+        alert.setProductId("product-19");
+        alert.setUserId("user-19");
+        alert.setVersion(2L);
+        doThrow(ConditionalCheckFailedException.builder()
+                .item(Map.of(
+                        AlertAttrs.PK_PRODUCT_ID, AttributeValue.fromS("product-19"),
+                        AlertAttrs.SK_USER_ID, AttributeValue.fromS("user-19"),
+                        AlertAttrs.VERSION, AttributeValue.fromN("3")))
+                .build()).when(table).putItem(any(PutItemEnhancedRequest.class));
+
+        // Act
+        AlertConflictException exception = assertThrows(AlertConflictException.class, () -> repository.save(alert));
+
+        // Assert
+        assertEquals(3L, exception.getCurrent().getVersion());
+        assertEquals(2L, alert.getVersion());
+        verify(searchIndex, never()).index(any());
+    }
+
+    @Test
+    void update_setsOnlyPatchedFieldsInOneConditionalWrite() {
+        // Arrange
+        AlertPatch patch = AlertPatch.builder()
+                .productId("product-20")
+                .userId("user-20")
+                .expectedVersion(7L)
+                .desiredPrice(BigDecimal.valueOf(90))
+                .resetStatus(true)
+                .updatedAt(Instant.parse("2025-01-03T10:00:00Z"))
+                .build();
+        when(dynamoDbClient.updateItem(any(UpdateItemRequest.class))).thenReturn(UpdateItemResponse.builder()
+                .attributes(Map.of(
+                        AlertAttrs.PK_PRODUCT_ID, AttributeValue.fromS("product-20"),
+                        AlertAttrs.SK_USER_ID, AttributeValue.fromS("user-20"),
+                        AlertAttrs.DESIRED_PRICE, AttributeValue.fromN("90"),
+                        AlertAttrs.VERSION, AttributeValue.fromN("8")))
+                .build());
+        ArgumentCaptor<UpdateItemRequest> requestCaptor = ArgumentCaptor.forClass(UpdateItemRequest.class);
+
+        // Act
+        Alert updated = repository.update(patch);
+
+        // Assert
+        verify(dynamoDbClient).updateItem(requestCaptor.capture());
+        UpdateItemRequest request = requestCaptor.getValue();
+        assertTrue(request.updateExpression().contains("#desiredPrice = :desiredPrice"));
+        assertTrue(request.updateExpression().contains("#status = :status"));
+        assertTrue(request.updateExpression().contains("REMOVE #lastTriggeredAt"));
+        assertTrue(request.updateExpression().endsWith("ADD #version :one"));
+        assertFalse(request.updateExpression().contains("#productName"));
+        assertTrue(request.conditionExpression().startsWith("attribute_exists(#productId) AND #version = :expected"));
+        assertEquals("7", request.expressionAttributeValues().get(":expected").n());
+        assertEquals(ReturnValue.ALL_NEW, request.returnValues());
+        assertEquals(8L, updated.getVersion());
+        verify(products, never()).upsert(any());
+        verify(searchIndex, never()).index(any());
+    }
+
+    @Test
+    void update_whenProductFieldsPatched_writesProductRowAndReturnsMergedAlert() {
+        // Arrange
+        AlertPatch patch = AlertPatch.builder()
+                .productId("product-26")
+                .userId("user-26")
+                .productCurrentPrice(BigDecimal.valueOf(80))
+                .build();
+        when(dynamoDbClient.updateItem(any(UpdateItemRequest.class))).thenReturn(UpdateItemResponse.builder()
+                .attributes(Map.of(
+                        AlertAttrs.PK_PRODUCT_ID, AttributeValue.fromS("product-26"),
+                        AlertAttrs.SK_USER_ID, AttributeValue.fromS("user-26")))
+                .build());
+        when(products.upsert(any(AlertProduct.class))).thenReturn(product("product-26", "Gel Kayano", "Asics"));
+        ArgumentCaptor<UpdateItemRequest> requestCaptor = ArgumentCaptor.forClass(UpdateItemRequest.class);
+
+        // Act
+        Alert updated = repository.update(patch);
+
+        // Assert
+        verify(dynamoDbClient).updateItem(requestCaptor.capture());
+        assertFalse(requestCaptor.getValue().updateExpression().contains("#productCurrentPrice"));
+        assertEquals("Gel Kayano", updated.getProductName());
+        assertEquals(0, BigDecimal.valueOf(80).compareTo(updated.getProductCurrentPrice()));
+        verify(searchIndex, never()).index(any());
+    }
+
+    @Test
+    void update_whenItemMissing_throwsNotFound() {
+        // Arrange
+        AlertPatch patch = AlertPatch.builder()
+                .productId("product-21")
+                .userId("user-21")
+                .alertIfSale(true)
+                .build();
+        when(dynamoDbClient.updateItem(any(UpdateItemRequest.class)))
+                .thenThrow(ConditionalCheckFailedException.builder().message("missing").build());
+
+        // Act & Assert
+        assertThrows(AlertNotFoundException.class, () -> repository.update(patch));
+    }
+
+    @Test
+    void update_whenTriggersCleared_guardsOnRemainingStoredTrigger() {
+        // Arrange
+        AlertPatch patch = AlertPatch.builder()
+                .productId("product-22")
+                .userId("user-22")
+                .desiredPrice(BigDecimal.ZERO)
+                .alertIfSale(false)
+                .build();
+        when(dynamoDbClient.updateItem(any(UpdateItemRequest.class))).thenReturn(UpdateItemResponse.builder()
+                .attributes(Map.of(
+                        AlertAttrs.PK_PRODUCT_ID, AttributeValue.fromS("product-22"),
+                        AlertAttrs.SK_USER_ID, AttributeValue.fromS("user-22")))
+                .build());
+        ArgumentCaptor<UpdateItemRequest> requestCaptor = ArgumentCaptor.forClass(UpdateItemRequest.class);
+
+        // Act
+        repository.update(patch);
+
+        // Assert
+        verify(dynamoDbClient).updateItem(requestCaptor.capture());
+        assertTrue(requestCaptor.getValue().conditionExpression().contains("(#desiredPercent > :zero)"));
+    }
+
+    @Test
+    void refreshProduct_whenSearchTermsUnchanged_skipsReindex() {
+        // Arrange
+        AlertProduct refreshed = product("product-27", "Gel Kayano", "Asics");
+        refreshed.setProductCurrentPrice(BigDecimal.valueOf(70));
+        when(products.upsert(refreshed)).thenReturn(product("product-27", "Gel Kayano", "Asics"));
+
+        // Act
+        repository.refreshProduct(refreshed);
+
+        // Assert
+        verify(enhancedClient, never()).table(any(), any(TableSchema.class));
+        verify(searchIndex, never()).index(any());
+    }
+
+    @Test
+    void findByProductsAndUser_whenKeysProjection_readsKeysOnlyWithoutProductJoin() {
+        // Arrange
+        when(dynamoDbClient.batchGetItem(any(BatchGetItemRequest.class)))
+                .thenReturn(batchGetResponse(alertItem("product-40", "user-40")));
+        ArgumentCaptor<BatchGetItemRequest> requestCaptor = ArgumentCaptor.forClass(BatchGetItemRequest.class);
+
+        // Act
+        List<Alert> result = repository.findByProductsAndUser(List.of("product-40", "product-41"), "user-40", AlertProjection.KEYS);
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("product-40", result.get(0).getProductId());
+        verify(dynamoDbClient).batchGetItem(requestCaptor.capture());
+        KeysAndAttributes keys = requestCaptor.getValue().requestItems().get(AlertAttrs.TABLE);
+        assertEquals(2, keys.keys().size());
+        assertEquals(Map.of("#" + AlertAttrs.PK_PRODUCT_ID, AlertAttrs.PK_PRODUCT_ID,
+                "#" + AlertAttrs.SK_USER_ID, AlertAttrs.SK_USER_ID), keys.expressionAttributeNames());
+        verify(products, never()).findByIds(any());
+    }
+
+    @Test
+    void createAll_writesConditionalPutsAndOneUpsertPerProductInOneTransaction() {
+        // Arrange
+        List<Alert> alerts = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Alert alert = new Alert();
+            alert.setProductId(i % 2 == 0 ? "product-42" : "product-43");
+            alert.setUserId("user-" + i);
+            alert.setProductName("Pegasus");
+            alerts.add(alert);
+        }
+        when(products.findByIds(any())).thenReturn(Map.of());
+        ArgumentCaptor<TransactWriteItemsRequest> requestCaptor = ArgumentCaptor.forClass(TransactWriteItemsRequest.class);
+        when(dynamoDbClient.transactWriteItems(requestCaptor.capture())).thenReturn(TransactWriteItemsResponse.builder().build());
+
+        // Act
+        List<Alert> existing = repository.createAll(alerts);
+
+        // Assert
+        assertTrue(existing.isEmpty());
+        List<TransactWriteItem> items = requestCaptor.getValue().transactItems();
+        assertEquals(32, items.size());
+        Put put = items.get(0).put();
+        assertEquals(AlertAttrs.TABLE, put.tableName());
+        assertEquals("attribute_not_exists(#pk) AND attribute_not_exists(#sk)", put.conditionExpression());
+        assertEquals("user-0", put.item().get(AlertAttrs.SK_USER_ID).s());
+        assertEquals(AlertProductAttrs.TABLE, items.get(30).update().tableName());
+        assertEquals("product-43", items.get(31).update().key().get(AlertProductAttrs.PK_PRODUCT_ID).s());
+        verify(table, never()).putItem(any(PutItemEnhancedRequest.class));
+        verify(products, never()).upsert(any(AlertProduct.class));
+        verify(searchIndex).indexAll(alerts);
+        verify(searchIndex, never()).index(any());
+    }
+
+    @Test
+    void createAll_whenMoreThanOneTransactionHolds_splitsIntoChunks() {
+        // Arrange
+        List<Alert> alerts = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            Alert alert = new Alert();
+            alert.setProductId("product-" + i);
+            alert.setUserId("user-48");
+            alerts.add(alert);
+        }
+        when(products.findByIds(any())).thenReturn(Map.of());
+        ArgumentCaptor<TransactWriteItemsRequest> requestCaptor = ArgumentCaptor.forClass(TransactWriteItemsRequest.class);
+        when(dynamoDbClient.transactWriteItems(requestCaptor.capture())).thenReturn(TransactWriteItemsResponse.builder().build());
+
+        // Act
+        List<Alert> existing = repository.createAll(alerts);
+
+        // Assert
+        assertTrue(existing.isEmpty());
+        assertEquals(List.of(100, 100, 40), requestCaptor.getAllValues().stream()
+                .map(request -> request.transactItems().size())
+                .toList());
+    }
+
+    @Test
+    void createAll_whenAlertCreatedConcurrently_resubmitsTheRestAndReturnsIt() {
+        // Arrange
+        Alert fresh = new Alert();
+        fresh.setProductId("product-46");
+        fresh.setUserId("user-46");
+        Alert raced = new Alert();
+        raced.setProductId("product-47");
+        raced.setUserId("user-46");
+        when(products.findByIds(any())).thenReturn(Map.of());
+        ArgumentCaptor<TransactWriteItemsRequest> requestCaptor = ArgumentCaptor.forClass(TransactWriteItemsRequest.class);
+        when(dynamoDbClient.transactWriteItems(requestCaptor.capture()))
+                .thenThrow(cancelled("None", "ConditionalCheckFailed", "None", "None"))
+                .thenReturn(TransactWriteItemsResponse.builder().build());
+
+        // Act
+        List<Alert> existing = repository.createAll(List.of(fresh, raced));
+
+        // Assert
+        assertEquals(List.of(raced), existing);
+        List<TransactWriteItem> retried = requestCaptor.getAllValues().get(1).transactItems();
+        assertEquals(2, retried.size());
+        assertEquals("product-46", retried.get(0).put().item().get(AlertAttrs.PK_PRODUCT_ID).s());
+        assertEquals("product-46", retried.get(1).update().key().get(AlertProductAttrs.PK_PRODUCT_ID).s());
+        verify(searchIndex).indexAll(List.of(fresh));
+    }
+
+    @Test
+    void createAll_whenCancelledWithoutDuplicates_retriesThenGivesUp() {
+        // Arrange
+        Alert alert = new Alert();
+        alert.setProductId("product-49");
+        alert.setUserId("user-49");
+        when(products.findByIds(any())).thenReturn(Map.of());
+        TransactionCanceledException conflict = cancelled("TransactionConflict", "None");
+        when(dynamoDbClient.transactWriteItems(any(TransactWriteItemsRequest.class))).thenThrow(conflict);
+
+        // Act
+        TransactionCanceledException thrown = assertThrows(TransactionCanceledException.class,
+                () -> repository.createAll(List.of(alert)));
+
+        // Assert
+        assertSame(conflict, thrown);
+        verify(dynamoDbClient, times(6)).transactWriteItems(any(TransactWriteItemsRequest.class));
+        verify(searchIndex, never()).indexAll(any());
+    }
+
+    @Test
+    void createAll_whenProductRenamed_reindexesOtherWatchers() {
+        // Arrange
+        stubTable();
+        Alert alert = new Alert();
+        alert.setProductId("product-50");
+        alert.setUserId("user-50");
+        alert.setProductName("Pegasus 41");
+        AlertProduct stored = new AlertProduct();
+        stored.setProductId("product-50");
+        stored.setProductName("Pegasus 40");
+        when(products.findByIds(List.of("product-50"))).thenReturn(Map.of("product-50", stored));
+        when(dynamoDbClient.transactWriteItems(any(TransactWriteItemsRequest.class)))
+                .thenReturn(TransactWriteItemsResponse.builder().build());
+        Alert other = new Alert();
+        other.setProductId("product-50");
+        other.setUserId("user-51");
+        SdkIterable<Page<Alert>> pages = () -> List.of(Page.create(List.of(alert, other))).iterator();
+        when(table.query(any(QueryEnhancedRequest.class))).thenReturn(PageIterable.create(pages));
+
+        // Act
+        repository.createAll(List.of(alert));
+
+        // Assert
+        verify(searchIndex).index(other);
+        verify(searchIndex, never()).index(alert);
+    }
+
+    @Test
+    void deleteAll_retriesUnprocessedDeletesAndRemovesSearchEntries() {
+        // Arrange
+        stubTable();
+        stubWriteBatchTable();
+        Key unprocessed = Key.builder().partitionValue("product-45").sortValue("user-44").build();
+        BatchWriteResult partial = Mockito.mock(BatchWriteResult.class);
+        when(partial.unprocessedDeleteItemsForTable(table)).thenReturn(List.of(unprocessed));
+        BatchWriteResult done = Mockito.mock(BatchWriteResult.class);
+        when(enhancedClient.batchWriteItem(any(BatchWriteItemEnhancedRequest.class))).thenReturn(partial, done);
+
+        // Act
+        repository.deleteAll(List.of("product-44", "product-45"), "user-44");
+
+        // Assert
+        verify(enhancedClient, times(2)).batchWriteItem(any(BatchWriteItemEnhancedRequest.class));
+        verify(searchIndex).removeAll(List.of("product-44", "product-45"), "user-44");
     }
 
     @Test
@@ -244,45 +938,166 @@ class DynamoDbAlertRepositoryTest {
         Key key = keyCaptor.getValue();
         assertEquals("product-13", key.partitionKeyValue().s());
         assertEquals("user-13", key.sortKeyValue().orElseThrow().s());
+        verify(searchIndex).remove("product-13", "user-13");
     }
 
     @Test
     void updateStatus_whenMissingAlert_doesNothing() {
         // Arrange
-        stubTable();
-        when(table.getItem(any(Key.class))).thenReturn(null);
+        when(dynamoDbClient.updateItem(any(UpdateItemRequest.class)))
+                .thenThrow(ConditionalCheckFailedException.builder().message("missing").build());
 
         // Act
         repository.updateStatus("product-14", "user-14", AlertStatus.TRIGGERED, Instant.now());
 
         // Assert
-        verify(table, never()).updateItem(any(UpdateItemEnhancedRequest.class));
+        verify(dynamoDbClient).updateItem(any(UpdateItemRequest.class));
+        verify(table, never()).getItem(any(Key.class));
     }
 
     @Test
-    void updateStatus_whenFound_updatesStatusAndTimestamp() {
+    void updateStatus_whenFound_updatesStatusAndTimestampWithoutReading() {
         // Arrange
-        stubTable();
-        Alert alert = new Alert();
-        alert.setProductId("product-15");
-        alert.setUserId("user-15");
-        when(table.getItem(any(Key.class))).thenReturn(alert);
-        ArgumentCaptor<UpdateItemEnhancedRequest<Alert>> requestCaptor = ArgumentCaptor.forClass(UpdateItemEnhancedRequest.class);
+        when(dynamoDbClient.updateItem(any(UpdateItemRequest.class))).thenReturn(UpdateItemResponse.builder().build());
+        ArgumentCaptor<UpdateItemRequest> requestCaptor = ArgumentCaptor.forClass(UpdateItemRequest.class);
         Instant triggeredAt = Instant.parse("2025-01-02T10:00:00Z");
 
         // Act
         repository.updateStatus("product-15", "user-15", AlertStatus.TRIGGERED, triggeredAt);
 
         // Assert
-        verify(table).updateItem(requestCaptor.capture());
-        Alert updated = requestCaptor.getValue().item();
-        assertEquals(AlertStatus.TRIGGERED, updated.getStatus());
-        assertEquals(triggeredAt, updated.getLastTriggeredAt());
-        assertNotNull(updated.getUpdatedAt());
+        verify(dynamoDbClient).updateItem(requestCaptor.capture());
+        UpdateItemRequest request = requestCaptor.getValue();
+        Map<String, AttributeValue> values = request.expressionAttributeValues();
+        assertEquals(AlertStatus.TRIGGERED.name(), values.get(":status").s());
+        assertEquals("TRIGGERED#user-15", values.get(":statusUser").s());
+        assertEquals(triggeredAt.toString(), values.get(":lastTriggeredAt").s());
+        assertNotNull(values.get(":updatedAt"));
+        assertEquals("attribute_exists(#productId)", request.conditionExpression());
+        assertEquals("product-15", request.key().get(AlertAttrs.PK_PRODUCT_ID).s());
+        verify(enhancedClient, never()).table(any(), any(TableSchema.class));
+    }
+
+    @Test
+    void markTriggered_conditionsOnActiveStatusAndReadVersion() {
+        // Arrange
+        when(dynamoDbClient.updateItem(any(UpdateItemRequest.class))).thenReturn(UpdateItemResponse.builder().build());
+        ArgumentCaptor<UpdateItemRequest> requestCaptor = ArgumentCaptor.forClass(UpdateItemRequest.class);
+        Instant triggeredAt = Instant.parse("2025-01-02T10:00:00Z");
+
+        // Act
+        boolean marked = repository.markTriggered("product-16", "user-16", 4L, triggeredAt);
+
+        // Assert
+        assertTrue(marked);
+        verify(dynamoDbClient).updateItem(requestCaptor.capture());
+        UpdateItemRequest request = requestCaptor.getValue();
+        Map<String, AttributeValue> values = request.expressionAttributeValues();
+        assertEquals(AlertStatus.TRIGGERED.name(), values.get(":status").s());
+        assertEquals("TRIGGERED#user-16", values.get(":statusUser").s());
+        assertEquals(triggeredAt.toString(), values.get(":lastTriggeredAt").s());
+        assertEquals("4", values.get(":expected").n());
+        assertEquals(AlertStatus.ACTIVE.name(), values.get(":active").s());
+        assertEquals("attribute_exists(#productId) AND #version = :expected AND #status = :active",
+                request.conditionExpression());
+        assertTrue(request.updateExpression().contains("ADD #version :one"));
+    }
+
+    @Test
+    void markTriggered_whenVersionMissing_matchesUnversionedItems() {
+        // Arrange
+        when(dynamoDbClient.updateItem(any(UpdateItemRequest.class))).thenReturn(UpdateItemResponse.builder().build());
+        ArgumentCaptor<UpdateItemRequest> requestCaptor = ArgumentCaptor.forClass(UpdateItemRequest.class);
+
+        // Act
+        repository.markTriggered("product-17", "user-17", null, Instant.now());
+
+        // Assert
+        verify(dynamoDbClient).updateItem(requestCaptor.capture());
+        assertTrue(requestCaptor.getValue().conditionExpression()
+                .contains("(attribute_not_exists(#version) OR #version = :expected)"));
+    }
+
+    @Test
+    void markTriggered_whenChangedSinceRead_returnsFalse() {
+        // Arrange
+        when(dynamoDbClient.updateItem(any(UpdateItemRequest.class)))
+                .thenThrow(ConditionalCheckFailedException.builder().message("changed").build());
+
+        // Act
+        boolean marked = repository.markTriggered("product-18", "user-18", 2L, Instant.now());
+
+        // Assert
+        assertFalse(marked);
+    }
+
+    private static Map<String, AttributeValue> alertItem(String productId, String userId) {
+        return Map.of(
+                AlertAttrs.PK_PRODUCT_ID, AttributeValue.fromS(productId),
+                AlertAttrs.SK_USER_ID, AttributeValue.fromS(userId));
+    }
+
+    @SafeVarargs
+    private static BatchGetItemResponse batchGetResponse(Map<String, AttributeValue>... items) {
+        return BatchGetItemResponse.builder()
+                .responses(Map.of(AlertAttrs.TABLE, List.of(items)))
+                .build();
+    }
+
+    private static AlertProduct product(String productId, String name, String brand) {
+        AlertProduct product = new AlertProduct();
+        product.setProductId(productId);
+        product.setProductName(name);
+        product.setProductBrand(brand);
+        return product;
+    }
+
+    @Test
+    void forEachActiveProductId_whenStatusIndexEnabled_scansIndexForActiveKeys() {
+        // Arrange
+        when(statusIndexProps.isEnabled()).thenReturn(true);
+        ArgumentCaptor<ScanRequest> scanCaptor = ArgumentCaptor.forClass(ScanRequest.class);
+        when(dynamoDbClient.scanPaginator(any(ScanRequest.class)))
+                .thenAnswer(invocation -> new ScanIterable(dynamoDbClient, invocation.getArgument(0)));
+        when(dynamoDbClient.scan(scanCaptor.capture())).thenReturn(ScanResponse.builder()
+                .items(Map.of(AlertAttrs.PK_PRODUCT_ID, AttributeValue.fromS("product-1")),
+                        Map.of(AlertAttrs.PK_PRODUCT_ID, AttributeValue.fromS("product-2")))
+                .build());
+        var productIds = new ArrayList<String>();
+
+        // Act
+        repository.forEachActiveProductId(productIds::add);
+
+        // Assert
+        assertEquals(List.of("product-1", "product-2"), productIds);
+        ScanRequest scan = scanCaptor.getValue();
+        assertEquals(AlertAttrs.GSI_PRODUCT_SHARD_STATUS, scan.indexName());
+        assertEquals("#pk", scan.projectionExpression());
+        assertEquals("ACTIVE#", scan.expressionAttributeValues().get(":active").s());
+    }
+
+    @Test
+    void forEachActiveProductId_whenStatusIndexDisabled_scansTableOnStatus() {
+        // Arrange
+        ArgumentCaptor<ScanRequest> scanCaptor = ArgumentCaptor.forClass(ScanRequest.class);
+        when(dynamoDbClient.scanPaginator(any(ScanRequest.class)))
+                .thenAnswer(invocation -> new ScanIterable(dynamoDbClient, invocation.getArgument(0)));
+        when(dynamoDbClient.scan(scanCaptor.capture())).thenReturn(ScanResponse.builder().items(List.of()).build());
+
+        // Act
+        repository.forEachActiveProductId(productId -> { });
+
+        // Assert
+        ScanRequest scan = scanCaptor.getValue();
+        assertNull(scan.indexName());
+        assertEquals(AlertStatus.ACTIVE.name(), scan.expressionAttributeValues().get(":active").s());
     }
 
     private PageIterable<Alert> pageIterable(List<Alert> items) {
-        Page<Alert> page = Page.create(items);
+        return pageIterable(Page.create(items));
+    }
+
+    private PageIterable<Alert> pageIterable(Page<Alert> page) {
         SdkIterable<Page<Alert>> sdkIterable = () -> List.of(page).iterator();
         return PageIterable.create(sdkIterable);
     }
@@ -291,4 +1106,18 @@ class DynamoDbAlertRepositoryTest {
         when(enhancedClient.table(eq(AlertAttrs.TABLE), any(TableSchema.class)))
                 .thenReturn(table);
     }
+
+    private void stubWriteBatchTable() {
+        when(table.tableSchema()).thenReturn(TableSchema.fromBean(Alert.class));
+        when(table.tableName()).thenReturn(AlertAttrs.TABLE);
+    }
+
+    private static TransactionCanceledException cancelled(String... codes) {
+        List<CancellationReason> reasons = new ArrayList<>();
+        for (String code : codes) reasons.add(CancellationReason.builder().code(code).build());
+        return TransactionCanceledException.builder()
+                .message("cancelled")
+                .cancellationReasons(reasons)
+                .build();
+    }
 }
@@ -0,0 +1,200 @@
+package com.nimbly.phshoesbackend.alerts.core.repository.dynamo;
+
+import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertSearchEntry;
+import com.nimbly.phshoesbackend.alerts.core.model.dynamo.AlertSearchAttrs;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.pagination.sync.SdkIterable;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchGetItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchGetResultPageIterable;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.PageIterable;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DynamoDbAlertSearchIndexRepositoryTest {
+
+    @Mock
+    private DynamoDbEnhancedClient enhancedClient;
+
+    @Mock
+    private DynamoDbTable<AlertSearchEntry> table;
+
+    @InjectMocks
+    private DynamoDbAlertSearchIndexRepository repository;
+
+    @Test
+    void index_whenTermsUnchanged_skipsWrite() {
+        // Arrange
+        stubTable();
+        AlertSearchEntry manifest = AlertSearchEntry.of("user-1", "p#product-1", "product-1");
+        manifest.setTerms(List.of("t#gel#product-1", "t#asics#product-1", "b#asics#product-1"));
+        when(table.getItem(any(Key.class))).thenReturn(manifest);
+
+        // Act
+        repository.index(alert("product-1", "user-1", "Gel", "Asics"));
+
+        // Assert
+        verify(enhancedClient, never()).batchWriteItem(any(BatchWriteItemEnhancedRequest.class));
+    }
+
+    @Test
+    void index_whenNameChanged_writesOnlyTheDifference() {
+        // Arrange
+        stubTable();
+        AlertSearchEntry manifest = AlertSearchEntry.of("user-2", "p#product-2", "product-2");
+        manifest.setTerms(List.of("t#gel#product-2", "t#asics#product-2", "b#asics#product-2"));
+        when(table.getItem(any(Key.class))).thenReturn(manifest);
+        when(table.tableSchema()).thenReturn(TableSchema.fromBean(AlertSearchEntry.class));
+        when(table.tableName()).thenReturn(AlertSearchAttrs.TABLE);
+        BatchWriteResult writeResult = mock(BatchWriteResult.class);
+        when(writeResult.unprocessedPutItemsForTable(table)).thenReturn(List.of());
+        when(writeResult.unprocessedDeleteItemsForTable(table)).thenReturn(List.of());
+        when(enhancedClient.batchWriteItem(any(BatchWriteItemEnhancedRequest.class))).thenReturn(writeResult);
+        ArgumentCaptor<BatchWriteItemEnhancedRequest> requestCaptor = ArgumentCaptor.forClass(BatchWriteItemEnhancedRequest.class);
+
+        // Act
+        repository.index(alert("product-2", "user-2", "Gel Kayano", "Asics"));
+
+        // Assert
+        verify(enhancedClient).batchWriteItem(requestCaptor.capture());
+        // one new token plus the rewritten manifest
+        assertEquals(2, requestCaptor.getValue().writeBatches().iterator().next().writeRequests().size());
+    }
+
+    @Test
+    void index_whenItemsUnprocessed_retriesRemainder() {
+        // Arrange
+        stubTable();
+        when(table.getItem(any(Key.class))).thenReturn(null);
+        when(table.tableSchema()).thenReturn(TableSchema.fromBean(AlertSearchEntry.class));
+        when(table.tableName()).thenReturn(AlertSearchAttrs.TABLE);
+        AlertSearchEntry leftOver = AlertSearchEntry.of("user-3", "t#gel#product-3", "product-3");
+        BatchWriteResult partial = mock(BatchWriteResult.class);
+        when(partial.unprocessedPutItemsForTable(table)).thenReturn(List.of(leftOver));
+        when(partial.unprocessedDeleteItemsForTable(table)).thenReturn(List.of());
+        BatchWriteResult complete = mock(BatchWriteResult.class);
+        when(complete.unprocessedPutItemsForTable(table)).thenReturn(List.of());
+        when(complete.unprocessedDeleteItemsForTable(table)).thenReturn(List.of());
+        when(enhancedClient.batchWriteItem(any(BatchWriteItemEnhancedRequest.class))).thenReturn(partial, complete);
+
+        // Act
+        repository.index(alert("product-3", "user-3", "Gel", null));
+
+        // Assert
+        verify(enhancedClient, times(2)).batchWriteItem(any(BatchWriteItemEnhancedRequest.class));
+    }
+
+    @Test
+    void indexAll_readsManifestsInOneBatchAndWritesOnlyTheDifferences() {
+        // Arrange
+        stubTable();
+        stubBatchTable();
+        AlertSearchEntry unchanged = AlertSearchEntry.of("user-5", "p#product-5", "product-5");
+        unchanged.setTerms(List.of("t#gel#product-5", "t#asics#product-5", "b#asics#product-5"));
+        BatchGetResultPageIterable manifests = mock(BatchGetResultPageIterable.class);
+        when(manifests.resultsForTable(table)).thenReturn(() -> List.of(unchanged).iterator());
+        when(enhancedClient.batchGetItem(any(BatchGetItemEnhancedRequest.class))).thenReturn(manifests);
+        BatchWriteResult writeResult = mock(BatchWriteResult.class);
+        when(writeResult.unprocessedPutItemsForTable(table)).thenReturn(List.of());
+        when(writeResult.unprocessedDeleteItemsForTable(table)).thenReturn(List.of());
+        ArgumentCaptor<BatchWriteItemEnhancedRequest> requestCaptor = ArgumentCaptor.forClass(BatchWriteItemEnhancedRequest.class);
+        when(enhancedClient.batchWriteItem(requestCaptor.capture())).thenReturn(writeResult);
+
+        // Act
+        repository.indexAll(List.of(
+                alert("product-5", "user-5", "Gel", "Asics"),
+                alert("product-6", "user-5", "Gel", null)));
+
+        // Assert
+        verify(enhancedClient).batchGetItem(any(BatchGetItemEnhancedRequest.class));
+        verify(table, never()).getItem(any(Key.class));
+        // the new alert's one token plus its manifest; the unchanged alert writes nothing
+        assertEquals(2, requestCaptor.getValue().writeBatches().iterator().next().writeRequests().size());
+    }
+
+    @Test
+    void removeAll_deletesEveryStoredTermAndManifestInBatches() {
+        // Arrange
+        stubTable();
+        stubBatchTable();
+        AlertSearchEntry manifest = AlertSearchEntry.of("user-7", "p#product-7", "product-7");
+        manifest.setTerms(List.of("t#gel#product-7", "b#asics#product-7"));
+        BatchGetResultPageIterable manifests = mock(BatchGetResultPageIterable.class);
+        when(manifests.resultsForTable(table)).thenReturn(() -> List.of(manifest).iterator());
+        when(enhancedClient.batchGetItem(any(BatchGetItemEnhancedRequest.class))).thenReturn(manifests);
+        BatchWriteResult writeResult = mock(BatchWriteResult.class);
+        when(writeResult.unprocessedPutItemsForTable(table)).thenReturn(List.of());
+        when(writeResult.unprocessedDeleteItemsForTable(table)).thenReturn(List.of());
+        ArgumentCaptor<BatchWriteItemEnhancedRequest> requestCaptor = ArgumentCaptor.forClass(BatchWriteItemEnhancedRequest.class);
+        when(enhancedClient.batchWriteItem(requestCaptor.capture())).thenReturn(writeResult);
+
+        // Act
+        repository.removeAll(List.of("product-7", "product-8"), "user-7");
+
+        // Assert
+        // two terms plus the manifest; product-8 had nothing indexed
+        assertEquals(3, requestCaptor.getValue().writeBatches().iterator().next().writeRequests().size());
+    }
+
+    @Test
+    void findProductIds_queriesPrefixAndDedupes() {
+        // Arrange
+        stubTable();
+        SdkIterable<Page<AlertSearchEntry>> pages = () -> List.of(Page.create(List.of(
+                AlertSearchEntry.of("user-4", "t#air#product-4", "product-4"),
+                AlertSearchEntry.of("user-4", "t#airmax#product-4", "product-4"),
+                AlertSearchEntry.of("user-4", "t#airmax#product-5", "product-5")))).iterator();
+        when(table.query(any(QueryEnhancedRequest.class))).thenReturn(PageIterable.create(pages));
+        ArgumentCaptor<QueryEnhancedRequest> requestCaptor = ArgumentCaptor.forClass(QueryEnhancedRequest.class);
+
+        // Act
+        List<String> result = repository.findProductIds("user-4", "t#air");
+
+        // Assert
+        assertEquals(List.of("product-4", "product-5"), result);
+        verify(table).query(requestCaptor.capture());
+        assertEquals(List.of(AlertSearchAttrs.PRODUCT_ID), requestCaptor.getValue().attributesToProject());
+    }
+
+    private static Alert alert(String productId, String userId, String name, String brand) {
+        Alert alert = new Alert();
+        alert.setProductId(productId);
+        alert.setUserId(userId);
+        alert.setProductName(name);
+        alert.setProductBrand(brand);
+        return alert;
+    }
+
+    private void stubBatchTable() {
+        when(table.tableSchema()).thenReturn(TableSchema.fromBean(AlertSearchEntry.class));
+        when(table.tableName()).thenReturn(AlertSearchAttrs.TABLE);
+    }
+
+    private void stubTable() {
+        when(enhancedClient.table(eq(AlertSearchAttrs.TABLE), any(TableSchema.class)))
+                .thenReturn(table);
+    }
+}
@@ -0,0 +1,325 @@
+package com.nimbly.phshoesbackend.alerts.core.repository.dynamo;
+
+import com.nimbly.phshoesbackend.alerts.core.config.props.SchedulerProperties;
+import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProductSnapshot;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertStatus;
+import com.nimbly.phshoesbackend.alerts.core.model.dynamo.AlertAttrs;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator.TriggeredAlert;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DescribeStreamRequest;
+import software.amazon.awssdk.services.dynamodb.model.DescribeStreamResponse;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableResponse;
+import software.amazon.awssdk.services.dynamodb.model.ExpiredIteratorException;
+import software.amazon.awssdk.services.dynamodb.model.GetRecordsRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetRecordsResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetShardIteratorRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetShardIteratorResponse;
+import software.amazon.awssdk.services.dynamodb.model.OperationType;
+import software.amazon.awssdk.services.dynamodb.model.Record;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.SequenceNumberRange;
+import software.amazon.awssdk.services.dynamodb.model.Shard;
+import software.amazon.awssdk.services.dynamodb.model.ShardIteratorType;
+import software.amazon.awssdk.services.dynamodb.model.StreamDescription;
+import software.amazon.awssdk.services.dynamodb.model.StreamRecord;
+import software.amazon.awssdk.services.dynamodb.model.TableDescription;
+import software.amazon.awssdk.services.dynamodb.paginators.ScanIterable;
+import software.amazon.awssdk.services.dynamodb.streams.DynamoDbStreamsClient;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StreamingActiveAlertIndexTest {
+
+    @Mock
+    private DynamoDbClient dynamo;
+
+    @Mock
+    private DynamoDbStreamsClient streams;
+
+    @Spy
+    private SchedulerProperties props = new SchedulerProperties();
+
+    @InjectMocks
+    private StreamingActiveAlertIndex index;
+
+    @Test
+    void poll_whenNotLoaded_scansActiveAlertsAndFollowsOpenShardsFromLatest() {
+        // Arrange
+        stubBootstrap(List.of(closedShard("shard-0"), openShard("shard-1", "shard-0")),
+                item("product-1", "user-1", AlertStatus.ACTIVE));
+        ArgumentCaptor<ScanRequest> scanCaptor = ArgumentCaptor.forClass(ScanRequest.class);
+        ArgumentCaptor<GetShardIteratorRequest> iteratorCaptor = ArgumentCaptor.forClass(GetShardIteratorRequest.class);
+
+        // Act
+        index.poll();
+
+        // Assert
+        assertTrue(index.isReady());
+        assertEquals(1, index.findActiveByProduct("product-1").size());
+        verify(dynamo).scan(scanCaptor.capture());
+        assertEquals(AlertStatus.ACTIVE.name(), scanCaptor.getValue().expressionAttributeValues().get(":active").s());
+        verify(streams).getShardIterator(iteratorCaptor.capture());
+        assertEquals("shard-1", iteratorCaptor.getValue().shardId());
+        assertEquals(ShardIteratorType.LATEST, iteratorCaptor.getValue().shardIteratorType());
+    }
+
+    @Test
+    void poll_whenLoaded_appliesCreatesTriggersAndDeletes() {
+        // Arrange
+        stubBootstrap(List.of(openShard("shard-1", null)),
+                item("product-1", "user-1", AlertStatus.ACTIVE),
+                item("product-1", "user-2", AlertStatus.ACTIVE));
+        index.poll();
+        when(streams.getRecords(any(GetRecordsRequest.class))).thenReturn(GetRecordsResponse.builder()
+                .records(
+                        change(OperationType.INSERT, item("product-2", "user-3", AlertStatus.ACTIVE)),
+                        change(OperationType.MODIFY, item("product-1", "user-1", AlertStatus.TRIGGERED)),
+                        change(OperationType.REMOVE, item("product-1", "user-2", AlertStatus.ACTIVE)))
+                .nextShardIterator("iterator-2")
+                .build());
+
+        // Act
+        index.poll();
+
+        // Assert
+        assertTrue(index.findActiveByProduct("product-1").isEmpty());
+        List<Alert> created = index.findActiveByProduct("product-2");
+        assertEquals(1, created.size());
+        assertEquals("user-3", created.get(0).getUserId());
+    }
+
+    @Test
+    void poll_whenShardCloses_readsItsChildFromTrimHorizon() {
+        // Arrange
+        stubBootstrap(List.of(openShard("shard-1", null)));
+        index.poll();
+        when(streams.getRecords(any(GetRecordsRequest.class))).thenReturn(GetRecordsResponse.builder().build());
+        when(streams.describeStream(any(DescribeStreamRequest.class))).thenReturn(stream(
+                closedShard("shard-1"), openShard("shard-2", "shard-1")));
+        ArgumentCaptor<GetShardIteratorRequest> iteratorCaptor = ArgumentCaptor.forClass(GetShardIteratorRequest.class);
+
+        // Act
+        index.poll();
+
+        // Assert
+        verify(streams, times(2)).getShardIterator(iteratorCaptor.capture());
+        assertEquals("shard-2", iteratorCaptor.getValue().shardId());
+        assertEquals(ShardIteratorType.TRIM_HORIZON, iteratorCaptor.getValue().shardIteratorType());
+    }
+
+    @Test
+    void poll_whenIteratorExpired_reloadsOnNextPoll() {
+        // Arrange
+        stubBootstrap(List.of(openShard("shard-1", null)), item("product-1", "user-1", AlertStatus.ACTIVE));
+        index.poll();
+        when(streams.getRecords(any(GetRecordsRequest.class)))
+                .thenThrow(ExpiredIteratorException.builder().message("expired").build())
+                .thenReturn(GetRecordsResponse.builder().nextShardIterator("iterator-2").build());
+
+        // Act
+        index.poll();
+        boolean readyAfterExpiry = index.isReady();
+        int servedWhileReloading = index.countActiveByProduct("product-1");
+        index.poll();
+
+        // Assert
+        assertFalse(readyAfterExpiry);
+        assertEquals(1, servedWhileReloading);
+        assertTrue(index.isReady());
+        verify(dynamo, times(2)).scan(any(ScanRequest.class));
+    }
+
+    @Test
+    void poll_whenNotLoaded_appliesChangesMadeDuringTheScanBetweenPages() {
+        // Arrange
+        stubBootstrap(List.of(openShard("shard-1", null)),
+                item("product-1", "user-1", AlertStatus.ACTIVE),
+                item("product-1", "user-2", AlertStatus.ACTIVE));
+        when(streams.getRecords(any(GetRecordsRequest.class))).thenReturn(GetRecordsResponse.builder()
+                .records(change(OperationType.REMOVE, item("product-1", "user-2", AlertStatus.ACTIVE)))
+                .nextShardIterator("iterator-2")
+                .build());
+        ArgumentCaptor<GetRecordsRequest> recordsCaptor = ArgumentCaptor.forClass(GetRecordsRequest.class);
+
+        // Act
+        index.poll();
+
+        // Assert
+        verify(streams).getRecords(recordsCaptor.capture());
+        assertEquals("iterator-1", recordsCaptor.getValue().shardIterator());
+        assertEquals(List.of("user-1"), index.findActiveByProduct("product-1").stream().map(Alert::getUserId).toList());
+    }
+
+    @Test
+    void poll_whenReloading_keepsServingThePreviousLoadUntilTheNewOneIsComplete() {
+        // Arrange
+        stubBootstrap(List.of(openShard("shard-1", null)), item("product-1", "user-1", AlertStatus.ACTIVE));
+        index.poll();
+        int[] servedDuringScan = new int[1];
+        when(dynamo.scan(any(ScanRequest.class))).thenAnswer(invocation -> {
+            servedDuringScan[0] = index.countActiveByProduct("product-1");
+            return ScanResponse.builder().items(item("product-2", "user-2", AlertStatus.ACTIVE)).build();
+        });
+
+        // Act
+        index.bootstrap();
+
+        // Assert
+        assertEquals(1, servedDuringScan[0]);
+        assertEquals(0, index.countActiveByProduct("product-1"));
+        assertEquals(1, index.countActiveByProduct("product-2"));
+    }
+
+    @Test
+    void findActiveByProduct_returnsCopiesTheCallerMayChange() {
+        // Arrange
+        stubBootstrap(List.of(openShard("shard-1", null)), item("product-1", "user-1", AlertStatus.ACTIVE));
+        index.poll();
+
+        // Act
+        index.findActiveByProduct("product-1").get(0).setStatus(AlertStatus.TRIGGERED);
+
+        // Assert
+        assertEquals(AlertStatus.ACTIVE, index.findActiveByProduct("product-1").get(0).getStatus());
+    }
+
+    @Test
+    void findTriggeredByProduct_returnsCopiesOfTheAlertsThatFire() {
+        // Arrange
+        stubBootstrap(List.of(openShard("shard-1", null)),
+                item("product-1", "user-1", AlertStatus.ACTIVE),
+                item("product-1", "user-2", AlertStatus.ACTIVE),
+                item("product-1", "user-3", AlertStatus.ACTIVE));
+        index.poll();
+        when(streams.getRecords(any(GetRecordsRequest.class))).thenReturn(GetRecordsResponse.builder()
+                .records(change(OperationType.MODIFY, Map.of(
+                        AlertAttrs.PK_PRODUCT_ID, AttributeValue.fromS("product-1"),
+                        AlertAttrs.SK_USER_ID, AttributeValue.fromS("user-3"),
+                        AlertAttrs.DESIRED_PRICE, AttributeValue.fromN("50"),
+                        AlertAttrs.STATUS, AttributeValue.fromS(AlertStatus.ACTIVE.name()))))
+                .nextShardIterator("iterator-2")
+                .build());
+        index.poll();
+        AlertProductSnapshot snapshot = AlertProductSnapshot.builder()
+                .productId("product-1")
+                .priceSale(BigDecimal.valueOf(90))
+                .priceOriginal(BigDecimal.valueOf(100))
+                .build();
+
+        // Act
+        List<TriggeredAlert> triggered = index.findTriggeredByProduct("product-1", snapshot,
+                AlertTriggerEvaluator.fixedPrices(snapshot));
+        triggered.get(0).alert().setStatus(AlertStatus.TRIGGERED);
+
+        // Assert
+        assertEquals(3, index.countActiveByProduct("product-1"));
+        assertEquals(List.of("user-1", "user-2"), triggered.stream().map(t -> t.alert().getUserId()).sorted().toList());
+        assertEquals("price<=desired", triggered.get(0).decision().reason());
+        assertTrue(index.findActiveByProduct("product-1").stream().allMatch(a -> a.getStatus() == AlertStatus.ACTIVE));
+    }
+
+    @Test
+    void findTriggeredByProduct_whenColumnar_matchesSortedLayout() {
+        // Arrange
+        props.getActiveIndex().setLayout(SchedulerProperties.Layout.COLUMNAR);
+        stubBootstrap(List.of(openShard("shard-1", null)),
+                item("product-1", "user-1", AlertStatus.ACTIVE),
+                item("product-1", "user-2", AlertStatus.ACTIVE));
+        index.poll();
+        AlertProductSnapshot snapshot = AlertProductSnapshot.builder()
+                .productId("product-1")
+                .priceSale(BigDecimal.valueOf(90))
+                .priceOriginal(BigDecimal.valueOf(100))
+                .build();
+
+        // Act
+        List<TriggeredAlert> triggered = index.findTriggeredByProduct("product-1", snapshot,
+                AlertTriggerEvaluator.fixedPrices(snapshot));
+
+        // Assert
+        assertEquals(2, index.countActiveByProduct("product-1"));
+        assertEquals(List.of("user-1", "user-2"), triggered.stream().map(t -> t.alert().getUserId()).sorted().toList());
+        assertEquals(0, triggered.get(0).alert().getDesiredPrice().compareTo(BigDecimal.valueOf(95)));
+        assertEquals("price<=desired", triggered.get(0).decision().reason());
+    }
+
+    @SafeVarargs
+    private void stubBootstrap(List<Shard> shards, Map<String, AttributeValue>... items) {
+        when(dynamo.describeTable(any(DescribeTableRequest.class))).thenReturn(DescribeTableResponse.builder()
+                .table(TableDescription.builder().latestStreamArn("stream-arn").build())
+                .build());
+        when(streams.describeStream(any(DescribeStreamRequest.class))).thenReturn(stream(shards.toArray(Shard[]::new)));
+        when(streams.getShardIterator(any(GetShardIteratorRequest.class)))
+                .thenReturn(GetShardIteratorResponse.builder().shardIterator("iterator-1").build());
+        // No changes during the load, unless a test stubs some.
+        lenient().when(streams.getRecords(any(GetRecordsRequest.class)))
+                .thenReturn(GetRecordsResponse.builder().nextShardIterator("iterator-1").build());
+        when(dynamo.scanPaginator(any(ScanRequest.class)))
+                .thenAnswer(invocation -> new ScanIterable(dynamo, invocation.getArgument(0)));
+        when(dynamo.scan(any(ScanRequest.class))).thenReturn(ScanResponse.builder().items(items).build());
+    }
+
+    private static DescribeStreamResponse stream(Shard... shards) {
+        return DescribeStreamResponse.builder()
+                .streamDescription(StreamDescription.builder().shards(shards).build())
+                .build();
+    }
+
+    private static Shard openShard(String shardId, String parentShardId) {
+        return Shard.builder()
+                .shardId(shardId)
+                .parentShardId(parentShardId)
+                .sequenceNumberRange(SequenceNumberRange.builder().startingSequenceNumber("100").build())
+                .build();
+    }
+
+    private static Shard closedShard(String shardId) {
+        return Shard.builder()
+                .shardId(shardId)
+                .sequenceNumberRange(SequenceNumberRange.builder()
+                        .startingSequenceNumber("1")
+                        .endingSequenceNumber("99")
+                        .build())
+                .build();
+    }
+
+    private static Record change(OperationType type, Map<String, AttributeValue> image) {
+        StreamRecord.Builder record = StreamRecord.builder().keys(Map.of(
+                AlertAttrs.PK_PRODUCT_ID, image.get(AlertAttrs.PK_PRODUCT_ID),
+                AlertAttrs.SK_USER_ID, image.get(AlertAttrs.SK_USER_ID)));
+        if (type != OperationType.REMOVE) record.newImage(image);
+        return Record.builder().eventName(type).dynamodb(record.build()).build();
+    }
+
+    private static Map<String, AttributeValue> item(String productId, String userId, AlertStatus status) {
+        return Map.of(
+                AlertAttrs.PK_PRODUCT_ID, AttributeValue.fromS(productId),
+                AlertAttrs.SK_USER_ID, AttributeValue.fromS(userId),
+                AlertAttrs.DESIRED_PRICE, AttributeValue.fromN("95"),
+                AlertAttrs.STATUS, AttributeValue.fromS(status.name()));
+    }
+}
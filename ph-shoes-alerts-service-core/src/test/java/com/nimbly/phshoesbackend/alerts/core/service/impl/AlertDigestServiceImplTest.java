@@ -22,6 +22,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -31,8 +32,11 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -250,6 +254,103 @@ class AlertDigestServiceImplTest {
         verify(notificationService).sendEmailVerification(any(EmailRequest.class));
     }
 
+    @Test
+    void sendDigests_whenRecipientsSpanChunks_prefetchesEachAccountOnceAndReportsPerUser() {
+        // Arrange
+        var digests = new HashMap<String, List<TriggeredEmailItem>>();
+        for (int i = 0; i < 250; i++) digests.put("user-" + i, List.of(buildTriggeredItem("product-" + i)));
+        when(accountRepository.findByUserId(anyString())).thenAnswer(invocation -> {
+            String userId = invocation.getArgument(0);
+            if (userId.equals("user-3")) return Optional.empty();
+            if (userId.equals("user-5")) throw new IllegalStateException("throttled");
+            Account account = new Account();
+            account.setUserId(userId);
+            account.setEmailEnc("enc-" + userId);
+            return Optional.of(account);
+        });
+        when(emailCrypto.decrypt(anyString())).thenAnswer(invocation -> {
+            String encrypted = invocation.getArgument(0);
+            if (encrypted.equals("enc-user-7")) throw new IllegalArgumentException("bad key");
+            return encrypted.substring("enc-".length()) + "@example.com";
+        });
+        when(suppressionService.shouldBlock(anyString())).thenReturn(true);
+
+        // Act
+        EmailDeliveryReport report = service.sendDigests(digests);
+
+        // Assert
+        assertEquals(0, report.sent());
+        assertEquals(247, report.suppressed());
+        assertEquals(1, report.errors());
+        verify(accountRepository, times(250)).findByUserId(anyString());
+        verify(suppressionService, never()).shouldBlock("user-7@example.com");
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void sendDigests_whenSuppressionCheckFails_countsErrorAndSkipsSend() {
+        // Arrange
+        Map<String, List<TriggeredEmailItem>> digests = Map.of(
+                "user-9", List.of(buildTriggeredItem("product-9"))
+        );
+        Account account = new Account();
+        account.setUserId("user-9");
+        account.setEmailEnc("encrypted");
+        when(accountRepository.findByUserId("user-9")).thenReturn(Optional.of(account));
+        when(emailCrypto.decrypt("encrypted")).thenReturn("user9@example.com");
+        when(suppressionService.shouldBlock("user9@example.com")).thenThrow(new IllegalStateException("table unavailable"));
+
+        // Act
+        EmailDeliveryReport report = service.sendDigests(digests);
+
+        // Assert
+        assertEquals(0, report.sent());
+        assertEquals(0, report.suppressed());
+        assertEquals(1, report.errors());
+        verify(suppressionService, times(1)).shouldBlock("user9@example.com");
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void sendDigests_whenUsersShareAProduct_rendersEachUsersOwnReason() {
+        // Arrange
+        AlertProductSnapshot snapshot = buildSnapshot("product-1");
+        var digests = new HashMap<String, List<TriggeredEmailItem>>();
+        digests.put("user-1", List.of(new TriggeredEmailItem(snapshot, "price<=desired")));
+        digests.put("user-2", List.of(new TriggeredEmailItem(snapshot, "price<=desired")));
+        digests.put("user-3", List.of(new TriggeredEmailItem(snapshot, "on sale")));
+        when(accountRepository.findByUserId(anyString())).thenAnswer(invocation -> {
+            Account account = new Account();
+            account.setUserId(invocation.getArgument(0));
+            account.setEmailEnc("enc-" + invocation.getArgument(0));
+            return Optional.of(account);
+        });
+        when(emailCrypto.decrypt(anyString())).thenAnswer(invocation -> invocation.getArgument(0) + "@example.com");
+        when(suppressionService.shouldBlock(anyString())).thenReturn(false);
+        when(unsubscribeService.buildListUnsubscribeHeader(any())).thenReturn(Optional.empty());
+        when(templateRenderer.render(eq("email/alert-digest.html"), anyMap()))
+                .thenAnswer(invocation -> invocation.<Map<String, String>>getArgument(1).get("items"));
+
+        // Act
+        EmailDeliveryReport report = service.sendDigests(digests);
+
+        // Assert
+        assertEquals(3, report.sent());
+        ArgumentCaptor<EmailRequest> requestCaptor = ArgumentCaptor.forClass(EmailRequest.class);
+        verify(notificationService, times(3)).sendEmailVerification(requestCaptor.capture());
+        Map<String, EmailRequest> byAddress = new HashMap<>();
+        requestCaptor.getAllValues().forEach(request -> byAddress.put(request.getTo().getAddress(), request));
+        EmailRequest first = byAddress.get("enc-user-1@example.com");
+        EmailRequest second = byAddress.get("enc-user-2@example.com");
+        EmailRequest third = byAddress.get("enc-user-3@example.com");
+        assertEquals(first.getHtmlBody(), second.getHtmlBody());
+        assertEquals(first.getTextBody(), second.getTextBody());
+        assertTrue(first.getHtmlBody().contains("Reason: price<=desired"));
+        assertTrue(third.getHtmlBody().contains("Reason: on sale"));
+        assertTrue(third.getTextBody().contains("Reason: on sale"));
+        assertTrue(third.getTextBody().contains("Price: PHP 100.00 (orig PHP 150.00)"));
+    }
+
     private AlertProductSnapshot buildSnapshot(String productId) {
         return AlertProductSnapshot.builder()
                 .productId(productId)
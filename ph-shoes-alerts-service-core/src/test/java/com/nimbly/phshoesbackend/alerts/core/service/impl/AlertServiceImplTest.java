@@ -1,11 +1,22 @@
 package com.nimbly.phshoesbackend.alerts.core.service.impl;
 
+import com.nimbly.phshoesbackend.alerts.core.exception.AlertConflictException;
 import com.nimbly.phshoesbackend.alerts.core.exception.AlertNotFoundException;
 import com.nimbly.phshoesbackend.alerts.core.exception.DuplicateAlertException;
+import com.nimbly.phshoesbackend.alerts.core.exception.InvalidAlertException;
 import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertBatchItemResult;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertBatchItemResult.Outcome;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertPage;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertPatch;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProduct;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProjection;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertSearchResult;
 import com.nimbly.phshoesbackend.alerts.core.model.AlertStatus;
 import com.nimbly.phshoesbackend.alerts.core.model.dto.AlertCreateRequest;
 import com.nimbly.phshoesbackend.alerts.core.model.dto.AlertUpdateRequest;
+import com.nimbly.phshoesbackend.alerts.core.repository.AlertArchiveRepository;
+import com.nimbly.phshoesbackend.alerts.core.repository.AlertProductRepository;
 import com.nimbly.phshoesbackend.alerts.core.repository.AlertRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -29,8 +40,13 @@ import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +55,12 @@ class AlertServiceImplTest {
     @Mock
     private AlertRepository repository;
 
+    @Mock
+    private AlertProductRepository productRepository;
+
+    @Mock
+    private AlertArchiveRepository archiveRepository;
+
     @InjectMocks
     private AlertServiceImpl service;
 
@@ -99,7 +121,7 @@ class AlertServiceImplTest {
     @Test
     void updateAlert_whenMissing_throwsAlertNotFoundException() {
         // Arrange
-        when(repository.findByProductAndUser("product-3", "user-3")).thenReturn(Optional.empty());
+        when(repository.update(any(AlertPatch.class))).thenThrow(new AlertNotFoundException("Alert not found"));
 
         // Act
         AlertNotFoundException exception = assertThrows(
@@ -112,52 +134,150 @@ class AlertServiceImplTest {
     }
 
     @Test
-    void updateAlert_whenResetStatusTrue_clearsLastTriggeredAndSetsActive() {
+    void updateAlert_whenResetStatusTrue_sendsPatchWithoutReading() {
         // Arrange
-        Alert existing = new Alert();
-        existing.setProductId("product-4");
-        existing.setUserId("user-4");
-        existing.setDesiredPrice(BigDecimal.valueOf(100));
-        existing.setProductCurrentPrice(BigDecimal.valueOf(110));
-        existing.setStatus(AlertStatus.TRIGGERED);
-        existing.setLastTriggeredAt(Instant.parse("2025-01-01T10:00:00Z"));
-        when(repository.findByProductAndUser("product-4", "user-4")).thenReturn(Optional.of(existing));
+        Alert stored = new Alert();
+        stored.setProductId("product-4");
+        stored.setStatus(AlertStatus.ACTIVE);
+        when(repository.update(any(AlertPatch.class))).thenReturn(stored);
+        ArgumentCaptor<AlertPatch> patchCaptor = ArgumentCaptor.forClass(AlertPatch.class);
 
         AlertUpdateRequest request = new AlertUpdateRequest()
                 .desiredPrice(90.0)
                 .resetStatus(true)
+                .version(3L)
                 .channels(List.of(AlertUpdateRequest.ChannelsEnum.EMAIL));
 
         // Act
         Alert updated = service.updateAlert("product-4", "user-4", request);
 
         // Assert
-        verify(repository).save(existing);
-        assertSame(existing, updated);
-        assertEquals(AlertStatus.ACTIVE, updated.getStatus());
-        assertEquals(0, updated.getDesiredPrice().compareTo(BigDecimal.valueOf(90.0)));
-        assertEquals(List.of("EMAIL"), updated.getChannels());
-        assertNotNull(updated.getUpdatedAt());
-        assertNull(updated.getLastTriggeredAt());
+        verify(repository).update(patchCaptor.capture());
+        verify(repository, never()).findByProductAndUser(any(), any());
+        AlertPatch patch = patchCaptor.getValue();
+        assertSame(stored, updated);
+        assertEquals("product-4", patch.getProductId());
+        assertEquals("user-4", patch.getUserId());
+        assertEquals(3L, patch.getExpectedVersion());
+        assertTrue(patch.isResetStatus());
+        assertEquals(0, patch.getDesiredPrice().compareTo(BigDecimal.valueOf(90.0)));
+        assertEquals(List.of("EMAIL"), patch.getChannels());
+        assertNull(patch.getProductName());
+        assertNotNull(patch.getUpdatedAt());
+    }
+
+    @Test
+    void updateAlert_whenConditionFailsOnStoredState_throwsValidationError() {
+        // Arrange
+        Alert stored = new Alert();
+        stored.setProductId("product-11");
+        stored.setUserId("user-11");
+        stored.setAlertIfSale(true);
+        when(repository.update(any(AlertPatch.class)))
+                .thenThrow(new AlertConflictException("Alert was modified concurrently", stored, null));
+        AlertUpdateRequest request = new AlertUpdateRequest().alertIfSale(false);
+
+        // Act & Assert
+        assertThrows(InvalidAlertException.class, () -> service.updateAlert("product-11", "user-11", request));
+    }
+
+    @Test
+    void updateAlert_whenPercentSetAndProductHasNoOriginalPrice_rejectsBeforeWriting() {
+        // Arrange
+        AlertProduct product = new AlertProduct();
+        product.setProductId("product-13");
+        when(productRepository.findById("product-13")).thenReturn(Optional.of(product));
+        AlertUpdateRequest request = new AlertUpdateRequest().desiredPercent(20.0);
+
+        // Act & Assert
+        assertThrows(InvalidAlertException.class, () -> service.updateAlert("product-13", "user-13", request));
+        verify(repository, never()).update(any(AlertPatch.class));
+    }
+
+    @Test
+    void updateAlert_whenPercentSetAndProductHasOriginalPrice_writes() {
+        // Arrange
+        AlertProduct product = new AlertProduct();
+        product.setProductId("product-14");
+        product.setProductOriginalPrice(BigDecimal.valueOf(150));
+        when(productRepository.findById("product-14")).thenReturn(Optional.of(product));
+        Alert stored = new Alert();
+        when(repository.update(any(AlertPatch.class))).thenReturn(stored);
+        AlertUpdateRequest request = new AlertUpdateRequest().desiredPercent(20.0);
+
+        // Act
+        Alert updated = service.updateAlert("product-14", "user-14", request);
+
+        // Assert
+        assertSame(stored, updated);
+    }
+
+    @Test
+    void updateAlert_whenVersionStale_throwsConflict() {
+        // Arrange
+        Alert stored = new Alert();
+        stored.setProductId("product-12");
+        stored.setUserId("user-12");
+        stored.setDesiredPrice(BigDecimal.valueOf(50));
+        stored.setVersion(6L);
+        when(repository.update(any(AlertPatch.class)))
+                .thenThrow(new AlertConflictException("Alert was modified concurrently", stored, null));
+        AlertUpdateRequest request = new AlertUpdateRequest().desiredPrice(40.0).version(5L);
+
+        // Act & Assert
+        assertThrows(AlertConflictException.class, () -> service.updateAlert("product-12", "user-12", request));
     }
 
     @Test
-    void searchAlerts_whenPageBeyondResults_returnsEmptyList() {
+    void updateAlert_whenAllTriggersDisabled_rejectsBeforeWriting() {
+        // Arrange
+        AlertUpdateRequest request = new AlertUpdateRequest().desiredPrice(0.0).desiredPercent(0.0).alertIfSale(false);
+
+        // Act & Assert
+        assertThrows(InvalidAlertException.class, () -> service.updateAlert("product-13", "user-13", request));
+        verify(repository, never()).update(any(AlertPatch.class));
+    }
+
+    @Test
+    void searchAlerts_whenPageBeyondResults_returnsEmptyListWithTotal() {
         // Arrange
         Alert alert = new Alert();
         alert.setProductId("product-5");
         List<Alert> results = List.of(alert);
-        when(repository.findByUserFiltered("user-5", "query", "Brand", 3)).thenReturn(results);
+        when(repository.findByUserFiltered("user-5", "query", "Brand", 0, AlertProjection.FULL)).thenReturn(results);
+
+        // Act
+        AlertSearchResult page = service.searchAlerts("user-5", "query", "Brand", 2, 1, AlertProjection.FULL);
+
+        // Assert
+        assertTrue(page.content().isEmpty());
+        assertEquals(1, page.totalElements());
+        verify(repository, times(1)).findByUserFiltered("user-5", "query", "Brand", 0, AlertProjection.FULL);
+    }
+
+    @Test
+    void searchAlerts_whenFiltered_returnsPageAndTotalFromOneEvaluation() {
+        // Arrange
+        List<Alert> results = new ArrayList<>();
+        for (int index = 0; index < 5; index++) {
+            Alert alert = new Alert();
+            alert.setProductId("product-" + index);
+            results.add(alert);
+        }
+        when(repository.findByUserFiltered("user-7", "air", null, 0, AlertProjection.STATE)).thenReturn(results);
 
         // Act
-        List<Alert> page = service.searchAlerts("user-5", "query", "Brand", 2, 1);
+        AlertSearchResult page = service.searchAlerts("user-7", "air", null, 1, 2, AlertProjection.STATE);
 
         // Assert
-        assertTrue(page.isEmpty());
+        assertEquals(2, page.content().size());
+        assertEquals("product-2", page.content().get(0).getProductId());
+        assertEquals(5, page.totalElements());
+        verify(repository, never()).countByUser(any());
     }
 
     @Test
-    void searchAlerts_whenSizeNonPositive_defaultsToTen() {
+    void searchAlerts_whenUnfilteredAndSizeNonPositive_countsAndReadsToPageEnd() {
         // Arrange
         List<Alert> results = new ArrayList<>();
         for (int index = 0; index < 12; index++) {
@@ -165,14 +285,71 @@ class AlertServiceImplTest {
             alert.setProductId("product-" + index);
             results.add(alert);
         }
-        when(repository.findByUserFiltered("user-6", null, null, 20)).thenReturn(results);
+        when(repository.countByUser("user-6")).thenReturn(12L);
+        when(repository.findByUser("user-6", 20, AlertProjection.FULL)).thenReturn(results);
+
+        // Act
+        AlertSearchResult page = service.searchAlerts("user-6", null, null, 1, 0, AlertProjection.FULL);
+
+        // Assert
+        assertEquals(2, page.content().size());
+        assertEquals("product-10", page.content().get(0).getProductId());
+        assertEquals(12, page.totalElements());
+        verify(repository, never()).findByUserFiltered(any(), any(), any(), anyInt(), any());
+    }
+
+    @Test
+    void searchAlerts_whenUnfilteredPageBeyondCount_skipsItemRead() {
+        // Arrange
+        when(repository.countByUser("user-10")).thenReturn(3L);
 
         // Act
-        List<Alert> page = service.searchAlerts("user-6", null, null, 1, 0);
+        AlertSearchResult page = service.searchAlerts("user-10", " ", "", 1, 5, AlertProjection.FULL);
 
         // Assert
-        assertEquals(2, page.size());
-        assertEquals("product-10", page.get(0).getProductId());
+        assertTrue(page.content().isEmpty());
+        assertEquals(3, page.totalElements());
+        verify(repository, never()).findByUser(any(), anyInt(), any());
+    }
+
+    @Test
+    void listAlertsPage_whenLimitMissing_usesDefaultPageSize() {
+        // Arrange
+        AlertPage expected = new AlertPage(List.of(), "next");
+        when(repository.findPageByUser("user-8", AlertServiceImpl.DEFAULT_PAGE_SIZE, "cursor-1", AlertProjection.STATE)).thenReturn(expected);
+
+        // Act
+        AlertPage page = service.listAlerts("user-8", null, "cursor-1", AlertProjection.STATE);
+
+        // Assert
+        assertSame(expected, page);
+    }
+
+    @Test
+    void listAlertsPage_whenLimitTooLarge_capsPageSize() {
+        // Arrange
+        AlertPage expected = new AlertPage(List.of(), null);
+        when(repository.findPageByUser("user-9", AlertServiceImpl.MAX_PAGE_SIZE, null, AlertProjection.FULL)).thenReturn(expected);
+
+        // Act
+        AlertPage page = service.listAlerts("user-9", 500, null, AlertProjection.FULL);
+
+        // Assert
+        assertSame(expected, page);
+    }
+
+    @Test
+    void listArchivedAlerts_whenLimitTooLarge_capsPageSizeAndReadsArchive() {
+        // Arrange
+        AlertPage expected = new AlertPage(List.of(), "next");
+        when(archiveRepository.findPageByUser("user-9", AlertServiceImpl.MAX_PAGE_SIZE, "cursor-1")).thenReturn(expected);
+
+        // Act
+        AlertPage page = service.listArchivedAlerts("user-9", 500, "cursor-1");
+
+        // Assert
+        assertSame(expected, page);
+        verifyNoInteractions(repository);
     }
 
     @Test
@@ -187,4 +364,72 @@ class AlertServiceImplTest {
         // Assert
         verify(repository).delete(productId, userId);
     }
+
+    @Test
+    void createAlerts_reportsOutcomePerEntryAndLosersAsDuplicate() {
+        // Arrange
+        String userId = "user-8";
+        List<AlertCreateRequest> requests = List.of(
+                new AlertCreateRequest("product-8", "Product 8", 100.0).desiredPrice(90.0),
+                new AlertCreateRequest("product-9", "Product 9", 100.0).alertIfSale(false),
+                new AlertCreateRequest("product-8", "Product 8", 100.0).desiredPrice(80.0),
+                new AlertCreateRequest("product-10", "Product 10", 100.0).alertIfSale(true));
+        ArgumentCaptor<List<Alert>> createdCaptor = ArgumentCaptor.forClass(List.class);
+        when(repository.createAll(createdCaptor.capture()))
+                .thenAnswer(invocation -> List.of(createdCaptor.getValue().get(1)));
+
+        // Act
+        List<AlertBatchItemResult> results = service.createAlerts(userId, requests);
+
+        // Assert
+        assertEquals(List.of(Outcome.CREATED, Outcome.INVALID, Outcome.DUPLICATE, Outcome.DUPLICATE),
+                results.stream().map(AlertBatchItemResult::outcome).toList());
+        assertEquals(List.of("product-8", "product-10"),
+                createdCaptor.getValue().stream().map(Alert::getProductId).toList());
+        assertSame(createdCaptor.getValue().get(0), results.get(0).alert());
+        assertEquals("Alert already exists for product/user", results.get(3).message());
+        assertEquals(0, results.get(0).alert().getDesiredPrice().compareTo(BigDecimal.valueOf(90.0)));
+    }
+
+    @Test
+    void createAlerts_whenBatchTooLarge_rejectsBeforeWriting() {
+        // Arrange
+        List<AlertCreateRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 101; i++) {
+            requests.add(new AlertCreateRequest("product-" + i, "Product", 100.0).alertIfSale(true));
+        }
+
+        // Act & Assert
+        assertThrows(InvalidAlertException.class, () -> service.createAlerts("user-9", requests));
+        verify(repository, never()).createAll(any());
+    }
+
+    @Test
+    void deleteAlerts_deletesDistinctIdsAndReportsEach() {
+        // Act
+        List<AlertBatchItemResult> results = service.deleteAlerts("user-10", List.of("product-11", "product-12", "product-11"));
+
+        // Assert
+        verify(repository).deleteAll(List.of("product-11", "product-12"), "user-10");
+        assertEquals(2, results.size());
+        assertTrue(results.stream().allMatch(result -> result.outcome() == Outcome.DELETED));
+    }
+
+    @Test
+    void getAlerts_reportsFoundAndNotFoundInRequestOrder() {
+        // Arrange
+        Alert found = new Alert();
+        found.setProductId("product-14");
+        when(repository.findByProductsAndUser(eq(List.of("product-13", "product-14")), eq("user-11"), eq(AlertProjection.STATE)))
+                .thenReturn(List.of(found));
+
+        // Act
+        List<AlertBatchItemResult> results = service.getAlerts("user-11", List.of("product-13", "product-14"), AlertProjection.STATE);
+
+        // Assert
+        assertEquals(Outcome.NOT_FOUND, results.get(0).outcome());
+        assertNull(results.get(0).alert());
+        assertEquals(Outcome.FOUND, results.get(1).outcome());
+        assertSame(found, results.get(1).alert());
+    }
 }
@@ -1,33 +1,52 @@
 package com.nimbly.phshoesbackend.alerts.core.service.impl;
 
+import com.nimbly.phshoesbackend.alerts.core.config.props.DynamoStatusIndexProps;
 import com.nimbly.phshoesbackend.alerts.core.config.props.SchedulerProperties;
 import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertArchiveSummary;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProduct;
 import com.nimbly.phshoesbackend.alerts.core.model.AlertProductSnapshot;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProjection;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertStatus;
 import com.nimbly.phshoesbackend.alerts.core.model.SchedulerRunSummary;
+import com.nimbly.phshoesbackend.alerts.core.model.ScrapeBatch;
 import com.nimbly.phshoesbackend.alerts.core.model.ScrapedProduct;
+import com.nimbly.phshoesbackend.alerts.core.repository.ActiveAlertIndex;
+import com.nimbly.phshoesbackend.alerts.core.repository.AlertArchiveRepository;
 import com.nimbly.phshoesbackend.alerts.core.repository.AlertRepository;
 import com.nimbly.phshoesbackend.alerts.core.repository.WarehouseScrapeRepository;
 import com.nimbly.phshoesbackend.alerts.core.service.AlertDigestService;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator.TriggeredAlert;
 import com.nimbly.phshoesbackend.alerts.core.model.EmailDeliveryReport;
 import com.nimbly.phshoesbackend.alerts.core.model.TriggeredEmailItem;
 import com.nimbly.phshoesbackend.commons.core.security.EmailCrypto;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
 
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -50,6 +69,18 @@ class AlertsSchedulerServiceImplTest {
     @Mock
     private EmailCrypto emailCrypto;
 
+    @Mock
+    private ObjectProvider<ActiveAlertIndex> activeAlertIndexProvider;
+
+    @Mock
+    private ActiveAlertIndex activeAlertIndex;
+
+    @Mock
+    private AlertArchiveRepository archiveRepository;
+
+    @Mock
+    private DynamoStatusIndexProps statusIndexProps;
+
     @InjectMocks
     private AlertsSchedulerServiceImpl schedulerService;
 
@@ -68,9 +99,9 @@ class AlertsSchedulerServiceImplTest {
                 .priceSale(BigDecimal.valueOf(120))
                 .priceOriginal(BigDecimal.valueOf(150))
                 .build();
-        when(warehouseRepo.findByDate(date)).thenReturn(List.of(scrapedProduct));
+        when(warehouseRepo.findByDate(date)).thenReturn(ScrapeBatch.of(List.of(scrapedProduct)));
         when(alertDigestService.resolveUserIdByNormalizedEmail("test@example.com")).thenReturn(Optional.empty());
-        when(alertRepository.findActiveByProduct("product-1")).thenReturn(List.of());
+        when(alertRepository.findActivePagesByProduct("product-1", AlertProjection.EVALUATION)).thenReturn(List.of(List.of()));
         when(schedulerProperties.isDryRun()).thenReturn(false);
 
         // Act
@@ -84,7 +115,7 @@ class AlertsSchedulerServiceImplTest {
         assertEquals(0, summary.getEmailsSent());
         assertEquals(0, summary.getSuppressed());
         assertEquals(0, summary.getErrors());
-        verify(alertRepository).findActiveByProduct("product-1");
+        verify(alertRepository).findActivePagesByProduct("product-1", AlertProjection.EVALUATION);
         verify(alertDigestService, never()).sendDigests(anyMap());
     }
 
@@ -108,12 +139,13 @@ class AlertsSchedulerServiceImplTest {
         alert.setUserId("user-1");
         alert.setChannels(List.of("EMAIL"));
         alert.setDesiredPrice(BigDecimal.valueOf(95));
-        when(warehouseRepo.findByDate(date)).thenReturn(List.of(scrapedProduct));
+        when(warehouseRepo.findByDate(date)).thenReturn(ScrapeBatch.of(List.of(scrapedProduct)));
         when(schedulerProperties.isDryRun()).thenReturn(false);
-        when(alertRepository.findActiveByProduct("product-2")).thenReturn(List.of(alert));
+        when(alertRepository.findActivePagesByProduct("product-2", AlertProjection.EVALUATION)).thenReturn(List.of(List.of(alert)));
         when(alertDigestService.prepareEmailItem(eq(alert), any(AlertProductSnapshot.class), eq("price<=desired")))
                 .thenAnswer(invocation -> Optional.of(new TriggeredEmailItem(invocation.getArgument(1), "triggered")));
         when(alertDigestService.sendDigests(anyMap())).thenReturn(new EmailDeliveryReport(1, 0, 0));
+        when(alertRepository.markTriggered(any(), any(), any(), any())).thenReturn(true);
 
         // Act
         SchedulerRunSummary summary = schedulerService.run(date, null);
@@ -126,10 +158,165 @@ class AlertsSchedulerServiceImplTest {
         assertEquals(1, summary.getEmailsSent());
         assertEquals(0, summary.getSuppressed());
         assertEquals(0, summary.getErrors());
-        verify(alertRepository).save(eq(alert));
+        verify(alertRepository).refreshProduct(any(AlertProduct.class));
+        verify(alertRepository).markTriggered(eq("product-2"), eq("user-1"), any(), any(Instant.class));
         verify(alertDigestService).sendDigests(anyMap());
     }
 
+    @Test
+    void run_whenSeveralWatchersTrigger_refreshesProductOnceAndMarksEachAlert() {
+        // Arrange
+        LocalDate date = LocalDate.of(2025, 2, 3);
+        ScrapedProduct scrapedProduct = ScrapedProduct.builder()
+                .productId("product-9")
+                .title("Product 9")
+                .priceSale(BigDecimal.valueOf(90))
+                .priceOriginal(BigDecimal.valueOf(100))
+                .build();
+        Alert first = new Alert();
+        first.setProductId("product-9");
+        first.setUserId("user-9");
+        first.setDesiredPrice(BigDecimal.valueOf(95));
+        Alert second = new Alert();
+        second.setProductId("product-9");
+        second.setUserId("user-10");
+        second.setAlertIfSale(true);
+        when(warehouseRepo.findByDate(date)).thenReturn(ScrapeBatch.of(List.of(scrapedProduct)));
+        when(schedulerProperties.isDryRun()).thenReturn(false);
+        when(alertRepository.findActivePagesByProduct("product-9", AlertProjection.EVALUATION)).thenReturn(List.of(List.of(first, second)));
+        ArgumentCaptor<AlertProduct> productCaptor = ArgumentCaptor.forClass(AlertProduct.class);
+        when(alertRepository.markTriggered(any(), any(), any(), any())).thenReturn(true);
+
+        // Act
+        SchedulerRunSummary summary = schedulerService.run(date, null);
+
+        // Assert
+        assertEquals(2, summary.getTriggered());
+        verify(alertRepository).refreshProduct(productCaptor.capture());
+        assertEquals("Product 9", productCaptor.getValue().getProductName());
+        assertEquals(0, BigDecimal.valueOf(90).compareTo(productCaptor.getValue().getProductCurrentPrice()));
+        verify(alertRepository).markTriggered(eq("product-9"), eq("user-9"), any(), any(Instant.class));
+        verify(alertRepository).markTriggered(eq("product-9"), eq("user-10"), any(), any(Instant.class));
+        verify(alertRepository, never()).save(any(Alert.class));
+    }
+
+    @Test
+    void run_whenAlertChangedSinceRead_skipsEmailForIt() {
+        // Arrange
+        LocalDate date = LocalDate.of(2025, 2, 3);
+        ScrapedProduct scrapedProduct = ScrapedProduct.builder()
+                .productId("product-9")
+                .title("Product 9")
+                .priceSale(BigDecimal.valueOf(90))
+                .priceOriginal(BigDecimal.valueOf(100))
+                .build();
+        Alert alert = new Alert();
+        alert.setProductId("product-9");
+        alert.setUserId("user-9");
+        alert.setChannels(List.of("EMAIL"));
+        alert.setDesiredPrice(BigDecimal.valueOf(95));
+        alert.setVersion(1L);
+        when(warehouseRepo.findByDate(date)).thenReturn(ScrapeBatch.of(List.of(scrapedProduct)));
+        when(schedulerProperties.isDryRun()).thenReturn(false);
+        when(alertRepository.findActivePagesByProduct("product-9", AlertProjection.EVALUATION)).thenReturn(List.of(List.of(alert)));
+        when(alertRepository.markTriggered(eq("product-9"), eq("user-9"), eq(1L), any(Instant.class))).thenReturn(false);
+
+        // Act
+        SchedulerRunSummary summary = schedulerService.run(date, null);
+
+        // Assert
+        assertEquals(1, summary.getTriggered());
+        verify(alertRepository).refreshProduct(any(AlertProduct.class));
+        verify(alertDigestService, never()).prepareEmailItem(any(), any(), any());
+        verify(alertDigestService, never()).sendDigests(anyMap());
+    }
+
+    @Test
+    void run_whenActiveIndexReady_readsAlertsFromIndexInsteadOfTable() {
+        // Arrange
+        LocalDate date = LocalDate.of(2025, 2, 4);
+        ScrapedProduct scrapedProduct = ScrapedProduct.builder()
+                .productId("product-10")
+                .title("Product 10")
+                .priceSale(BigDecimal.valueOf(90))
+                .priceOriginal(BigDecimal.valueOf(100))
+                .build();
+        Alert alert = new Alert();
+        alert.setProductId("product-10");
+        alert.setUserId("user-11");
+        alert.setDesiredPrice(BigDecimal.valueOf(95));
+        when(warehouseRepo.findByDate(date)).thenReturn(ScrapeBatch.of(List.of(scrapedProduct)));
+        when(schedulerProperties.isDryRun()).thenReturn(false);
+        when(activeAlertIndexProvider.getIfAvailable()).thenReturn(activeAlertIndex);
+        when(activeAlertIndex.isReady()).thenReturn(true);
+        when(activeAlertIndex.countActiveByProduct("product-10")).thenReturn(3);
+        when(activeAlertIndex.findTriggeredByProduct(eq("product-10"), any(AlertProductSnapshot.class), any()))
+                .thenReturn(List.of(new TriggeredAlert(alert, AlertTriggerEvaluator.evaluate(alert, snapshotOf(scrapedProduct)))));
+        when(alertRepository.markTriggered(any(), any(), any(), any())).thenReturn(true);
+
+        // Act
+        SchedulerRunSummary summary = schedulerService.run(date, null);
+
+        // Assert
+        assertEquals(3, summary.getAlertsChecked());
+        assertEquals(1, summary.getTriggered());
+        verify(alertRepository, never()).findActivePagesByProduct(any(), any());
+        verify(alertRepository).markTriggered(eq("product-10"), eq("user-11"), any(), any(Instant.class));
+    }
+
+    @Test
+    void run_whenActiveIndexStillLoading_readsTable() {
+        // Arrange
+        LocalDate date = LocalDate.of(2025, 2, 5);
+        ScrapedProduct scrapedProduct = ScrapedProduct.builder()
+                .productId("product-11")
+                .priceSale(BigDecimal.valueOf(90))
+                .build();
+        when(warehouseRepo.findByDate(date)).thenReturn(ScrapeBatch.of(List.of(scrapedProduct)));
+        when(activeAlertIndexProvider.getIfAvailable()).thenReturn(activeAlertIndex);
+        when(activeAlertIndex.isReady()).thenReturn(false);
+        when(alertRepository.findActivePagesByProduct("product-11", AlertProjection.EVALUATION)).thenReturn(List.of(List.of()));
+
+        // Act
+        schedulerService.run(date, null);
+
+        // Assert
+        verify(activeAlertIndex, never()).findActiveByProduct(any());
+    }
+
+    @Test
+    void run_whenActiveIndexReadyAndEmailFiltered_evaluatesUsersAlertsFromIndex() {
+        // Arrange
+        LocalDate date = LocalDate.of(2025, 2, 8);
+        ScrapedProduct scrapedProduct = ScrapedProduct.builder()
+                .productId("product-14")
+                .priceSale(BigDecimal.valueOf(90))
+                .priceOriginal(BigDecimal.valueOf(100))
+                .build();
+        Alert mine = new Alert();
+        mine.setProductId("product-14");
+        mine.setUserId("user-14");
+        mine.setDesiredPrice(BigDecimal.valueOf(95));
+        Alert other = new Alert();
+        other.setProductId("product-14");
+        other.setUserId("user-15");
+        other.setDesiredPrice(BigDecimal.valueOf(95));
+        when(warehouseRepo.findByDate(date)).thenReturn(ScrapeBatch.of(List.of(scrapedProduct)));
+        when(schedulerProperties.isDryRun()).thenReturn(true);
+        when(alertDigestService.resolveUserIdByNormalizedEmail("me@example.com")).thenReturn(Optional.of("user-14"));
+        when(activeAlertIndexProvider.getIfAvailable()).thenReturn(activeAlertIndex);
+        when(activeAlertIndex.isReady()).thenReturn(true);
+        when(activeAlertIndex.findActiveByProduct("product-14")).thenReturn(List.of(mine, other));
+
+        // Act
+        SchedulerRunSummary summary = schedulerService.run(date, "me@example.com");
+
+        // Assert
+        assertEquals(1, summary.getAlertsChecked());
+        assertEquals(1, summary.getTriggered());
+        verify(activeAlertIndex, never()).findTriggeredByProduct(any(), any(), any());
+    }
+
     @Test
     void run_whenNoAlertsFound_returnsSummaryWithoutProcessing() {
         // Arrange
@@ -140,8 +327,8 @@ class AlertsSchedulerServiceImplTest {
                 .priceSale(BigDecimal.valueOf(90))
                 .priceOriginal(BigDecimal.valueOf(110))
                 .build();
-        when(warehouseRepo.findByDate(date)).thenReturn(List.of(scrapedProduct));
-        when(alertRepository.findActiveByProduct("product-4")).thenReturn(List.of());
+        when(warehouseRepo.findByDate(date)).thenReturn(ScrapeBatch.of(List.of(scrapedProduct)));
+        when(alertRepository.findActivePagesByProduct("product-4", AlertProjection.EVALUATION)).thenReturn(List.of(List.of()));
 
         // Act
         SchedulerRunSummary summary = schedulerService.run(date, null);
@@ -170,9 +357,9 @@ class AlertsSchedulerServiceImplTest {
         Alert alert = new Alert();
         alert.setProductId("product-5");
         alert.setUserId("user-5");
-        when(warehouseRepo.findByDate(date)).thenReturn(List.of(scrapedProduct));
+        when(warehouseRepo.findByDate(date)).thenReturn(ScrapeBatch.of(List.of(scrapedProduct)));
         when(schedulerProperties.isDryRun()).thenReturn(false);
-        when(alertRepository.findActiveByProduct("product-5")).thenReturn(List.of(alert));
+        when(alertRepository.findActivePagesByProduct("product-5", AlertProjection.EVALUATION)).thenReturn(List.of(List.of(alert)));
 
         // Act
         SchedulerRunSummary summary = schedulerService.run(date, null);
@@ -186,7 +373,8 @@ class AlertsSchedulerServiceImplTest {
         assertEquals(0, summary.getSuppressed());
         assertEquals(0, summary.getErrors());
         verify(alertDigestService, never()).sendDigests(anyMap());
-        verify(alertRepository, never()).save(any(Alert.class));
+        verify(alertRepository, never()).refreshProduct(any());
+        verify(alertRepository, never()).markTriggered(any(), any(), any(), any());
     }
 
     @Test
@@ -204,9 +392,9 @@ class AlertsSchedulerServiceImplTest {
         alert.setUserId("user-6");
         alert.setChannels(List.of("EMAIL"));
         alert.setDesiredPrice(BigDecimal.valueOf(75));
-        when(warehouseRepo.findByDate(date)).thenReturn(List.of(scrapedProduct));
+        when(warehouseRepo.findByDate(date)).thenReturn(ScrapeBatch.of(List.of(scrapedProduct)));
         when(schedulerProperties.isDryRun()).thenReturn(true);
-        when(alertRepository.findActiveByProduct("product-6")).thenReturn(List.of(alert));
+        when(alertRepository.findActivePagesByProduct("product-6", AlertProjection.EVALUATION)).thenReturn(List.of(List.of(alert)));
         when(alertDigestService.prepareEmailItem(eq(alert), any(AlertProductSnapshot.class), eq("price<=desired")))
                 .thenAnswer(invocation -> Optional.of(new TriggeredEmailItem(invocation.getArgument(1), "triggered")));
 
@@ -221,7 +409,8 @@ class AlertsSchedulerServiceImplTest {
         assertEquals(0, summary.getEmailsSent());
         assertEquals(0, summary.getSuppressed());
         assertEquals(0, summary.getErrors());
-        verify(alertRepository, never()).save(any(Alert.class));
+        verify(alertRepository, never()).refreshProduct(any());
+        verify(alertRepository, never()).markTriggered(any(), any(), any(), any());
         verify(alertDigestService, never()).sendDigests(anyMap());
     }
 
@@ -229,7 +418,7 @@ class AlertsSchedulerServiceImplTest {
     void run_whenNoRowsFound_returnsEmptySummary() {
         // Arrange
         LocalDate date = LocalDate.of(2025, 3, 15);
-        when(warehouseRepo.findByDate(date)).thenReturn(List.of());
+        when(warehouseRepo.findByDate(date)).thenReturn(ScrapeBatch.empty());
 
         // Act
         SchedulerRunSummary summary = schedulerService.run(date, null);
@@ -268,13 +457,14 @@ class AlertsSchedulerServiceImplTest {
 
         when(schedulerProperties.getTestEmail()).thenReturn("test@example.com");
         when(emailCrypto.normalize("test@example.com")).thenReturn("normalized@example.com");
-        when(warehouseRepo.findByDate(date)).thenReturn(List.of(scrapedProduct));
+        when(warehouseRepo.findByDate(date)).thenReturn(ScrapeBatch.of(List.of(scrapedProduct)));
         when(alertDigestService.resolveUserIdByNormalizedEmail("normalized@example.com"))
                 .thenReturn(Optional.of("user-7"));
         when(schedulerProperties.isDryRun()).thenReturn(false);
-        when(alertRepository.findActiveByProduct("product-7")).thenReturn(List.of(matchingAlert, otherAlert));
+        when(alertRepository.findActivePagesByProduct("product-7", AlertProjection.EVALUATION)).thenReturn(List.of(List.of(matchingAlert, otherAlert)));
         when(alertDigestService.prepareEmailItem(eq(matchingAlert), any(AlertProductSnapshot.class), eq("price<=desired")))
                 .thenReturn(Optional.empty());
+        when(alertRepository.markTriggered(any(), any(), any(), any())).thenReturn(true);
 
         // Act
         SchedulerRunSummary summary = schedulerService.run(date);
@@ -283,8 +473,8 @@ class AlertsSchedulerServiceImplTest {
         assertEquals(1, summary.getAlertsChecked());
         assertEquals(1, summary.getTriggered());
         verify(alertDigestService).resolveUserIdByNormalizedEmail("normalized@example.com");
-        verify(alertRepository).save(eq(matchingAlert));
-        verify(alertRepository, never()).save(eq(otherAlert));
+        verify(alertRepository).markTriggered(eq("product-7"), eq("user-7"), any(), any(Instant.class));
+        verify(alertRepository, never()).markTriggered(eq("product-7"), eq("user-8"), any(), any());
         verify(alertDigestService, never()).sendDigests(anyMap());
     }
 
@@ -295,7 +485,7 @@ class AlertsSchedulerServiceImplTest {
         when(schedulerProperties.getTestEmail()).thenReturn("bad@example.com");
         when(emailCrypto.normalize("bad@example.com"))
                 .thenThrow(new IllegalArgumentException("bad-email"));
-        when(warehouseRepo.findByDate(date)).thenReturn(List.of());
+        when(warehouseRepo.findByDate(date)).thenReturn(ScrapeBatch.empty());
         when(alertDigestService.resolveUserIdByNormalizedEmail(ArgumentMatchers.isNull()))
                 .thenReturn(Optional.empty());
 
@@ -331,11 +521,12 @@ class AlertsSchedulerServiceImplTest {
         alert.setChannels(List.of("EMAIL"));
         alert.setDesiredPrice(BigDecimal.valueOf(100));
 
-        when(warehouseRepo.findByDate(date)).thenReturn(List.of(expensiveProduct, cheaperProduct));
+        when(warehouseRepo.findByDate(date)).thenReturn(ScrapeBatch.of(List.of(expensiveProduct, cheaperProduct)));
         when(schedulerProperties.isDryRun()).thenReturn(false);
-        when(alertRepository.findActiveByProduct("product-8")).thenReturn(List.of(alert));
+        when(alertRepository.findActivePagesByProduct("product-8", AlertProjection.EVALUATION)).thenReturn(List.of(List.of(alert)));
         when(alertDigestService.prepareEmailItem(eq(alert), any(AlertProductSnapshot.class), eq("price<=desired")))
                 .thenReturn(Optional.empty());
+        when(alertRepository.markTriggered(any(), any(), any(), any())).thenReturn(true);
 
         // Act
         SchedulerRunSummary summary = schedulerService.run(date, null);
@@ -344,7 +535,7 @@ class AlertsSchedulerServiceImplTest {
         assertEquals(2, summary.getScrapedCount());
         assertEquals(1, summary.getDedupedCount());
         assertEquals(1, summary.getTriggered());
-        verify(alertRepository).save(eq(alert));
+        verify(alertRepository).markTriggered(eq("product-8"), eq("user-8"), any(), any(Instant.class));
         verify(alertDigestService, never()).sendDigests(anyMap());
     }
 
@@ -366,11 +557,12 @@ class AlertsSchedulerServiceImplTest {
         alert.setDesiredPrice(BigDecimal.valueOf(90));
         ArgumentCaptor<AlertProductSnapshot> snapshotCaptor = ArgumentCaptor.forClass(AlertProductSnapshot.class);
 
-        when(warehouseRepo.findByDate(date)).thenReturn(List.of(scrapedProduct));
+        when(warehouseRepo.findByDate(date)).thenReturn(ScrapeBatch.of(List.of(scrapedProduct)));
         when(schedulerProperties.isDryRun()).thenReturn(false);
-        when(alertRepository.findActiveByProduct("product-9")).thenReturn(List.of(alert));
+        when(alertRepository.findActivePagesByProduct("product-9", AlertProjection.EVALUATION)).thenReturn(List.of(List.of(alert)));
         when(alertDigestService.prepareEmailItem(eq(alert), snapshotCaptor.capture(), eq("price<=desired")))
                 .thenReturn(Optional.empty());
+        when(alertRepository.markTriggered(any(), any(), any(), any())).thenReturn(true);
 
         // Act
         schedulerService.run(date, null);
@@ -378,4 +570,224 @@ class AlertsSchedulerServiceImplTest {
         // Assert
         assertEquals("product-9", snapshotCaptor.getValue().getProductName());
     }
+
+    @Test
+    void run_whenProductHasManyWatchers_evaluatesEveryPageAndShardsIt() {
+        // Arrange
+        LocalDate date = LocalDate.of(2025, 2, 6);
+        ScrapedProduct scrapedProduct = ScrapedProduct.builder()
+                .productId("product-12")
+                .title("Product 12")
+                .priceSale(BigDecimal.valueOf(90))
+                .priceOriginal(BigDecimal.valueOf(100))
+                .build();
+        Alert first = new Alert();
+        first.setProductId("product-12");
+        first.setUserId("user-1");
+        first.setDesiredPrice(BigDecimal.valueOf(95));
+        Alert second = new Alert();
+        second.setProductId("product-12");
+        second.setUserId("user-2");
+        second.setDesiredPrice(BigDecimal.valueOf(50));
+        Alert third = new Alert();
+        third.setProductId("product-12");
+        third.setUserId("user-3");
+        third.setAlertIfSale(true);
+        when(warehouseRepo.findByDate(date)).thenReturn(ScrapeBatch.of(List.of(scrapedProduct)));
+        when(schedulerProperties.isDryRun()).thenReturn(false);
+        when(statusIndexProps.isEnabled()).thenReturn(true);
+        when(statusIndexProps.getShardThreshold()).thenReturn(3);
+        when(statusIndexProps.getShards()).thenReturn(4);
+        when(alertRepository.findActivePagesByProduct("product-12", AlertProjection.EVALUATION))
+                .thenReturn(List.of(List.of(first, second), List.of(third)));
+        when(alertRepository.shardProduct("product-12", 4)).thenReturn(2);
+
+        // Act
+        SchedulerRunSummary summary = schedulerService.run(date, null);
+
+        // Assert
+        assertEquals(3, summary.getAlertsChecked());
+        assertEquals(2, summary.getTriggered());
+        verify(alertRepository).refreshProduct(any(AlertProduct.class));
+        verify(alertRepository).shardProduct("product-12", 4);
+    }
+
+    @Test
+    void run_whenWatchersBelowThreshold_leavesProductUnsharded() {
+        // Arrange
+        LocalDate date = LocalDate.of(2025, 2, 7);
+        ScrapedProduct scrapedProduct = ScrapedProduct.builder()
+                .productId("product-13")
+                .priceSale(BigDecimal.valueOf(90))
+                .build();
+        Alert alert = new Alert();
+        alert.setProductId("product-13");
+        alert.setUserId("user-13");
+        alert.setDesiredPrice(BigDecimal.valueOf(50));
+        when(warehouseRepo.findByDate(date)).thenReturn(ScrapeBatch.of(List.of(scrapedProduct)));
+        when(schedulerProperties.isDryRun()).thenReturn(false);
+        when(statusIndexProps.isEnabled()).thenReturn(true);
+        when(statusIndexProps.getShardThreshold()).thenReturn(1000);
+        when(alertRepository.findActivePagesByProduct("product-13", AlertProjection.EVALUATION))
+                .thenReturn(List.of(List.of(alert)));
+
+        // Act
+        schedulerService.run(date, null);
+
+        // Assert
+        verify(alertRepository, never()).shardProduct(any(), ArgumentMatchers.anyInt());
+    }
+
+    @Test
+    void archiveTriggered_movesEachCandidateAndCountsTheOnesThatChanged() {
+        // Arrange
+        Alert stale = triggeredAlert("product-1", "user-1");
+        Alert rearmed = triggeredAlert("product-2", "user-2");
+        SchedulerProperties.Archive archive = new SchedulerProperties.Archive();
+        archive.setTriggeredAge(Duration.ofDays(30));
+        archive.setRetention(Duration.ofDays(365));
+        ArgumentCaptor<Instant> cutoffCaptor = ArgumentCaptor.forClass(Instant.class);
+        ArgumentCaptor<Instant> archivedAtCaptor = ArgumentCaptor.forClass(Instant.class);
+        ArgumentCaptor<Instant> expiresAtCaptor = ArgumentCaptor.forClass(Instant.class);
+
+        when(schedulerProperties.getArchive()).thenReturn(archive);
+        when(schedulerProperties.isDryRun()).thenReturn(false);
+        when(archiveRepository.forEachTriggeredBefore(cutoffCaptor.capture(), any())).thenAnswer(invocation -> {
+            Consumer<Alert> action = invocation.getArgument(1);
+            action.accept(stale);
+            action.accept(rearmed);
+            return 2;
+        });
+        when(archiveRepository.archive(eq(stale), archivedAtCaptor.capture(), expiresAtCaptor.capture())).thenReturn(true);
+        when(archiveRepository.archive(eq(rearmed), any(Instant.class), any(Instant.class))).thenReturn(false);
+
+        // Act
+        AlertArchiveSummary summary = schedulerService.archiveTriggered();
+
+        // Assert
+        assertEquals(1, summary.archived());
+        assertEquals(1, summary.skipped());
+        assertEquals(cutoffCaptor.getValue(), summary.cutoff());
+        assertEquals(Duration.ofDays(30), Duration.between(summary.cutoff(), archivedAtCaptor.getValue()));
+        assertEquals(Duration.ofDays(365), Duration.between(archivedAtCaptor.getValue(), expiresAtCaptor.getValue()));
+    }
+
+    @Test
+    void archiveTriggered_whenDryRun_countsCandidatesWithoutMoving() {
+        // Arrange
+        when(schedulerProperties.getArchive()).thenReturn(new SchedulerProperties.Archive());
+        when(schedulerProperties.isDryRun()).thenReturn(true);
+        when(archiveRepository.forEachTriggeredBefore(any(Instant.class), any())).thenAnswer(invocation -> {
+            Consumer<Alert> action = invocation.getArgument(1);
+            action.accept(triggeredAlert("product-1", "user-1"));
+            return 1;
+        });
+
+        // Act
+        AlertArchiveSummary summary = schedulerService.archiveTriggered();
+
+        // Assert
+        assertEquals(0, summary.archived());
+        assertEquals(1, summary.skipped());
+        verify(archiveRepository, never()).archive(any(Alert.class), any(Instant.class), any(Instant.class));
+    }
+
+    private static Alert triggeredAlert(String productId, String userId) {
+        Alert alert = new Alert();
+        alert.setProductId(productId);
+        alert.setUserId(userId);
+        alert.setStatus(AlertStatus.TRIGGERED);
+        alert.setLastTriggeredAt(Instant.parse("2025-01-01T00:00:00Z"));
+        return alert;
+    }
+
+    private static AlertProductSnapshot snapshotOf(ScrapedProduct product) {
+        return AlertProductSnapshot.builder()
+                .productId(product.getProductId())
+                .priceSale(product.getPriceSale())
+                .priceOriginal(product.getPriceOriginal())
+                .build();
+    }
+
+    @Test
+    void run_whenOffHeapSnapshots_evaluatesFromStoreAndDeletesIt(@TempDir Path directory) throws Exception {
+        // Arrange
+        LocalDate date = LocalDate.of(2025, 2, 3);
+        ScrapedProduct best = ScrapedProduct.builder()
+                .productId("product-9")
+                .dwid("dwid-2")
+                .title("Product 9")
+                .priceSale(BigDecimal.valueOf(80))
+                .priceOriginal(BigDecimal.valueOf(160))
+                .build();
+        Alert alert = new Alert();
+        alert.setProductId("product-9");
+        alert.setUserId("user-1");
+        alert.setDesiredPrice(BigDecimal.valueOf(100));
+        when(warehouseRepo.forEachBestByDate(eq(date), any())).thenAnswer(invocation -> {
+            Consumer<ScrapedProduct> action = invocation.getArgument(1);
+            // The warehouse picked the best of three rows for the product.
+            action.accept(best);
+            return 3;
+        });
+        when(schedulerProperties.isOffHeapSnapshots()).thenReturn(true);
+        when(schedulerProperties.getSnapshotDirectory()).thenReturn(directory.toString());
+        when(schedulerProperties.isDryRun()).thenReturn(true);
+        when(alertRepository.findActivePagesByProduct("product-9", AlertProjection.EVALUATION)).thenReturn(List.of(List.of(alert)));
+        ArgumentCaptor<AlertProductSnapshot> snapshotCaptor = ArgumentCaptor.forClass(AlertProductSnapshot.class);
+        when(alertDigestService.prepareEmailItem(eq(alert), snapshotCaptor.capture(), eq("price<=desired")))
+                .thenReturn(Optional.empty());
+
+        // Act
+        SchedulerRunSummary summary = schedulerService.run(date, null);
+
+        // Assert
+        assertEquals(3, summary.getScrapedCount());
+        assertEquals(1, summary.getDedupedCount());
+        assertEquals(1, summary.getTriggered());
+        assertEquals(0, snapshotCaptor.getValue().getPriceSale().compareTo(BigDecimal.valueOf(80)));
+        verify(warehouseRepo, never()).findByDate(any());
+        verify(warehouseRepo, never()).forEachByDate(any(), any());
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void run_whenWatchFilterOn_skipsProductsWithNoActiveAlert() {
+        // Arrange
+        LocalDate date = LocalDate.of(2025, 2, 4);
+        ScrapedProduct watched = ScrapedProduct.builder()
+                .productId("product-1")
+                .dwid("dwid-1")
+                .priceSale(BigDecimal.valueOf(90))
+                .priceOriginal(BigDecimal.valueOf(100))
+                .build();
+        ScrapedProduct unwatched = ScrapedProduct.builder()
+                .productId("product-2")
+                .dwid("dwid-2")
+                .priceSale(BigDecimal.valueOf(90))
+                .priceOriginal(BigDecimal.valueOf(100))
+                .build();
+        when(warehouseRepo.findByDate(date)).thenReturn(ScrapeBatch.of(List.of(watched, unwatched, unwatched)));
+        when(schedulerProperties.isWatchFilter()).thenReturn(true);
+        when(schedulerProperties.getWatchFilterExpectedProducts()).thenReturn(100);
+        when(schedulerProperties.getWatchFilterFalsePositiveRate()).thenReturn(0.01);
+        doAnswer(invocation -> {
+            Consumer<String> action = invocation.getArgument(0);
+            action.accept("product-1");
+            return null;
+        }).when(alertRepository).forEachActiveProductId(any());
+        when(alertRepository.findActivePagesByProduct("product-1", AlertProjection.EVALUATION)).thenReturn(List.of(List.of()));
+
+        // Act
+        SchedulerRunSummary summary = schedulerService.run(date, null);
+
+        // Assert
+        assertEquals(3, summary.getScrapedCount());
+        assertEquals(1, summary.getDedupedCount());
+        assertEquals(2, summary.getSkippedUnwatched());
+        assertTrue(summary.getWatchFilterFalsePositiveRate() > 0 && summary.getWatchFilterFalsePositiveRate() < 0.01);
+        verify(alertRepository, never()).findActivePagesByProduct(eq("product-2"), any());
+    }
 }
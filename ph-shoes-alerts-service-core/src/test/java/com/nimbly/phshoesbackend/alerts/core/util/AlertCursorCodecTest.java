@@ -0,0 +1,105 @@
+package com.nimbly.phshoesbackend.alerts.core.util;
+
+import com.nimbly.phshoesbackend.alerts.core.exception.InvalidAlertException;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AlertCursorCodecTest {
+
+    @Test
+    void encode_thenDecode_roundTripsKey() {
+        // Arrange
+        Map<String, AttributeValue> key = Map.of(
+                "productId", AttributeValue.fromS("product/1 with spaces"),
+                "userId", AttributeValue.fromS("user-1"));
+
+        // Act
+        String cursor = AlertCursorCodec.encode(key);
+        Map<String, AttributeValue> decoded = AlertCursorCodec.decode(cursor);
+
+        // Assert
+        assertFalse(cursor.contains("/"));
+        assertEquals(key, decoded);
+    }
+
+    @Test
+    void encode_whenKeyEmpty_returnsNull() {
+        // Act
+        String cursor = AlertCursorCodec.encode(Map.of());
+
+        // Assert
+        assertNull(cursor);
+    }
+
+    @Test
+    void decode_whenBlank_returnsNull() {
+        // Act
+        Map<String, AttributeValue> decoded = AlertCursorCodec.decode(" ");
+
+        // Assert
+        assertNull(decoded);
+    }
+
+    @Test
+    void decode_whenMalformed_throwsInvalidAlertException() {
+        // Act
+        InvalidAlertException exception = assertThrows(
+                InvalidAlertException.class,
+                () -> AlertCursorCodec.decode("not-a-cursor!")
+        );
+
+        // Assert
+        assertEquals("Invalid cursor", exception.getMessage());
+    }
+
+    @Test
+    void decode_whenKeyMatchesOwner_returnsKey() {
+        // Arrange
+        Map<String, AttributeValue> key = Map.of(
+                "productId", AttributeValue.fromS("product-1"),
+                "userId", AttributeValue.fromS("user-1"));
+
+        // Act
+        Map<String, AttributeValue> decoded = AlertCursorCodec.decode(
+                AlertCursorCodec.encode(key), Set.of("productId", "userId"), "userId", "user-1");
+
+        // Assert
+        assertEquals(key, decoded);
+    }
+
+    @Test
+    void decode_whenIssuedToAnotherOwner_throwsInvalidAlertException() {
+        // Arrange
+        String cursor = AlertCursorCodec.encode(Map.of(
+                "productId", AttributeValue.fromS("product-1"),
+                "userId", AttributeValue.fromS("user-2")));
+
+        // Act + Assert
+        assertThrows(InvalidAlertException.class,
+                () -> AlertCursorCodec.decode(cursor, Set.of("productId", "userId"), "userId", "user-1"));
+    }
+
+    @Test
+    void decode_whenAttributesAreNotTheKey_throwsInvalidAlertException() {
+        // Arrange
+        String extra = AlertCursorCodec.encode(Map.of(
+                "productId", AttributeValue.fromS("product-1"),
+                "userId", AttributeValue.fromS("user-1"),
+                "status", AttributeValue.fromS("ACTIVE")));
+        String missing = AlertCursorCodec.encode(Map.of("productId", AttributeValue.fromS("product-1")));
+
+        // Act + Assert
+        assertThrows(InvalidAlertException.class,
+                () -> AlertCursorCodec.decode(extra, Set.of("productId", "userId"), "userId", "user-1"));
+        assertThrows(InvalidAlertException.class,
+                () -> AlertCursorCodec.decode(missing, Set.of("productId", "userId"), "userId", "user-1"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.nimbly.phshoesbackend.alerts.core.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlertSearchTokensTest {
+
+    @Test
+    void tokens_lowercasesStripsAccentsAndDedupes() {
+        // Arrange
+        String text = "Pégasus 41 — PEGASUS Trail";
+
+        // Act
+        List<String> tokens = AlertSearchTokens.tokens(text);
+
+        // Assert
+        assertEquals(List.of("pegasus", "41", "trail"), tokens);
+    }
+
+    @Test
+    void terms_includesNameBrandTokensAndBrandKey() {
+        // Arrange
+        String name = "Fresh Foam";
+        String brand = "New Balance";
+
+        // Act
+        Set<String> terms = AlertSearchTokens.terms(name, brand);
+
+        // Assert
+        assertEquals(Set.of("t#fresh", "t#foam", "t#new", "t#balance", "b#new balance"), terms);
+    }
+
+    @Test
+    void seekPrefix_prefersLongestQueryTokenThenBrand() {
+        // Arrange
+        String query = "air zoom";
+
+        // Act
+        String fromQuery = AlertSearchTokens.seekPrefix(query, "nike");
+        String fromBrand = AlertSearchTokens.seekPrefix("  ", "Nike");
+        String none = AlertSearchTokens.seekPrefix(null, null);
+
+        // Assert
+        assertEquals("t#zoom", fromQuery);
+        assertEquals("b#nike", fromBrand);
+        assertNull(none);
+    }
+
+    @Test
+    void matches_requiresEveryQueryTokenAndBrandPrefix() {
+        // Arrange
+        String name = "Air Zoom Pegasus";
+        String brand = "Nike";
+
+        // Act
+        boolean prefixes = AlertSearchTokens.matches(name, brand, "peg zo", "ni");
+        boolean missingToken = AlertSearchTokens.matches(name, brand, "air max", null);
+        boolean wrongBrand = AlertSearchTokens.matches(name, brand, "air", "asics");
+
+        // Assert
+        assertTrue(prefixes);
+        assertFalse(missingToken);
+        assertFalse(wrongBrand);
+    }
+}
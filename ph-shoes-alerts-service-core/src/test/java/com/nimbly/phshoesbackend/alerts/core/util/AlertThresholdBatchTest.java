@@ -0,0 +1,133 @@
+package com.nimbly.phshoesbackend.alerts.core.util;
+
+import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProductSnapshot;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator.TriggerDecision;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator.TriggeredAlert;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class AlertThresholdBatchTest {
+
+    @Test
+    void triggered_matchesEvaluatorForRandomBatchesAndPrices() {
+        // Arrange
+        Random random = new Random(20250209L);
+
+        for (int round = 0; round < 500; round++) {
+            var alerts = new ArrayList<Alert>();
+            int size = random.nextInt(300);
+            for (int i = 0; i < size; i++) {
+                alerts.add(alert("user-" + i,
+                        random.nextInt(3) == 0 ? null : randomAmount(random, 5_000),
+                        random.nextInt(3) == 0 ? null : randomAmount(random, 100),
+                        random.nextBoolean() ? null : random.nextBoolean()));
+            }
+            AlertProductSnapshot snapshot = snapshot(
+                    random.nextInt(8) == 0 ? null : randomAmount(random, 5_000),
+                    random.nextInt(8) == 0 ? null : randomAmount(random, 5_000));
+
+            // Act
+            List<TriggeredAlert> triggered = AlertThresholdBatch.of(alerts)
+                    .triggered(snapshot, AlertTriggerEvaluator.fixedPrices(snapshot));
+
+            // Assert
+            var expected = new HashMap<String, TriggerDecision>();
+            for (Alert alert : alerts) {
+                TriggerDecision decision = AlertTriggerEvaluator.evaluate(alert, snapshot);
+                if (decision.triggered()) expected.put(alert.getUserId(), decision);
+            }
+            Map<String, TriggerDecision> actual = new HashMap<>();
+            triggered.forEach(t -> actual.put(t.alert().getUserId(), t.decision()));
+            assertEquals(expected.size(), triggered.size());
+            assertEquals(expected, actual, () -> "snapshot=" + snapshot);
+        }
+    }
+
+    @Test
+    void triggered_picksReasonByEvaluatorPrecedence() {
+        // Arrange
+        List<Alert> alerts = List.of(
+                alert("price-drop-sale", BigDecimal.valueOf(95), BigDecimal.TEN, true),
+                alert("drop-sale", BigDecimal.valueOf(50), new BigDecimal("10.0"), true),
+                alert("sale", BigDecimal.valueOf(50), BigDecimal.valueOf(20), true),
+                alert("none", BigDecimal.valueOf(50), BigDecimal.valueOf(20), false));
+        AlertProductSnapshot snapshot = snapshot(BigDecimal.valueOf(90), BigDecimal.valueOf(100));
+
+        // Act
+        List<TriggeredAlert> triggered = AlertThresholdBatch.of(alerts)
+                .triggered(snapshot, AlertTriggerEvaluator.fixedPrices(snapshot));
+
+        // Assert
+        assertEquals(3, triggered.size());
+        assertSame(AlertTriggerEvaluator.PRICE_MET, triggered.get(0).decision());
+        assertEquals("drop>=10.0%", triggered.get(1).decision().reason());
+        assertSame(AlertTriggerEvaluator.ON_SALE, triggered.get(2).decision());
+    }
+
+    @Test
+    void fired_setsOneBitPerFiringAlertAcrossWords() {
+        // Arrange
+        var alerts = new ArrayList<Alert>();
+        for (int i = 0; i < 130; i++) {
+            // Every third alert wants 95 or less; the rest want 50 or less.
+            alerts.add(alert("user-" + i, BigDecimal.valueOf(i % 3 == 0 ? 95 : 50), null, null));
+        }
+        AlertProductSnapshot snapshot = snapshot(BigDecimal.valueOf(90), BigDecimal.valueOf(100));
+
+        // Act
+        long[] bitmap = AlertThresholdBatch.of(alerts).fired(AlertTriggerEvaluator.fixedPrices(snapshot));
+
+        // Assert
+        long[] expected = new long[3];
+        for (int i = 0; i < 130; i += 3) expected[i >>> 6] |= 1L << (i & 63);
+        assertArrayEquals(expected, bitmap);
+    }
+
+    @Test
+    void fired_whenProductHasNoPrice_firesNothing() {
+        // Arrange
+        List<Alert> alerts = List.of(alert("user-1", BigDecimal.valueOf(95), BigDecimal.ONE, true));
+
+        // Act
+        long[] bitmap = AlertThresholdBatch.of(alerts).fired(AlertTriggerEvaluator.fixedPrices(snapshot(null, null)));
+
+        // Assert
+        assertArrayEquals(new long[]{0L}, bitmap);
+    }
+
+    /** Up to {@code max}, with zero to three decimals so the inexact path is exercised too. */
+    private static BigDecimal randomAmount(Random random, int max) {
+        int scale = random.nextInt(4);
+        long unscaled = random.nextLong((long) max * (long) Math.pow(10, scale) + 1);
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    private static Alert alert(String userId, BigDecimal desiredPrice, BigDecimal desiredPercent, Boolean alertIfSale) {
+        Alert alert = new Alert();
+        alert.setProductId("product-1");
+        alert.setUserId(userId);
+        alert.setDesiredPrice(desiredPrice);
+        alert.setDesiredPercent(desiredPercent);
+        alert.setAlertIfSale(alertIfSale);
+        return alert;
+    }
+
+    private static AlertProductSnapshot snapshot(BigDecimal priceSale, BigDecimal priceOriginal) {
+        return AlertProductSnapshot.builder()
+                .productId("product-1")
+                .priceSale(priceSale)
+                .priceOriginal(priceOriginal)
+                .build();
+    }
+}
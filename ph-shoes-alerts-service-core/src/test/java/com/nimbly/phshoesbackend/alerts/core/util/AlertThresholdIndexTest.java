@@ -0,0 +1,134 @@
+package com.nimbly.phshoesbackend.alerts.core.util;
+
+import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProductSnapshot;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator.TriggerDecision;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator.TriggeredAlert;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlertThresholdIndexTest {
+
+    @Test
+    void triggered_matchesEvaluatorForRandomWatchersAndPrices() {
+        // Arrange
+        Random random = new Random(20250208L);
+
+        for (int round = 0; round < 500; round++) {
+            AlertThresholdIndex index = new AlertThresholdIndex();
+            var alerts = new HashMap<String, Alert>();
+            for (int i = 0; i < 200; i++) {
+                Alert alert = randomAlert(random, "user-" + random.nextInt(150));
+                index.put(alert);
+                alerts.put(alert.getUserId(), alert);
+            }
+            AlertProductSnapshot snapshot = snapshot(
+                    random.nextInt(8) == 0 ? null : randomAmount(random, 5_000),
+                    random.nextInt(8) == 0 ? null : randomAmount(random, 5_000));
+
+            // Act
+            List<TriggeredAlert> triggered = index.triggered(snapshot, AlertTriggerEvaluator.fixedPrices(snapshot));
+
+            // Assert
+            var expected = new HashMap<String, TriggerDecision>();
+            alerts.forEach((userId, alert) -> {
+                TriggerDecision decision = AlertTriggerEvaluator.evaluate(alert, snapshot);
+                if (decision.triggered()) expected.put(userId, decision);
+            });
+            Map<String, TriggerDecision> actual = new HashMap<>();
+            for (TriggeredAlert t : triggered) {
+                assertNull(actual.put(t.alert().getUserId(), t.decision()), "fired twice: " + t);
+            }
+            assertEquals(expected, actual, () -> "snapshot=" + snapshot);
+        }
+    }
+
+    @Test
+    void put_whenUserReplacesAlert_dropsPreviousThresholds() {
+        // Arrange
+        AlertThresholdIndex index = new AlertThresholdIndex();
+        index.put(alert("user-1", BigDecimal.valueOf(95), null, null));
+        AlertProductSnapshot snapshot = snapshot(BigDecimal.valueOf(90), BigDecimal.valueOf(100));
+
+        // Act
+        index.put(alert("user-1", BigDecimal.valueOf(50), null, null));
+
+        // Assert
+        assertEquals(1, index.size());
+        assertTrue(index.triggered(snapshot, AlertTriggerEvaluator.fixedPrices(snapshot)).isEmpty());
+    }
+
+    @Test
+    void remove_dropsAlertFromEveryOrder() {
+        // Arrange
+        AlertThresholdIndex index = new AlertThresholdIndex();
+        index.put(alert("user-1", BigDecimal.valueOf(95), BigDecimal.valueOf(5), true));
+        AlertProductSnapshot snapshot = snapshot(BigDecimal.valueOf(90), BigDecimal.valueOf(100));
+
+        // Act
+        index.remove("user-1");
+
+        // Assert
+        assertTrue(index.isEmpty());
+        assertTrue(index.triggered(snapshot, AlertTriggerEvaluator.fixedPrices(snapshot)).isEmpty());
+    }
+
+    @Test
+    void triggered_whenSeveralTypesMet_reportsHighestPrecedenceOnce() {
+        // Arrange
+        AlertThresholdIndex index = new AlertThresholdIndex();
+        index.put(alert("user-1", BigDecimal.valueOf(95), BigDecimal.valueOf(5), true));
+        index.put(alert("user-2", null, BigDecimal.valueOf(5), true));
+        index.put(alert("user-3", null, null, true));
+        AlertProductSnapshot snapshot = snapshot(BigDecimal.valueOf(90), BigDecimal.valueOf(100));
+
+        // Act
+        List<TriggeredAlert> triggered = index.triggered(snapshot, AlertTriggerEvaluator.fixedPrices(snapshot));
+
+        // Assert
+        Map<String, String> reasons = new HashMap<>();
+        triggered.forEach(t -> reasons.put(t.alert().getUserId(), t.decision().reason()));
+        assertEquals(Map.of("user-1", "price<=desired", "user-2", "drop>=5%", "user-3", "on-sale"), reasons);
+    }
+
+    private static Alert randomAlert(Random random, String userId) {
+        return alert(userId,
+                random.nextInt(3) == 0 ? null : randomAmount(random, 5_000),
+                random.nextInt(3) == 0 ? null : randomAmount(random, 100),
+                random.nextBoolean() ? null : random.nextBoolean());
+    }
+
+    /** Up to {@code max}, with zero to three decimals so the inexact bucket is exercised too. */
+    private static BigDecimal randomAmount(Random random, int max) {
+        int scale = random.nextInt(4);
+        long unscaled = random.nextLong((long) max * (long) Math.pow(10, scale) + 1);
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    private static Alert alert(String userId, BigDecimal desiredPrice, BigDecimal desiredPercent, Boolean alertIfSale) {
+        Alert alert = new Alert();
+        alert.setProductId("product-1");
+        alert.setUserId(userId);
+        alert.setDesiredPrice(desiredPrice);
+        alert.setDesiredPercent(desiredPercent);
+        alert.setAlertIfSale(alertIfSale);
+        return alert;
+    }
+
+    private static AlertProductSnapshot snapshot(BigDecimal priceSale, BigDecimal priceOriginal) {
+        return AlertProductSnapshot.builder()
+                .productId("product-1")
+                .priceSale(priceSale)
+                .priceOriginal(priceOriginal)
+                .build();
+    }
+}
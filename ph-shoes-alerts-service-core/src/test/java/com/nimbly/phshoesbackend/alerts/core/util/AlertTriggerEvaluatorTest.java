@@ -3,16 +3,19 @@ package com.nimbly.phshoesbackend.alerts.core.util;
 import com.nimbly.phshoesbackend.alerts.core.model.Alert;
 import com.nimbly.phshoesbackend.alerts.core.model.AlertProductSnapshot;
 import com.nimbly.phshoesbackend.alerts.core.model.AlertStatus;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertThresholds;
 import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator.TriggerDecision;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class AlertTriggerEvaluatorTest {
@@ -80,6 +83,107 @@ class AlertTriggerEvaluatorTest {
         assertNull(decision.reason());
     }
 
+    @Test
+    void evaluateFixed_decidesLikeBigDecimalPathForRandomAlertsAndPrices() {
+        // Arrange
+        Random random = new Random(20250207L);
+
+        for (int i = 0; i < 200_000; i++) {
+            Alert alert = new Alert();
+            alert.setDesiredPrice(random.nextInt(4) == 0 ? null : randomAmount(random, 5_000));
+            alert.setDesiredPercent(random.nextInt(4) == 0 ? null : randomAmount(random, 100));
+            alert.setAlertIfSale(random.nextBoolean() ? null : random.nextBoolean());
+            AlertProductSnapshot snapshot = buildSnapshot(
+                    random.nextInt(6) == 0 ? null : randomAmount(random, 5_000),
+                    random.nextInt(6) == 0 ? null : randomAmount(random, 5_000));
+
+            // Act
+            TriggerDecision expected = AlertTriggerEvaluator.evaluate(alert, snapshot);
+            TriggerDecision actual = AlertTriggerEvaluator.evaluate(alert, snapshot, AlertTriggerEvaluator.fixedPrices(snapshot));
+
+            // Assert
+            assertEquals(expected, actual, () -> "alert=" + alert + " snapshot=" + snapshot);
+        }
+    }
+
+    @Test
+    void evaluateFixed_whenDropLandsOnRoundingTie_roundsHalfUpLikeBigDecimal() {
+        // Arrange
+        // 0.01 / 0.32 = 0.03125, which the four-decimal division rounds up to 3.13%.
+        Alert met = new Alert();
+        met.setDesiredPercent(new BigDecimal("3.13"));
+        Alert missed = new Alert();
+        missed.setDesiredPercent(new BigDecimal("3.14"));
+        AlertProductSnapshot snapshot = buildSnapshot(new BigDecimal("0.31"), new BigDecimal("0.32"));
+        AlertTriggerEvaluator.FixedPrices prices = AlertTriggerEvaluator.fixedPrices(snapshot);
+
+        // Act
+        TriggerDecision metDecision = AlertTriggerEvaluator.evaluate(met, snapshot, prices);
+        TriggerDecision missedDecision = AlertTriggerEvaluator.evaluate(missed, snapshot, prices);
+
+        // Assert
+        assertEquals(AlertTriggerEvaluator.evaluate(met, snapshot), metDecision);
+        assertTrue(metDecision.triggered());
+        assertFalse(missedDecision.triggered());
+    }
+
+    @Test
+    void evaluateFixed_whenPercentsEqual_sharesReasonButKeepsScale() {
+        // Arrange
+        Alert first = new Alert();
+        first.setDesiredPercent(new BigDecimal("20"));
+        Alert second = new Alert();
+        second.setDesiredPercent(new BigDecimal("20"));
+        Alert scaled = new Alert();
+        scaled.setDesiredPercent(new BigDecimal("20.0"));
+        AlertProductSnapshot snapshot = buildSnapshot(BigDecimal.valueOf(80), BigDecimal.valueOf(100));
+        AlertTriggerEvaluator.FixedPrices prices = AlertTriggerEvaluator.fixedPrices(snapshot);
+
+        // Act
+        TriggerDecision firstDecision = AlertTriggerEvaluator.evaluate(first, snapshot, prices);
+        TriggerDecision secondDecision = AlertTriggerEvaluator.evaluate(second, snapshot, prices);
+        TriggerDecision scaledDecision = AlertTriggerEvaluator.evaluate(scaled, snapshot, prices);
+
+        // Assert
+        assertEquals("drop>=20%", firstDecision.reason());
+        assertSame(firstDecision, secondDecision);
+        assertEquals("drop>=20.0%", scaledDecision.reason());
+    }
+
+    @Test
+    void evaluateFixed_whenPriceHasSubCentavos_fallsBackToBigDecimal() {
+        // Arrange
+        Alert alert = new Alert();
+        alert.setDesiredPrice(new BigDecimal("99.995"));
+        AlertProductSnapshot snapshot = buildSnapshot(new BigDecimal("99.991"), BigDecimal.valueOf(120));
+
+        // Act
+        AlertTriggerEvaluator.FixedPrices prices = AlertTriggerEvaluator.fixedPrices(snapshot);
+        TriggerDecision decision = AlertTriggerEvaluator.evaluate(alert, snapshot, prices);
+
+        // Assert
+        assertNull(prices);
+        assertFalse(AlertTriggerEvaluator.thresholds(alert).exact());
+        assertTrue(decision.triggered());
+    }
+
+    @Test
+    void thresholds_whenThresholdReplaced_recompiles() {
+        // Arrange
+        Alert alert = new Alert();
+        alert.setDesiredPrice(new BigDecimal("100.50"));
+        AlertThresholds first = AlertTriggerEvaluator.thresholds(alert);
+
+        // Act
+        alert.setDesiredPrice(new BigDecimal("80"));
+        AlertThresholds second = AlertTriggerEvaluator.thresholds(alert);
+
+        // Assert
+        assertEquals(10_050L, first.desiredPrice());
+        assertEquals(8_000L, second.desiredPrice());
+        assertSame(second, AlertTriggerEvaluator.thresholds(alert));
+    }
+
     @Test
     void applyTriggeredAlert_setsSnapshotFields() {
         // Arrange
@@ -113,6 +217,13 @@ class AlertTriggerEvaluatorTest {
         assertNotNull(alert.getProductCurrentPrice());
     }
 
+    /** Up to {@code max}, with zero to three decimals so the fallback path is exercised too. */
+    private static BigDecimal randomAmount(Random random, int max) {
+        int scale = random.nextInt(4);
+        long unscaled = random.nextLong((long) max * (long) Math.pow(10, scale) + 1);
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
     private AlertProductSnapshot buildSnapshot(BigDecimal priceSale, BigDecimal priceOriginal) {
         return AlertProductSnapshot.builder()
                 .productId("product-1")
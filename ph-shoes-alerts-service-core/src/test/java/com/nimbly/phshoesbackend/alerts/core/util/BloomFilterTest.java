@@ -0,0 +1,59 @@
+package com.nimbly.phshoesbackend.alerts.core.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_neverMissesAnAddedValue() {
+        // Arrange
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) filter.add("product-" + i);
+
+        // Act + Assert
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("product-" + i), "product-" + i);
+        }
+    }
+
+    @Test
+    void mightContain_passesOthersAtAboutTheSizedRate() {
+        // Arrange
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) filter.add("product-" + i);
+
+        // Act
+        int passed = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other-" + i)) passed++;
+        }
+
+        // Assert
+        double observed = passed / 100_000.0;
+        assertEquals(0.01, observed, 0.005);
+        assertEquals(observed, filter.falsePositiveRate(), 0.005);
+    }
+
+    @Test
+    void falsePositiveRate_whenEmpty_isZero() {
+        // Arrange
+        BloomFilter filter = BloomFilter.create(100, 0.01);
+
+        // Act
+        double rate = filter.falsePositiveRate();
+
+        // Assert
+        assertEquals(0.0, rate);
+    }
+
+    @Test
+    void create_whenRateOutOfRange_throws() {
+        // Act + Assert
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 1));
+    }
+}
@@ -0,0 +1,153 @@
+package com.nimbly.phshoesbackend.alerts.core.util;
+
+import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProductSnapshot;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertStatus;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator.TriggerDecision;
+import com.nimbly.phshoesbackend.alerts.core.util.AlertTriggerEvaluator.TriggeredAlert;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarAlertIndexTest {
+
+    @Test
+    void triggered_matchesEvaluatorAfterRandomPutsAndRemoves() {
+        // Arrange
+        Random random = new Random(20250210L);
+        StringDictionary users = new StringDictionary();
+
+        for (int round = 0; round < 200; round++) {
+            ColumnarAlertIndex index = new ColumnarAlertIndex("product-1", users);
+            var alerts = new HashMap<String, Alert>();
+            for (int i = 0; i < 400; i++) {
+                String userId = "user-" + random.nextInt(200);
+                if (random.nextInt(5) == 0) {
+                    index.remove(userId);
+                    alerts.remove(userId);
+                } else {
+                    Alert alert = randomAlert(random, userId);
+                    index.put(alert);
+                    alerts.put(userId, alert);
+                }
+            }
+            AlertProductSnapshot snapshot = snapshot(
+                    random.nextInt(8) == 0 ? null : randomAmount(random, 5_000),
+                    random.nextInt(8) == 0 ? null : randomAmount(random, 5_000));
+
+            // Act
+            List<TriggeredAlert> triggered = index.triggered(snapshot, AlertTriggerEvaluator.fixedPrices(snapshot));
+
+            // Assert
+            var expected = new HashMap<String, TriggerDecision>();
+            alerts.forEach((userId, alert) -> {
+                TriggerDecision decision = AlertTriggerEvaluator.evaluate(alert, snapshot);
+                if (decision.triggered()) expected.put(userId, decision);
+            });
+            Map<String, TriggerDecision> actual = new HashMap<>();
+            for (TriggeredAlert t : triggered) {
+                assertNull(actual.put(t.alert().getUserId(), t.decision()), "fired twice: " + t);
+            }
+            assertEquals(alerts.size(), index.size());
+            assertEquals(expected, actual, () -> "snapshot=" + snapshot);
+        }
+    }
+
+    @Test
+    void alerts_materializesTheValuesThatWerePut() {
+        // Arrange
+        ColumnarAlertIndex index = new ColumnarAlertIndex("product-1", new StringDictionary());
+        Alert alert = alert("user-1", new BigDecimal("1999.50"), new BigDecimal("20"), false);
+        alert.setChannels(List.of("EMAIL", "APP_WIDGET"));
+        alert.setStatus(AlertStatus.ACTIVE);
+        index.put(alert);
+
+        // Act
+        Alert materialized = index.alerts().iterator().next();
+
+        // Assert
+        assertEquals("product-1", materialized.getProductId());
+        assertEquals("user-1", materialized.getUserId());
+        assertEquals(new BigDecimal("1999.50"), materialized.getDesiredPrice());
+        assertEquals(new BigDecimal("20"), materialized.getDesiredPercent());
+        assertEquals(Boolean.FALSE, materialized.getAlertIfSale());
+        assertEquals(List.of("APP_WIDGET", "EMAIL"), materialized.getChannels());
+        assertEquals(AlertStatus.ACTIVE, materialized.getStatus());
+    }
+
+    @Test
+    void put_whenColumnsCannotHoldAlert_keepsItAsIs() {
+        // Arrange
+        ColumnarAlertIndex index = new ColumnarAlertIndex("product-1", new StringDictionary());
+        Alert subCentavo = alert("user-1", new BigDecimal("99.995"), null, null);
+        Alert unknownChannel = alert("user-2", BigDecimal.TEN, null, null);
+        unknownChannel.setChannels(List.of("SMS"));
+
+        // Act
+        index.put(subCentavo);
+        index.put(unknownChannel);
+
+        // Assert
+        assertEquals(2, index.size());
+        assertTrue(index.alerts().contains(subCentavo));
+        assertTrue(index.alerts().contains(unknownChannel));
+    }
+
+    @Test
+    void remove_whenRowMovedIntoGap_keepsOtherUsersFindable() {
+        // Arrange
+        ColumnarAlertIndex index = new ColumnarAlertIndex("product-1", new StringDictionary());
+        for (int i = 0; i < 20; i++) index.put(alert("user-" + i, BigDecimal.valueOf(95), null, null));
+
+        // Act
+        for (int i = 0; i < 20; i += 2) index.remove("user-" + i);
+        index.remove("user-19");
+
+        // Assert
+        assertEquals(9, index.size());
+        assertEquals(List.of("user-1", "user-11", "user-13", "user-15", "user-17", "user-3", "user-5", "user-7", "user-9"),
+                index.alerts().stream().map(Alert::getUserId).sorted().toList());
+    }
+
+    private static Alert randomAlert(Random random, String userId) {
+        Alert alert = alert(userId,
+                random.nextInt(3) == 0 ? null : randomAmount(random, 5_000),
+                random.nextInt(3) == 0 ? null : randomAmount(random, 100),
+                random.nextBoolean() ? null : random.nextBoolean());
+        alert.setChannels(random.nextBoolean() ? null : List.of("APP_WIDGET"));
+        return alert;
+    }
+
+    /** Up to {@code max}, with zero to three decimals so alerts kept as beans are exercised too. */
+    private static BigDecimal randomAmount(Random random, int max) {
+        int scale = random.nextInt(4);
+        long unscaled = random.nextLong((long) max * (long) Math.pow(10, scale) + 1);
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    private static Alert alert(String userId, BigDecimal desiredPrice, BigDecimal desiredPercent, Boolean alertIfSale) {
+        Alert alert = new Alert();
+        alert.setProductId("product-1");
+        alert.setUserId(userId);
+        alert.setDesiredPrice(desiredPrice);
+        alert.setDesiredPercent(desiredPercent);
+        alert.setAlertIfSale(alertIfSale);
+        return alert;
+    }
+
+    private static AlertProductSnapshot snapshot(BigDecimal priceSale, BigDecimal priceOriginal) {
+        return AlertProductSnapshot.builder()
+                .productId("product-1")
+                .priceSale(priceSale)
+                .priceOriginal(priceOriginal)
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.nimbly.phshoesbackend.alerts.core.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompiledTemplateTest {
+
+    @Test
+    void render_fillsPlaceholdersAndDropsUnknownOnes() {
+        // Arrange
+        CompiledTemplate template = CompiledTemplate.compile("Hi {{name}}, {{unused}}you have {{count}} alerts.");
+
+        // Act
+        String output = template.render(Map.of("name", "Ada", "count", "3"));
+
+        // Assert
+        assertEquals("Hi Ada, you have 3 alerts.", output);
+    }
+
+    @Test
+    void render_whenConditionValueBlankOrMissing_dropsBlockAcrossLines() {
+        // Arrange
+        CompiledTemplate template = CompiledTemplate.compile("a\n{% if original %}\nwas {{original}}\n{% endif %}\nb");
+        var blank = new HashMap<String, String>();
+        blank.put("original", " ");
+
+        // Act
+        String kept = template.render(Map.of("original", "PHP 199.00"));
+        String missing = template.render(Map.of());
+        String dropped = template.render(blank);
+
+        // Assert
+        assertEquals("a\n\nwas PHP 199.00\n\nb", kept);
+        assertEquals("a\n\nb", missing);
+        assertEquals("a\n\nb", dropped);
+    }
+
+    @Test
+    void render_writesValuesWithoutExpandingThem() {
+        // Arrange
+        CompiledTemplate template = CompiledTemplate.compile("{{items}}|{{name}}");
+
+        // Act
+        String output = template.render(Map.of("items", "{{name}} {% if x %}", "name", "Ada"));
+
+        // Assert
+        assertEquals("{{name}} {% if x %}|Ada", output);
+    }
+
+    @Test
+    void render_keepsBracesThatAreNotTags() {
+        // Arrange
+        CompiledTemplate template = CompiledTemplate.compile(".a { color:#fff; } {{}} {% endif %} {%if x%}");
+
+        // Act
+        String output = template.render(Map.of());
+
+        // Assert
+        assertEquals(".a { color:#fff; } {{}} {% endif %} {%if x%}", output);
+    }
+
+    @Test
+    void compile_whenBlockUnclosed_throws() {
+        // Act + Assert
+        assertThrows(IllegalArgumentException.class, () -> CompiledTemplate.compile("{% if original %}open"));
+    }
+}
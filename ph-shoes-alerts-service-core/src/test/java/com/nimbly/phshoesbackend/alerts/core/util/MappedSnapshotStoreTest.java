@@ -0,0 +1,102 @@
+package com.nimbly.phshoesbackend.alerts.core.util;
+
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProductSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MappedSnapshotStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void find_returnsTheLastSnapshotAddedPerProduct() {
+        // Arrange
+        Random random = new Random(20250212L);
+        Map<String, AlertProductSnapshot> expected = new HashMap<>();
+        MappedSnapshotStore store;
+        try (MappedSnapshotStore.Writer writer = MappedSnapshotStore.writer(directory, 1_000)) {
+            for (int i = 0; i < 1_500; i++) {
+                // Ids repeat so some products are written more than once.
+                AlertProductSnapshot snapshot = randomSnapshot(random, "product-" + random.nextInt(1_000));
+                writer.add(snapshot);
+                expected.put(snapshot.getProductId(), snapshot);
+            }
+            store = writer.finish();
+        }
+
+        // Act + Assert
+        try (store) {
+            assertEquals(expected.size(), store.size());
+            expected.forEach((productId, snapshot) -> assertEquals(snapshot, store.snapshot(productId)));
+            assertNull(store.find("product-missing"));
+            Set<String> iterated = new HashSet<>();
+            store.forEach(view -> iterated.add(view.getProductId()));
+            assertEquals(expected.keySet(), iterated);
+        }
+    }
+
+    @Test
+    void close_deletesTheFile() throws Exception {
+        // Arrange
+        MappedSnapshotStore store;
+        try (MappedSnapshotStore.Writer writer = MappedSnapshotStore.writer(directory, 1)) {
+            store = writer.add(AlertProductSnapshot.builder().productId("product-1").build()).finish();
+        }
+
+        // Act
+        store.close();
+
+        // Assert
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void add_whenMoreProductsThanExpected_growsTheTable() {
+        // Arrange
+        MappedSnapshotStore store;
+        try (MappedSnapshotStore.Writer writer = MappedSnapshotStore.writer(directory, 1)) {
+            for (int i = 0; i < 100; i++) {
+                writer.add(AlertProductSnapshot.builder().productId("product-" + i).productName("Shoe " + i).build());
+            }
+
+            // Act
+            store = writer.finish();
+        }
+
+        // Assert
+        try (store) {
+            assertEquals(100, store.size());
+            for (int i = 0; i < 100; i++) {
+                assertEquals("Shoe " + i, store.find("product-" + i).getProductName());
+            }
+        }
+    }
+
+    private static AlertProductSnapshot randomSnapshot(Random random, String productId) {
+        return AlertProductSnapshot.builder()
+                .productId(productId)
+                .productName(random.nextInt(10) == 0 ? null : "Sapatos ñ " + random.nextInt())
+                .productBrand(random.nextBoolean() ? "Nike" : null)
+                .productImage("https://static.nike.com/a/images/" + random.nextInt() + ".png")
+                .productImageUrl(random.nextInt(4) == 0 ? null : "https://cdn.example.com/" + random.nextInt())
+                .productUrl("https://www.nike.com/ph/t/" + productId)
+                .priceOriginal(random.nextInt(8) == 0 ? null : BigDecimal.valueOf(random.nextLong(1_000_000), random.nextInt(4)))
+                .priceSale(random.nextInt(8) == 0 ? null : new BigDecimal(random.nextLong()).movePointLeft(random.nextInt(30)))
+                .build();
+    }
+}
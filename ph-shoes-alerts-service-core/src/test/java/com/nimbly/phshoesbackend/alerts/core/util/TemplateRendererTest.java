@@ -1,9 +1,14 @@
 package com.nimbly.phshoesbackend.alerts.core.util;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -66,4 +71,50 @@ class TemplateRendererTest {
         // Assert
         assertTrue(exception.getMessage().contains("Failed to render template templates/missing-template.html"));
     }
+
+    @Test
+    void render_whenTemplateChangesOnDisk_keepsTheCompiledTemplate() throws Exception {
+        // Arrange
+        Path template = templateDirectory().resolve("cached-template.html");
+        Files.writeString(template, "Before {{name}}");
+        try {
+            String before = renderer.render("templates/cached-template.html", Map.of("name", "Ada"));
+            Files.writeString(template, "After {{name}}");
+            Files.setLastModifiedTime(template, FileTime.fromMillis(Files.getLastModifiedTime(template).toMillis() + 5_000));
+
+            // Act
+            String after = renderer.render("templates/cached-template.html", Map.of("name", "Ada"));
+
+            // Assert
+            assertEquals("Before Ada", before);
+            assertEquals("Before Ada", after);
+        } finally {
+            Files.deleteIfExists(template);
+        }
+    }
+
+    @Test
+    void render_afterEvict_readsTheTemplateAgain() throws Exception {
+        // Arrange
+        Path template = templateDirectory().resolve("reload-template.html");
+        Files.writeString(template, "Before {{name}}");
+        try {
+            String before = renderer.render("templates/reload-template.html", Map.of("name", "Ada"));
+            Files.writeString(template, "After {{name}}");
+
+            // Act
+            renderer.evict("templates/reload-template.html");
+            String after = renderer.render("templates/reload-template.html", Map.of("name", "Ada"));
+
+            // Assert
+            assertEquals("Before Ada", before);
+            assertEquals("After Ada", after);
+        } finally {
+            Files.deleteIfExists(template);
+        }
+    }
+
+    private static Path templateDirectory() throws Exception {
+        return Path.of(new ClassPathResource("templates/test-template.html").getURI()).getParent();
+    }
 }
@@ -1,6 +1,8 @@
 package com.nimbly.phshoesbackend.alerts.scheduler.web;
 
 import com.nimbly.phshoesbackend.alerts.api.AlertsSchedulerApi;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertArchiveSummary;
+import com.nimbly.phshoesbackend.alerts.core.model.dto.AlertsSchedulerArchiveResponse;
 import com.nimbly.phshoesbackend.alerts.core.model.dto.AlertsSchedulerRunResponse;
 import com.nimbly.phshoesbackend.alerts.core.model.SchedulerRunSummary;
 import com.nimbly.phshoesbackend.alerts.core.service.AlertsSchedulerService;
@@ -10,6 +12,7 @@ import org.springframework.lang.Nullable;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDate;
+import java.time.ZoneOffset;
 
 @RestController
 @RequiredArgsConstructor
@@ -29,7 +32,19 @@ public class SchedulerController implements AlertsSchedulerApi {
                 .alertsChecked(summary.getAlertsChecked())
                 .triggered(summary.getTriggered())
                 .suppressed(summary.getSuppressed())
-                .errors(summary.getErrors());
+                .errors(summary.getErrors())
+                .skippedUnwatched(summary.getSkippedUnwatched())
+                .watchFilterFalsePositiveRate(summary.getWatchFilterFalsePositiveRate());
+        return ResponseEntity.ok(response);
+    }
+
+    @Override
+    public ResponseEntity<AlertsSchedulerArchiveResponse> archiveTriggeredAlerts() {
+        AlertArchiveSummary summary = schedulerService.archiveTriggered();
+        AlertsSchedulerArchiveResponse response = new AlertsSchedulerArchiveResponse()
+                .cutoff(summary.cutoff().atOffset(ZoneOffset.UTC))
+                .archived(summary.archived())
+                .skipped(summary.skipped());
         return ResponseEntity.ok(response);
     }
 }
@@ -1,6 +1,8 @@
 package com.nimbly.phshoesbackend.alerts.scheduler.web;
 
+import com.nimbly.phshoesbackend.alerts.core.model.AlertArchiveSummary;
 import com.nimbly.phshoesbackend.alerts.core.model.SchedulerRunSummary;
+import com.nimbly.phshoesbackend.alerts.core.model.dto.AlertsSchedulerArchiveResponse;
 import com.nimbly.phshoesbackend.alerts.core.service.AlertsSchedulerService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,6 +12,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.ResponseEntity;
 
+import java.time.Instant;
 import java.time.LocalDate;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -32,7 +35,7 @@ class SchedulerControllerTest {
     void runAlertsScheduler_whenDateProvided_passesDateAndMapsResponse() {
         // Arrange
         LocalDate date = LocalDate.of(2025, 4, 10);
-        SchedulerRunSummary summary = new SchedulerRunSummary(date, 10, 8, 5, 2, 1, 1, 0);
+        SchedulerRunSummary summary = new SchedulerRunSummary(date, 10, 8, 5, 2, 1, 1, 0, 2, 0.01);
         when(schedulerService.run(date, "test@example.com")).thenReturn(summary);
 
         // Act
@@ -49,6 +52,8 @@ class SchedulerControllerTest {
         assertEquals(2, response.getBody().getTriggered());
         assertEquals(1, response.getBody().getSuppressed());
         assertEquals(0, response.getBody().getErrors());
+        assertEquals(2, response.getBody().getSkippedUnwatched());
+        assertEquals(0.01, response.getBody().getWatchFilterFalsePositiveRate());
         verify(schedulerService).run(date, "test@example.com");
     }
 
@@ -58,7 +63,7 @@ class SchedulerControllerTest {
         LocalDate before = LocalDate.now();
         ArgumentCaptor<LocalDate> dateCaptor = ArgumentCaptor.forClass(LocalDate.class);
         when(schedulerService.run(dateCaptor.capture(), eq("test@example.com")))
-                .thenReturn(new SchedulerRunSummary(before, 0, 0, 0, 0, 0, 0, 0));
+                .thenReturn(new SchedulerRunSummary(before, 0, 0, 0, 0, 0, 0, 0, 0, 0.0));
 
         // Act
         schedulerController.runAlertsScheduler(null, "test@example.com");
@@ -74,7 +79,7 @@ class SchedulerControllerTest {
         // Arrange
         LocalDate date = LocalDate.of(2025, 5, 5);
         when(schedulerService.run(date, "trimmed@example.com"))
-                .thenReturn(new SchedulerRunSummary(date, 0, 0, 0, 0, 0, 0, 0));
+                .thenReturn(new SchedulerRunSummary(date, 0, 0, 0, 0, 0, 0, 0, 0, 0.0));
 
         // Act
         schedulerController.runAlertsScheduler(date, "  trimmed@example.com  ");
@@ -83,4 +88,20 @@ class SchedulerControllerTest {
         verify(schedulerService).run(date, "trimmed@example.com");
     }
 
+    @Test
+    void archiveTriggeredAlerts_mapsSummary() {
+        // Arrange
+        Instant cutoff = Instant.parse("2025-03-01T00:00:00Z");
+        when(schedulerService.archiveTriggered()).thenReturn(new AlertArchiveSummary(cutoff, 4, 1));
+
+        // Act
+        ResponseEntity<AlertsSchedulerArchiveResponse> response = schedulerController.archiveTriggeredAlerts();
+
+        // Assert
+        assertNotNull(response.getBody());
+        assertEquals(cutoff, response.getBody().getCutoff().toInstant());
+        assertEquals(4, response.getBody().getArchived());
+        assertEquals(1, response.getBody().getSkipped());
+    }
+
 }
@@ -1,5 +1,6 @@
 package com.nimbly.phshoesbackend.alerts.web;
 
+import com.nimbly.phshoesbackend.alerts.core.exception.AlertConflictException;
 import com.nimbly.phshoesbackend.alerts.core.exception.AlertNotFoundException;
 import com.nimbly.phshoesbackend.alerts.core.exception.DuplicateAlertException;
 import com.nimbly.phshoesbackend.alerts.core.exception.InvalidAlertException;
@@ -54,6 +55,12 @@ public class GlobalExceptionHandler {
         return Map.of("code", "ALREADY_EXISTS", "message", ex.getMessage());
     }
 
+    @ExceptionHandler(AlertConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, Object> handleConflict(AlertConflictException ex) {
+        return Map.of("code", "CONFLICT", "message", ex.getMessage());
+    }
+
     @ExceptionHandler(InvalidAlertException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public Map<String, Object> handleInvalid(InvalidAlertException ex) {
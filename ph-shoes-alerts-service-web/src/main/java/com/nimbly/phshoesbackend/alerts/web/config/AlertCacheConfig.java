@@ -0,0 +1,26 @@
+package com.nimbly.phshoesbackend.alerts.web.config;
+
+import com.nimbly.phshoesbackend.alerts.core.service.AlertService;
+import com.nimbly.phshoesbackend.alerts.core.service.impl.AlertServiceImpl;
+import com.nimbly.phshoesbackend.alerts.web.config.props.AlertCacheProps;
+import com.nimbly.phshoesbackend.alerts.web.service.CachingAlertService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+@Configuration
+@ConditionalOnProperty(prefix = "alerts.cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AlertCacheConfig {
+
+    @Bean
+    @Primary
+    public AlertService cachingAlertService(AlertServiceImpl alertServiceImpl,
+                                            AlertCacheProps props,
+                                            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new CachingAlertService(alertServiceImpl, props, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+}
@@ -0,0 +1,23 @@
+package com.nimbly.phshoesbackend.alerts.web.config.props;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "alerts.cache")
+public class AlertCacheProps {
+    private boolean enabled = true;
+    /** Users whose read results are held at once. */
+    private long maxUsers = 10_000L;
+    /** Distinct read results (pages, searches, lookups) kept per user. */
+    private int maxResultsPerUser = 64;
+    /**
+     * Upper bound on staleness for writes made through another web instance; writes through
+     * this instance invalidate immediately.
+     */
+    private Duration ttl = Duration.ofSeconds(30);
+}
@@ -3,8 +3,16 @@ package com.nimbly.phshoesbackend.alerts.web.controller;
 import com.nimbly.phshoesbackend.alerts.api.AlertsApi;
 import com.nimbly.phshoesbackend.alerts.core.exception.AlertNotFoundException;
 import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertBatchItemResult;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertPage;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProjection;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertSearchResult;
 import com.nimbly.phshoesbackend.alerts.core.model.AlertStatus;
 import com.nimbly.phshoesbackend.alerts.core.service.AlertService;
+import com.nimbly.phshoesbackend.alerts.core.model.dto.AlertBatchCreateRequest;
+import com.nimbly.phshoesbackend.alerts.core.model.dto.AlertBatchKeysRequest;
+import com.nimbly.phshoesbackend.alerts.core.model.dto.AlertBatchResponse;
+import com.nimbly.phshoesbackend.alerts.core.model.dto.AlertBatchResult;
 import com.nimbly.phshoesbackend.alerts.core.model.dto.AlertCreateRequest;
 import com.nimbly.phshoesbackend.alerts.core.model.dto.AlertResponse;
 import com.nimbly.phshoesbackend.alerts.core.model.dto.AlertUpdateRequest;
@@ -27,6 +35,8 @@ import java.util.stream.Collectors;
 @RestController
 public class AlertController implements AlertsApi {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final AlertService alertService;
 
     public AlertController(AlertService alertService) {
@@ -39,6 +49,25 @@ public class AlertController implements AlertsApi {
         return ResponseEntity.status(HttpStatus.CREATED).body(toResponse(created));
     }
 
+    @Override
+    public ResponseEntity<AlertBatchResponse> batchCreateAlerts(AlertBatchCreateRequest alertBatchCreateRequest) {
+        List<AlertBatchItemResult> results = alertService.createAlerts(currentUserId(), alertBatchCreateRequest.getItems());
+        return ResponseEntity.ok(toBatchResponse(results));
+    }
+
+    @Override
+    public ResponseEntity<AlertBatchResponse> batchDeleteAlerts(AlertBatchKeysRequest alertBatchKeysRequest) {
+        List<AlertBatchItemResult> results = alertService.deleteAlerts(currentUserId(), alertBatchKeysRequest.getProductIds());
+        return ResponseEntity.ok(toBatchResponse(results));
+    }
+
+    @Override
+    public ResponseEntity<AlertBatchResponse> batchGetAlerts(AlertBatchKeysRequest alertBatchKeysRequest, String fields) {
+        List<AlertBatchItemResult> results = alertService.getAlerts(
+                currentUserId(), alertBatchKeysRequest.getProductIds(), AlertProjection.fromParam(fields));
+        return ResponseEntity.ok(toBatchResponse(results));
+    }
+
     @Override
     public ResponseEntity<Void> deleteAlert(String productId) {
         alertService.deleteAlert(productId, currentUserId());
@@ -53,12 +82,31 @@ public class AlertController implements AlertsApi {
     }
 
     @Override
-    public ResponseEntity<List<AlertResponse>> listAlerts() {
-        List<AlertResponse> responses = alertService.listAlerts(currentUserId(), 0)
+    public ResponseEntity<List<AlertResponse>> listAlerts(Integer limit, String cursor, String fields) {
+        AlertPage page = alertService.listAlerts(currentUserId(), limit, cursor, AlertProjection.fromParam(fields));
+        List<AlertResponse> responses = page.items()
                 .stream()
                 .map(this::toResponse)
                 .toList();
-        return ResponseEntity.ok(responses);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(responses);
+    }
+
+    @Override
+    public ResponseEntity<List<AlertResponse>> listArchivedAlerts(Integer limit, String cursor) {
+        AlertPage page = alertService.listArchivedAlerts(currentUserId(), limit, cursor);
+        List<AlertResponse> responses = page.items()
+                .stream()
+                .map(this::toResponse)
+                .toList();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(responses);
     }
 
     @Override
@@ -72,14 +120,15 @@ public class AlertController implements AlertsApi {
             @RequestParam(required = false) String q,
             @RequestParam(required = false) String brand,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "8") int size
+            @RequestParam(defaultValue = "8") int size,
+            @RequestParam(required = false) String fields
     ) {
-        String userId = currentUserId();
-        List<AlertResponse> content = alertService.searchAlerts(userId, q, brand, page, size)
+        AlertSearchResult result = alertService.searchAlerts(currentUserId(), q, brand, page, size, AlertProjection.fromParam(fields));
+        List<AlertResponse> content = result.content()
                 .stream()
                 .map(this::toResponse)
                 .collect(Collectors.toList());
-        int totalElements = alertService.searchAllAlerts(userId, q, brand).size();
+        long totalElements = result.totalElements();
         int totalPages = (int) Math.ceil((double) totalElements / (size > 0 ? size : 8));
         return Map.of(
                 "content", content,
@@ -90,6 +139,21 @@ public class AlertController implements AlertsApi {
         );
     }
 
+    private AlertBatchResponse toBatchResponse(List<AlertBatchItemResult> results) {
+        AlertBatchResponse response = new AlertBatchResponse();
+        for (AlertBatchItemResult result : results) {
+            AlertBatchResult item = new AlertBatchResult()
+                    .productId(result.productId())
+                    .outcome(AlertBatchResult.OutcomeEnum.fromValue(result.outcome().name()))
+                    .message(result.message());
+            if (result.alert() != null) {
+                item.setAlert(toResponse(result.alert()));
+            }
+            response.addResultsItem(item);
+        }
+        return response;
+    }
+
     private AlertResponse toResponse(Alert alert) {
         AlertResponse resp = new AlertResponse();
         resp.setProductId(alert.getProductId());
@@ -130,6 +194,7 @@ public class AlertController implements AlertsApi {
         if (alert.getUpdatedAt() != null) {
             resp.setUpdatedAt(alert.getUpdatedAt().atOffset(ZoneOffset.UTC));
         }
+        resp.setVersion(alert.getVersion());
         return resp;
     }
 
@@ -0,0 +1,206 @@
+package com.nimbly.phshoesbackend.alerts.web.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertBatchItemResult;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertPage;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProjection;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertSearchResult;
+import com.nimbly.phshoesbackend.alerts.core.model.dto.AlertCreateRequest;
+import com.nimbly.phshoesbackend.alerts.core.model.dto.AlertUpdateRequest;
+import com.nimbly.phshoesbackend.alerts.core.service.AlertService;
+import com.nimbly.phshoesbackend.alerts.web.config.props.AlertCacheProps;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache in front of {@link AlertService}, holding each user's recent read results
+ * under one entry so a write can drop all of them at once.
+ *
+ * <p>Writes through this instance invalidate the user's entry once the delegate returns or throws,
+ * since a failed bulk write or update may still have changed some items. A read that was in flight
+ * during the write stores into the detached entry, so it cannot re-publish the old state. Writes
+ * through other instances become visible once the TTL expires.
+ *
+ * <p>Results are cached as private copies and every hit returns a fresh copy, so callers never
+ * share or mutate the cached {@link Alert}s.
+ */
+public class CachingAlertService implements AlertService {
+
+    static final String CACHE_NAME = "alerts.user";
+
+    private final AlertService delegate;
+    private final Cache<String, UserEntry> cache;
+    private final int maxResultsPerUser;
+    private final Counter hits;
+    private final Counter misses;
+
+    public CachingAlertService(AlertService delegate, AlertCacheProps props, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.maxResultsPerUser = props.getMaxResultsPerUser();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(props.getMaxUsers())
+                .expireAfterWrite(props.getTtl())
+                .recordStats()
+                .build();
+        // User-entry level stats (size, evictions) come from Caffeine; hits and misses are per read result.
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+        this.hits = Counter.builder("alerts.cache.results").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("alerts.cache.results").tag("result", "miss").register(registry);
+    }
+
+    @Override
+    public Alert createAlert(String userId, AlertCreateRequest request) {
+        try {
+            return delegate.createAlert(userId, request);
+        } finally {
+            invalidate(userId);
+        }
+    }
+
+    @Override
+    public List<AlertBatchItemResult> createAlerts(String userId, List<AlertCreateRequest> requests) {
+        try {
+            return delegate.createAlerts(userId, requests);
+        } finally {
+            invalidate(userId);
+        }
+    }
+
+    @Override
+    public Alert updateAlert(String productId, String userId, AlertUpdateRequest request) {
+        try {
+            return delegate.updateAlert(productId, userId, request);
+        } finally {
+            invalidate(userId);
+        }
+    }
+
+    @Override
+    public void deleteAlert(String productId, String userId) {
+        try {
+            delegate.deleteAlert(productId, userId);
+        } finally {
+            invalidate(userId);
+        }
+    }
+
+    @Override
+    public List<AlertBatchItemResult> deleteAlerts(String userId, List<String> productIds) {
+        try {
+            return delegate.deleteAlerts(userId, productIds);
+        } finally {
+            invalidate(userId);
+        }
+    }
+
+    @Override
+    public Optional<Alert> getAlert(String productId, String userId) {
+        return read(userId, "get:" + productId, () -> delegate.getAlert(productId, userId));
+    }
+
+    @Override
+    public List<AlertBatchItemResult> getAlerts(String userId, List<String> productIds, AlertProjection projection) {
+        String key = "batch:" + projection + ":" + String.join("\u0000", productIds);
+        return read(userId, key, () -> delegate.getAlerts(userId, productIds, projection));
+    }
+
+    @Override
+    public List<Alert> listAlerts(String userId, int limit) {
+        return read(userId, "list:" + limit, () -> delegate.listAlerts(userId, limit));
+    }
+
+    @Override
+    public AlertPage listAlerts(String userId, Integer limit, String cursor, AlertProjection projection) {
+        String key = "page:" + projection + ":" + limit + ":" + cursor;
+        return read(userId, key, () -> delegate.listAlerts(userId, limit, cursor, projection));
+    }
+
+    @Override
+    public AlertPage listArchivedAlerts(String userId, Integer limit, String cursor) {
+        // The scheduler fills the archive out of band, so there is no local write to invalidate on.
+        return delegate.listArchivedAlerts(userId, limit, cursor);
+    }
+
+    @Override
+    public AlertSearchResult searchAlerts(String userId, String query, String brand, int page, int size, AlertProjection projection) {
+        String key = "search:" + projection + ":" + query + "\u0000" + brand + "\u0000" + page + ":" + size;
+        return read(userId, key, () -> delegate.searchAlerts(userId, query, brand, page, size, projection));
+    }
+
+    void invalidate(String userId) {
+        cache.invalidate(userId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T read(String userId, String key, Supplier<T> loader) {
+        UserEntry entry = cache.get(userId, id -> new UserEntry());
+        Object cached = entry.results.get(key);
+        if (cached != null) {
+            hits.increment();
+            return (T) copy(cached);
+        }
+        misses.increment();
+        T loaded = loader.get();
+        if (loaded != null && entry.results.size() < maxResultsPerUser) {
+            entry.results.putIfAbsent(key, copy(loaded));
+        }
+        return loaded;
+    }
+
+    /** Deep copy of a read result; the cached value and the caller's value never share an {@link Alert}. */
+    private static Object copy(Object result) {
+        return switch (result) {
+            case Alert alert -> copy(alert);
+            case Optional<?> optional -> optional.map(CachingAlertService::copy);
+            case List<?> list -> list.stream().map(CachingAlertService::copy).toList();
+            case AlertPage page -> new AlertPage(copyAll(page.items()), page.nextCursor());
+            case AlertSearchResult search -> new AlertSearchResult(copyAll(search.content()), search.totalElements());
+            case AlertBatchItemResult item -> new AlertBatchItemResult(item.productId(), item.outcome(),
+                    item.alert() == null ? null : copy(item.alert()), item.message());
+            default -> throw new IllegalArgumentException("Uncacheable result " + result.getClass().getName());
+        };
+    }
+
+    private static List<Alert> copyAll(List<Alert> alerts) {
+        return alerts == null ? null : alerts.stream().map(CachingAlertService::copy).toList();
+    }
+
+    private static Alert copy(Alert alert) {
+        Alert copy = new Alert();
+        copy.setProductId(alert.getProductId());
+        copy.setUserId(alert.getUserId());
+        copy.setDesiredPrice(alert.getDesiredPrice());
+        copy.setDesiredPercent(alert.getDesiredPercent());
+        copy.setAlertIfSale(alert.getAlertIfSale());
+        copy.setChannels(alert.getChannels() == null ? null : new ArrayList<>(alert.getChannels()));
+        copy.setProductName(alert.getProductName());
+        copy.setProductBrand(alert.getProductBrand());
+        copy.setProductImage(alert.getProductImage());
+        copy.setProductImageUrl(alert.getProductImageUrl());
+        copy.setProductUrl(alert.getProductUrl());
+        copy.setProductOriginalPrice(alert.getProductOriginalPrice());
+        copy.setProductCurrentPrice(alert.getProductCurrentPrice());
+        copy.setStatus(alert.getStatus());
+        copy.setLastTriggeredAt(alert.getLastTriggeredAt());
+        copy.setCreatedAt(alert.getCreatedAt());
+        copy.setUpdatedAt(alert.getUpdatedAt());
+        copy.setVersion(alert.getVersion());
+        copy.setProductShard(alert.getProductShard());
+        copy.setThresholds(alert.getThresholds());
+        return copy;
+    }
+
+    private static final class UserEntry {
+        private final Map<String, Object> results = new ConcurrentHashMap<>();
+    }
+}
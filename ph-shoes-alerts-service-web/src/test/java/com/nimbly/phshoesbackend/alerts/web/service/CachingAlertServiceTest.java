@@ -0,0 +1,180 @@
+package com.nimbly.phshoesbackend.alerts.web.service;
+
+import com.nimbly.phshoesbackend.alerts.core.model.Alert;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertPage;
+import com.nimbly.phshoesbackend.alerts.core.model.AlertProjection;
+import com.nimbly.phshoesbackend.alerts.core.model.dto.AlertCreateRequest;
+import com.nimbly.phshoesbackend.alerts.core.model.dto.AlertUpdateRequest;
+import com.nimbly.phshoesbackend.alerts.core.service.AlertService;
+import com.nimbly.phshoesbackend.alerts.web.config.props.AlertCacheProps;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachingAlertServiceTest {
+
+    @Mock
+    private AlertService delegate;
+
+    private SimpleMeterRegistry registry;
+    private CachingAlertService service;
+
+    @BeforeEach
+    void setUp() {
+        AlertCacheProps props = new AlertCacheProps();
+        props.setMaxResultsPerUser(2);
+        registry = new SimpleMeterRegistry();
+        service = new CachingAlertService(delegate, props, registry);
+    }
+
+    @Test
+    void getAlert_whenReadTwice_loadsOnceAndCountsHitAndMiss() {
+        // Arrange
+        when(delegate.getAlert("product-1", "user-1")).thenReturn(Optional.of(alert("product-1", "user-1")));
+
+        // Act
+        Optional<Alert> first = service.getAlert("product-1", "user-1");
+        Optional<Alert> second = service.getAlert("product-1", "user-1");
+
+        // Assert
+        assertEquals(first, second);
+        verify(delegate, times(1)).getAlert("product-1", "user-1");
+        assertEquals(1.0, registry.counter("alerts.cache.results", "result", "hit").count());
+        assertEquals(1.0, registry.counter("alerts.cache.results", "result", "miss").count());
+    }
+
+    @Test
+    void listAlerts_whenCallerMutatesResult_cacheKeepsItsOwnCopy() {
+        // Arrange
+        Alert stored = alert("product-1", "user-1");
+        when(delegate.listAlerts("user-1", 10, null, AlertProjection.FULL))
+                .thenReturn(new AlertPage(new ArrayList<>(List.of(stored)), null));
+
+        // Act
+        AlertPage first = service.listAlerts("user-1", 10, null, AlertProjection.FULL);
+        first.items().get(0).setDesiredPrice(BigDecimal.ONE);
+        stored.getChannels().add("SMS");
+        AlertPage second = service.listAlerts("user-1", 10, null, AlertProjection.FULL);
+        AlertPage third = service.listAlerts("user-1", 10, null, AlertProjection.FULL);
+
+        // Assert
+        assertEquals(new BigDecimal("99.50"), second.items().get(0).getDesiredPrice());
+        assertEquals(List.of("EMAIL"), second.items().get(0).getChannels());
+        assertNotSame(second.items().get(0), third.items().get(0));
+        verify(delegate, times(1)).listAlerts("user-1", 10, null, AlertProjection.FULL);
+    }
+
+    @Test
+    void createAlert_invalidatesTheUsersReads() {
+        // Arrange
+        when(delegate.getAlert("product-1", "user-1")).thenReturn(Optional.empty());
+        when(delegate.createAlert(anyString(), any(AlertCreateRequest.class))).thenReturn(alert("product-1", "user-1"));
+        service.getAlert("product-1", "user-1");
+
+        // Act
+        service.createAlert("user-1", new AlertCreateRequest());
+        service.getAlert("product-1", "user-1");
+
+        // Assert
+        verify(delegate, times(2)).getAlert("product-1", "user-1");
+    }
+
+    @Test
+    void createAlerts_whenDelegateFailsPartway_stillInvalidates() {
+        // Arrange
+        when(delegate.getAlert("product-1", "user-1")).thenReturn(Optional.empty());
+        when(delegate.createAlerts(anyString(), anyList())).thenThrow(new IllegalStateException("chunk 2 failed"));
+        service.getAlert("product-1", "user-1");
+
+        // Act
+        assertThrows(IllegalStateException.class,
+                () -> service.createAlerts("user-1", List.of(new AlertCreateRequest())));
+        service.getAlert("product-1", "user-1");
+
+        // Assert
+        verify(delegate, times(2)).getAlert("product-1", "user-1");
+    }
+
+    @Test
+    void updateAlert_whenDelegateFails_stillInvalidates() {
+        // Arrange
+        when(delegate.getAlert("product-1", "user-1")).thenReturn(Optional.of(alert("product-1", "user-1")));
+        when(delegate.updateAlert(anyString(), anyString(), any(AlertUpdateRequest.class)))
+                .thenThrow(new IllegalStateException("timed out after write"));
+        service.getAlert("product-1", "user-1");
+
+        // Act
+        assertThrows(IllegalStateException.class,
+                () -> service.updateAlert("product-1", "user-1", new AlertUpdateRequest()));
+        service.getAlert("product-1", "user-1");
+
+        // Assert
+        verify(delegate, times(2)).getAlert("product-1", "user-1");
+    }
+
+    @Test
+    void getAlert_whenWriteLandsWhileReadInFlight_doesNotRepublishTheOldResult() {
+        // Arrange
+        when(delegate.getAlert("product-1", "user-1")).thenAnswer(invocation -> {
+            // The read has taken its snapshot; a write for the same user completes before it returns.
+            service.deleteAlert("product-1", "user-1");
+            return Optional.of(alert("product-1", "user-1"));
+        }).thenReturn(Optional.empty());
+
+        // Act
+        Optional<Alert> inFlight = service.getAlert("product-1", "user-1");
+        Optional<Alert> after = service.getAlert("product-1", "user-1");
+
+        // Assert
+        assertEquals("product-1", inFlight.orElseThrow().getProductId());
+        assertEquals(Optional.empty(), after);
+        verify(delegate).deleteAlert("product-1", "user-1");
+    }
+
+    @Test
+    void read_whenUserIsAtTheResultBound_servesWithoutCaching() {
+        // Arrange
+        when(delegate.getAlert(anyString(), anyString())).thenReturn(Optional.empty());
+        service.getAlert("product-1", "user-1");
+        service.getAlert("product-2", "user-1");
+
+        // Act
+        service.getAlert("product-3", "user-1");
+        service.getAlert("product-3", "user-1");
+        service.getAlert("product-1", "user-1");
+        service.getAlert("product-1", "user-2");
+
+        // Assert
+        verify(delegate, times(1)).getAlert("product-1", "user-1");
+        verify(delegate, times(2)).getAlert("product-3", "user-1");
+        verify(delegate, times(1)).getAlert("product-1", "user-2");
+    }
+
+    private static Alert alert(String productId, String userId) {
+        Alert alert = new Alert();
+        alert.setProductId(productId);
+        alert.setUserId(userId);
+        alert.setDesiredPrice(new BigDecimal("99.50"));
+        alert.setChannels(new ArrayList<>(List.of("EMAIL")));
+        return alert;
+    }
+}